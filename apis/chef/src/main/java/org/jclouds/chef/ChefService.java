@@ -16,8 +16,11 @@
  */
 package org.jclouds.chef;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
 import org.jclouds.chef.config.ChefProperties;
@@ -146,6 +149,18 @@ public interface ChefService {
     */
    void deleteAllClientsInList(Iterable<String> names);
 
+   /**
+    * Uploads the contents of the given cookbook files to the Chef Server.
+    * <p>
+    * Only the files whose checksums are not already known by the server are
+    * uploaded.
+    *
+    * @param files The cookbook files to upload.
+    * @return The md5 checksum of each file, to be used when building the
+    *         resources of the cookbook version.
+    */
+   Map<File, List<Byte>> uploadCookbookFiles(Iterable<File> files);
+
    /**
     * Lists the details of all existing nodes.
     *
@@ -19,9 +19,12 @@ package org.jclouds.chef.internal;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.chef.config.ChefProperties.CHEF_BOOTSTRAP_DATABAG;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.PrivateKey;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
 import jakarta.annotation.Resource;
@@ -51,6 +54,7 @@ import org.jclouds.chef.strategy.ListEnvironments;
 import org.jclouds.chef.strategy.ListNodes;
 import org.jclouds.chef.strategy.ListNodesInEnvironment;
 import org.jclouds.chef.strategy.UpdateAutomaticAttributesOnNode;
+import org.jclouds.chef.strategy.UploadCookbookFiles;
 import org.jclouds.crypto.Crypto;
 import org.jclouds.io.ByteStreams2;
 import org.jclouds.io.Payload;
@@ -76,6 +80,7 @@ public class BaseChefService implements ChefService {
    private final DeleteAllClientsInList deleteAllClientsInList;
    private final ListClients listClients;
    private final UpdateAutomaticAttributesOnNode updateAutomaticAttributesOnNode;
+   private final UploadCookbookFiles uploadCookbookFiles;
    private final Supplier<PrivateKey> privateKey;
    private final GroupToBootScript groupToBootScript;
    private final String databag;
@@ -100,7 +105,8 @@ public class BaseChefService implements ChefService {
          @Named(CHEF_BOOTSTRAP_DATABAG) String databag, GroupToBootScript groupToBootScript,
          BootstrapConfigForGroup bootstrapConfigForGroup, ListEnvironments listEnvironments,
          ListNodesInEnvironment listNodesInEnvironment,
-         ListCookbookVersionsInEnvironment listCookbookVersionsInEnvironment, Json json, Crypto crypto) {
+         ListCookbookVersionsInEnvironment listCookbookVersionsInEnvironment,
+         UploadCookbookFiles uploadCookbookFiles, Json json, Crypto crypto) {
       this.api = api;
       this.cleanupStaleNodesAndClients = cleanupStaleNodesAndClients;
       this.createNodeAndPopulateAutomaticAttributes = createNodeAndPopulateAutomaticAttributes;
@@ -117,6 +123,7 @@ public class BaseChefService implements ChefService {
       this.listEnvironments = listEnvironments;
       this.listNodesInEnvironment = listNodesInEnvironment;
       this.listCookbookVersionsInEnvironment = listCookbookVersionsInEnvironment;
+      this.uploadCookbookFiles = uploadCookbookFiles;
       this.json = json;
       this.crypto = crypto;
    }
@@ -199,6 +206,11 @@ public class BaseChefService implements ChefService {
       deleteAllClientsInList.execute(names);
    }
 
+   @Override
+   public Map<File, List<Byte>> uploadCookbookFiles(Iterable<File> files) {
+      return uploadCookbookFiles.execute(files);
+   }
+
    @Override
    public Iterable<? extends Node> listNodes() {
       return listNodes.execute();
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.strategy;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import org.jclouds.chef.strategy.internal.UploadCookbookFilesImpl;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.ImplementedBy;
+
+/**
+ * Uploads the contents of cookbook files to the Chef Server through a sandbox,
+ * transferring only the checksums the server does not already have.
+ */
+@ImplementedBy(UploadCookbookFilesImpl.class)
+public interface UploadCookbookFiles {
+
+   /**
+    * @return the raw md5 checksum of each file, to be used as the checksum of
+    *         the corresponding cookbook resource.
+    */
+   Map<File, List<Byte>> execute(Iterable<File> files);
+
+   Map<File, List<Byte>> execute(ListeningExecutorService executor, Iterable<File> files);
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static com.google.common.util.concurrent.Futures.successfulAsList;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jakarta.annotation.Resource;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.chef.ChefApi;
+import org.jclouds.chef.config.ChefProperties;
+import org.jclouds.chef.domain.ChecksumStatus;
+import org.jclouds.chef.domain.UploadSandbox;
+import org.jclouds.chef.strategy.UploadCookbookFiles;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.logging.Logger;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.common.primitives.Bytes;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
+
+/**
+ * Hashes the files in parallel, asks the server which checksums it is missing
+ * and uploads only those, concurrently, before committing the sandbox.
+ * <p>
+ * Checksums are cached by file path, size and modification time, so files that
+ * have not changed since they were last uploaded are not read again.
+ */
+@Singleton
+public class UploadCookbookFilesImpl implements UploadCookbookFiles {
+
+   protected final ChefApi api;
+   protected final ListeningExecutorService userExecutor;
+   private final ConcurrentMap<File, CachedChecksum> checksumCache = new ConcurrentHashMap<File, CachedChecksum>();
+   @Resource
+   @Named(ChefProperties.CHEF_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @Inject
+   UploadCookbookFilesImpl(@Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor, ChefApi api) {
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.api = checkNotNull(api, "api");
+   }
+
+   @Override
+   public Map<File, List<Byte>> execute(Iterable<File> files) {
+      return execute(userExecutor, files);
+   }
+
+   @Override
+   public Map<File, List<Byte>> execute(ListeningExecutorService executor, Iterable<File> files) {
+      Map<File, List<Byte>> checksums = hash(executor, ImmutableSet.copyOf(checkNotNull(files, "files")));
+      if (checksums.isEmpty()) {
+         return checksums;
+      }
+
+      // Files with the same contents only need to be uploaded once
+      Map<List<Byte>, File> contents = Maps.newLinkedHashMap();
+      for (Map.Entry<File, List<Byte>> entry : checksums.entrySet()) {
+         if (!contents.containsKey(entry.getValue())) {
+            contents.put(entry.getValue(), entry.getKey());
+         }
+      }
+
+      UploadSandbox sandbox = api.createUploadSandboxForChecksums(contents.keySet());
+      List<ListenableFuture<Void>> uploads = upload(executor, sandbox, contents);
+      // Wait for every upload to finish before committing, even if some failed
+      getUnchecked(successfulAsList(uploads));
+      try {
+         getUnchecked(allAsList(uploads));
+      } catch (RuntimeException e) {
+         api.commitSandbox(sandbox.getSandboxId(), false);
+         throw e;
+      }
+      api.commitSandbox(sandbox.getSandboxId(), true);
+      return checksums;
+   }
+
+   private Map<File, List<Byte>> hash(ListeningExecutorService executor, Set<File> files) {
+      ImmutableList.Builder<ListenableFuture<List<Byte>>> futures = ImmutableList.builder();
+      for (final File file : files) {
+         futures.add(executor.submit(new Callable<List<Byte>>() {
+            @Override
+            public List<Byte> call() throws Exception {
+               return checksum(file);
+            }
+         }));
+      }
+
+      logger.trace(String.format("hashing %d cookbook files", files.size()));
+      List<List<Byte>> checksums = getUnchecked(allAsList(futures.build()));
+      ImmutableMap.Builder<File, List<Byte>> result = ImmutableMap.builder();
+      int i = 0;
+      for (File file : files) {
+         result.put(file, checksums.get(i++));
+      }
+      return result.build();
+   }
+
+   private List<Byte> checksum(File file) throws Exception {
+      File key = file.getAbsoluteFile();
+      // Read the attributes before the contents, so a file modified while
+      // being hashed does not match the cached entry the next time
+      long size = key.length();
+      long lastModified = key.lastModified();
+      CachedChecksum cached = checksumCache.get(key);
+      if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+         return cached.md5;
+      }
+      List<Byte> md5 = Bytes.asList(Files.asByteSource(key).hash(Hashing.md5()).asBytes());
+      checksumCache.put(key, new CachedChecksum(size, lastModified, md5));
+      return md5;
+   }
+
+   private List<ListenableFuture<Void>> upload(ListeningExecutorService executor, UploadSandbox sandbox,
+         Map<List<Byte>, File> contents) {
+      ImmutableList.Builder<ListenableFuture<Void>> uploads = ImmutableList.builder();
+      for (Map.Entry<List<Byte>, File> entry : contents.entrySet()) {
+         final ChecksumStatus status = sandbox.getChecksums().get(entry.getKey());
+         if (status == null || !status.needsUpload()) {
+            continue;
+         }
+         final File file = entry.getValue();
+         final byte[] md5 = Bytes.toArray(entry.getKey());
+         uploads.add(executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               Payload content = Payloads.newFilePayload(file);
+               content.getContentMetadata().setContentMD5(md5);
+               api.uploadContent(status.getUrl(), content);
+               return null;
+            }
+         }));
+      }
+      List<ListenableFuture<Void>> result = uploads.build();
+      logger.trace(String.format("uploading %d of %d checksums to sandbox %s", result.size(), contents.size(),
+            sandbox.getSandboxId()));
+      return result;
+   }
+
+   private static final class CachedChecksum {
+      private final long size;
+      private final long lastModified;
+      private final List<Byte> md5;
+
+      CachedChecksum(long size, long lastModified, List<Byte> md5) {
+         this.size = size;
+         this.lastModified = lastModified;
+         this.md5 = md5;
+      }
+   }
+}
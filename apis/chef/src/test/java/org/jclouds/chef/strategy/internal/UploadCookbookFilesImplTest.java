@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.strategy.internal;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.jclouds.chef.ChefApi;
+import org.jclouds.chef.domain.ChecksumStatus;
+import org.jclouds.chef.domain.UploadSandbox;
+import org.jclouds.io.Payload;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.common.primitives.Bytes;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Tests behavior of {@code UploadCookbookFilesImpl}
+ */
+@Test(groups = { "unit" }, singleThreaded = true)
+public class UploadCookbookFilesImplTest {
+
+   private static final URI UPLOAD_URI = URI.create("https://api.opscode.com/sandboxes/upload");
+
+   private final ListeningExecutorService executor = MoreExecutors.newDirectExecutorService();
+   private File dir;
+
+   @BeforeMethod
+   public void createDirectory() {
+      dir = Files.createTempDir();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void deleteDirectory() {
+      for (File file : dir.listFiles()) {
+         file.delete();
+      }
+      dir.delete();
+   }
+
+   public void testUploadsOnlyMissingChecksumsOnce() throws IOException {
+      File recipe = write("default.rb", "package 'apache2'");
+      File copy = write("copy.rb", "package 'apache2'");
+      File metadata = write("metadata.rb", "name 'apache2'");
+      List<Byte> recipeMd5 = md5("package 'apache2'");
+      List<Byte> metadataMd5 = md5("name 'apache2'");
+
+      ChefApi chef = createMock(ChefApi.class);
+      expect(chef.createUploadSandboxForChecksums(ImmutableSet.of(recipeMd5, metadataMd5))).andReturn(
+            sandbox(ImmutableMap.of(recipeMd5, status(true), metadataMd5, status(false))));
+      chef.uploadContent(eq(UPLOAD_URI), anyObject(Payload.class));
+      expectLastCall().once();
+      expect(chef.commitSandbox("sandbox", true)).andReturn(null);
+      replay(chef);
+
+      Map<File, List<Byte>> checksums = new UploadCookbookFilesImpl(executor, chef).execute(ImmutableList.of(recipe,
+            copy, metadata));
+
+      assertEquals(checksums.get(recipe), recipeMd5);
+      assertEquals(checksums.get(copy), recipeMd5);
+      assertEquals(checksums.get(metadata), metadataMd5);
+      verify(chef);
+   }
+
+   public void testUnchangedFilesAreNotRehashed() throws IOException {
+      File recipe = write("default.rb", "package 'apache2'");
+      long lastModified = recipe.lastModified();
+      List<Byte> recipeMd5 = md5("package 'apache2'");
+
+      ChefApi chef = createMock(ChefApi.class);
+      expect(chef.createUploadSandboxForChecksums(ImmutableSet.of(recipeMd5))).andReturn(
+            sandbox(ImmutableMap.of(recipeMd5, status(false)))).times(2);
+      expect(chef.commitSandbox("sandbox", true)).andReturn(null).times(2);
+      replay(chef);
+
+      UploadCookbookFilesImpl strategy = new UploadCookbookFilesImpl(executor, chef);
+      assertEquals(strategy.execute(ImmutableList.of(recipe)).get(recipe), recipeMd5);
+
+      // Same size and modification time: the cached checksum must be used
+      Files.asCharSink(recipe, Charsets.UTF_8).write("package 'apache3'");
+      recipe.setLastModified(lastModified);
+      assertEquals(strategy.execute(ImmutableList.of(recipe)).get(recipe), recipeMd5);
+      verify(chef);
+   }
+
+   public void testFailedUploadAbortsSandbox() throws IOException {
+      File recipe = write("default.rb", "package 'apache2'");
+      List<Byte> recipeMd5 = md5("package 'apache2'");
+
+      ChefApi chef = createMock(ChefApi.class);
+      expect(chef.createUploadSandboxForChecksums(ImmutableSet.of(recipeMd5))).andReturn(
+            sandbox(ImmutableMap.of(recipeMd5, status(true))));
+      chef.uploadContent(eq(UPLOAD_URI), anyObject(Payload.class));
+      expectLastCall().andThrow(new IllegalStateException("upload failed"));
+      expect(chef.commitSandbox("sandbox", false)).andReturn(null);
+      replay(chef);
+
+      try {
+         new UploadCookbookFilesImpl(executor, chef).execute(ImmutableList.of(recipe));
+         fail("Upload should have failed");
+      } catch (RuntimeException expected) {
+      }
+      verify(chef);
+   }
+
+   private File write(String name, String content) throws IOException {
+      File file = new File(dir, name);
+      Files.asCharSink(file, Charsets.UTF_8).write(content);
+      return file;
+   }
+
+   private static List<Byte> md5(String content) {
+      return Bytes.asList(Hashing.md5().hashString(content, Charsets.UTF_8).asBytes());
+   }
+
+   private static UploadSandbox sandbox(Map<List<Byte>, ChecksumStatus> checksums) {
+      return UploadSandbox.builder().uri(UPLOAD_URI).sandboxId("sandbox").checksums(checksums).build();
+   }
+
+   private static ChecksumStatus status(boolean needsUpload) {
+      return ChecksumStatus.builder().url(UPLOAD_URI).needsUpload(needsUpload).build();
+   }
+}
@@ -16,6 +16,7 @@
  */
 package org.jclouds.cloudstack.handlers;
 
+import static org.easymock.EasyMock.anyLong;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
@@ -67,6 +68,9 @@ public class InvalidateSessionAndRetryOn401AndLogoutOnCloseTest {
             return counter.get();
          }
       }).anyTimes();
+      expect(command.getLastRetryDelay()).andReturn(0L).anyTimes();
+      command.setRetryDelay(anyLong());
+      expectLastCall().anyTimes();
 
       replay(cache, command);
 
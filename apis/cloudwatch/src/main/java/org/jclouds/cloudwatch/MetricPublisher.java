@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudwatch;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jclouds.cloudwatch.domain.Dimension;
+import org.jclouds.cloudwatch.domain.MetricDatum;
+import org.jclouds.cloudwatch.domain.StatisticValues;
+import org.jclouds.cloudwatch.domain.Unit;
+import org.jclouds.cloudwatch.features.MetricApi;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Publishes datapoints to a namespace without calling CloudWatch on the recording thread.
+ * <p/>
+ * {@link #record} folds each datapoint into a per-metric aggregator that keeps the minimum, maximum, sum and sample
+ * count. It never blocks and never calls the API. A background task flushes every interval. The flush sends one
+ * {@link StatisticValues} datum per metric, in {@code PutMetricData} calls of at most {@value #MAX_DATA_PER_REQUEST}
+ * datums each. Under load, repeated datapoints are aggregated rather than queued. Datapoints for new metrics are dropped
+ * once {@code maxMetrics} distinct metrics are pending, and are counted by {@link #getDroppedCount()}.
+ *
+ * <pre>
+ * MetricPublisher publisher = MetricPublisher.builder(cloudWatchApi.getMetricApiForRegion(region), &quot;MyApp&quot;).build();
+ * publisher.record(&quot;Latency&quot;, 12.5, Unit.MILLISECONDS, new Dimension(&quot;Host&quot;, host));
+ * publisher.close();
+ * </pre>
+ */
+@Beta
+public class MetricPublisher implements Closeable {
+
+   /**
+    * The maximum number of datums accepted by a single {@code PutMetricData} call.
+    */
+   public static final int MAX_DATA_PER_REQUEST = 20;
+
+   public static Builder builder(MetricApi api, String namespace) {
+      return new Builder(api, namespace);
+   }
+
+   public static class Builder {
+      private final MetricApi api;
+      private final String namespace;
+      private long flushIntervalMillis = 60000;
+      private int maxMetrics = 10000;
+      private ScheduledExecutorService scheduler;
+
+      private Builder(MetricApi api, String namespace) {
+         this.api = checkNotNull(api, "api");
+         this.namespace = checkNotNull(namespace, "namespace");
+      }
+
+      /**
+       * How often aggregated datapoints are sent. Defaults to one minute, the finest resolution of standard metrics.
+       */
+      public Builder flushIntervalMillis(long flushIntervalMillis) {
+         checkArgument(flushIntervalMillis > 0, "flushIntervalMillis must be positive");
+         this.flushIntervalMillis = flushIntervalMillis;
+         return this;
+      }
+
+      /**
+       * The maximum number of distinct metrics aggregated between flushes. Defaults to 10000.
+       */
+      public Builder maxMetrics(int maxMetrics) {
+         checkArgument(maxMetrics > 0, "maxMetrics must be positive");
+         this.maxMetrics = maxMetrics;
+         return this;
+      }
+
+      /**
+       * The executor the periodic flush runs on. It is not shut down when the publisher is closed. Defaults to a
+       * private daemon thread.
+       */
+      public Builder scheduler(ScheduledExecutorService scheduler) {
+         this.scheduler = checkNotNull(scheduler, "scheduler");
+         return this;
+      }
+
+      public MetricPublisher build() {
+         return new MetricPublisher(this);
+      }
+   }
+
+   private final MetricApi api;
+   private final String namespace;
+   private final int maxMetrics;
+   private final ScheduledExecutorService scheduler;
+   private final boolean ownsScheduler;
+   private final ScheduledFuture<?> flusher;
+   private final ConcurrentMap<MetricKey, Aggregator> aggregators = new ConcurrentHashMap<MetricKey, Aggregator>();
+   private final AtomicLong dropped = new AtomicLong();
+   private volatile boolean closed;
+
+   private MetricPublisher(Builder builder) {
+      this.api = builder.api;
+      this.namespace = builder.namespace;
+      this.maxMetrics = builder.maxMetrics;
+      this.ownsScheduler = builder.scheduler == null;
+      this.scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("jclouds-cloudwatch-publisher-%d").setDaemon(true).build()) : builder.scheduler;
+      this.flusher = scheduler.scheduleWithFixedDelay(new Runnable() {
+         @Override
+         public void run() {
+            flush();
+         }
+      }, builder.flushIntervalMillis, builder.flushIntervalMillis, MILLISECONDS);
+   }
+
+   /**
+    * @see #record(String, double, Unit, Iterable)
+    */
+   public void record(String metricName, double value, Unit unit, Dimension... dimensions) {
+      record(metricName, value, unit, Arrays.asList(dimensions));
+   }
+
+   /**
+    * Adds a datapoint to the aggregate of its metric, identified by name, unit and dimensions.
+    *
+    * @throws IllegalStateException if the publisher was closed
+    */
+   public void record(String metricName, double value, Unit unit, Iterable<Dimension> dimensions) {
+      checkState(!closed, "publisher is closed");
+      MetricKey key = new MetricKey(checkNotNull(metricName, "metricName"), checkNotNull(unit, "unit"),
+            ImmutableSet.copyOf(checkNotNull(dimensions, "dimensions")));
+      while (true) {
+         Aggregator aggregator = aggregators.get(key);
+         if (aggregator == null) {
+            if (aggregators.size() >= maxMetrics) {
+               dropped.incrementAndGet();
+               return;
+            }
+            Aggregator created = new Aggregator();
+            aggregator = aggregators.putIfAbsent(key, created);
+            if (aggregator == null) {
+               aggregator = created;
+            }
+         }
+         if (aggregator.add(value)) {
+            return;
+         }
+         // the aggregator was taken by a flush; start a new one
+      }
+   }
+
+   /**
+    * The number of datapoints discarded because too many metrics were pending or because sending them failed.
+    */
+   public long getDroppedCount() {
+      return dropped.get();
+   }
+
+   /**
+    * Sends everything aggregated so far on the calling thread.
+    */
+   public synchronized void flush() {
+      List<MetricDatum> data = Lists.newArrayListWithCapacity(aggregators.size());
+      Date timestamp = new Date();
+      for (Map.Entry<MetricKey, Aggregator> entry : aggregators.entrySet()) {
+         Aggregator aggregator = entry.getValue();
+         aggregator.seal();
+         aggregators.remove(entry.getKey(), aggregator);
+         if (aggregator.count.sum() > 0) {
+            MetricKey key = entry.getKey();
+            data.add(MetricDatum.builder().metricName(key.metricName).unit(key.unit).dimensions(key.dimensions)
+                  .statisticValues(aggregator.toStatisticValues()).timestamp(timestamp).build());
+         }
+      }
+      for (List<MetricDatum> batch : Iterables.partition(data, MAX_DATA_PER_REQUEST)) {
+         try {
+            api.putMetricsInNamespace(batch, namespace);
+         } catch (RuntimeException e) {
+            for (MetricDatum datum : batch) {
+               dropped.addAndGet((long) datum.getStatisticValues().get().getSampleCount());
+            }
+         }
+      }
+   }
+
+   /**
+    * Stops the periodic flush and sends what is left.
+    */
+   @Override
+   public void close() {
+      closed = true;
+      flusher.cancel(false);
+      if (ownsScheduler) {
+         scheduler.shutdown();
+      }
+      flush();
+   }
+
+   private static final class MetricKey {
+      private final String metricName;
+      private final Unit unit;
+      private final Set<Dimension> dimensions;
+
+      private MetricKey(String metricName, Unit unit, Set<Dimension> dimensions) {
+         this.metricName = metricName;
+         this.unit = unit;
+         this.dimensions = dimensions;
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hashCode(metricName, unit, dimensions);
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj)
+            return true;
+         if (!(obj instanceof MetricKey))
+            return false;
+         MetricKey that = (MetricKey) obj;
+         return metricName.equals(that.metricName) && unit == that.unit && dimensions.equals(that.dimensions);
+      }
+   }
+
+   /**
+    * Lock-free statistic set. Writers register in {@code writers} while they update; a flush seals the aggregator once
+    * no writer is active, after which {@link #add} refuses further values.
+    */
+   private static final class Aggregator {
+      private static final int SEALED = -1;
+
+      private final AtomicInteger writers = new AtomicInteger();
+      private final LongAdder count = new LongAdder();
+      private final DoubleAdder sum = new DoubleAdder();
+      private final AtomicLong min = new AtomicLong(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+      private final AtomicLong max = new AtomicLong(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+
+      boolean add(double value) {
+         int current;
+         do {
+            current = writers.get();
+            if (current == SEALED) {
+               return false;
+            }
+         } while (!writers.compareAndSet(current, current + 1));
+         try {
+            count.increment();
+            sum.add(value);
+            long bits;
+            while (value < Double.longBitsToDouble(bits = min.get())
+                  && !min.compareAndSet(bits, Double.doubleToRawLongBits(value))) {
+               // lost a race with another writer; re-read
+            }
+            while (value > Double.longBitsToDouble(bits = max.get())
+                  && !max.compareAndSet(bits, Double.doubleToRawLongBits(value))) {
+               // lost a race with another writer; re-read
+            }
+            return true;
+         } finally {
+            writers.decrementAndGet();
+         }
+      }
+
+      void seal() {
+         while (!writers.compareAndSet(0, SEALED)) {
+            Thread.yield();
+         }
+      }
+
+      StatisticValues toStatisticValues() {
+         return new StatisticValues(Double.longBitsToDouble(max.get()), Double.longBitsToDouble(min.get()),
+               count.sum(), sum.sum());
+      }
+   }
+}
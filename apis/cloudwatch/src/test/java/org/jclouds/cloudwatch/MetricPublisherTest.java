@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudwatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.easymock.IAnswer;
+import org.jclouds.cloudwatch.domain.Dimension;
+import org.jclouds.cloudwatch.domain.MetricDatum;
+import org.jclouds.cloudwatch.domain.StatisticValues;
+import org.jclouds.cloudwatch.domain.Unit;
+import org.jclouds.cloudwatch.features.MetricApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests behavior of {@code MetricPublisher}.
+ */
+@Test(groups = "unit", testName = "MetricPublisherTest")
+public class MetricPublisherTest {
+
+   private static MetricApi recordingApi(final List<List<MetricDatum>> requests) {
+      MetricApi api = createMock(MetricApi.class);
+      api.putMetricsInNamespace(anyObject(Iterable.class), eq("Namespace"));
+      expectLastCall().andAnswer(new IAnswer<Void>() {
+         @Override
+         @SuppressWarnings("unchecked")
+         public Void answer() {
+            requests.add(ImmutableList.copyOf((Iterable<MetricDatum>) getCurrentArguments()[0]));
+            return null;
+         }
+      }).anyTimes();
+      replay(api);
+      return api;
+   }
+
+   public void testDatapointsAreAggregatedIntoStatisticSets() {
+      List<List<MetricDatum>> requests = new CopyOnWriteArrayList<List<MetricDatum>>();
+      MetricPublisher publisher = MetricPublisher.builder(recordingApi(requests), "Namespace").build();
+      Dimension host = new Dimension("Host", "a");
+      publisher.record("Latency", 5, Unit.MILLISECONDS, host);
+      publisher.record("Latency", 1, Unit.MILLISECONDS, host);
+      publisher.record("Latency", 9, Unit.MILLISECONDS, host);
+      publisher.record("Latency", 100, Unit.MILLISECONDS, new Dimension("Host", "b"));
+      publisher.close();
+
+      assertEquals(requests.size(), 1);
+      assertEquals(requests.get(0).size(), 2);
+      for (MetricDatum datum : requests.get(0)) {
+         assertEquals(datum.getMetricName(), "Latency");
+         assertEquals(datum.getUnit(), Unit.MILLISECONDS);
+         StatisticValues stats = datum.getStatisticValues().get();
+         if (datum.getDimensions().equals(ImmutableSet.of(host))) {
+            assertEquals(stats.getSampleCount(), 3.0);
+            assertEquals(stats.getSum(), 15.0);
+            assertEquals(stats.getMinimum(), 1.0);
+            assertEquals(stats.getMaximum(), 9.0);
+         } else {
+            assertEquals(stats.getSampleCount(), 1.0);
+            assertEquals(stats.getSum(), 100.0);
+         }
+      }
+   }
+
+   public void testRequestsRespectLimitAndNewMetricsAreDroppedWhenFull() {
+      List<List<MetricDatum>> requests = new CopyOnWriteArrayList<List<MetricDatum>>();
+      MetricPublisher publisher = MetricPublisher.builder(recordingApi(requests), "Namespace").maxMetrics(45).build();
+      for (int i = 0; i < 50; i++) {
+         publisher.record("Metric" + i, i, Unit.COUNT);
+      }
+      publisher.record("Metric0", 1, Unit.COUNT);
+      publisher.flush();
+
+      assertEquals(publisher.getDroppedCount(), 5);
+      assertEquals(requests.size(), 3);
+      assertEquals(requests.get(0).size(), MetricPublisher.MAX_DATA_PER_REQUEST);
+      assertEquals(requests.get(1).size(), MetricPublisher.MAX_DATA_PER_REQUEST);
+      assertEquals(requests.get(2).size(), 5);
+
+      publisher.record("Metric49", 1, Unit.COUNT);
+      publisher.close();
+      assertEquals(requests.size(), 4);
+      assertEquals(requests.get(3).get(0).getMetricName(), "Metric49");
+   }
+
+   public void testNoDatapointIsLostToConcurrentFlushes() throws Exception {
+      final List<List<MetricDatum>> requests = new CopyOnWriteArrayList<List<MetricDatum>>();
+      final MetricPublisher publisher = MetricPublisher.builder(recordingApi(requests), "Namespace")
+            .flushIntervalMillis(1).build();
+      final CountDownLatch done = new CountDownLatch(4);
+      for (int t = 0; t < 4; t++) {
+         new Thread() {
+            @Override
+            public void run() {
+               for (int i = 0; i < 20000; i++) {
+                  publisher.record("Requests", 1, Unit.COUNT);
+               }
+               done.countDown();
+            }
+         }.start();
+      }
+      assertTrue(done.await(30, SECONDS));
+      publisher.close();
+
+      double samples = 0;
+      double sum = 0;
+      for (List<MetricDatum> request : requests) {
+         for (MetricDatum datum : request) {
+            samples += datum.getStatisticValues().get().getSampleCount();
+            sum += datum.getStatisticValues().get().getSum();
+         }
+      }
+      assertEquals(samples, 80000.0);
+      assertEquals(sum, 80000.0);
+      assertEquals(publisher.getDroppedCount(), 0);
+   }
+}
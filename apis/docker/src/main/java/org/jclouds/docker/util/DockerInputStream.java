@@ -21,12 +21,18 @@ import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import com.google.common.io.ByteStreams;
+
 /**
  * Extension to {@link DataInputStream} which adds method
  * {@link #readStdStreamData()} to allow read multiplexed standard streams.
+ * Use {@link StdStreamDemultiplexer} to avoid allocating a payload array per
+ * frame.
  */
 public final class DockerInputStream extends DataInputStream {
 
+   private final byte[] header = new byte[8];
+
    /**
     * Ctor from superclass.
     *
@@ -43,7 +49,6 @@ public final class DockerInputStream extends DataInputStream {
     * @throws IOException
     */
    public StdStreamData readStdStreamData() throws IOException {
-      byte[] header = new byte[8];
       // try to read first byte from the message header - just to check if we
       // are at the end
       // of stream
@@ -65,7 +70,7 @@ public final class DockerInputStream extends DataInputStream {
       if (size > Integer.MAX_VALUE) {
          truncated = true;
          // skip the rest
-         readFully(new byte[(int) (size - Integer.MAX_VALUE)]);
+         ByteStreams.skipFully(this, size - Integer.MAX_VALUE);
       }
       return new StdStreamData(header[0], payload, truncated);
    }
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.jclouds.docker.features.ContainerApi;
+import org.jclouds.docker.options.AttachOptions;
+import org.jclouds.docker.util.StdStreamData.StdStreamType;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Streaming counterpart of {@link DockerInputStream} for multiplexed standard streams. Frame payloads are passed on
+ * through one reusable buffer, so demultiplexing does not allocate per frame; frames larger than the buffer are passed
+ * on in several chunks.
+ */
+public final class StdStreamDemultiplexer implements Closeable {
+
+   public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+   private static final StdStreamType[] TYPES = StdStreamType.values();
+
+   /**
+    * Receives the demultiplexed data.
+    */
+   public interface Handler {
+      /**
+       * @param type
+       *           the stream the data belongs to
+       * @param data
+       *           the next chunk of a frame. The buffer is reused once this method returns and must not be kept.
+       * @return false to pause; the next call to {@link StdStreamDemultiplexer#demultiplex} resumes where this left off
+       */
+      boolean onData(StdStreamType type, ByteBuffer data) throws IOException;
+   }
+
+   /**
+    * Attaches to a container and follows its output on a single connection: the logs so far, then everything the
+    * container writes until it stops or the demultiplexer is closed. The container must not use a TTY.
+    */
+   public static StdStreamDemultiplexer follow(ContainerApi api, String containerId) {
+      return new StdStreamDemultiplexer(api.attach(containerId,
+            new AttachOptions().logs(true).stream(true).stdout(true).stderr(true)));
+   }
+
+   private final ReadableByteChannel in;
+   private final ByteBuffer header = ByteBuffer.allocate(8);
+   private final ByteBuffer buffer;
+   private StdStreamType type;
+   private long remaining;
+
+   public StdStreamDemultiplexer(InputStream in) {
+      this(Channels.newChannel(checkNotNull(in, "in")), DEFAULT_BUFFER_SIZE);
+   }
+
+   public StdStreamDemultiplexer(ReadableByteChannel in, int bufferSize) {
+      checkArgument(bufferSize > 0, "bufferSize must be positive");
+      this.in = checkNotNull(in, "in");
+      this.buffer = ByteBuffer.allocate(bufferSize);
+   }
+
+   /**
+    * Passes data to the handler until it asks to pause or the stream ends.
+    *
+    * @return false once the end of the stream was reached, true if the handler paused
+    * @throws EOFException
+    *            if the stream ends in the middle of a frame
+    */
+   public boolean demultiplex(Handler handler) throws IOException {
+      checkNotNull(handler, "handler");
+      while (true) {
+         if (remaining == 0) {
+            if (!readHeader()) {
+               return false;
+            }
+            continue;
+         }
+         buffer.clear();
+         buffer.limit((int) Math.min(buffer.capacity(), remaining));
+         readFully(buffer);
+         buffer.flip();
+         remaining -= buffer.remaining();
+         if (!handler.onData(type, buffer)) {
+            return true;
+         }
+      }
+   }
+
+   /**
+    * Writes standard output and standard error to the given channels until the stream ends. Data for a null channel is
+    * discarded.
+    *
+    * @return the number of payload bytes read
+    */
+   public long transferTo(@Nullable final WritableByteChannel stdout, @Nullable final WritableByteChannel stderr)
+         throws IOException {
+      final long[] transferred = new long[1];
+      demultiplex(new Handler() {
+         @Override
+         public boolean onData(StdStreamType type, ByteBuffer data) throws IOException {
+            transferred[0] += data.remaining();
+            WritableByteChannel target = type == StdStreamType.ERR ? stderr : stdout;
+            if (target != null) {
+               while (data.hasRemaining()) {
+                  target.write(data);
+               }
+            }
+            return true;
+         }
+      });
+      return transferred[0];
+   }
+
+   @Override
+   public void close() throws IOException {
+      in.close();
+   }
+
+   private boolean readHeader() throws IOException {
+      header.clear();
+      while (header.hasRemaining()) {
+         if (in.read(header) == -1) {
+            if (header.position() == 0) {
+               return false;
+            }
+            throw new EOFException("stream ended inside a frame header");
+         }
+      }
+      int streamTypeId = header.get(0);
+      if (streamTypeId < 0 || streamTypeId >= TYPES.length) {
+         throw new IOException("unknown stream type " + streamTypeId);
+      }
+      type = TYPES[streamTypeId];
+      // the size is an unsigned big-endian int
+      remaining = header.getInt(4) & 0xFFFFFFFFL;
+      return true;
+   }
+
+   private void readFully(ByteBuffer target) throws IOException {
+      while (target.hasRemaining()) {
+         if (in.read(target) == -1) {
+            throw new EOFException("stream ended inside a frame");
+         }
+      }
+   }
+}
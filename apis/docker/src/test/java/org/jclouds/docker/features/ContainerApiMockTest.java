@@ -20,6 +20,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 
@@ -32,6 +35,7 @@ import org.jclouds.docker.internal.BaseDockerMockTest;
 import org.jclouds.docker.options.ListContainerOptions;
 import org.jclouds.docker.parse.ContainerParseTest;
 import org.jclouds.docker.parse.ContainersParseTest;
+import org.jclouds.docker.util.StdStreamDemultiplexer;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
@@ -191,6 +195,23 @@ public class ContainerApiMockTest extends BaseDockerMockTest {
       }
    }
 
+   public void testFollowContainerOutput() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody(payloadFromResource("/exec.start")));
+      ContainerApi api = api(DockerApi.class, server.url("/").toString(), new DockerParserModule()).getContainerApi();
+      StdStreamDemultiplexer output = StdStreamDemultiplexer.follow(api, "1");
+      try {
+         ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+         ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+         output.transferTo(Channels.newChannel(stdout), Channels.newChannel(stderr));
+         assertEquals(stdout.toString("UTF-8"), "Standard");
+         assertEquals(stderr.toString("UTF-8"), "Error");
+         assertSent(server, "POST", "/containers/1/attach?logs=true&stream=true&stdout=true&stderr=true");
+      } finally {
+         output.close();
+         server.shutdown();
+      }
+   }
+
    public void testWaitContainer() throws Exception {
       MockWebServer server = mockWebServer(new MockResponse().setResponseCode(200));
       ContainerApi api = api(DockerApi.class, server.url("/").toString()).getContainerApi();
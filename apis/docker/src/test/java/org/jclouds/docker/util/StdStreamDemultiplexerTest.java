@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.List;
+
+import org.jclouds.docker.util.StdStreamData.StdStreamType;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+
+@Test(groups = "unit", testName = "StdStreamDemultiplexerTest")
+public class StdStreamDemultiplexerTest {
+
+   private static byte[] frames(Object... typeAndPayload) throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      for (int i = 0; i < typeAndPayload.length; i += 2) {
+         byte[] payload = ((String) typeAndPayload[i + 1]).getBytes(UTF_8);
+         out.write(ByteBuffer.allocate(8).put(0, (byte) ((StdStreamType) typeAndPayload[i]).ordinal())
+               .putInt(4, payload.length).array());
+         out.write(payload);
+      }
+      return out.toByteArray();
+   }
+
+   public void testTransferToSplitsStreams() throws IOException {
+      byte[] data = frames(StdStreamType.OUT, "Standard", StdStreamType.ERR, "Error", StdStreamType.OUT, "",
+            StdStreamType.OUT, " output");
+      ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+      ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+      long transferred = new StdStreamDemultiplexer(new ByteArrayInputStream(data)).transferTo(
+            Channels.newChannel(stdout), Channels.newChannel(stderr));
+
+      assertEquals(transferred, 20);
+      assertEquals(stdout.toString("UTF-8"), "Standard output");
+      assertEquals(stderr.toString("UTF-8"), "Error");
+   }
+
+   public void testLargeFramesArriveInBufferSizedChunksAndHandlerCanPause() throws IOException {
+      byte[] data = frames(StdStreamType.OUT, "0123456789", StdStreamType.ERR, "abc");
+      StdStreamDemultiplexer demultiplexer = new StdStreamDemultiplexer(
+            Channels.newChannel(new ByteArrayInputStream(data)), 4);
+      final List<String> chunks = Lists.newArrayList();
+      StdStreamDemultiplexer.Handler handler = new StdStreamDemultiplexer.Handler() {
+         @Override
+         public boolean onData(StdStreamType type, ByteBuffer data) {
+            byte[] chunk = new byte[data.remaining()];
+            data.get(chunk);
+            chunks.add(type + ":" + new String(chunk, UTF_8));
+            return chunks.size() != 2;
+         }
+      };
+
+      assertTrue(demultiplexer.demultiplex(handler));
+      assertEquals(chunks, Lists.newArrayList("OUT:0123", "OUT:4567"));
+      assertFalse(demultiplexer.demultiplex(handler));
+      assertEquals(chunks, Lists.newArrayList("OUT:0123", "OUT:4567", "OUT:89", "ERR:abc"));
+   }
+
+   @Test(expectedExceptions = EOFException.class)
+   public void testTruncatedFrameIsReported() throws IOException {
+      byte[] data = frames(StdStreamType.OUT, "Standard");
+      byte[] truncated = new byte[data.length - 2];
+      System.arraycopy(data, 0, truncated, 0, truncated.length);
+      new StdStreamDemultiplexer(new ByteArrayInputStream(truncated)).transferTo(null, null);
+   }
+}
@@ -20,6 +20,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Predicates.and;
 import static com.google.common.base.Predicates.in;
 import static com.google.common.base.Predicates.notNull;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.toArray;
@@ -27,8 +28,13 @@ import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Multimaps.filterKeys;
 import static com.google.common.collect.Multimaps.index;
 import static com.google.common.collect.Multimaps.transformValues;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import jakarta.annotation.Resource;
 import jakarta.inject.Named;
@@ -38,23 +44,42 @@ import org.jclouds.Constants;
 import org.jclouds.aws.util.AWSUtils;
 import org.jclouds.compute.domain.ComputeMetadata;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.functions.GroupNamingConvention;
 import org.jclouds.compute.predicates.NodePredicates;
+import org.jclouds.compute.predicates.NodePredicates.InGroup;
+import org.jclouds.compute.predicates.NodePredicates.WithIds;
+import org.jclouds.compute.predicates.NodePredicates.WithStatus;
+import org.jclouds.compute.predicates.NodePredicates.WithTag;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.ListNodesStrategy;
 import org.jclouds.ec2.EC2Api;
+import org.jclouds.ec2.domain.InstanceState;
 import org.jclouds.ec2.domain.Reservation;
 import org.jclouds.ec2.domain.RunningInstance;
 import org.jclouds.location.Region;
 import org.jclouds.logging.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 
+/**
+ * Lists instances in all regions concurrently. Predicates from
+ * {@link NodePredicates} that EC2 can evaluate, such as {@code inGroup},
+ * {@code withIds}, {@code withTag} and the status constants, are sent as
+ * {@code Filter} parameters; the predicate is still applied to the results.
+ */
 @Singleton
 public class EC2ListNodesStrategy implements ListNodesStrategy {
 
@@ -70,15 +95,20 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
    protected final Supplier<Set<String>> regions;
    protected final Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata;
    protected final ListeningExecutorService userExecutor;
+   protected final Map<InstanceState, Status> instanceToNodeStatus;
+   protected final GroupNamingConvention.Factory namingConvention;
 
    @Inject
    protected EC2ListNodesStrategy(EC2Api client, @Region Supplier<Set<String>> regions,
             Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata,
-            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            Map<InstanceState, Status> instanceToNodeStatus, GroupNamingConvention.Factory namingConvention) {
       this.client =  checkNotNull(client, "client");
       this.regions =  checkNotNull(regions, "regions");
       this.runningInstanceToNodeMetadata = checkNotNull(runningInstanceToNodeMetadata, "runningInstanceToNodeMetadata");
       this.userExecutor =  checkNotNull(userExecutor, "userExecutor");
+      this.instanceToNodeStatus = checkNotNull(instanceToNodeStatus, "instanceToNodeStatus");
+      this.namingConvention = checkNotNull(namingConvention, "namingConvention");
    }
 
    @Override
@@ -104,26 +134,104 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
 
    @Override
    public Set<? extends NodeMetadata> listDetailsOnNodesMatching(Predicate<? super NodeMetadata> filter) {
-      Iterable<? extends RunningInstance> instances = pollRunningInstances();
+      if (filter instanceof WithIds) {
+         return ImmutableSet.copyOf(filter(listNodesByIds(((WithIds<?>) filter).getIds()), filter));
+      }
+      Iterable<? extends RunningInstance> instances = pollRunningInstancesMatching(instanceFilters(filter));
       Iterable<? extends NodeMetadata> nodes = filter(transform(filter(instances, notNull()),
                runningInstanceToNodeMetadata), and(notNull(), filter));
       return ImmutableSet.copyOf(nodes);
    }
 
+   /**
+    * Translates the predicate into {@code DescribeInstances} filters. Each
+    * filter is a separate request per region, and an empty filter lists every
+    * instance. The filters may match more instances than the predicate, never
+    * fewer.
+    */
+   @VisibleForTesting
+   List<Multimap<String, String>> instanceFilters(Predicate<? super NodeMetadata> filter) {
+      if (filter instanceof InGroup) {
+         // the group is parsed from the security group names, or from the key
+         // name when there is no generated security group, as in a VPC
+         String pattern = namingConvention.create().sharedNameForGroup(((InGroup) filter).getGroup()) + "*";
+         return ImmutableList.<Multimap<String, String>> of(ImmutableMultimap.of("instance.group-name", pattern),
+               ImmutableMultimap.of("key-name", pattern));
+      }
+      if (filter instanceof WithTag) {
+         return ImmutableList.<Multimap<String, String>> of(
+               ImmutableMultimap.of("tag-key", ((WithTag) filter).getTag()));
+      }
+      if (filter instanceof WithStatus) {
+         Status status = ((WithStatus) filter).getStatus();
+         // instances in states jclouds doesn't know can't be asked for
+         if (status != instanceToNodeStatus.get(InstanceState.UNRECOGNIZED)) {
+            ImmutableMultimap.Builder<String, String> states = ImmutableMultimap.builder();
+            for (Map.Entry<InstanceState, Status> entry : instanceToNodeStatus.entrySet()) {
+               if (entry.getValue() == status) {
+                  states.put("instance-state-name", entry.getKey().value());
+               }
+            }
+            Multimap<String, String> stateFilter = states.build();
+            if (!stateFilter.isEmpty()) {
+               return ImmutableList.of(stateFilter);
+            }
+         }
+      }
+      return ImmutableList.<Multimap<String, String>> of(ImmutableMultimap.<String, String> of());
+   }
+
    protected Iterable<? extends RunningInstance> pollRunningInstances() {
-      Iterable<? extends Set<? extends Reservation<? extends RunningInstance>>> reservations
-         = transform(regions.get(), allInstancesInRegion());
-      
-      return concat(concat(reservations));
+      return pollRunningInstancesMatching(ImmutableList.<Multimap<String, String>> of(
+            ImmutableMultimap.<String, String> of()));
+   }
+
+   protected Iterable<? extends RunningInstance> pollRunningInstancesMatching(
+            final List<Multimap<String, String>> filters) {
+      List<Set<? extends Reservation<? extends RunningInstance>>> reservations
+         = inEachRegion(regions.get(), instancesMatchingInRegion(filters));
+
+      Iterable<? extends RunningInstance> instances = concat(concat(reservations));
+      if (filters.size() == 1) {
+         return instances;
+      }
+      // an instance can match more than one of the filters
+      Map<String, RunningInstance> byId = Maps.newLinkedHashMap();
+      for (RunningInstance instance : filter(instances, notNull())) {
+         byId.put(instance.getId(), instance);
+      }
+      return byId.values();
    }
 
    protected Iterable<? extends RunningInstance> pollRunningInstancesByRegionsAndIds(final Multimap<String, String> idsByRegions) {
-      Iterable<? extends Set<? extends Reservation<? extends RunningInstance>>> reservations
-         = transform(idsByRegions.keySet(), instancesByIdInRegion(idsByRegions));
+      List<Set<? extends Reservation<? extends RunningInstance>>> reservations
+         = inEachRegion(idsByRegions.keySet(), instancesByIdInRegion(idsByRegions));
       
       return concat(concat(reservations));
    }
 
+   /**
+    * Applies the function to each region on the user executor and waits for
+    * all results, rethrowing the first failure.
+    */
+   protected <T> List<T> inEachRegion(Iterable<String> regions, final Function<String, T> function) {
+      ImmutableList.Builder<ListenableFuture<T>> futures = ImmutableList.builder();
+      for (final String region : regions) {
+         futures.add(userExecutor.submit(new Callable<T>() {
+            @Override
+            public T call() {
+               return function.apply(region);
+            }
+         }));
+      }
+      try {
+         return getUnchecked(allAsList(futures.build()));
+      } catch (UncheckedExecutionException e) {
+         throwIfUnchecked(e.getCause());
+         throw e;
+      }
+   }
+
    protected Function<String, String> splitHandle(final int pos) {
       return new Function<String, String>() {
 
@@ -145,6 +253,27 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
       };
    }
 
+   protected Function<String, Set<? extends Reservation<? extends RunningInstance>>>
+                                                                  instancesMatchingInRegion(final List<Multimap<String, String>> filters) {
+      final Function<String, Set<? extends Reservation<? extends RunningInstance>>> allInstances = allInstancesInRegion();
+      return new Function<String, Set<? extends Reservation<? extends RunningInstance>>>() {
+
+         @Override
+         public Set<? extends Reservation<? extends RunningInstance>> apply(String from) {
+            ImmutableSet.Builder<Reservation<? extends RunningInstance>> reservations = ImmutableSet.builder();
+            for (Multimap<String, String> filter : filters) {
+               if (filter.isEmpty()) {
+                  reservations.addAll(allInstances.apply(from));
+               } else {
+                  reservations.addAll(client.getInstanceApi().get().describeInstancesInRegionWithFilter(from, filter));
+               }
+            }
+            return reservations.build();
+         }
+
+      };
+   }
+
    protected Function<String, Set<? extends Reservation<? extends RunningInstance>>>
                                                                   instancesByIdInRegion(final Multimap<String, String> idsByRegions) {
       return new Function<String, Set<? extends Reservation<? extends RunningInstance>>>() {
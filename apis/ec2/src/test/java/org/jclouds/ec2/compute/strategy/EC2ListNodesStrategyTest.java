@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.ec2.compute.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.compute.predicates.NodePredicates.RUNNING;
+import static org.jclouds.compute.predicates.NodePredicates.all;
+import static org.jclouds.compute.predicates.NodePredicates.inGroup;
+import static org.jclouds.compute.predicates.NodePredicates.withTag;
+import static org.testng.Assert.assertEquals;
+
+import java.util.Set;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.ec2.EC2Api;
+import org.jclouds.ec2.EC2ApiMetadata;
+import org.jclouds.ec2.compute.config.EC2ComputeServiceDependenciesModule;
+import org.jclouds.ec2.domain.Reservation;
+import org.jclouds.ec2.domain.RunningInstance;
+import org.jclouds.ec2.features.InstanceApi;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
+
+@Test(groups = "unit", testName = "EC2ListNodesStrategyTest")
+public class EC2ListNodesStrategyTest {
+
+   public void testGroupIsMatchedBySecurityGroupOrKeyName() {
+      assertEquals(strategy(null).instanceFilters(inGroup("web")), ImmutableList.of(
+            ImmutableMultimap.of("instance.group-name", "jclouds#web*"),
+            ImmutableMultimap.of("key-name", "jclouds#web*")));
+   }
+
+   public void testStatusIsMatchedByEveryInstanceStateMappedToIt() {
+      assertEquals(strategy(null).instanceFilters(RUNNING), ImmutableList.of(
+            ImmutableMultimap.of("instance-state-name", "running")));
+   }
+
+   public void testTagIsMatchedByTagKey() {
+      assertEquals(strategy(null).instanceFilters(withTag("db")), ImmutableList.of(
+            ImmutableMultimap.of("tag-key", "db")));
+   }
+
+   public void testOtherPredicatesListEveryInstance() {
+      assertEquals(strategy(null).instanceFilters(all()), ImmutableList.of(
+            ImmutableMultimap.<String, String> of()));
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testFilteredListingQueriesEachRegion() {
+      EC2Api client = createMock(EC2Api.class);
+      InstanceApi instanceApi = createMock(InstanceApi.class);
+      Multimap<String, String> filter = ImmutableMultimap.of("tag-key", "db");
+
+      expect(client.getInstanceApi()).andReturn((Optional) Optional.of(instanceApi)).anyTimes();
+      expect(instanceApi.describeInstancesInRegionWithFilter("us-east-1", filter))
+            .andReturn((Set) ImmutableSet.<Reservation<? extends RunningInstance>> of());
+      expect(instanceApi.describeInstancesInRegionWithFilter("eu-west-1", filter))
+            .andReturn((Set) ImmutableSet.<Reservation<? extends RunningInstance>> of());
+      replay(client, instanceApi);
+
+      assertEquals(strategy(client).listDetailsOnNodesMatching(withTag("db")), ImmutableSet.of());
+
+      verify(client, instanceApi);
+   }
+
+   @SuppressWarnings("unchecked")
+   private static EC2ListNodesStrategy strategy(EC2Api client) {
+      GroupNamingConvention.Factory namingConvention = Guice.createInjector(new AbstractModule() {
+
+         @Override
+         protected void configure() {
+            Names.bindProperties(binder(), new EC2ApiMetadata().getDefaultProperties());
+         }
+
+      }).getInstance(GroupNamingConvention.Factory.class);
+
+      Function<RunningInstance, NodeMetadata> toNode = createMock(Function.class);
+      return new EC2ListNodesStrategy(client != null ? client : createMock(EC2Api.class),
+            Suppliers.<Set<String>> ofInstance(ImmutableSet.of("us-east-1", "eu-west-1")), toNode,
+            MoreExecutors.newDirectExecutorService(), EC2ComputeServiceDependenciesModule.toPortableNodeStatus,
+            namingConvention);
+   }
+}
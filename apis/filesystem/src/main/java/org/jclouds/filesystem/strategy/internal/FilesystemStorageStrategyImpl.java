@@ -50,10 +50,15 @@ import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
@@ -92,6 +97,8 @@ import org.jclouds.rest.annotations.ParamValidators;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -376,6 +383,38 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       return blobNames;
    }
 
+   @Override
+   public Iterable<String> getSortedBlobKeysInsideContainer(String container, final String prefix,
+         final String delimiter, final String startAfter) throws IOException {
+      filesystemContainerNameValidator.validate(container);
+      if (!containerExists(container)) {
+         return ImmutableList.of();
+      }
+
+      File containerFile = openFolder(container);
+      final int containerPathLength = containerFile.getAbsolutePath().length() + 1;
+      if (prefix != null) {
+         // prefix may end with a partial directory so only list the complete parent
+         int index = prefix.lastIndexOf('/');
+         if (index != -1) {
+            containerFile = new File(containerFile, prefix.substring(0, index + 1));
+         }
+      }
+      final File directory = containerFile;
+      return new FluentIterable<String>() {
+         @Override
+         public Iterator<String> iterator() {
+            return new SortedBlobKeyIterator(directory, prefix, delimiter, startAfter,
+                  new Function<String, String>() {
+                     @Override
+                     public String apply(String string) {
+                        return denormalize(string.substring(containerPathLength));
+                     }
+                  });
+         }
+      };
+   }
+
    @Override
    public Blob getBlob(final String container, final String key) {
       BlobBuilder builder = blobBuilders.get();
@@ -985,6 +1024,79 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       return folder;
    }
 
+   /**
+    * Walks a directory tree depth first, visiting the children of each directory in key order, which yields the
+    * same keys as {@link #populateBlobKeysInContainer} in lexicographic order. Directories whose keys all sort before
+    * {@code startAfter} are not entered.
+    */
+   private static final class SortedBlobKeyIterator extends AbstractIterator<String> {
+      private final String prefix;
+      private final String delimiter;
+      private final String startAfter;
+      private final Function<String, String> function;
+      private final Deque<Iterator<Map.Entry<String, File>>> directories = new ArrayDeque<Iterator<Map.Entry<String, File>>>();
+
+      SortedBlobKeyIterator(File directory, String prefix, String delimiter, String startAfter,
+            Function<String, String> function) {
+         this.prefix = prefix;
+         this.delimiter = delimiter;
+         this.startAfter = startAfter;
+         this.function = function;
+         directories.push(sortedChildren(directory));
+      }
+
+      private Iterator<Map.Entry<String, File>> sortedChildren(File directory) {
+         SortedMap<String, File> children = new TreeMap<String, File>();
+         File[] files = directory.listFiles();
+         if (files != null) {
+            for (File child : files) {
+               String fullPath = function.apply(child.getAbsolutePath());
+               if (child.isFile()) {
+                  children.put(fullPath, child);
+               } else if (child.isDirectory()) {
+                  children.put(fullPath + File.separator, child);
+               }
+            }
+         }
+         return children.entrySet().iterator();
+      }
+
+      @Override
+      protected String computeNext() {
+         while (!directories.isEmpty()) {
+            Iterator<Map.Entry<String, File>> children = directories.peek();
+            if (!children.hasNext()) {
+               directories.pop();
+               continue;
+            }
+            Map.Entry<String, File> child = children.next();
+            String key = child.getKey();
+            if (!key.endsWith(File.separator)) {
+               if (prefix != null && !key.startsWith(prefix)) {
+                  continue;
+               }
+            } else {
+               String fullPath = key.substring(0, key.length() - File.separator.length());
+               if (prefix != null && !fullPath.startsWith(prefix) && !prefix.startsWith(fullPath + "/")) {
+                  continue;
+               }
+               // Skip recursion if the delimiter tells us not to return children, or if they all sort before
+               // startAfter.
+               boolean skipChildren = (delimiter != null && delimiter.equals("/"))
+                     || (startAfter != null && key.compareTo(startAfter) < 0 && !startAfter.startsWith(key));
+               if (!skipChildren) {
+                  directories.push(sortedChildren(child.getValue()));
+               }
+            }
+            if (startAfter != null && key.compareTo(startAfter) <= 0) {
+               continue;
+            }
+            return key;
+         }
+         return endOfData();
+      }
+   }
+
    private static void populateBlobKeysInContainer(File directory, Set<String> blobNames,
          String prefix, String delimiter, Function<String, String> function) {
       File[] children = directory.listFiles();
@@ -23,19 +23,22 @@ import java.io.IOException;
 
 import org.jclouds.glacier.reference.GlacierHeaders;
 import org.jclouds.glacier.util.TreeHash;
+import org.jclouds.glacier.util.TreeHashedPayload;
 import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.io.Payload;
 import org.jclouds.rest.Binder;
 
 /**
- * Binds the linear hash and the tree hash of payload to the request headers.
+ * Binds the linear hash and the tree hash of payload to the request headers. Hashes already carried by a
+ * {@link TreeHashedPayload} are reused.
  */
 public class BindHashesToHeaders implements Binder {
 
    private HttpRequest addChecksumHeaders(HttpRequest request, Payload payload) {
       try {
-         TreeHash hash = TreeHash.buildTreeHashFromPayload(payload);
+         TreeHash hash = payload instanceof TreeHashedPayload ? ((TreeHashedPayload) payload).getTreeHash()
+               : TreeHash.buildTreeHashFromPayload(payload);
          request = request.toBuilder()
                .addHeader(GlacierHeaders.LINEAR_HASH, hash.getLinearHash().toString())
                .addHeader(GlacierHeaders.TREE_HASH, hash.getTreeHash().toString())
@@ -26,7 +26,7 @@ import org.jclouds.glacier.blobstore.strategy.SlicingStrategy;
 import org.jclouds.glacier.blobstore.strategy.internal.BasePollingStrategy;
 import org.jclouds.glacier.blobstore.strategy.internal.BaseSlicingStrategy;
 import org.jclouds.glacier.blobstore.strategy.internal.ClearVaultStrategy;
-import org.jclouds.glacier.blobstore.strategy.internal.SequentialMultipartUploadStrategy;
+import org.jclouds.glacier.blobstore.strategy.internal.ParallelMultipartUploadStrategy;
 
 import com.google.inject.AbstractModule;
 
@@ -35,7 +35,7 @@ public class GlacierBlobStoreContextModule extends AbstractModule {
    protected void configure() {
       bind(ConsistencyModel.class).toInstance(ConsistencyModel.EVENTUAL);
       bind(BlobStore.class).to(GlacierBlobStore.class);
-      bind(MultipartUploadStrategy.class).to(SequentialMultipartUploadStrategy.class);
+      bind(MultipartUploadStrategy.class).to(ParallelMultipartUploadStrategy.class);
       bind(SlicingStrategy.class).to(BaseSlicingStrategy.class);
       bind(ClearListStrategy.class).to(ClearVaultStrategy.class);
       bind(PollingStrategy.class).to(BasePollingStrategy.class);
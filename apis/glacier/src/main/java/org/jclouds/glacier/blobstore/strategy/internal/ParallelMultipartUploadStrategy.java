@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.glacier.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.Constants;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.glacier.GlacierClient;
+import org.jclouds.glacier.blobstore.strategy.MultipartUploadStrategy;
+import org.jclouds.glacier.blobstore.strategy.PayloadSlice;
+import org.jclouds.glacier.blobstore.strategy.SlicingStrategy;
+import org.jclouds.glacier.util.TreeHash;
+import org.jclouds.glacier.util.TreeHashedPayload;
+import org.jclouds.io.Payload;
+
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+/**
+ * This implementation uploads up to {@code jclouds.mpu.parallel.degree} parts concurrently.
+ * <p>
+ * The source is read sequentially on the calling thread. Each part is copied into a buffer and its tree hash is
+ * computed during that same read, so the upload is sent from memory and the source is read only once. At most
+ * {@code jclouds.mpu.parallel.degree} parts are buffered or in flight at any time, and the buffers of those parts
+ * together hold at most {@code jclouds.mpu.parallel.max-buffered-bytes}; a part bigger than that budget waits until
+ * it is the only one buffered. Parts larger than {@link #MAX_BUFFERED_PART_SIZE} are not buffered and are hashed when
+ * they are bound to the request instead.
+ */
+@Singleton
+public class ParallelMultipartUploadStrategy implements MultipartUploadStrategy {
+   public static final int DEFAULT_PARALLEL_DEGREE = 4;
+   public static final long MAX_BUFFERED_PART_SIZE = 256L << 20;
+   public static final int DEFAULT_MAX_BUFFERED_BYTES = 256 << 20;
+
+   private static final ListeningExecutorService CALLING_THREAD = newDirectExecutorService();
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.parallel.degree")
+   private int parallelDegree = DEFAULT_PARALLEL_DEGREE;
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.parallel.max-buffered-bytes")
+   private int maxBufferedBytes = DEFAULT_MAX_BUFFERED_BYTES;
+
+   private final GlacierClient client;
+   private final SlicingStrategy slicer;
+   private final ListeningExecutorService userExecutor;
+
+   @Inject
+   public ParallelMultipartUploadStrategy(GlacierClient client, SlicingStrategy slicer,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.client = checkNotNull(client, "client");
+      this.slicer = checkNotNull(slicer, "slicer");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+   }
+
+   @Override
+   public String execute(String container, Blob blob) {
+      Payload payload = blob.getPayload();
+      slicer.startSlicing(payload);
+      String uploadId = client.initiateMultipartUpload(container, slicer.getPartSizeInMB(),
+            blob.getMetadata().getName());
+      Map<Integer, HashCode> hashes = new ConcurrentHashMap<Integer, HashCode>();
+      List<ListenableFuture<Void>> uploads = Lists.newArrayList();
+      Semaphore permits = new Semaphore(Math.max(1, parallelDegree));
+      Semaphore bufferedBytes = new Semaphore(Math.max(1, maxBufferedBytes));
+      AtomicBoolean failed = new AtomicBoolean();
+      RuntimeException failure = null;
+      try {
+         while (slicer.hasNext() && !failed.get()) {
+            permits.acquire();
+            uploads.add(uploadPart(container, uploadId, slicer.nextSlice(), payload.isRepeatable(), hashes,
+                  permits, bufferedBytes, failed));
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         failure = new RuntimeException(e);
+      } catch (RuntimeException e) {
+         failure = e;
+      }
+      for (ListenableFuture<Void> upload : uploads) {
+         try {
+            getUninterruptibly(upload);
+         } catch (ExecutionException e) {
+            if (failure == null) {
+               failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                     : new RuntimeException(e.getCause());
+            }
+         } catch (RuntimeException e) {
+            if (failure == null) {
+               failure = e;
+            }
+         }
+      }
+      try {
+         if (failure != null) {
+            throw failure;
+         }
+         return client.completeMultipartUpload(container, uploadId, hashes,
+               payload.getContentMetadata().getContentLength());
+      } catch (RuntimeException exception) {
+         client.abortMultipartUpload(container, uploadId);
+         throw exception;
+      }
+   }
+
+   private ListenableFuture<Void> uploadPart(final String container, final String uploadId, final PayloadSlice slice,
+         boolean repeatable, final Map<Integer, HashCode> hashes, final Semaphore permits,
+         final Semaphore bufferedBytes, final AtomicBoolean failed) throws InterruptedException {
+      final Payload payload;
+      final int reserved;
+      ListeningExecutorService executor = userExecutor;
+      try {
+         long length = slice.getPayload().getContentMetadata().getContentLength();
+         if (length <= MAX_BUFFERED_PART_SIZE) {
+            // a part bigger than the whole budget takes all of it rather than waiting forever
+            reserved = (int) Math.min(length, Math.max(1, maxBufferedBytes));
+            bufferedBytes.acquire(reserved);
+            try {
+               payload = buffer(slice.getPayload(), (int) length);
+            } catch (RuntimeException e) {
+               bufferedBytes.release(reserved);
+               throw e;
+            }
+         } else {
+            reserved = 0;
+            payload = slice.getPayload();
+            if (!repeatable) {
+               // slices of a stream share it and must be consumed in order
+               executor = CALLING_THREAD;
+            }
+         }
+      } catch (InterruptedException | RuntimeException e) {
+         permits.release();
+         throw e;
+      }
+      return executor.submit(new Callable<Void>() {
+         @Override
+         public Void call() {
+            try {
+               hashes.put(slice.getPart(), client.uploadPart(container, uploadId, slice.getRange(), payload));
+               return null;
+            } catch (RuntimeException e) {
+               failed.set(true);
+               throw e;
+            } finally {
+               bufferedBytes.release(reserved);
+               permits.release();
+            }
+         }
+      });
+   }
+
+   private static TreeHashedPayload buffer(Payload slice, int length) {
+      byte[] buffer = new byte[length];
+      InputStream is = null;
+      try {
+         is = slice.openStream();
+         return new TreeHashedPayload(buffer, TreeHash.buildTreeHashFromStream(is, buffer));
+      } catch (IOException e) {
+         throw new RuntimeException("Error reading the part", e);
+      } finally {
+         closeQuietly(is);
+      }
+   }
+}
@@ -33,6 +33,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteStreams;
@@ -126,6 +127,28 @@ public final class TreeHash {
       }
    }
 
+   /**
+    * Reads exactly {@code buffer.length} bytes from the stream into the buffer and builds the Hash and the TreeHash
+    * values of those bytes in the same pass, one chunk at a time as it arrives.
+    *
+    * @return The calculated TreeHash.
+    * @throws java.io.EOFException if the stream ends before the buffer is filled.
+    * @see <a href="http://docs.aws.amazon.com/amazonglacier/latest/dev/checksum-calculations.html" />
+    */
+   public static TreeHash buildTreeHashFromStream(InputStream is, byte[] buffer) throws IOException {
+      checkNotNull(is, "is");
+      checkNotNull(buffer, "buffer");
+      Builder<HashCode> list = ImmutableList.builder();
+      Hasher linearHasher = Hashing.sha256().newHasher();
+      for (int offset = 0; offset < buffer.length; offset += CHUNK_SIZE) {
+         int length = Math.min(CHUNK_SIZE, buffer.length - offset);
+         ByteStreams.readFully(is, buffer, offset, length);
+         linearHasher.putBytes(buffer, offset, length);
+         list.add(Hashing.sha256().hashBytes(buffer, offset, length));
+      }
+      return new TreeHash(hashList(list.build()), linearHasher.hash());
+   }
+
    /**
     * Builds a TreeHash based on a map of hashed chunks.
     *
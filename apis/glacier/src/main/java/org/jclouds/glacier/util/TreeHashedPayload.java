@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.glacier.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.jclouds.io.payloads.ByteArrayPayload;
+
+/**
+ * A buffered payload whose TreeHash was computed while the buffer was being filled, so binding it to a request
+ * does not need another pass over the data.
+ */
+public class TreeHashedPayload extends ByteArrayPayload {
+   private final TreeHash treeHash;
+
+   public TreeHashedPayload(byte[] content, TreeHash treeHash) {
+      super(content);
+      this.treeHash = checkNotNull(treeHash, "treeHash");
+   }
+
+   public TreeHash getTreeHash() {
+      return treeHash;
+   }
+}
@@ -16,6 +16,7 @@
  */
 package org.jclouds.glacier.blobstore.strategy.internal;
 
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
@@ -33,6 +34,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Executors;
 
 import org.jclouds.ContextBuilder;
 import org.jclouds.blobstore.domain.internal.BlobBuilderImpl;
@@ -47,7 +49,9 @@ import org.testng.annotations.Test;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.hash.HashCode;
 import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Module;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -147,4 +151,63 @@ public class MultipartUploadStrategyMockTest {
       }
    }
 
+   @Test
+   public void testParallelMPU() throws IOException, InterruptedException {
+      server.setDispatcher(new Dispatcher() {
+         @Override
+         public MockResponse dispatch(RecordedRequest request) {
+            if (request.getMethod().equals("PUT")) {
+               return new MockResponse().setResponseCode(204).addHeader(TREE_HASH,
+                     request.getBodySize() == 8 * MiB ? hash8 : hash4);
+            } else if (request.getPath().endsWith("/multipart-uploads")) {
+               return new MockResponse().setResponseCode(201).addHeader(MULTIPART_UPLOAD_ID, "upload-id");
+            }
+            return new MockResponse().setResponseCode(201).addHeader(ARCHIVE_ID, "archive-id");
+         }
+      });
+      ListeningExecutorService executor = listeningDecorator(Executors.newFixedThreadPool(4));
+      try {
+         ParallelMultipartUploadStrategy strat = new ParallelMultipartUploadStrategy(client,
+               new BaseSlicingStrategy(new BasePayloadSlicer()), executor);
+
+         assertThat(strat.execute("vault", new BlobBuilderImpl().name("test").payload(buildPayload(100 * MiB)).build()))
+               .isEqualTo("archive-id");
+      } finally {
+         executor.shutdownNow();
+      }
+
+      server.takeRequest();
+      for (int i = 0; i < 13; i++) {
+         RecordedRequest part = server.takeRequest();
+         assertThat(part.getRequestLine()).isEqualTo("PUT /-/vaults/vault/multipart-uploads/upload-id HTTP/1.1");
+         assertThat(HashCode.fromString(part.getHeader(TREE_HASH)))
+               .isEqualTo(part.getBodySize() == 8 * MiB ? hash8 : hash4);
+      }
+
+      RecordedRequest complete = server.takeRequest();
+      assertThat(complete.getRequestLine()).isEqualTo("POST /-/vaults/vault/multipart-uploads/upload-id HTTP/1.1");
+      assertThat(HashCode.fromString(complete.getHeader(TREE_HASH))).isEqualTo(hcomp);
+      assertThat(Long.parseLong(complete.getHeader(ARCHIVE_SIZE))).isEqualTo(100 * MiB);
+   }
+
+   @Test(expectedExceptions = HttpResponseException.class)
+   public void testParallelMPUAbort() throws InterruptedException {
+      server.enqueue(new MockResponse().setResponseCode(201).addHeader(MULTIPART_UPLOAD_ID, "upload-id"));
+      server.enqueue(new MockResponse().setResponseCode(204).addHeader(TREE_HASH, hash8));
+      server.enqueue(new MockResponse().setResponseCode(404));
+      server.enqueue(new MockResponse().setResponseCode(204));
+
+      ParallelMultipartUploadStrategy strat = new ParallelMultipartUploadStrategy(client,
+            new BaseSlicingStrategy(new BasePayloadSlicer()), newDirectExecutorService());
+
+      try {
+         strat.execute("vault", new BlobBuilderImpl().name("test").payload(buildPayload(100 * MiB)).build());
+      } finally {
+         server.takeRequest();
+         server.takeRequest();
+         server.takeRequest();
+         RecordedRequest abort = server.takeRequest();
+         assertThat(abort.getRequestLine()).isEqualTo("DELETE /-/vaults/vault/multipart-uploads/upload-id HTTP/1.1");
+      }
+   }
 }
@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.jclouds.glacier.util.TestUtils.MiB;
 import static org.jclouds.glacier.util.TestUtils.buildData;
 
+import java.io.EOFException;
 import java.io.IOException;
 
 import org.jclouds.io.payloads.ByteSourcePayload;
@@ -28,6 +29,7 @@ import org.testng.annotations.Test;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.hash.HashCode;
+import com.google.common.io.ByteSource;
 
 @Test(groups = "unit", testName = "TreeHasherTest")
 public class TreeHashTest {
@@ -76,4 +78,18 @@ public class TreeHashTest {
       HashCode treehash = TreeHash.buildTreeHashFromMap(map.build());
       assertThat(treehash).isEqualTo(HashCode.fromString("560c2c9333c719cb00cfdffee3ba293db17f58743cdd1f7e4055373ae6300afa"));
    }
+
+   @Test
+   public void testBuildTreeHashFromStreamFillsBufferAndMatchesPayloadHash() throws IOException {
+      ByteSource data = buildData(3 * MiB + 512 * 1024);
+      byte[] buffer = new byte[(int) data.size()];
+      TreeHash th = TreeHash.buildTreeHashFromStream(data.openStream(), buffer);
+      assertThat(th).isEqualTo(TreeHash.buildTreeHashFromPayload(new ByteSourcePayload(data)));
+      assertThat(buffer).isEqualTo(data.read());
+   }
+
+   @Test(expectedExceptions = EOFException.class)
+   public void testBuildTreeHashFromShortStream() throws IOException {
+      TreeHash.buildTreeHashFromStream(buildData(MiB).openStream(), new byte[(int) (2 * MiB)]);
+   }
 }
@@ -27,11 +27,13 @@ import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpRetryHandler;
 import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
+import org.jclouds.location.Provider;
 import org.jclouds.logging.Logger;
 import org.jclouds.openstack.keystone.auth.AuthHeaders;
 import org.jclouds.openstack.keystone.auth.domain.AuthInfo;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.LoadingCache;
@@ -55,12 +57,15 @@ public class RetryOnRenew implements HttpRetryHandler {
 
    private final LoadingCache<Credentials, AuthInfo> authenticationResponseCache;
 
+   private final Supplier<Credentials> creds;
+
    private final BackoffLimitedRetryHandler backoffHandler;
 
    @Inject
    RetryOnRenew(LoadingCache<Credentials, AuthInfo> authenticationResponseCache,
-         BackoffLimitedRetryHandler backoffHandler) {
+         @Provider Supplier<Credentials> creds, BackoffLimitedRetryHandler backoffHandler) {
       this.authenticationResponseCache = authenticationResponseCache;
+      this.creds = creds;
       this.backoffHandler = backoffHandler;
    }
 
@@ -93,7 +98,7 @@ public class RetryOnRenew implements HttpRetryHandler {
                   // First time this non-authentication request failed
                   logger.debug("invalidating authentication token - first time for %s", command);
                   retryCountMap.put(command, 1);
-                  authenticationResponseCache.invalidateAll();
+                  invalidate(command);
                   retry = true;
                } else {
                   // This request has failed before
@@ -105,7 +110,7 @@ public class RetryOnRenew implements HttpRetryHandler {
                      logger.debug("invalidating authentication token - retry %s for %s", count, command);
                      retryCountMap.put(command, count + 1);
                      // Wait between retries
-                     authenticationResponseCache.invalidateAll();
+                     invalidate(command);
                      Uninterruptibles.sleepUninterruptibly(5, TimeUnit.SECONDS);
                      retry = true;
                   }
@@ -118,4 +123,24 @@ public class RetryOnRenew implements HttpRetryHandler {
       return retry;
    }
 
+   /**
+    * Removes the token used by the failed request from the cache, unless it
+    * has already been replaced. When many requests fail at once with the same
+    * expired token only the first one causes a new authentication, and the
+    * rest are retried with the token it obtains.
+    */
+   private void invalidate(HttpCommand command) {
+      Credentials key = creds.get();
+      AuthInfo current = authenticationResponseCache.getIfPresent(key);
+      if (current == null) {
+         return;
+      }
+      String failedToken = command.getCurrentRequest().getFirstHeaderOrNull(AuthHeaders.AUTH_TOKEN);
+      if (failedToken != null && !failedToken.equals(current.getAuthToken())) {
+         logger.debug("authentication token already renewed for %s", command);
+         return;
+      }
+      authenticationResponseCache.asMap().remove(key, current);
+   }
+
 }
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.openstack.keystone.auth.suppliers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.openstack.keystone.config.KeystoneProperties.TOKEN_REFRESH_MARGIN;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.Resource;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.location.Provider;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.keystone.auth.domain.AuthInfo;
+import org.jclouds.openstack.keystone.v2_0.domain.Access;
+import org.jclouds.openstack.keystone.v3.domain.Token;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.cache.LoadingCache;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+/**
+ * Supplies the cached {@link AuthInfo}, renewing the token before it expires.
+ * <p>
+ * Once the token is within the refresh margin of its expiration, a single
+ * background refresh of the cache is triggered and the current token keeps
+ * being returned until the new one is available. Only if the token has already
+ * expired do callers wait, and then for a single authentication request.
+ */
+@Singleton
+public class RefreshingAuthInfoSupplier implements Supplier<AuthInfo> {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named(TOKEN_REFRESH_MARGIN)
+   protected long refreshMarginSeconds = 300;
+
+   private final LoadingCache<Credentials, AuthInfo> cache;
+   private final Supplier<Credentials> creds;
+   // Earliest time another background refresh may be triggered, so a server
+   // that keeps returning a token close to expiry is not asked on every call
+   private final AtomicLong nextRefreshMillis = new AtomicLong();
+
+   @Inject
+   RefreshingAuthInfoSupplier(LoadingCache<Credentials, AuthInfo> cache, @Provider Supplier<Credentials> creds) {
+      this.cache = checkNotNull(cache, "cache");
+      this.creds = checkNotNull(creds, "creds");
+   }
+
+   @Override
+   public AuthInfo get() {
+      Credentials key = creds.get();
+      AuthInfo authInfo = cache.getUnchecked(key);
+      Date expires = expires(authInfo);
+      if (expires == null) {
+         return authInfo;
+      }
+
+      long now = System.currentTimeMillis();
+      long remaining = expires.getTime() - now;
+      if (remaining <= 0) {
+         // Only the first caller to see the expired token removes it, so the
+         // others wait for the same load instead of authenticating again
+         logger.debug("authentication token expired at %s", expires);
+         cache.asMap().remove(key, authInfo);
+         return cache.getUnchecked(key);
+      }
+      if (remaining <= TimeUnit.SECONDS.toMillis(refreshMarginSeconds)) {
+         long next = nextRefreshMillis.get();
+         if (now >= next && nextRefreshMillis.compareAndSet(next, now + remaining / 2)) {
+            logger.debug("refreshing authentication token expiring at %s", expires);
+            cache.refresh(key);
+         }
+      }
+      return authInfo;
+   }
+
+   @VisibleForTesting
+   static Date expires(AuthInfo authInfo) {
+      if (authInfo instanceof Access) {
+         return ((Access) authInfo).getToken().getExpires();
+      }
+      if (authInfo instanceof Token) {
+         return ((Token) authInfo).expiresAt();
+      }
+      return null;
+   }
+}
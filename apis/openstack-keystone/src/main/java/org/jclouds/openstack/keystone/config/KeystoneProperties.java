@@ -120,6 +120,13 @@ public final class KeystoneProperties {
     */
    public static final String KEYSTONE_VERSION = "jclouds.keystone.version";
 
+   /**
+    * Number of seconds before the token expires at which a new token is
+    * requested in the background, while the current one is still used.
+    * Default: 300.
+    */
+   public static final String TOKEN_REFRESH_MARGIN = "jclouds.keystone.token-refresh-margin";
+
    private KeystoneProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
@@ -16,23 +16,31 @@
  */
 package org.jclouds.openstack.keystone.auth.handlers;
 
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
-import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.jclouds.domain.Credentials;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.jclouds.io.Payloads;
+import org.jclouds.openstack.keystone.auth.AuthHeaders;
 import org.jclouds.openstack.keystone.auth.domain.AuthInfo;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Suppliers;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 
 /**
@@ -40,6 +48,8 @@ import com.google.common.cache.LoadingCache;
  */
 @Test(groups = "unit", testName = "RetryOnRenewTest")
 public class RetryOnRenewTest {
+   private static final Credentials CREDENTIALS = new Credentials("identity", "credential");
+
    @Test
    public void test401ShouldRetry() {
       HttpCommand command = createMock(HttpCommand.class);
@@ -49,26 +59,36 @@ public class RetryOnRenewTest {
       LoadingCache<Credentials, AuthInfo> cache = createMock(LoadingCache.class);
       BackoffLimitedRetryHandler backoffHandler = createMock(BackoffLimitedRetryHandler.class);
 
-      expect(command.getCurrentRequest()).andReturn(request);
+      @SuppressWarnings("unchecked")
+      ConcurrentMap<Credentials, AuthInfo> cacheMap = createMock(ConcurrentMap.class);
+      AuthInfo authInfo = authInfo("token");
+
+      expect(command.getCurrentRequest()).andReturn(request).times(2);
+      expect(request.getHeaders()).andStubReturn(null);
+      expect(request.getFirstHeaderOrNull(AuthHeaders.AUTH_TOKEN)).andReturn("token");
 
-      cache.invalidateAll();
-      expectLastCall();
+      // the token the request failed with is evicted, so the next get authenticates again
+      expect(cache.getIfPresent(CREDENTIALS)).andReturn(authInfo);
+      expect(cache.asMap()).andReturn(cacheMap);
+      expect(cacheMap.remove(CREDENTIALS, authInfo)).andReturn(true);
 
       expect(response.getPayload()).andReturn(Payloads.newStringPayload("")).anyTimes();
       expect(response.getStatusCode()).andReturn(401).atLeastOnce();
 
       replay(command);
+      replay(request);
       replay(response);
-      replay(cache);
+      replay(cache, cacheMap);
       replay(backoffHandler);
 
-      RetryOnRenew retry = new RetryOnRenew(cache, backoffHandler);
+      RetryOnRenew retry = new RetryOnRenew(cache, Suppliers.ofInstance(CREDENTIALS), backoffHandler);
 
       assertTrue(retry.shouldRetryRequest(command, response));
 
       verify(command);
+      verify(request);
       verify(response);
-      verify(cache);
+      verify(cache, cacheMap);
    }
 
    @Test
@@ -81,18 +101,25 @@ public class RetryOnRenewTest {
       LoadingCache<Credentials, AuthInfo> cache = createMock(LoadingCache.class);
       BackoffLimitedRetryHandler backoffHandler = createMock(BackoffLimitedRetryHandler.class);
 
+      @SuppressWarnings("unchecked")
+      ConcurrentMap<Credentials, AuthInfo> cacheMap = createMock(ConcurrentMap.class);
+      AuthInfo authInfo = authInfo("token");
+
       expect(command.getCurrentRequest()).andReturn(request).anyTimes();
       expect(request.getHeaders()).andStubReturn(null);
+      expect(request.getFirstHeaderOrNull(AuthHeaders.AUTH_TOKEN)).andStubReturn("token");
 
-      cache.invalidateAll();
-      expectLastCall().anyTimes();
+      // every retry evicts the token again
+      expect(cache.getIfPresent(CREDENTIALS)).andReturn(authInfo).times(RetryOnRenew.NUM_RETRIES - 1);
+      expect(cache.asMap()).andReturn(cacheMap).times(RetryOnRenew.NUM_RETRIES - 1);
+      expect(cacheMap.remove(CREDENTIALS, authInfo)).andReturn(true).times(RetryOnRenew.NUM_RETRIES - 1);
 
       expect(response.getPayload()).andReturn(Payloads.newStringPayload("")).anyTimes();
       expect(response.getStatusCode()).andReturn(401).anyTimes();
 
-      replay(command, request, response, cache);
+      replay(command, request, response, cache, cacheMap);
 
-      RetryOnRenew retry = new RetryOnRenew(cache, backoffHandler);
+      RetryOnRenew retry = new RetryOnRenew(cache, Suppliers.ofInstance(CREDENTIALS), backoffHandler);
 
       for (int i = 0; i < RetryOnRenew.NUM_RETRIES - 1; ++i) {
          assertTrue(retry.shouldRetryRequest(command, response), "Expected retry to succeed");
@@ -100,7 +127,7 @@ public class RetryOnRenewTest {
 
       assertFalse(retry.shouldRetryRequest(command, response), "Expected retry to fail on attempt " + RetryOnRenew.NUM_RETRIES);
 
-      verify(command, response, cache);
+      verify(command, response, cache, cacheMap);
    }
 
    @Test
@@ -119,7 +146,7 @@ public class RetryOnRenewTest {
       replay(cache);
       replay(backoffHandler);
 
-      RetryOnRenew retry = new RetryOnRenew(cache, backoffHandler);
+      RetryOnRenew retry = new RetryOnRenew(cache, Suppliers.ofInstance(CREDENTIALS), backoffHandler);
 
       assertTrue(retry.shouldRetryRequest(command, response));
 
@@ -128,4 +155,46 @@ public class RetryOnRenewTest {
       verify(cache);
       verify(backoffHandler);
    }
+
+   @Test
+   public void test401sWithTheSameTokenRenewOnce() {
+      final AtomicInteger authentications = new AtomicInteger();
+      LoadingCache<Credentials, AuthInfo> cache = CacheBuilder.newBuilder().build(
+            CacheLoader.asyncReloading(new CacheLoader<Credentials, AuthInfo>() {
+               @Override
+               public AuthInfo load(Credentials key) {
+                  return authInfo("token" + authentications.incrementAndGet());
+               }
+            }, directExecutor()));
+      BackoffLimitedRetryHandler backoffHandler = createMock(BackoffLimitedRetryHandler.class);
+      HttpResponse response = HttpResponse.builder().statusCode(401).build();
+
+      RetryOnRenew retry = new RetryOnRenew(cache, Suppliers.ofInstance(CREDENTIALS), backoffHandler);
+      String token = cache.getUnchecked(CREDENTIALS).getAuthToken();
+
+      assertTrue(retry.shouldRetryRequest(command(token), response));
+      assertEquals(cache.getUnchecked(CREDENTIALS).getAuthToken(), "token2");
+      // A concurrent request that failed with the same token must not renew it again
+      assertTrue(retry.shouldRetryRequest(command(token), response));
+      assertEquals(cache.getUnchecked(CREDENTIALS).getAuthToken(), "token2");
+      assertEquals(authentications.get(), 2);
+   }
+
+   private static AuthInfo authInfo(final String token) {
+      return new AuthInfo() {
+         @Override
+         public String getAuthToken() {
+            return token;
+         }
+      };
+   }
+
+   private static HttpCommand command(String token) {
+      HttpCommand command = createMock(HttpCommand.class);
+      HttpRequest request = HttpRequest.builder().method("GET").endpoint("http://localhost/servers")
+            .addHeader(AuthHeaders.AUTH_TOKEN, token).build();
+      expect(command.getCurrentRequest()).andReturn(request).anyTimes();
+      replay(command);
+      return command;
+   }
 }
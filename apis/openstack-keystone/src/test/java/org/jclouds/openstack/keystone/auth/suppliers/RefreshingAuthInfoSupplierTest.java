@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.openstack.keystone.auth.suppliers;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.openstack.keystone.auth.domain.AuthInfo;
+import org.jclouds.openstack.keystone.v2_0.domain.Access;
+import org.jclouds.openstack.keystone.v2_0.domain.Token;
+import org.jclouds.openstack.keystone.v2_0.domain.User;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "RefreshingAuthInfoSupplierTest")
+public class RefreshingAuthInfoSupplierTest {
+   private static final Credentials CREDENTIALS = new Credentials("identity", "credential");
+
+   public void testValidTokenIsNotRenewed() {
+      TokenLoader loader = new TokenLoader(TimeUnit.HOURS.toMillis(1));
+      RefreshingAuthInfoSupplier supplier = supplier(loader);
+
+      assertEquals(supplier.get().getAuthToken(), "token1");
+      assertEquals(supplier.get().getAuthToken(), "token1");
+      assertEquals(loader.loads.get(), 1);
+   }
+
+   public void testTokenCloseToExpiryIsRenewedOnceWhileStillUsed() {
+      TokenLoader loader = new TokenLoader(TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(1));
+      RefreshingAuthInfoSupplier supplier = supplier(loader);
+
+      // The refresh runs in the background; the current token is still returned
+      assertEquals(supplier.get().getAuthToken(), "token1");
+      assertEquals(loader.loads.get(), 2);
+      // The renewed token is also close to expiry, but the refresh is not repeated right away
+      assertEquals(supplier.get().getAuthToken(), "token2");
+      assertEquals(supplier.get().getAuthToken(), "token2");
+      assertEquals(loader.loads.get(), 2);
+   }
+
+   public void testExpiredTokenIsReplacedBeforeUse() {
+      TokenLoader loader = new TokenLoader(-1, TimeUnit.HOURS.toMillis(1));
+      RefreshingAuthInfoSupplier supplier = supplier(loader);
+
+      assertEquals(supplier.get().getAuthToken(), "token2");
+      assertEquals(supplier.get().getAuthToken(), "token2");
+      assertEquals(loader.loads.get(), 2);
+   }
+
+   public void testTokensWithoutExpirationAreReturnedAsIs() {
+      AuthInfo authInfo = new AuthInfo() {
+         @Override
+         public String getAuthToken() {
+            return "token";
+         }
+      };
+      assertEquals(RefreshingAuthInfoSupplier.expires(authInfo), null);
+   }
+
+   private static RefreshingAuthInfoSupplier supplier(TokenLoader loader) {
+      LoadingCache<Credentials, AuthInfo> cache = CacheBuilder.newBuilder().build(
+            CacheLoader.asyncReloading(loader, MoreExecutors.directExecutor()));
+      return new RefreshingAuthInfoSupplier(cache, Suppliers.ofInstance(CREDENTIALS));
+   }
+
+   /**
+    * Returns tokens expiring after each of the given lifetimes, in order.
+    */
+   private static final class TokenLoader extends CacheLoader<Credentials, AuthInfo> {
+      private final AtomicInteger loads = new AtomicInteger();
+      private final Iterator<Long> lifetimes;
+
+      TokenLoader(long... lifetimes) {
+         ImmutableList.Builder<Long> builder = ImmutableList.builder();
+         for (long lifetime : lifetimes) {
+            builder.add(lifetime);
+         }
+         this.lifetimes = builder.build().iterator();
+      }
+
+      @Override
+      public AuthInfo load(Credentials key) {
+         Date expires = new Date(System.currentTimeMillis() + lifetimes.next());
+         Token token = Token.builder().id("token" + loads.incrementAndGet()).expires(expires).build();
+         return Access.builder().token(token).user(User.builder().id("id").name("name").build()).build();
+      }
+   }
+}
@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import org.jclouds.route53.domain.Change;
+import org.jclouds.route53.domain.Change.Status;
+import org.jclouds.route53.domain.ChangeBatch;
+import org.jclouds.route53.domain.ChangeBatch.Action;
+import org.jclouds.route53.domain.ResourceRecordSet;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Merges record set changes per hosted zone and applies them as few {@link ChangeBatch}es as possible.
+ * <p/>
+ * Changes to a zone are collected until {@value #MAX_CHANGES_PER_BATCH} are pending, or until the first of them has
+ * waited for the linger window. A delete of a record set whose create is still pending cancels both. Pending changes
+ * are then sent in batches within Route53's limits of {@value #MAX_CHANGES_PER_BATCH} changes and
+ * {@value #MAX_VALUE_CHARACTERS_PER_BATCH} characters of record values. A delete and create of the same record set
+ * always go in the same batch, so a {@link #replace} is applied atomically. A single task polls the status of all
+ * submitted batches.
+ * <p/>
+ * The futures returned complete with the {@link Status#INSYNC} change of the batch that carried the operation. They
+ * complete with null if the operation was cancelled out before it was sent, and fail if Route53 rejected the batch.
+ * All calls run on one background thread, so this sends at most one request at a time.
+ *
+ * <pre>
+ * ChangeCoalescer changes = ChangeCoalescer.builder(route53Api).build();
+ * changes.create(zoneId, rrs);
+ * changes.replace(zoneId, rrs, updated).get();
+ * changes.close();
+ * </pre>
+ */
+@Beta
+public class ChangeCoalescer implements Closeable {
+
+   public static final int MAX_CHANGES_PER_BATCH = 100;
+   public static final int MAX_VALUE_CHARACTERS_PER_BATCH = 32000;
+
+   public static Builder builder(Route53Api api) {
+      return new Builder(api);
+   }
+
+   public static class Builder {
+      private final Route53Api api;
+      private long lingerMillis = 200;
+      private long pollIntervalMillis = 5000;
+
+      private Builder(Route53Api api) {
+         this.api = checkNotNull(api, "api");
+      }
+
+      /**
+       * How long the first pending change of a zone waits for more changes before they are sent. Defaults to 200ms.
+       */
+      public Builder lingerMillis(long lingerMillis) {
+         checkArgument(lingerMillis >= 0, "lingerMillis must be non-negative");
+         this.lingerMillis = lingerMillis;
+         return this;
+      }
+
+      /**
+       * How often the status of submitted batches is checked. Defaults to 5 seconds.
+       */
+      public Builder pollIntervalMillis(long pollIntervalMillis) {
+         checkArgument(pollIntervalMillis > 0, "pollIntervalMillis must be positive");
+         this.pollIntervalMillis = pollIntervalMillis;
+         return this;
+      }
+
+      public ChangeCoalescer build() {
+         return new ChangeCoalescer(this);
+      }
+   }
+
+   private final Route53Api api;
+   private final long lingerMillis;
+   private final ScheduledExecutorService scheduler;
+   private final ScheduledFuture<?> poller;
+   private final Map<String, Zone> zones = Maps.newHashMap();
+   private final Map<String, List<Operation>> submitted = new ConcurrentHashMap<String, List<Operation>>();
+   private boolean closed;
+
+   private ChangeCoalescer(Builder builder) {
+      this.api = builder.api;
+      this.lingerMillis = builder.lingerMillis;
+      this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("jclouds-route53-changes-%d").setDaemon(true).build());
+      this.poller = scheduler.scheduleWithFixedDelay(new Runnable() {
+         @Override
+         public void run() {
+            pollSubmitted();
+         }
+      }, builder.pollIntervalMillis, builder.pollIntervalMillis, MILLISECONDS);
+   }
+
+   /**
+    * Queues the creation of a record set.
+    *
+    * @throws IllegalStateException if a create of the same record set is already pending
+    */
+   public ListenableFuture<Change> create(String zoneId, ResourceRecordSet rrs) {
+      return enqueue(zoneId, null, checkNotNull(rrs, "rrs")).get(0);
+   }
+
+   /**
+    * Queues the deletion of a record set, or cancels its pending creation.
+    *
+    * @throws IllegalStateException if a delete of the same record set is already pending
+    */
+   public ListenableFuture<Change> delete(String zoneId, ResourceRecordSet rrs) {
+      return enqueue(zoneId, checkNotNull(rrs, "rrs"), null).get(0);
+   }
+
+   /**
+    * Queues the replacement of a record set with one of the same name and type. The delete and create are applied in
+    * the same batch, which Route53 applies atomically; the 2012-02-29 API this targets has no {@code UPSERT} action.
+    *
+    * @return a future for the create; the delete completes with it
+    */
+   public ListenableFuture<Change> replace(String zoneId, ResourceRecordSet existing, ResourceRecordSet replacement) {
+      checkArgument(checkNotNull(existing, "existing").equals(checkNotNull(replacement, "replacement")),
+            "%s does not have the same name and type as %s", replacement, existing);
+      return enqueue(zoneId, existing, replacement).get(1);
+   }
+
+   /**
+    * Sends all pending changes without waiting for the linger window.
+    */
+   public void flush() {
+      List<String> zoneIds;
+      synchronized (this) {
+         zoneIds = ImmutableList.copyOf(zones.keySet());
+      }
+      for (final String zoneId : zoneIds) {
+         scheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+               submit(zoneId);
+            }
+         });
+      }
+   }
+
+   /**
+    * Sends all pending changes and stops. Futures of changes that are not yet in sync are cancelled.
+    */
+   @Override
+   public void close() {
+      synchronized (this) {
+         if (closed) {
+            return;
+         }
+         closed = true;
+      }
+      flush();
+      poller.cancel(false);
+      scheduler.shutdown();
+      try {
+         scheduler.awaitTermination(1, MINUTES);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+      for (List<Operation> operations : submitted.values()) {
+         for (Operation operation : operations) {
+            operation.future.cancel(false);
+         }
+      }
+      submitted.clear();
+   }
+
+   private synchronized List<ListenableFuture<Change>> enqueue(final String zoneId, ResourceRecordSet toDelete,
+         ResourceRecordSet toCreate) {
+      checkNotNull(zoneId, "zoneId");
+      checkState(!closed, "coalescer is closed");
+      Zone zone = zones.get(zoneId);
+      if (zone == null) {
+         zone = new Zone();
+         zones.put(zoneId, zone);
+         zone.lingering = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+               submit(zoneId);
+            }
+         }, lingerMillis, MILLISECONDS);
+      }
+      ResourceRecordSet key = toDelete != null ? toDelete : toCreate;
+      Pending pending = zone.pending.get(key);
+      if (pending == null) {
+         pending = new Pending();
+      }
+      boolean cancelsCreate = toDelete != null && pending.create != null;
+      checkState(toDelete == null || cancelsCreate || pending.delete == null, "a delete of %s is already pending",
+            toDelete);
+      checkState(toCreate == null || toDelete != null || pending.create == null, "a create of %s is already pending",
+            toCreate);
+      zone.pending.put(key, pending);
+      List<ListenableFuture<Change>> futures = Lists.newArrayListWithCapacity(2);
+      if (cancelsCreate) {
+         // the record set was never sent, so creating then deleting it is a no-op
+         pending.create.future.set(null);
+         pending.create = null;
+         zone.changes--;
+         futures.add(Futures.<Change> immediateFuture(null));
+      } else if (toDelete != null) {
+         pending.delete = new Operation(Action.DELETE, toDelete);
+         zone.changes++;
+         futures.add(pending.delete.future);
+      }
+      if (toCreate != null) {
+         pending.create = new Operation(Action.CREATE, toCreate);
+         zone.changes++;
+         futures.add(pending.create.future);
+      }
+      if (pending.delete == null && pending.create == null) {
+         zone.pending.remove(key);
+      }
+      if (zone.changes >= MAX_CHANGES_PER_BATCH) {
+         zone.lingering.cancel(false);
+         scheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+               submit(zoneId);
+            }
+         });
+      }
+      return futures;
+   }
+
+   private void submit(String zoneId) {
+      Zone zone;
+      synchronized (this) {
+         zone = zones.remove(zoneId);
+      }
+      if (zone == null) {
+         return;
+      }
+      zone.lingering.cancel(false);
+      for (List<Operation> batch : partition(zone.pending.values())) {
+         ChangeBatch.Builder changes = ChangeBatch.builder();
+         for (Operation operation : batch) {
+            if (operation.action == Action.DELETE) {
+               changes.delete(operation.rrs);
+            } else {
+               changes.create(operation.rrs);
+            }
+         }
+         try {
+            Change change = api.getResourceRecordSetApiForHostedZone(zoneId).apply(changes.build());
+            if (change.getStatus() == Status.INSYNC) {
+               complete(batch, change);
+            } else {
+               submitted.put(change.getId(), batch);
+            }
+         } catch (RuntimeException e) {
+            for (Operation operation : batch) {
+               operation.future.setException(e);
+            }
+         }
+      }
+   }
+
+   private static List<List<Operation>> partition(Iterable<Pending> pending) {
+      List<List<Operation>> batches = Lists.newArrayList();
+      List<Operation> batch = Lists.newArrayList();
+      int characters = 0;
+      for (Pending entry : pending) {
+         List<Operation> unit = entry.operations();
+         int unitCharacters = 0;
+         for (Operation operation : unit) {
+            for (String value : operation.rrs.getValues()) {
+               unitCharacters += value.length();
+            }
+         }
+         if (!batch.isEmpty() && (batch.size() + unit.size() > MAX_CHANGES_PER_BATCH
+               || characters + unitCharacters > MAX_VALUE_CHARACTERS_PER_BATCH)) {
+            batches.add(batch);
+            batch = Lists.newArrayList();
+            characters = 0;
+         }
+         batch.addAll(unit);
+         characters += unitCharacters;
+      }
+      if (!batch.isEmpty()) {
+         batches.add(batch);
+      }
+      return batches;
+   }
+
+   private void pollSubmitted() {
+      for (Iterator<Map.Entry<String, List<Operation>>> it = submitted.entrySet().iterator(); it.hasNext();) {
+         Map.Entry<String, List<Operation>> entry = it.next();
+         Change change;
+         try {
+            change = api.getChange(entry.getKey());
+         } catch (RuntimeException e) {
+            // retried on the next poll
+            continue;
+         }
+         if (change == null) {
+            it.remove();
+            for (Operation operation : entry.getValue()) {
+               operation.future.setException(new IllegalStateException("change " + entry.getKey() + " not found"));
+            }
+         } else if (change.getStatus() == Status.INSYNC) {
+            it.remove();
+            complete(entry.getValue(), change);
+         }
+      }
+   }
+
+   private static void complete(List<Operation> batch, Change change) {
+      for (Operation operation : batch) {
+         operation.future.set(change);
+      }
+   }
+
+   private static final class Zone {
+      private final Map<ResourceRecordSet, Pending> pending = Maps.newLinkedHashMap();
+      private ScheduledFuture<?> lingering;
+      private int changes;
+   }
+
+   /**
+    * The pending operations on one record set, identified by name, type and set identifier.
+    */
+   private static final class Pending {
+      private Operation delete;
+      private Operation create;
+
+      private List<Operation> operations() {
+         if (delete == null) {
+            return ImmutableList.of(create);
+         } else if (create == null) {
+            return ImmutableList.of(delete);
+         }
+         return ImmutableList.of(delete, create);
+      }
+   }
+
+   private static final class Operation {
+      private final Action action;
+      private final ResourceRecordSet rrs;
+      private final SettableFuture<Change> future = SettableFuture.create();
+
+      private Operation(Action action, ResourceRecordSet rrs) {
+         this.action = action;
+         this.rrs = rrs;
+      }
+   }
+}
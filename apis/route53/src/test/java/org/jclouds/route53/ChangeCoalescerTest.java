@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.easymock.IAnswer;
+import org.jclouds.route53.domain.Change;
+import org.jclouds.route53.domain.Change.Status;
+import org.jclouds.route53.domain.ChangeBatch;
+import org.jclouds.route53.domain.ResourceRecordSet;
+import org.jclouds.route53.features.ResourceRecordSetApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Tests behavior of {@code ChangeCoalescer}.
+ */
+@Test(groups = "unit", testName = "ChangeCoalescerTest")
+public class ChangeCoalescerTest {
+
+   private static ResourceRecordSet a(String name, String address) {
+      return ResourceRecordSet.builder().name(name).type("A").ttl(300).add(address).build();
+   }
+
+   private static Route53Api recordingApi(final List<ChangeBatch> batches) {
+      Route53Api api = createMock(Route53Api.class);
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      expect(api.getResourceRecordSetApiForHostedZone("Z1")).andReturn(rrsApi).anyTimes();
+      expect(rrsApi.apply(anyObject(ChangeBatch.class))).andAnswer(new IAnswer<Change>() {
+         @Override
+         public Change answer() {
+            batches.add((ChangeBatch) getCurrentArguments()[0]);
+            return Change.create("C" + batches.size(), Status.PENDING, new Date());
+         }
+      }).anyTimes();
+      expect(api.getChange(anyObject(String.class))).andAnswer(new IAnswer<Change>() {
+         @Override
+         public Change answer() {
+            return Change.create((String) getCurrentArguments()[0], Status.INSYNC, new Date());
+         }
+      }).anyTimes();
+      replay(api, rrsApi);
+      return api;
+   }
+
+   public void testOpposingChangesCancelAndTheRestShareOneBatch() throws Exception {
+      List<ChangeBatch> batches = new CopyOnWriteArrayList<ChangeBatch>();
+      ChangeCoalescer changes = ChangeCoalescer.builder(recordingApi(batches)).lingerMillis(60000)
+            .pollIntervalMillis(10).build();
+      try {
+         ListenableFuture<Change> createdThenDeleted = changes.create("Z1", a("a.example.com.", "1.1.1.1"));
+         ListenableFuture<Change> created = changes.create("Z1", a("b.example.com.", "1.1.1.2"));
+         ListenableFuture<Change> deleted = changes.delete("Z1", a("a.example.com.", "1.1.1.1"));
+         ListenableFuture<Change> replaced = changes.replace("Z1", a("c.example.com.", "1.1.1.3"),
+               a("c.example.com.", "1.1.1.4"));
+         changes.flush();
+
+         assertNull(createdThenDeleted.get(5, SECONDS));
+         assertNull(deleted.get(5, SECONDS));
+         assertEquals(created.get(5, SECONDS).getStatus(), Status.INSYNC);
+         assertEquals(replaced.get(5, SECONDS).getId(), "C1");
+      } finally {
+         changes.close();
+      }
+
+      assertEquals(batches, ImmutableList.of(ChangeBatch.builder().create(a("b.example.com.", "1.1.1.2"))
+            .delete(a("c.example.com.", "1.1.1.3")).create(a("c.example.com.", "1.1.1.4")).build()));
+   }
+
+   public void testBatchesAreSplitAtTheChangeLimit() throws Exception {
+      List<ChangeBatch> batches = new CopyOnWriteArrayList<ChangeBatch>();
+      ChangeCoalescer changes = ChangeCoalescer.builder(recordingApi(batches)).lingerMillis(60000)
+            .pollIntervalMillis(10).build();
+      ListenableFuture<Change> last = null;
+      try {
+         for (int i = 0; i < 150; i++) {
+            last = changes.create("Z1", a("host" + i + ".example.com.", "10.0.0.1"));
+         }
+         changes.flush();
+         assertEquals(last.get(5, SECONDS).getStatus(), Status.INSYNC);
+      } finally {
+         changes.close();
+      }
+
+      assertEquals(batches.size(), 2);
+      assertEquals(batches.get(0).size(), ChangeCoalescer.MAX_CHANGES_PER_BATCH);
+      assertEquals(batches.get(1).size(), 50);
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testDuplicateCreateIsRejected() {
+      ChangeCoalescer changes = ChangeCoalescer.builder(recordingApi(new CopyOnWriteArrayList<ChangeBatch>()))
+            .build();
+      try {
+         changes.create("Z1", a("a.example.com.", "1.1.1.1"));
+         changes.create("Z1", a("a.example.com.", "1.1.1.2"));
+      } finally {
+         changes.close();
+      }
+   }
+}
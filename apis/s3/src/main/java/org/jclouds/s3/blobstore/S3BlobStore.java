@@ -65,6 +65,7 @@ import org.jclouds.s3.domain.AccessControlList.GroupGranteeURI;
 import org.jclouds.s3.domain.AccessControlList.Permission;
 import org.jclouds.s3.domain.BucketMetadata;
 import org.jclouds.s3.domain.CannedAccessPolicy;
+import org.jclouds.s3.domain.DeleteResult;
 import org.jclouds.s3.domain.ListMultipartUploadResponse;
 import org.jclouds.s3.domain.ListMultipartUploadsResponse;
 import org.jclouds.s3.options.CopyObjectOptions;
@@ -79,6 +80,7 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 
 @Singleton
 public class S3BlobStore extends BaseBlobStore {
@@ -335,10 +337,19 @@ public class S3BlobStore extends BaseBlobStore {
       sync.deleteObject(container, key);
    }
 
+   /**
+    * Deletes the keys in batches of {@link #getMaximumNumberOfBlobsPerRemove} and fails if S3 reported an error for any
+    * of them, after all batches have been sent.
+    */
    @Override
    public void removeBlobs(String container, Iterable<String> keys) {
-      for (List<String> partition : Iterables.partition(keys, 1000)) {
-         sync.deleteObjects(container, partition);
+      Map<String, DeleteResult.Error> errors = Maps.newLinkedHashMap();
+      for (List<String> partition : Iterables.partition(keys, getMaximumNumberOfBlobsPerRemove())) {
+         errors.putAll(sync.deleteObjects(container, partition).getErrors());
+      }
+      if (!errors.isEmpty()) {
+         throw new IllegalStateException(String.format("failed to delete %d blobs from %s: %s", errors.size(),
+               container, errors));
       }
    }
 
@@ -438,6 +449,11 @@ public class S3BlobStore extends BaseBlobStore {
       return 10 * 1000;
    }
 
+   @Override
+   public int getMaximumNumberOfBlobsPerRemove() {
+      return 1000;
+   }
+
    /**
     * This implementation invokes {@link S3Utils#deleteAndVerifyContainerGone}
     */
@@ -19,12 +19,9 @@ package org.jclouds.s3.filters;
 import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.io.BaseEncoding.base16;
-import static com.google.common.io.ByteStreams.readBytes;
 import static org.jclouds.crypto.Macs.asByteProcessor;
 import static org.jclouds.http.utils.Queries.queryParser;
-import static org.jclouds.util.Strings2.toInputStream;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -33,6 +30,7 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.SortedMap;
@@ -42,6 +40,9 @@ import jakarta.inject.Inject;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Maps;
@@ -50,7 +51,6 @@ import com.google.common.escape.Escaper;
 import com.google.common.hash.Hashing;
 import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteProcessor;
-import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
 import com.google.common.net.HttpHeaders;
 import com.google.common.net.PercentEscaper;
@@ -77,6 +77,9 @@ public abstract class Aws4SignerBase {
 
    private static final Escaper AWS_PATH_ESCAPER = new PercentEscaper("/-_.~", false);
 
+   // a signing key is valid for a whole day, so a handful of regions and services only need a few keys at a time
+   private static final int MAX_SIGNING_KEYS = 64;
+
    // Specifying a default for how to parse the service and region in this way allows
    // tests or other downstream services to not have to use guice overrides.
    @ImplementedBy(ServiceAndRegion.AWSServiceAndRegion.class)
@@ -116,6 +119,10 @@ public abstract class Aws4SignerBase {
    protected final Supplier<Date> timestampProvider;
    protected final Crypto crypto;
 
+   // keyed on secret key, datestamp, region and service
+   private final Cache<List<String>, byte[]> signingKeys = CacheBuilder.newBuilder().maximumSize(MAX_SIGNING_KEYS)
+         .build();
+   private volatile String signingKeysSecret;
 
    protected Aws4SignerBase(SignatureWire signatureWire, String headerTag,
          Supplier<Credentials> creds, Supplier<Date> timestampProvider,
@@ -207,9 +214,24 @@ public abstract class Aws4SignerBase {
     * @param datestamp date yyyyMMdd
     * @param region   AWS region
     * @param service   AWS service
-    * @return SigningKey
+    * @return SigningKey, which is cached per secret key, day, region and service and must not be modified
     */
    protected byte[] signatureKey(String secretKey, String datestamp, String region, String service) {
+      if (!secretKey.equals(signingKeysSecret)) {
+         // credentials rotated: drop keys derived from the previous secret
+         signingKeys.invalidateAll();
+         signingKeysSecret = secretKey;
+      }
+      List<String> scope = ImmutableList.of(secretKey, datestamp, region, service);
+      byte[] kSigning = signingKeys.getIfPresent(scope);
+      if (kSigning == null) {
+         kSigning = computeSignatureKey(secretKey, datestamp, region, service);
+         signingKeys.put(scope, kSigning);
+      }
+      return kSigning;
+   }
+
+   private byte[] computeSignatureKey(String secretKey, String datestamp, String region, String service) {
       byte[] kSecret = ("AWS4" + secretKey).getBytes(UTF_8);
       byte[] kDate = hmacSHA256(datestamp, kSecret);
       byte[] kRegion = hmacSHA256(region, kDate);
@@ -226,9 +248,7 @@ public abstract class Aws4SignerBase {
     */
    protected byte[] hmacSHA256(String toSign, byte[] key) {
       try {
-         return readBytes(toInputStream(toSign), hmacSHA256(crypto, key));
-      } catch (IOException e) {
-         throw new HttpException("read sign error", e);
+         return crypto.hmacSHA256(key).doFinal(toSign.getBytes(UTF_8));
       } catch (InvalidKeyException e) {
          throw new HttpException("invalid key", e);
       }
@@ -263,11 +283,7 @@ public abstract class Aws4SignerBase {
     * @throws HttpException
     */
    public static byte[] hash(byte[] bytes) throws HttpException {
-      try {
-         return ByteSource.wrap(bytes).hash(Hashing.sha256()).asBytes();
-      } catch (IOException e) {
-         throw new HttpException("Unable to compute hash while signing request: " + e.getMessage(), e);
-      }
+      return Hashing.sha256().hashBytes(bytes).asBytes();
    }
 
    /**
@@ -278,7 +294,7 @@ public abstract class Aws4SignerBase {
     * @throws HttpException
     */
    public static byte[] hash(String input) throws HttpException {
-      return hash(new ByteArrayInputStream(input.getBytes(UTF_8)));
+      return Hashing.sha256().hashString(input, UTF_8).asBytes();
    }
 
    /**
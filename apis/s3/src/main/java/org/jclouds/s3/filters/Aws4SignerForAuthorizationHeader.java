@@ -37,7 +37,6 @@ import org.jclouds.location.Provider;
 import org.jclouds.util.Closeables2;
 
 import jakarta.inject.Named;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Date;
@@ -58,6 +57,8 @@ import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_VIRTUAL_HOST_BUCK
  * AWS4 signer sign requests to Amazon S3 using an 'Authorization' header.
  */
 public class Aws4SignerForAuthorizationHeader extends Aws4SignerBase {
+   private static final String EMPTY_PAYLOAD_CONTENT_HASH = hex(hash(new byte[0]));
+
    @Inject
    public Aws4SignerForAuthorizationHeader(SignatureWire signatureWire,
          @Named(PROPERTY_S3_VIRTUAL_HOST_BUCKETS) boolean isVhostStyle,
@@ -179,7 +180,7 @@ public class Aws4SignerForAuthorizationHeader extends Aws4SignerBase {
     * The hash returns the following value: e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855
     */
    protected String getEmptyPayloadContentHash() {
-      return base16().lowerCase().encode(hash(new ByteArrayInputStream(new byte[0])));
+      return EMPTY_PAYLOAD_CONTENT_HASH;
    }
 
    /**
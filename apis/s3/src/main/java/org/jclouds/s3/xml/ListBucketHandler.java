@@ -27,6 +27,7 @@ import jakarta.inject.Inject;
 
 import org.jclouds.date.DateService;
 import org.jclouds.http.functions.ParseSax;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.s3.domain.CanonicalUser;
 import org.jclouds.s3.domain.ListBucketResponse;
 import org.jclouds.s3.domain.ObjectMetadata;
@@ -44,6 +45,14 @@ import com.google.common.collect.ImmutableSet.Builder;
  * ListBucketResult xmlns="http://s3.amazonaws.com/doc/2006-03-01"
  */
 public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResponse> {
+
+   /**
+    * Receives each object of a listing as soon as its {@code Contents} element has been parsed.
+    */
+   public interface ContentsListener {
+      void onContents(ObjectMetadata contents);
+   }
+
    private Builder<ObjectMetadata> contents = ImmutableSet.builder();
    private Builder<String> commonPrefixes = ImmutableSet.builder();
    private CanonicalUser currentOwner;
@@ -52,6 +61,7 @@ public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResp
    private ObjectMetadataBuilder builder = new ObjectMetadataBuilder();
 
    private final DateService dateParser;
+   private final ContentsListener listener;
 
    private String bucketName;
    private String prefix;
@@ -65,7 +75,20 @@ public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResp
 
    @Inject
    public ListBucketHandler(DateService dateParser) {
+      this(dateParser, null);
+   }
+
+   /**
+    * Hands each object to {@code listener} instead of collecting it, so that the contents of the result are empty
+    * and a page never has to be held in memory. The result still carries the markers and common prefixes needed to
+    * request the next page.
+    * <p>
+    * Neither {@code S3Client} nor the blobstore listing uses this constructor; it is for callers that parse list
+    * responses themselves with {@link ParseSax.Factory}.
+    */
+   public ListBucketHandler(DateService dateParser, @Nullable ContentsListener listener) {
       this.dateParser = dateParser;
+      this.listener = listener;
       this.currentOwner = new CanonicalUser();
    }
 
@@ -117,7 +140,10 @@ public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResp
       } else if (qName.equals("StorageClass")) {
          builder.storageClass(ObjectMetadata.StorageClass.valueOf(currentOrNull(currentText)));
       } else if (qName.equals("Contents")) {
-         contents.add(builder.build());
+         if (listener != null)
+            listener.onContents(builder.build());
+         else
+            contents.add(builder.build());
          builder = new ObjectMetadataBuilder().bucket(bucketName);
       } else if (qName.equals("Name")) {
          this.bucketName = currentOrNull(currentText);
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3;
+
+import static org.jclouds.reflect.Reflection2.method;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.PerformanceTest;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.logging.config.NullLoggingModule;
+import org.jclouds.rest.internal.BaseRestApiTest.MockModule;
+import org.jclouds.rest.internal.RestAnnotationProcessor;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.reflect.Invokable;
+import com.google.inject.Module;
+
+/**
+ * Measures the cost of turning an {@code S3Client} invocation into an {@link HttpRequest}.
+ */
+// NOTE:without testName, this will not call @Before* and fail w/NPE during surefire
+@Test(groups = "performance", singleThreaded = true, timeOut = 2 * 60 * 1000, testName = "S3ClientPerformanceTest")
+public class S3ClientPerformanceTest extends PerformanceTest {
+   private RestAnnotationProcessor processor;
+   private Invokable<?, ?> headObject;
+
+   @BeforeTest
+   protected void setUpProcessor() throws NoSuchMethodException {
+      processor = ContextBuilder.newBuilder(new S3ApiMetadata())
+            .credentials("identity", "credential")
+            .modules(ImmutableSet.<Module> of(new MockModule(), new NullLoggingModule()))
+            .buildInjector().getInstance(RestAnnotationProcessor.class);
+      headObject = method(S3Client.class, "headObject", String.class, String.class);
+   }
+
+   @AfterTest
+   protected void tearDownProcessor() {
+      processor = null;
+      headObject = null;
+   }
+
+   private HttpRequest runHeadObject(int i) {
+      return processor.createRequest(headObject, ImmutableList.<Object> of("bucket", "object" + i));
+   }
+
+   @Test
+   public void testHeadObjectSerialResponseTime() {
+      long start = System.nanoTime();
+      for (int i = 0; i < LOOP_COUNT * 10; i++)
+         runHeadObject(i);
+      System.out.printf("TIMING: Serial headObject took %.3fms for %d requests\n",
+            (double) (System.nanoTime() - start) / 1000000, LOOP_COUNT * 10);
+   }
+
+   @Test
+   public void testHeadObjectParallelResponseTime() throws Throwable {
+      List<Runnable> tasks = Lists.newArrayList();
+      for (int i = 0; i < THREAD_COUNT; i++) {
+         final int index = i;
+         tasks.add(new Runnable() {
+            public void run() {
+               for (int j = 0; j < LOOP_COUNT; j++)
+                  runHeadObject(index);
+            }
+         });
+      }
+      executeMultiThreadedPerformanceTest("headObject", tasks);
+   }
+
+   @Test
+   public void testHeadObjectRequestLine() {
+      assertEquals(runHeadObject(1).getRequestLine(), "HEAD http://localhost/bucket/object1 HTTP/1.1");
+   }
+}
@@ -18,8 +18,16 @@ package org.jclouds.s3.filters;
 
 import static org.jclouds.reflect.Reflection2.method;
 import static org.testng.Assert.assertEquals;
-
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jakarta.inject.Named;
 
@@ -45,9 +53,11 @@ import org.jclouds.s3.options.ListBucketOptions;
 import org.jclouds.s3.options.PutObjectOptions;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteSource;
 import com.google.common.net.HttpHeaders;
 import com.google.inject.Injector;
 import com.google.inject.Module;
@@ -197,6 +207,54 @@ public class RequestAuthorizeSignatureV4Test {
 
    }
 
+   @Test
+   void testPutObjectPayloadIsHashedAgainWhenContentChanges() throws IOException {
+      Invocation invocation = Invocation.create(method(S3Client.class, "putObject", String.class, S3Object.class,
+                  PutObjectOptions[].class),
+            ImmutableList.<Object>of(BUCKET_NAME));
+
+      final AtomicInteger opens = new AtomicInteger();
+      final ByteSource content = ByteSource.wrap(PUT_OBJECT_CONTENT.getBytes(Charsets.UTF_8));
+      final ByteSource changed = ByteSource.wrap("TEXT SIGN".getBytes(Charsets.UTF_8));
+      Payload payload = Payloads.newByteSourcePayload(new ByteSource() {
+         @Override
+         public InputStream openStream() throws IOException {
+            // the underlying file is rewritten between attempts
+            return opens.getAndIncrement() == 0 ? content.openStream() : changed.openStream();
+         }
+      });
+      payload.getContentMetadata().setContentType("text/plain");
+      payload.getContentMetadata().setContentLength(content.size());
+
+      HttpRequest putObject = GeneratedHttpRequest.builder().method("PUT")
+            .invocation(invocation)
+            .endpoint("https://" + BUCKET_NAME + ".s3.cn-north-1.amazonaws.com.cn/" + OBJECT_NAME)
+            .addHeader(HttpHeaders.HOST, BUCKET_NAME + ".s3.cn-north-1.amazonaws.com.cn")
+            .addHeader("x-amz-storage-class", "REDUCED_REDUNDANCY")
+            .payload(payload)
+            .build();
+
+      RequestAuthorizeSignatureV4 filter = filter(temporaryCredentials);
+      // a retry filters the same request again
+      assertEquals(filter.filter(putObject).getFirstHeaderOrNull("Authorization"), PUT_OBJECT_RESULT);
+      assertNotEquals(filter.filter(putObject).getFirstHeaderOrNull("Authorization"), PUT_OBJECT_RESULT);
+      assertEquals(opens.get(), 2);
+   }
+
+   @Test
+   void testSigningKeyIsCachedUntilCredentialsRotate() {
+      Aws4SignerForAuthorizationHeader signer = injector(temporaryCredentials)
+            .getInstance(Aws4SignerForAuthorizationHeader.class);
+
+      byte[] key = signer.signatureKey(CREDENTIAL, "20150203", "cn-north-1", "s3");
+      assertSame(signer.signatureKey(CREDENTIAL, "20150203", "cn-north-1", "s3"), key);
+      assertNotSame(signer.signatureKey(CREDENTIAL, "20150204", "cn-north-1", "s3"), key);
+
+      byte[] rotated = signer.signatureKey(CREDENTIAL + "2", "20150203", "cn-north-1", "s3");
+      assertFalse(Arrays.equals(rotated, key));
+      assertEquals(signer.signatureKey(CREDENTIAL, "20150203", "cn-north-1", "s3"), key);
+   }
+
    // JCLOUDS-1401
    @Test
    void testListBucketFunnyCharactersSignature() {
@@ -0,0 +1,535 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sqs;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.sqs.domain.BatchError;
+import org.jclouds.sqs.domain.BatchResult;
+import org.jclouds.sqs.domain.Message;
+import org.jclouds.sqs.domain.MessageIdAndMD5;
+import org.jclouds.sqs.features.MessageApi;
+import org.jclouds.sqs.options.ReceiveMessageOptions;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Buffers the traffic of a single queue so that callers can work with one message at a time while the queue is
+ * accessed in batches.
+ * <ul>
+ * <li>{@link #send} and {@link #delete} are coalesced into {@code SendMessageBatch} and {@code DeleteMessageBatch}
+ * calls. A batch is sent as soon as it holds {@value #MAX_BATCH_SIZE} entries, or once the first entry has waited
+ * for the linger window.</li>
+ * <li>{@link #receive} is served from a bounded buffer that a background task keeps filled with long-polled
+ * receives.</li>
+ * <li>The visibility timeout of every received message that has not been deleted yet is extended in batches before
+ * it runs out, up to the maximum in-flight time. Past that a message becomes visible again, so one that keeps failing
+ * is eventually moved to the dead letter queue.</li>
+ * </ul>
+ * Long polling needs API version 2012-11-05 or later. With older versions, or with a short wait time, receives return
+ * at once, so the buffer backs off for a second after each receive that came back empty or failed quickly.
+ *
+ * <pre>
+ * BufferedQueue queue = BufferedQueue.builder(sqsApi.getMessageApiForQueue(queueUri)).build();
+ * queue.send(&quot;hello&quot;);
+ * Message message = queue.receive(5, TimeUnit.SECONDS);
+ * queue.delete(message);
+ * queue.close();
+ * </pre>
+ */
+@Beta
+public class BufferedQueue implements Closeable {
+
+   /**
+    * The maximum number of entries SQS accepts in a batch call or returns from a receive.
+    */
+   public static final int MAX_BATCH_SIZE = 10;
+
+   private static final long EMPTY_RECEIVE_BACKOFF_MILLIS = 1000;
+   private static final long FAILURE_LOG_INTERVAL_NANOS = SECONDS.toNanos(60);
+
+   public static Builder builder(MessageApi api) {
+      return new Builder(api);
+   }
+
+   public static class Builder {
+      private final MessageApi api;
+      private long lingerMillis = 20;
+      private int prefetch = MAX_BATCH_SIZE;
+      private int waitTimeSeconds = 20;
+      private int visibilityTimeout = 30;
+      private long maxInFlightSeconds = 15 * 60;
+      private ExecutorService executor;
+      private Logger logger = Logger.NULL;
+
+      private Builder(MessageApi api) {
+         this.api = checkNotNull(api, "api");
+      }
+
+      /**
+       * How long the first entry of a batch waits for more entries before the batch is sent. Defaults to 20ms.
+       */
+      public Builder lingerMillis(long lingerMillis) {
+         checkArgument(lingerMillis >= 0, "lingerMillis must be non-negative");
+         this.lingerMillis = lingerMillis;
+         return this;
+      }
+
+      /**
+       * The number of received messages kept ready for {@link BufferedQueue#receive}. Defaults to
+       * {@value BufferedQueue#MAX_BATCH_SIZE}.
+       */
+      public Builder prefetch(int prefetch) {
+         checkArgument(prefetch > 0, "prefetch must be positive");
+         this.prefetch = prefetch;
+         return this;
+      }
+
+      /**
+       * The long poll duration of each receive. Defaults to 20 seconds, the maximum SQS allows.
+       */
+      public Builder waitTimeSeconds(int waitTimeSeconds) {
+         checkArgument(waitTimeSeconds >= 0 && waitTimeSeconds <= 20, "waitTimeSeconds must be between 0 and 20");
+         this.waitTimeSeconds = waitTimeSeconds;
+         return this;
+      }
+
+      /**
+       * The visibility timeout requested on receive and renewed for messages that have not been deleted. Defaults to
+       * 30 seconds.
+       */
+      public Builder visibilityTimeout(int visibilityTimeout) {
+         checkArgument(visibilityTimeout >= 2, "visibilityTimeout must be at least 2 seconds");
+         this.visibilityTimeout = visibilityTimeout;
+         return this;
+      }
+
+      /**
+       * How long a received message is kept invisible by extending its visibility timeout, counted from the receive.
+       * Extension stops after that and the message becomes visible again within one more visibility timeout, even if
+       * it is still being processed. Defaults to 15 minutes.
+       */
+      public Builder maxInFlightSeconds(long maxInFlightSeconds) {
+         checkArgument(maxInFlightSeconds > 0, "maxInFlightSeconds must be positive");
+         this.maxInFlightSeconds = maxInFlightSeconds;
+         return this;
+      }
+
+      /**
+       * The executor batch calls and receives run on. It is not shut down when the queue is closed. Defaults to a
+       * private pool of daemon threads.
+       */
+      public Builder executor(ExecutorService executor) {
+         this.executor = checkNotNull(executor, "executor");
+         return this;
+      }
+
+      /**
+       * Where failed receives and visibility extensions are reported, at most once a minute with the number of
+       * failures in between. Defaults to {@link Logger#NULL}; pass a logger from the context's
+       * {@link org.jclouds.logging.Logger.LoggerFactory} to see them.
+       */
+      public Builder logger(Logger logger) {
+         this.logger = checkNotNull(logger, "logger");
+         return this;
+      }
+
+      public BufferedQueue build() {
+         return new BufferedQueue(this);
+      }
+   }
+
+   private final MessageApi api;
+   private final long lingerMillis;
+   private final int waitTimeSeconds;
+   private final int visibilityTimeout;
+   private final long maxInFlightNanos;
+   private final ReceiveMessageOptions receiveOptions;
+   private final ExecutorService executor;
+   private final boolean ownsExecutor;
+   private final ScheduledExecutorService scheduler;
+   private final Logger logger;
+   private final AtomicLong nextFailureLog = new AtomicLong(System.nanoTime());
+   private final AtomicInteger unloggedFailures = new AtomicInteger();
+
+   private final Batcher<MessageIdAndMD5> sends = new Batcher<MessageIdAndMD5>() {
+      @Override
+      protected BatchResult<? extends MessageIdAndMD5> call(Map<String, String> idValue) {
+         return api.send(idValue);
+      }
+   };
+
+   private final Batcher<String> deletes = new Batcher<String>() {
+      @Override
+      protected BatchResult<String> call(Map<String, String> idValue) {
+         return api.delete(idValue);
+      }
+
+      @Override
+      protected String result(String receiptHandle, String id) {
+         return receiptHandle;
+      }
+   };
+
+   private final BlockingQueue<Message> prefetched = new LinkedBlockingQueue<Message>();
+   private final Semaphore space;
+   /** Receipt handles of the messages whose visibility is extended, with the time extension stops. */
+   private final ConcurrentMap<String, Long> inFlight = Maps.newConcurrentMap();
+   private final ScheduledFuture<?> extender;
+   private Future<?> receiver;
+   private volatile boolean closed;
+
+   private BufferedQueue(Builder builder) {
+      this.api = builder.api;
+      this.lingerMillis = builder.lingerMillis;
+      this.waitTimeSeconds = builder.waitTimeSeconds;
+      this.visibilityTimeout = builder.visibilityTimeout;
+      this.maxInFlightNanos = SECONDS.toNanos(builder.maxInFlightSeconds);
+      this.logger = builder.logger;
+      this.receiveOptions = new ReceiveMessageOptions().visibilityTimeout(visibilityTimeout)
+            .waitTimeSeconds(waitTimeSeconds);
+      this.space = new Semaphore(builder.prefetch);
+      this.ownsExecutor = builder.executor == null;
+      this.executor = ownsExecutor ? Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("jclouds-sqs-buffer-%d").setDaemon(true).build()) : builder.executor;
+      this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("jclouds-sqs-buffer-timer-%d").setDaemon(true).build());
+      long extendEvery = SECONDS.toMillis(visibilityTimeout) / 2;
+      this.extender = scheduler.scheduleWithFixedDelay(new Runnable() {
+         @Override
+         public void run() {
+            extendVisibility();
+         }
+      }, extendEvery, extendEvery, MILLISECONDS);
+   }
+
+   /**
+    * Queues a message for the next {@code SendMessageBatch} call.
+    *
+    * @return a future holding the id and MD5 of the message once it was sent. It fails with an
+    *         {@link IllegalStateException} if SQS rejected the entry.
+    */
+   public ListenableFuture<MessageIdAndMD5> send(String messageBody) {
+      return sends.add(checkNotNull(messageBody, "messageBody"));
+   }
+
+   /**
+    * Queues a message for the next {@code DeleteMessageBatch} call and stops extending its visibility.
+    *
+    * @return a future holding the receipt handle once the message was deleted. It fails with an
+    *         {@link IllegalStateException} if SQS rejected the entry.
+    */
+   public ListenableFuture<String> delete(Message message) {
+      return delete(checkNotNull(message, "message").getReceiptHandle());
+   }
+
+   /**
+    * @see #delete(Message)
+    */
+   public ListenableFuture<String> delete(String receiptHandle) {
+      inFlight.remove(checkNotNull(receiptHandle, "receiptHandle"));
+      return deletes.add(receiptHandle);
+   }
+
+   /**
+    * Takes the next prefetched message, waiting up to the given time for one to arrive. Prefetching starts with the
+    * first call.
+    *
+    * @return the message, or null if none arrived in time.
+    */
+   @Nullable
+   public Message receive(long timeout, TimeUnit unit) throws InterruptedException {
+      startReceiving();
+      Message message = prefetched.poll(timeout, unit);
+      if (message != null) {
+         space.release();
+      }
+      return message;
+   }
+
+   /**
+    * Sends the pending batches, then stops prefetching and extending visibility. Messages still in the prefetch buffer
+    * are left to become visible again when their timeout runs out.
+    */
+   @Override
+   public void close() {
+      synchronized (this) {
+         if (closed) {
+            return;
+         }
+         closed = true;
+         if (receiver != null) {
+            receiver.cancel(true);
+         }
+      }
+      sends.flush();
+      deletes.flush();
+      extender.cancel(false);
+      scheduler.shutdown();
+      if (ownsExecutor) {
+         executor.shutdown();
+      }
+      for (Message message : prefetched) {
+         inFlight.remove(message.getReceiptHandle());
+      }
+   }
+
+   private synchronized void startReceiving() {
+      checkState(!closed, "queue is closed");
+      if (receiver == null) {
+         receiver = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  while (!closed) {
+                     receiveBatch();
+                  }
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+               }
+            }
+         });
+      }
+   }
+
+   private void receiveBatch() throws InterruptedException {
+      space.acquire();
+      int permits = 1;
+      while (permits < MAX_BATCH_SIZE && space.tryAcquire()) {
+         permits++;
+      }
+      int received = 0;
+      long start = System.nanoTime();
+      try {
+         for (Message message : api.receive(permits, receiveOptions)) {
+            inFlight.put(message.getReceiptHandle(), start + maxInFlightNanos);
+            prefetched.add(message);
+            received++;
+         }
+      } catch (RuntimeException e) {
+         // retried after the back off below
+         logFailure(e, "receive");
+      } finally {
+         space.release(Math.max(0, permits - received));
+      }
+      // an empty receive that returned well before the long poll ended means there is no long polling to wait on
+      long quickMillis = Math.max(EMPTY_RECEIVE_BACKOFF_MILLIS, SECONDS.toMillis(waitTimeSeconds) / 2);
+      if (received == 0 && NANOSECONDS.toMillis(System.nanoTime() - start) < quickMillis) {
+         Thread.sleep(EMPTY_RECEIVE_BACKOFF_MILLIS);
+      }
+   }
+
+   private void extendVisibility() {
+      List<String> extend = Lists.newArrayList();
+      long now = System.nanoTime();
+      for (Iterator<Map.Entry<String, Long>> it = inFlight.entrySet().iterator(); it.hasNext();) {
+         Map.Entry<String, Long> entry = it.next();
+         if (entry.getValue() - now > 0) {
+            extend.add(entry.getKey());
+         } else {
+            it.remove();
+         }
+      }
+      for (List<String> handles : Iterables.partition(extend, MAX_BATCH_SIZE)) {
+         final Map<String, String> idReceiptHandle = ids(handles);
+         try {
+            executor.execute(new Runnable() {
+               @Override
+               public void run() {
+                  try {
+                     BatchResult<String> result = api.changeVisibility(idReceiptHandle, visibilityTimeout);
+                     for (String id : result.getErrors().keySet()) {
+                        // typically the message was deleted or its receipt handle expired
+                        inFlight.remove(idReceiptHandle.get(id));
+                     }
+                  } catch (RuntimeException e) {
+                     // retried on the next round
+                     logFailure(e, "visibility extension");
+                  }
+               }
+            });
+         } catch (RejectedExecutionException e) {
+            return;
+         }
+      }
+   }
+
+   /**
+    * Logs the first failure and then at most one per {@link #FAILURE_LOG_INTERVAL_NANOS}, so that an unreachable
+    * queue does not flood the log.
+    */
+   private void logFailure(RuntimeException e, String operation) {
+      long next = nextFailureLog.get();
+      long now = System.nanoTime();
+      if (now - next >= 0 && nextFailureLog.compareAndSet(next, now + FAILURE_LOG_INTERVAL_NANOS)) {
+         logger.warn(e, "%s failed, retrying; %s failures were not logged since the last report", operation,
+               unloggedFailures.getAndSet(0));
+      } else {
+         unloggedFailures.incrementAndGet();
+         logger.debug("%s failed, retrying: %s", operation, e);
+      }
+   }
+
+   private static Map<String, String> ids(List<String> values) {
+      Map<String, String> ids = Maps.newLinkedHashMap();
+      for (String value : values) {
+         ids.put(Integer.toString(ids.size()), value);
+      }
+      return ids;
+   }
+
+   private static final class Entry<R> {
+      private final String value;
+      private final SettableFuture<R> future = SettableFuture.create();
+
+      private Entry(String value) {
+         this.value = value;
+      }
+   }
+
+   /**
+    * Collects entries until a batch is full or the linger window of its first entry has passed.
+    */
+   private abstract class Batcher<R> {
+      private List<Entry<R>> pending = Lists.newArrayListWithCapacity(MAX_BATCH_SIZE);
+      private ScheduledFuture<?> lingering;
+
+      protected abstract BatchResult<? extends R> call(Map<String, String> idValue);
+
+      protected R result(String value, R result) {
+         return result;
+      }
+
+      ListenableFuture<R> add(String value) {
+         Entry<R> entry = new Entry<R>(value);
+         List<Entry<R>> batch = null;
+         synchronized (this) {
+            checkState(!closed, "queue is closed");
+            pending.add(entry);
+            if (pending.size() >= MAX_BATCH_SIZE) {
+               batch = drain();
+            } else if (pending.size() == 1) {
+               lingering = scheduler.schedule(new Runnable() {
+                  @Override
+                  public void run() {
+                     flush();
+                  }
+               }, lingerMillis, MILLISECONDS);
+            }
+         }
+         if (batch != null) {
+            submit(batch);
+         }
+         return entry.future;
+      }
+
+      void flush() {
+         List<Entry<R>> batch = drain();
+         if (!batch.isEmpty()) {
+            submit(batch);
+         }
+      }
+
+      private synchronized List<Entry<R>> drain() {
+         if (lingering != null) {
+            lingering.cancel(false);
+            lingering = null;
+         }
+         List<Entry<R>> batch = pending;
+         pending = Lists.newArrayListWithCapacity(MAX_BATCH_SIZE);
+         return batch;
+      }
+
+      private void submit(final List<Entry<R>> batch) {
+         try {
+            executor.execute(new Runnable() {
+               @Override
+               public void run() {
+                  send(batch);
+               }
+            });
+         } catch (RejectedExecutionException e) {
+            fail(batch, e);
+         }
+      }
+
+      private void send(List<Entry<R>> batch) {
+         List<String> values = Lists.newArrayListWithCapacity(batch.size());
+         for (Entry<R> entry : batch) {
+            values.add(entry.value);
+         }
+         Map<String, String> idValue = ids(values);
+         BatchResult<? extends R> result;
+         try {
+            result = call(idValue);
+         } catch (RuntimeException e) {
+            fail(batch, e);
+            return;
+         }
+         Iterator<String> ids = idValue.keySet().iterator();
+         for (Entry<R> entry : batch) {
+            String id = ids.next();
+            BatchError error = result.getErrors().get(id);
+            if (result.containsKey(id)) {
+               entry.future.set(result(entry.value, result.get(id)));
+            } else if (error != null) {
+               entry.future.setException(new IllegalStateException(String.format("%s: %s", error.getCode(),
+                     error.getMessage())));
+            } else {
+               entry.future.setException(new IllegalStateException("no result for batch entry " + id));
+            }
+         }
+      }
+
+      private void fail(List<Entry<R>> batch, Throwable cause) {
+         for (Entry<R> entry : batch) {
+            entry.future.setException(cause);
+         }
+      }
+   }
+}
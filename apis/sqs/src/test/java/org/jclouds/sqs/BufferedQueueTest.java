@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sqs;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.easymock.EasyMock.anyInt;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.IAnswer;
+import org.jclouds.sqs.domain.BatchError;
+import org.jclouds.sqs.domain.BatchResult;
+import org.jclouds.sqs.domain.Message;
+import org.jclouds.sqs.domain.MessageIdAndMD5;
+import org.jclouds.sqs.features.MessageApi;
+import org.jclouds.sqs.options.ReceiveMessageOptions;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Tests behavior of {@code BufferedQueue}.
+ */
+@Test(groups = "unit", testName = "BufferedQueueTest", singleThreaded = true)
+public class BufferedQueueTest {
+
+   private static final HashCode MD5 = HashCode.fromString("fafb00f5732ab283681e124bf8747ed1");
+
+   public void testSendsAreCoalescedIntoBatches() throws Exception {
+      final List<Map<String, String>> batches = new CopyOnWriteArrayList<Map<String, String>>();
+      MessageApi api = createMock(MessageApi.class);
+      expect(api.send(anyObject(Map.class))).andAnswer(new IAnswer<BatchResult<? extends MessageIdAndMD5>>() {
+         @Override
+         public BatchResult<? extends MessageIdAndMD5> answer() {
+            @SuppressWarnings("unchecked")
+            Map<String, String> idMessageBody = (Map<String, String>) getCurrentArguments()[0];
+            batches.add(idMessageBody);
+            BatchResult.Builder<MessageIdAndMD5> result = BatchResult.builder();
+            for (Map.Entry<String, String> entry : idMessageBody.entrySet()) {
+               if (entry.getValue().equals("bad")) {
+                  result.addError(BatchError.builder().id(entry.getKey()).code("InvalidMessageContents")
+                        .message("bad body").senderFault(true).build());
+               } else {
+                  result.put(entry.getKey(), MessageIdAndMD5.builder().id("id-" + entry.getValue()).md5(MD5).build());
+               }
+            }
+            return result.build();
+         }
+      }).anyTimes();
+      replay(api);
+
+      BufferedQueue queue = BufferedQueue.builder(api).lingerMillis(50).build();
+      List<ListenableFuture<MessageIdAndMD5>> sent = Lists.newArrayList();
+      for (int i = 0; i < 24; i++) {
+         sent.add(queue.send("m" + i));
+      }
+      ListenableFuture<MessageIdAndMD5> bad = queue.send("bad");
+      for (int i = 0; i < 24; i++) {
+         assertEquals(sent.get(i).get(5, SECONDS).getId(), "id-m" + i);
+      }
+      try {
+         bad.get(5, SECONDS);
+         fail("expected the rejected entry to fail");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+      }
+      queue.close();
+
+      assertEquals(batches.size(), 3);
+      assertEquals(batches.get(0).size(), 10);
+      assertEquals(batches.get(1).size(), 10);
+      assertEquals(batches.get(2).size(), 5);
+   }
+
+   public void testReceiveIsPrefetchedAndVisibilityExtendedUntilDeleted() throws Exception {
+      final Message message = Message.builder().id("id").body("body").receiptHandle("handle").md5(MD5).build();
+      final CountDownLatch extended = new CountDownLatch(1);
+      final List<Map<String, String>> deleted = new CopyOnWriteArrayList<Map<String, String>>();
+      MessageApi api = createMock(MessageApi.class);
+      expect(api.receive(anyInt(), eq(new ReceiveMessageOptions().visibilityTimeout(2).waitTimeSeconds(0))))
+            .andReturn(FluentIterable.from(ImmutableList.of(message))).once();
+      expect(api.receive(anyInt(), anyObject(ReceiveMessageOptions.class)))
+            .andReturn(FluentIterable.from(ImmutableSet.<Message> of())).anyTimes();
+      expect(api.changeVisibility(anyObject(Map.class), eq(2))).andAnswer(new IAnswer<BatchResult<String>>() {
+         @Override
+         public BatchResult<String> answer() {
+            assertEquals(getCurrentArguments()[0], ImmutableMap.of("0", "handle"));
+            extended.countDown();
+            return BatchResult.<String> builder().put("0", "0").build();
+         }
+      }).anyTimes();
+      expect(api.delete(anyObject(Map.class))).andAnswer(new IAnswer<BatchResult<String>>() {
+         @Override
+         public BatchResult<String> answer() {
+            @SuppressWarnings("unchecked")
+            Map<String, String> idReceiptHandle = (Map<String, String>) getCurrentArguments()[0];
+            deleted.add(idReceiptHandle);
+            return BatchResult.<String> builder().put("0", "0").build();
+         }
+      }).anyTimes();
+      replay(api);
+
+      BufferedQueue queue = BufferedQueue.builder(api).visibilityTimeout(2).waitTimeSeconds(0).lingerMillis(0).build();
+      try {
+         Message received = queue.receive(5, SECONDS);
+         assertNotNull(received);
+         assertEquals(received.getReceiptHandle(), "handle");
+         assertTrue(extended.await(5, SECONDS), "visibility was not extended");
+         assertEquals(queue.delete(received).get(5, SECONDS), "handle");
+      } finally {
+         queue.close();
+      }
+      assertEquals(deleted.size(), 1);
+      assertEquals(deleted.get(0).get("0"), "handle");
+   }
+
+   public void testEmptyReceivesBackOffWithoutLongPolling() throws Exception {
+      final AtomicInteger receives = new AtomicInteger();
+      MessageApi api = createMock(MessageApi.class);
+      expect(api.receive(anyInt(), anyObject(ReceiveMessageOptions.class)))
+            .andAnswer(new IAnswer<FluentIterable<Message>>() {
+               @Override
+               public FluentIterable<Message> answer() {
+                  receives.incrementAndGet();
+                  return FluentIterable.from(ImmutableSet.<Message> of());
+               }
+            }).anyTimes();
+      replay(api);
+
+      BufferedQueue queue = BufferedQueue.builder(api).waitTimeSeconds(0).build();
+      try {
+         assertNull(queue.receive(1500, MILLISECONDS));
+      } finally {
+         queue.close();
+      }
+      assertTrue(receives.get() >= 1 && receives.get() <= 3, receives + " receives");
+   }
+
+   public void testFailedReceivesBackOff() throws Exception {
+      final AtomicInteger receives = new AtomicInteger();
+      MessageApi api = createMock(MessageApi.class);
+      expect(api.receive(anyInt(), anyObject(ReceiveMessageOptions.class)))
+            .andAnswer(new IAnswer<FluentIterable<Message>>() {
+               @Override
+               public FluentIterable<Message> answer() {
+                  receives.incrementAndGet();
+                  throw new IllegalStateException("queue unavailable");
+               }
+            }).anyTimes();
+      replay(api);
+
+      BufferedQueue queue = BufferedQueue.builder(api).waitTimeSeconds(20).build();
+      try {
+         assertNull(queue.receive(1500, MILLISECONDS));
+      } finally {
+         queue.close();
+      }
+      assertTrue(receives.get() >= 1 && receives.get() <= 3, receives + " receives");
+   }
+
+   public void testVisibilityIsNotExtendedPastMaxInFlight() throws Exception {
+      final Message message = Message.builder().id("id").body("body").receiptHandle("handle").md5(MD5).build();
+      final AtomicInteger extensions = new AtomicInteger();
+      MessageApi api = createMock(MessageApi.class);
+      expect(api.receive(anyInt(), anyObject(ReceiveMessageOptions.class)))
+            .andReturn(FluentIterable.from(ImmutableList.of(message))).once();
+      expect(api.receive(anyInt(), anyObject(ReceiveMessageOptions.class)))
+            .andReturn(FluentIterable.from(ImmutableSet.<Message> of())).anyTimes();
+      expect(api.changeVisibility(anyObject(Map.class), eq(2))).andAnswer(new IAnswer<BatchResult<String>>() {
+         @Override
+         public BatchResult<String> answer() {
+            extensions.incrementAndGet();
+            return BatchResult.<String> builder().put("0", "0").build();
+         }
+      }).anyTimes();
+      replay(api);
+
+      BufferedQueue queue = BufferedQueue.builder(api).visibilityTimeout(2).maxInFlightSeconds(2).waitTimeSeconds(0)
+            .build();
+      try {
+         // the message is never deleted, as if its consumer kept failing
+         assertNotNull(queue.receive(5, SECONDS));
+         Thread.sleep(4000);
+         int extended = extensions.get();
+         Thread.sleep(1500);
+         assertEquals(extensions.get(), extended);
+         assertTrue(extended <= 2, extended + " extensions");
+      } finally {
+         queue.close();
+      }
+   }
+}
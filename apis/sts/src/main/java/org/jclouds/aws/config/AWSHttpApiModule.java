@@ -57,7 +57,7 @@ public abstract class AWSHttpApiModule<A> extends HttpApiModule<A> {
    @ServerError
    @Singleton
    protected final Set<String> provideRetryableServerCodes() {
-      return ImmutableSet.of("RequestLimitExceeded", "InternalError");
+      return ImmutableSet.of("RequestLimitExceeded", "InternalError", "SlowDown");
    }
 
    @Override
@@ -76,5 +76,8 @@ public class AWSServerErrorRetryHandler extends BackoffLimitedRetryHandler {
       imposeBackoffExponentialDelay(period, period * 100L, pow, failureCount, max, commandDescription);
    }
 
-   
+   @Override
+   protected long maxRetryDelay() {
+      return super.maxRetryDelay() * 10L;
+   }
 }
@@ -18,8 +18,10 @@ package org.jclouds.aws.handlers;
 import static jakarta.ws.rs.HttpMethod.PUT;
 import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static jakarta.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
+import static org.easymock.EasyMock.anyLong;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.testng.Assert.assertFalse;
@@ -97,6 +99,9 @@ public class AWSServerErrorRetryHandlerTest {
             return counter.get();
          }
       }).anyTimes();
+      expect(command.getLastRetryDelay()).andReturn(0L).anyTimes();
+      command.setRetryDelay(anyLong());
+      expectLastCall();
 
       AWSError error = new AWSError();
       error.setCode(errorCode);
@@ -121,6 +126,9 @@ public class AWSServerErrorRetryHandlerTest {
       expect(command.getFailureCount()).andReturn(1).anyTimes();
       expect(command.incrementFailureCount()).andReturn(1);
       expect(command.isReplayable()).andReturn(true);
+      expect(command.getLastRetryDelay()).andReturn(0L).anyTimes();
+      command.setRetryDelay(anyLong());
+      expectLastCall();
 
       replay(utils, command);
 
@@ -369,6 +369,16 @@ public interface BlobStore {
    @Beta
    int getMaximumNumberOfParts();
 
+   /**
+    * @return the most names {@link #removeBlobs} deletes with a single request, or 1 if it deletes them one at a
+    *         time, which is the default; override it along with {@link #removeBlobs} when the provider has a bulk
+    *         delete
+    */
+   @Beta
+   default int getMaximumNumberOfBlobsPerRemove() {
+      return 1;
+   }
+
    @Beta
    void downloadBlob(String container, String name, File destination);
 
@@ -18,6 +18,7 @@ package org.jclouds.blobstore;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.TreeSet;
 
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobAccess;
@@ -27,6 +28,8 @@ import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.domain.Location;
 
+import com.google.common.collect.Iterables;
+
 /**
  * Strategy for local operations related to container and blob
  */
@@ -100,6 +103,24 @@ public interface LocalStorageStrategy {
      */
     Iterable<String> getBlobKeysInsideContainer(String container, String prefix, String delimiter) throws IOException;
 
+    /**
+     * Returns the blob keys inside a container in lexicographic order, so that a page of a listing can be served
+     * without reading every key. The default sorts {@link #getBlobKeysInsideContainer(String, String, String)};
+     * implementations should override it to produce the keys lazily.
+     * @param container
+     * @param prefix if not null, keys starting with it; directory keys leading to it may also be returned
+     * @param delimiter as for {@link #getBlobKeysInsideContainer(String, String, String)}
+     * @param startAfter if not null, only keys sorting after it are returned
+     * @return
+     * @throws IOException
+     */
+    default Iterable<String> getSortedBlobKeysInsideContainer(String container, String prefix, String delimiter,
+          String startAfter) throws IOException {
+       TreeSet<String> keys = new TreeSet<String>();
+       Iterables.addAll(keys, getBlobKeysInsideContainer(container, prefix, delimiter));
+       return startAfter == null ? keys : keys.tailSet(startAfter, /*inclusive=*/ false);
+    }
+
     /**
      * Load the blob with the given key belonging to the container with the given
      * name. There must exist a resource on the file system whose complete name
@@ -24,6 +24,7 @@ import java.io.InputStream;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
@@ -159,6 +160,22 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
       return blobs.subMap(prefix, /*fromInclusive=*/ true, lastPrefix, /*toInclusive=*/ false).keySet();
    }
 
+   @Override
+   public Iterable<String> getSortedBlobKeysInsideContainer(String containerName, String prefix, String delimiter,
+         String startAfter) {
+      NavigableSet<String> keys = containerToBlobs.get(containerName).keySet();
+      if (prefix != null) {
+         String lastPrefix = prefix + (char) 65535;
+         if (startAfter != null && startAfter.compareTo(lastPrefix) >= 0) {
+            return ImmutableList.of();
+         } else if (startAfter != null && startAfter.compareTo(prefix) >= 0) {
+            return keys.subSet(startAfter, /*fromInclusive=*/ false, lastPrefix, /*toInclusive=*/ false);
+         }
+         return keys.subSet(prefix, /*fromInclusive=*/ true, lastPrefix, /*toInclusive=*/ false);
+      }
+      return startAfter == null ? keys : keys.tailSet(startAfter, /*inclusive=*/ false);
+   }
+
    @Override
    public Blob getBlob(final String containerName, final String blobName) {
       Map<String, Blob> map = containerToBlobs.get(containerName);
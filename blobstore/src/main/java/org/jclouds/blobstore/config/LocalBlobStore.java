@@ -16,16 +16,20 @@
  */
 package org.jclouds.blobstore.config;
 
+import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.getCausalChain;
 import static com.google.common.base.Throwables.propagate;
 import static com.google.common.collect.Iterables.size;
-import static com.google.common.collect.Iterables.transform;
-import static com.google.common.collect.Iterables.tryFind;
-import static com.google.common.collect.Sets.filter;
-import static com.google.common.collect.Sets.newTreeSet;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.DEFAULT_DOWNLOAD_MAX_PARALLEL_PARTS;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.DEFAULT_DOWNLOAD_PART_RETRIES;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.DEFAULT_DOWNLOAD_PART_SIZE;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_DOWNLOAD_MAX_PARALLEL_PARTS;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_DOWNLOAD_PART_RETRIES;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_DOWNLOAD_PART_SIZE;
 
 import java.io.File;
 import java.io.IOException;
@@ -37,12 +41,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 
 import jakarta.annotation.Resource;
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 
 import com.google.common.hash.Hasher;
@@ -68,6 +73,7 @@ import org.jclouds.blobstore.domain.StorageType;
 import org.jclouds.blobstore.domain.Tier;
 import org.jclouds.blobstore.domain.internal.MutableStorageMetadataImpl;
 import org.jclouds.blobstore.domain.internal.PageSetImpl;
+import org.jclouds.blobstore.internal.ParallelBlobDownloader;
 import org.jclouds.blobstore.options.CopyOptions;
 import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.GetOptions;
@@ -91,8 +97,6 @@ import org.jclouds.logging.Logger;
 import org.jclouds.util.Closeables2;
 
 import com.google.common.base.Function;
-import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
@@ -100,9 +104,11 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.io.BaseEncoding;
 import com.google.common.io.ByteSource;
 import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 @Singleton
 public final class LocalBlobStore implements BlobStore {
@@ -234,139 +240,92 @@ public final class LocalBlobStore implements BlobStore {
       if (!storageStrategy.containerExists(containerName))
          throw cnfe(containerName);
 
-      // Loading blobs from container
-      Iterable<String> blobBelongingToContainer = null;
+      String prefix;
+      String excludedKey = null;
+      String delimiter;
+      if (options.getDir() != null && !options.getDir().isEmpty()) {
+         prefix = options.getDir().endsWith("/") ? options.getDir() : options.getDir() + "/";
+         // the directory itself is not part of its listing
+         excludedKey = prefix;
+         delimiter = options.isRecursive() ? null : storageStrategy.getSeparator();
+      } else {
+         prefix = Strings.emptyToNull(options.getPrefix());
+         delimiter = options.getDelimiter() != null || !options.isRecursive()
+               ? firstNonNull(options.getDelimiter(), storageStrategy.getSeparator()) : null;
+      }
+      delimiter = Strings.emptyToNull(delimiter);
+      String marker = options.getMarker();
+      int maxResults = options.getMaxResults() != null ? options.getMaxResults() : 1000;
+
+      // Keys arrive in order, so only the page being built has to be kept, and once it is full the remaining keys
+      // can only sort after it. With a longer delimiter a common prefix may sort before keys already seen, so keep
+      // reading to the end in that case.
+      boolean ordered = delimiter == null || delimiter.length() == 1;
+      TreeMap<String, StorageMetadata> page = new TreeMap<String, StorageMetadata>();
+      String lastCommonPrefix = null;
       try {
-         blobBelongingToContainer = storageStrategy.getBlobKeysInsideContainer(containerName, options.getPrefix(), options.getDelimiter());
-      } catch (IOException e) {
-         logger.error(e, "An error occurred loading blobs contained into container %s", containerName);
-         propagate(e);
-      }
-
-      SortedSet<StorageMetadata> contents = newTreeSet(FluentIterable.from(blobBelongingToContainer)
-            .transform(new Function<String, StorageMetadata>() {
-               @Override
-               public StorageMetadata apply(String key) {
-                  Blob oldBlob = loadBlob(containerName, key);
-                  if (oldBlob == null) {
-                     return null;
-                  }
-                  checkState(oldBlob.getMetadata() != null, "blob " + containerName + "/" + key + " has no metadata");
-                  MutableBlobMetadata md = BlobStoreUtils.copy(oldBlob.getMetadata());
-                  md.setSize(oldBlob.getMetadata().getSize());
-                  return md;
-               }
-            })
-            .filter(Predicates.<StorageMetadata>notNull()));
-
-      String marker = null;
-      if (options != null) {
-         if (options.getDir() != null && !options.getDir().isEmpty()) {
-            contents = filterDirectory(contents, options);
-         } else if (!Strings.isNullOrEmpty(options.getPrefix())) {
-            contents = filterPrefix(contents, options);
-         } else if (!options.isRecursive() || (options.getDelimiter() != null)) {
-            String delimiter = options.getDelimiter() == null ? storageStrategy.getSeparator() : options.getDelimiter();
-            contents = extractCommonPrefixes(contents, delimiter, null);
-         }
-
-         if (options.getMarker() != null) {
-            final String finalMarker = options.getMarker();
-            String delimiter = storageStrategy.getSeparator();
-            Optional<StorageMetadata> lastMarkerMetadata = tryFind(contents, new Predicate<StorageMetadata>() {
-               public boolean apply(StorageMetadata metadata) {
-                  return metadata.getName().compareTo(finalMarker) > 0;
+         for (String key : storageStrategy.getSortedBlobKeysInsideContainer(containerName, prefix,
+               delimiter, marker)) {
+            if (ordered && page.size() > maxResults) {
+               break;
+            }
+            String name = key.replace(File.separatorChar, '/');
+            if (prefix != null && !name.startsWith(prefix) || name.equals(excludedKey)) {
+               continue;
+            }
+            if (lastCommonPrefix != null && name.startsWith(lastCommonPrefix)) {
+               continue;
+            }
+            String rest = prefix == null ? name : name.substring(prefix.length());
+            int index = delimiter == null ? -1 : rest.indexOf(delimiter);
+            if (index != -1 && index != rest.length() - delimiter.length()) {
+               String commonPrefix = (prefix == null ? "" : prefix) + rest.substring(0, index) + delimiter;
+               lastCommonPrefix = commonPrefix;
+               if ((marker != null && commonPrefix.compareTo(marker) <= 0) || page.containsKey(commonPrefix)) {
+                  continue;
                }
-            });
-            if (lastMarkerMetadata.isPresent()) {
-               contents = contents.tailSet(lastMarkerMetadata.get());
+               MutableStorageMetadata md = new MutableStorageMetadataImpl();
+               md.setType(StorageType.RELATIVE_PATH);
+               md.setName(commonPrefix);
+               page.put(commonPrefix, md);
             } else {
-               // marker is after last key or container is empty
-               contents.clear();
-            }
-         }
-
-         int maxResults = options.getMaxResults() != null ? options.getMaxResults() : 1000;
-         if (!contents.isEmpty()) {
-            StorageMetadata lastElement = contents.last();
-            contents = newTreeSet(Iterables.limit(contents, maxResults));
-            if (maxResults != 0 && !contents.contains(lastElement)) {
-               // Partial listing
-               lastElement = contents.last();
-               marker = lastElement.getName();
+               if (marker != null && name.compareTo(marker) <= 0) {
+                  continue;
+               }
+               Blob oldBlob = loadBlob(containerName, key);
+               if (oldBlob == null) {
+                  continue;
+               }
+               checkState(oldBlob.getMetadata() != null, "blob " + containerName + "/" + key + " has no metadata");
+               MutableBlobMetadata md = BlobStoreUtils.copy(oldBlob.getMetadata());
+               md.setSize(oldBlob.getMetadata().getSize());
+               // a blob wins over a common prefix of the same name
+               page.put(md.getName(), md);
             }
-         }
-
-         // trim metadata, if the response isn't supposed to be detailed.
-         if (!options.isDetailed()) {
-            for (StorageMetadata md : contents) {
-               md.getUserMetadata().clear();
+            if (page.size() > maxResults + 1) {
+               page.pollLastEntry();
             }
          }
+      } catch (IOException e) {
+         logger.error(e, "An error occurred loading blobs contained into container %s", containerName);
+         propagate(e);
       }
 
-      return new PageSetImpl<StorageMetadata>(contents, marker);
-   }
-
-   private SortedSet<StorageMetadata> filterDirectory(SortedSet<StorageMetadata> contents, ListContainerOptions
-           options) {
-      String prefix = options.getDir();
-      final String dirPrefix = prefix.endsWith("/") ?
-              prefix :
-              prefix + "/";
-      contents = newTreeSet(filter(contents, new Predicate<StorageMetadata>() {
-         public boolean apply(StorageMetadata o) {
-            return o != null
-                    && o.getName().replace(File.separatorChar, '/').startsWith(dirPrefix)
-                    && !o.getName().replace(File.separatorChar, '/').equals(dirPrefix);
-         }
-      }));
-
-      if (!options.isRecursive()) {
-         return extractCommonPrefixes(contents, storageStrategy.getSeparator(), dirPrefix);
+      List<StorageMetadata> contents = Lists.newArrayList(Iterables.limit(page.values(), maxResults));
+      String nextMarker = null;
+      if (maxResults != 0 && page.size() > maxResults) {
+         // Partial listing
+         nextMarker = contents.get(contents.size() - 1).getName();
       }
 
-      return contents;
-   }
-
-   private SortedSet<StorageMetadata> filterPrefix(SortedSet<StorageMetadata> contents, final ListContainerOptions
-                                                   options) {
-      contents = newTreeSet(filter(contents, new Predicate<StorageMetadata>() {
-         public boolean apply(StorageMetadata o) {
-            return o != null && o.getName().replace(File.separatorChar, '/').startsWith(options.getPrefix());
+      // trim metadata, if the response isn't supposed to be detailed.
+      if (!options.isDetailed()) {
+         for (StorageMetadata md : contents) {
+            md.getUserMetadata().clear();
          }
-      }));
-
-      if (options.getDelimiter() != null || !options.isRecursive()) {
-          String delimiter = options.getDelimiter() == null ? storageStrategy.getSeparator() : options.getDelimiter();
-          return extractCommonPrefixes(contents, delimiter, options.getPrefix());
-      }
-
-      return contents;
-   }
-
-   private SortedSet<StorageMetadata> extractCommonPrefixes(SortedSet<StorageMetadata> contents, String delimiter,
-                                                            String prefix) {
-      if (Strings.isNullOrEmpty(delimiter)) {
-         return contents;
       }
-      SortedSet<String> commonPrefixes = newTreeSet(
-              transform(contents, new CommonPrefixes(prefix, delimiter)));
-      commonPrefixes.remove(CommonPrefixes.NO_PREFIX);
 
-      contents = newTreeSet(filter(contents, new DelimiterFilter(prefix, delimiter)));
-
-      for (String o : commonPrefixes) {
-         MutableStorageMetadata md = new MutableStorageMetadataImpl();
-         md.setType(StorageType.RELATIVE_PATH);
-
-         if (prefix != null) {
-            o = prefix + o;
-         }
-         md.setName(o + delimiter);
-         contents.add(md);
-      }
-      return contents;
+      return new PageSetImpl<StorageMetadata>(contents, nextMarker);
    }
 
    private ContainerNotFoundException cnfe(final String name) {
@@ -459,60 +418,6 @@ public final class LocalBlobStore implements BlobStore {
       return storageStrategy.getBlob(container, key);
    }
 
-   private static class DelimiterFilter implements Predicate<StorageMetadata> {
-      private final String prefix;
-      private final String delimiter;
-
-      public DelimiterFilter(String prefix, String delimiter) {
-         this.prefix = prefix;
-         this.delimiter = delimiter;
-      }
-
-      public boolean apply(StorageMetadata metadata) {
-         String name = metadata.getName();
-         if (prefix == null || prefix.isEmpty()) {
-            return name.indexOf(delimiter) == -1 || name.indexOf(delimiter) == name.length() - delimiter.length();
-         }
-         if (name.startsWith(prefix)) {
-            String unprefixedName = name.substring(prefix.length());
-            if (unprefixedName.equals("")) {
-               // a blob that matches the prefix should also be returned
-               return true;
-            }
-            return unprefixedName.indexOf(delimiter) == -1 || unprefixedName.indexOf(delimiter) == unprefixedName.length() - delimiter.length();
-         }
-         return false;
-      }
-   }
-
-   private static class CommonPrefixes implements Function<StorageMetadata, String> {
-      private final String prefix;
-      private final String delimiter;
-      public static final String NO_PREFIX = "NO_PREFIX";
-
-      public CommonPrefixes(String prefix, String delimiter) {
-         this.prefix = prefix;
-         this.delimiter = delimiter;
-      }
-
-      public String apply(StorageMetadata metadata) {
-         String working = metadata.getName();
-         if (prefix != null) {
-            if (working.startsWith(prefix)) {
-               working = working.substring(prefix.length());
-            } else {
-               return NO_PREFIX;
-            }
-         }
-         if (working.indexOf(delimiter) >= 0) {
-            // not include the delimiter in the result
-            return working.substring(0, working.indexOf(delimiter));
-         } else {
-            return NO_PREFIX;
-         }
-      }
-   }
-
    private static HttpResponseException returnResponseException(int code) {
       HttpResponse response = HttpResponse.builder().statusCode(code).build();
       return new HttpResponseException(new HttpCommand(HttpRequest.builder().method("GET").endpoint("http://stub")
@@ -960,24 +865,44 @@ public final class LocalBlobStore implements BlobStore {
       return Integer.MAX_VALUE;
    }
 
+   @com.google.inject.Inject
+   @Named(PROPERTY_USER_THREADS)
+   ListeningExecutorService userExecutor;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_DOWNLOAD_PART_SIZE)
+   long downloadPartSize = DEFAULT_DOWNLOAD_PART_SIZE;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_DOWNLOAD_MAX_PARALLEL_PARTS)
+   int downloadMaxParallelParts = DEFAULT_DOWNLOAD_MAX_PARALLEL_PARTS;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_DOWNLOAD_PART_RETRIES)
+   int downloadPartRetries = DEFAULT_DOWNLOAD_PART_RETRIES;
+
+   private ParallelBlobDownloader downloader() {
+      return new ParallelBlobDownloader(this, downloadPartSize, downloadMaxParallelParts, downloadPartRetries);
+   }
+
    @Override
    public void downloadBlob(String container, String name, File destination) {
-      throw new UnsupportedOperationException();
+      downloadBlob(container, name, destination, userExecutor);
    }
 
    @Override
    public void downloadBlob(String container, String name, File destination, ExecutorService executor) {
-      throw new UnsupportedOperationException();
+      downloader().download(container, name, destination, executor);
    }
 
    @Override
    public InputStream streamBlob(String container, String name) {
-      throw new UnsupportedOperationException();
+      return streamBlob(container, name, userExecutor);
    }
 
    @Override
    public InputStream streamBlob(String container, String name, ExecutorService executor) {
-      throw new UnsupportedOperationException();
+      return downloader().stream(container, name, executor);
    }
 
    private static String maybeQuoteETag(String eTag) {
@@ -20,6 +20,12 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.DEFAULT_DOWNLOAD_MAX_PARALLEL_PARTS;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.DEFAULT_DOWNLOAD_PART_RETRIES;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.DEFAULT_DOWNLOAD_PART_SIZE;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_DOWNLOAD_MAX_PARALLEL_PARTS;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_DOWNLOAD_PART_RETRIES;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_DOWNLOAD_PART_SIZE;
 import static org.jclouds.util.Predicates2.retry;
 
 import java.io.File;
@@ -430,23 +436,64 @@ public abstract class BaseBlobStore implements BlobStore {
       return eTag;
    }
 
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_DOWNLOAD_PART_SIZE)
+   @VisibleForTesting
+   long downloadPartSize = DEFAULT_DOWNLOAD_PART_SIZE;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_DOWNLOAD_MAX_PARALLEL_PARTS)
+   @VisibleForTesting
+   int downloadMaxParallelParts = DEFAULT_DOWNLOAD_MAX_PARALLEL_PARTS;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_DOWNLOAD_PART_RETRIES)
+   @VisibleForTesting
+   int downloadPartRetries = DEFAULT_DOWNLOAD_PART_RETRIES;
+
+   private ParallelBlobDownloader downloader() {
+      return new ParallelBlobDownloader(this, downloadPartSize, downloadMaxParallelParts, downloadPartRetries);
+   }
+
+   /**
+    * This implementation invokes {@link #downloadBlob(String, String, File, ExecutorService)} with the jclouds
+    * userExecutor.
+    */
+   @Beta
    @Override
    public void downloadBlob(String container, String name, File destination) {
-      throw new UnsupportedOperationException("Operation not supported yet");
+      downloadBlob(container, name, destination, userExecutor);
    }
 
+   /**
+    * This implementation fetches the blob as concurrent ranged gets written into a preallocated file.
+    *
+    * @see ParallelBlobDownloader#download
+    */
+   @Beta
    @Override
    public void downloadBlob(String container, String name, File destination, ExecutorService executor) {
-      throw new UnsupportedOperationException("Operation not supported yet");
+      downloader().download(container, name, destination, executor);
    }
 
+   /**
+    * This implementation invokes {@link #streamBlob(String, String, ExecutorService)} with the jclouds
+    * userExecutor.
+    */
+   @Beta
    @Override
    public InputStream streamBlob(String container, String name) {
-      throw new UnsupportedOperationException("Operation not supported yet");
+      return streamBlob(container, name, userExecutor);
    }
 
+   /**
+    * This implementation reads the blob in order from concurrent ranged gets.
+    *
+    * @see ParallelBlobDownloader#stream
+    */
+   @Beta
    @Override
    public InputStream streamBlob(String container, String name, ExecutorService executor) {
-      throw new UnsupportedOperationException("Operation not supported yet");
+      return downloader().stream(container, name, executor);
    }
 }
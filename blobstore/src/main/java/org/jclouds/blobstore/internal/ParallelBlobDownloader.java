@@ -0,0 +1,374 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.blobstore.options.GetOptions.Builder.range;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.ContainerNotFoundException;
+import org.jclouds.blobstore.KeyNotFoundException;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.rest.AuthorizationException;
+import org.jclouds.util.Closeables2;
+
+import com.google.common.annotations.Beta;
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Downloads a blob as a series of ranged gets issued concurrently, using nothing more than
+ * {@link BlobStore#blobMetadata} and {@link BlobStore#getBlob} with {@code GetOptions.range}.
+ * <p>
+ * {@link #download} writes each part straight into its region of a preallocated file, while {@link #stream} returns
+ * the parts in order, keeping at most {@code maxParallelParts} of them in memory ahead of the reader.
+ */
+@Beta
+public final class ParallelBlobDownloader {
+   private static final int BUFFER_SIZE = 64 * 1024;
+
+   private final BlobStore blobStore;
+   private final long partSize;
+   private final int maxParallelParts;
+   private final int partRetries;
+
+   public ParallelBlobDownloader(BlobStore blobStore, long partSize, int maxParallelParts, int partRetries) {
+      this.blobStore = checkNotNull(blobStore, "blobStore");
+      checkArgument(partSize > 0, "partSize must be positive");
+      checkArgument(maxParallelParts > 0, "maxParallelParts must be positive");
+      checkArgument(partRetries > 0, "partRetries must be positive");
+      this.partSize = partSize;
+      this.maxParallelParts = maxParallelParts;
+      this.partRetries = partRetries;
+   }
+
+   /**
+    * Downloads the blob into a temporary file next to {@code destination}, which replaces {@code destination} once
+    * every part has been written.
+    */
+   public void download(final String container, final String name, File destination, ExecutorService executor) {
+      BlobMetadata metadata = metadata(container, name);
+      final long contentLength = contentLength(metadata);
+      final String eTag = metadata.getETag();
+      final int parts = partCount(contentLength);
+      ListeningExecutorService listeningExecutor = MoreExecutors.listeningDecorator(executor);
+      File tempFile = new File(destination + "." + UUID.randomUUID());
+      RandomAccessFile raf = null;
+      try {
+         raf = new RandomAccessFile(tempFile, "rw");
+         // Reserve space up front so parts can be written at their offsets in any order
+         raf.setLength(contentLength);
+         final FileChannel channel = raf.getChannel();
+
+         final AtomicInteger nextPart = new AtomicInteger();
+         List<ListenableFuture<Void>> workers = new ArrayList<ListenableFuture<Void>>();
+         for (int i = 0; i < Math.min(maxParallelParts, parts); i++) {
+            workers.add(listeningExecutor.submit(new Callable<Void>() {
+               @Override
+               public Void call() throws IOException {
+                  for (int part = nextPart.getAndIncrement(); part < parts; part = nextPart.getAndIncrement()) {
+                     downloadPart(container, name, eTag, contentLength, part, channel);
+                  }
+                  return null;
+               }
+            }));
+         }
+         ListenableFuture<List<Void>> all = Futures.allAsList(workers);
+         try {
+            Futures.getUnchecked(all);
+         } finally {
+            all.cancel(true);
+         }
+
+         channel.force(true);
+         raf.close();
+         raf = null;
+
+         if (destination.exists()) {
+            destination.delete();
+         }
+         if (!tempFile.renameTo(destination)) {
+            throw new RuntimeException("Could not move temporary downloaded file to destination " + destination);
+         }
+         tempFile = null;
+      } catch (IOException e) {
+         throw new RuntimeException(e);
+      } finally {
+         Closeables2.closeQuietly(raf);
+         if (tempFile != null) {
+            tempFile.delete();
+         }
+      }
+   }
+
+   /**
+    * Returns the content of the blob in order while later parts are fetched in the background.
+    */
+   public InputStream stream(String container, String name, ExecutorService executor) {
+      BlobMetadata metadata = metadata(container, name);
+      return new PartInputStream(container, name, metadata.getETag(), contentLength(metadata), executor);
+   }
+
+   private BlobMetadata metadata(String container, String name) {
+      BlobMetadata metadata = blobStore.blobMetadata(container, name);
+      if (metadata == null) {
+         throw new KeyNotFoundException(container, name, "while downloading");
+      }
+      return metadata;
+   }
+
+   private static long contentLength(BlobMetadata metadata) {
+      Long contentLength = metadata.getContentMetadata().getContentLength();
+      checkState(contentLength != null, "%s/%s has no content length", metadata.getContainer(), metadata.getName());
+      return contentLength;
+   }
+
+   private int partCount(long contentLength) {
+      return Ints.checkedCast((contentLength + partSize - 1) / partSize);
+   }
+
+   private void downloadPart(String container, String name, String eTag, long contentLength, int part,
+         FileChannel channel) throws IOException {
+      long from = part * partSize;
+      long to = Math.min(from + partSize, contentLength) - 1;
+      byte[] buffer = new byte[BUFFER_SIZE];
+      Exception lastException = null;
+      for (int retry = 0; retry < partRetries; retry++) {
+         InputStream is = null;
+         try {
+            is = openRange(container, name, eTag, from, to);
+            long position = from;
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+               // never write past this part, a server ignoring the range would overwrite the neighbouring parts
+               if (read > to - position + 1) {
+                  throw new IOException("Received more than " + (to - from + 1) + " bytes for range " + from + "-"
+                        + to);
+               }
+               ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+               while (bytes.hasRemaining()) {
+                  position += channel.write(bytes, position);
+               }
+            }
+            if (position != to + 1) {
+               throw new IOException("Received " + (position - from) + " bytes for range " + from + "-" + to);
+            }
+            return;
+         } catch (IOException e) {
+            lastException = e;
+         } catch (RuntimeException e) {
+            if (!isRetryable(e)) {
+               throw e;
+            }
+            lastException = e;
+         } finally {
+            Closeables2.closeQuietly(is);
+         }
+      }
+      throw new IOException("After " + partRetries + " retries of range " + from + "-" + to, lastException);
+   }
+
+   private byte[] readPart(String container, String name, String eTag, long contentLength, int part)
+         throws IOException {
+      long from = part * partSize;
+      long to = Math.min(from + partSize, contentLength) - 1;
+      Exception lastException = null;
+      for (int retry = 0; retry < partRetries; retry++) {
+         InputStream is = null;
+         try {
+            is = openRange(container, name, eTag, from, to);
+            byte[] bytes = new byte[Ints.checkedCast(to - from + 1)];
+            ByteStreams.readFully(is, bytes);
+            if (is.read() != -1) {
+               throw new IOException("Received more than " + bytes.length + " bytes for range " + from + "-" + to);
+            }
+            return bytes;
+         } catch (IOException e) {
+            lastException = e;
+         } catch (RuntimeException e) {
+            if (!isRetryable(e)) {
+               throw e;
+            }
+            lastException = e;
+         } finally {
+            Closeables2.closeQuietly(is);
+         }
+      }
+      throw new IOException("After " + partRetries + " retries of range " + from + "-" + to, lastException);
+   }
+
+   /**
+    * Fetches one range, pinned to the ETag seen when the download started so that parts of an object overwritten
+    * mid-download are not stitched together.
+    */
+   private InputStream openRange(String container, String name, String eTag, long from, long to)
+         throws IOException {
+      GetOptions options = range(from, to);
+      if (eTag != null) {
+         options.ifETagMatches(eTag);
+      }
+      Blob blob = blobStore.getBlob(container, name, options);
+      if (blob == null) {
+         throw new KeyNotFoundException(container, name, "while downloading range " + from + "-" + to);
+      }
+      return blob.getPayload().openStream();
+   }
+
+   /**
+    * Missing blobs or containers, denied access, invalid arguments and client errors, including a failed ETag
+    * precondition, will not succeed on retry; server errors, throttling and failures without a response might. The
+    * cause chain is searched, as providers may wrap these exceptions.
+    */
+   private static boolean isRetryable(RuntimeException e) {
+      if (getFirstThrowableOfType(e, KeyNotFoundException.class) != null
+            || getFirstThrowableOfType(e, ContainerNotFoundException.class) != null
+            || getFirstThrowableOfType(e, AuthorizationException.class) != null
+            || getFirstThrowableOfType(e, IllegalArgumentException.class) != null) {
+         return false;
+      }
+      HttpResponseException responseException = getFirstThrowableOfType(e, HttpResponseException.class);
+      if (responseException != null && responseException.getResponse() != null) {
+         int status = responseException.getResponse().getStatusCode();
+         return status >= 500 || status == 408 || status == 429;
+      }
+      return true;
+   }
+
+   /**
+    * Serves parts in order from a window of in-flight part downloads, submitting the next part each time one is
+    * consumed.
+    */
+   private final class PartInputStream extends InputStream {
+      private final String container;
+      private final String name;
+      private final String eTag;
+      private final long contentLength;
+      private final int parts;
+      private final ExecutorService executor;
+      private final Deque<Future<byte[]>> window = new ArrayDeque<Future<byte[]>>();
+      private int nextPart;
+      private byte[] current;
+      private int position;
+
+      PartInputStream(String container, String name, String eTag, long contentLength, ExecutorService executor) {
+         this.container = container;
+         this.name = name;
+         this.eTag = eTag;
+         this.contentLength = contentLength;
+         this.parts = partCount(contentLength);
+         this.executor = executor;
+         fillWindow();
+      }
+
+      private void fillWindow() {
+         while (window.size() < maxParallelParts && nextPart < parts) {
+            final int part = nextPart++;
+            window.add(executor.submit(new Callable<byte[]>() {
+               @Override
+               public byte[] call() throws IOException {
+                  return readPart(container, name, eTag, contentLength, part);
+               }
+            }));
+         }
+      }
+
+      /** Returns false once every part has been consumed. */
+      private boolean ensureCurrent() throws IOException {
+         while (current == null || position == current.length) {
+            Future<byte[]> next = window.poll();
+            if (next == null) {
+               return false;
+            }
+            fillWindow();
+            try {
+               current = next.get();
+               position = 0;
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw new IOException(e);
+            } catch (ExecutionException e) {
+               throw new IOException(e.getCause());
+            }
+         }
+         return true;
+      }
+
+      @Override
+      public int read() throws IOException {
+         if (!ensureCurrent()) {
+            return -1;
+         }
+         return current[position++] & 0xff;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         if (len == 0) {
+            return 0;
+         }
+         if (!ensureCurrent()) {
+            return -1;
+         }
+         int count = Math.min(len, current.length - position);
+         System.arraycopy(current, position, b, off, count);
+         position += count;
+         return count;
+      }
+
+      @Override
+      public int available() {
+         return current == null ? 0 : current.length - position;
+      }
+
+      @Override
+      public void close() {
+         for (Future<byte[]> future : window) {
+            future.cancel(true);
+         }
+         window.clear();
+         nextPart = parts;
+         current = null;
+      }
+   }
+}
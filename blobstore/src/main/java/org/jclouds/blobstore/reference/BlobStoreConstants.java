@@ -53,6 +53,27 @@ public final class BlobStoreConstants {
     */
    public static final String PROPERTY_USER_METADATA_PREFIX = "jclouds.blobstore.metaprefix";
 
+   /**
+    * Size in bytes of each ranged get issued by {@code downloadBlob} and {@code streamBlob}. Defaults to 32 MiB.
+    */
+   public static final String PROPERTY_DOWNLOAD_PART_SIZE = "jclouds.blobstore.download.part-size";
+
+   /**
+    * Maximum number of parts of a single blob fetched concurrently by {@code downloadBlob} and {@code streamBlob}.
+    * When streaming, this is also the number of parts buffered ahead of the reader. Defaults to 4.
+    */
+   public static final String PROPERTY_DOWNLOAD_MAX_PARALLEL_PARTS = "jclouds.blobstore.download.max-parallel-parts";
+
+   /**
+    * Number of attempts made to fetch each part before {@code downloadBlob} or {@code streamBlob} fails. Defaults
+    * to 5.
+    */
+   public static final String PROPERTY_DOWNLOAD_PART_RETRIES = "jclouds.blobstore.download.part-retries";
+
+   public static final long DEFAULT_DOWNLOAD_PART_SIZE = 32L * 1024 * 1024;
+   public static final int DEFAULT_DOWNLOAD_MAX_PARALLEL_PARTS = 4;
+   public static final int DEFAULT_DOWNLOAD_PART_RETRIES = 5;
+
    public static final String BLOBSTORE_LOGGER = "jclouds.blobstore";
    public static final String DIRECTORY_BLOB_SUFFIX = "/";
 
@@ -18,8 +18,10 @@ package org.jclouds.blobstore.strategy.internal;
 
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Semaphore;
@@ -36,6 +38,7 @@ import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.ContainerNotFoundException;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
 import org.jclouds.blobstore.internal.BlobRuntimeException;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.reference.BlobStoreConstants;
@@ -198,6 +201,11 @@ public class DeleteAllKeysInList implements ClearListStrategy, ClearContainerStr
     * Delete the blobs from a given PageSet. The PageSet may contain blobs or
     * directories. If there are directories, they are expected to be empty.
     *
+    * When the blob store can remove several blobs with one request, blobs
+    * are grouped into batches of
+    * {@link BlobStore#getMaximumNumberOfBlobsPerRemove} names and each batch
+    * is deleted by a single task. Otherwise every blob gets its own task.
+    *
     * The logic of acquiring a semaphore, submitting a callable to the
     * executorService and releasing the semaphore resides here.
     *
@@ -224,22 +232,25 @@ public class DeleteAllKeysInList implements ClearListStrategy, ClearContainerStr
          final AtomicBoolean deleteFailure,
          final Set<ListenableFuture<Void>> outstandingFutures)
          throws TimeoutException {
+      int batchSize = blobStore.getMaximumNumberOfBlobsPerRemove();
+      List<String> batch = new ArrayList<String>();
       for (final StorageMetadata md : listing) {
          final String fullPath = parentIsFolder(options, md) ? options.getDir()
                + "/" + md.getName() : md.getName();
 
-         // Attempt to acquire a semaphore within the time limit. At least
-         // one outstanding future should complete within this period for the
-         // semaphore to be acquired.
-         try {
-            if (!semaphore.tryAcquire(maxTime, TimeUnit.MILLISECONDS)) {
-               throw new TimeoutException("Timeout waiting for semaphore");
+         if (batchSize > 1 && (md.getType() == StorageType.BLOB
+               || md.getType() == StorageType.FOLDER)) {
+            batch.add(fullPath);
+            if (batch.size() == batchSize) {
+               deleteBatch(containerName, batch, semaphore, deleteFailure,
+                     outstandingFutures);
+               batch = new ArrayList<String>();
             }
-         } catch (InterruptedException ie) {
-            logger.debug("Interrupted while deleting blobs");
-            Thread.currentThread().interrupt();
+            continue;
          }
 
+         acquire(semaphore);
+
          final ListenableFuture<Void> blobDelFuture;
          switch (md.getType()) {
          case FOLDER:
@@ -262,41 +273,82 @@ public class DeleteAllKeysInList implements ClearListStrategy, ClearContainerStr
             blobDelFuture = null;
          }
 
-         // If a future to delete a blob/directory actually got created above,
-         // keep a reference of that in the outstandingFutures list. This is
-         // useful in case of a timeout exception. All outstanding futures can
-         // then be cancelled.
-         if (blobDelFuture != null) {
-            outstandingFutures.add(blobDelFuture);
-
-            // Add a callback to release the semaphore. This is required for
-            // other threads waiting to acquire a semaphore above to make
-            // progress.
-            Futures.addCallback(blobDelFuture, new FutureCallback<Object>() {
-               @Override
-               public void onSuccess(final Object o) {
-                  outstandingFutures.remove(blobDelFuture);
-                  semaphore.release();
-               }
+         track(blobDelFuture, semaphore, deleteFailure, outstandingFutures);
+      }
+      if (!batch.isEmpty()) {
+         deleteBatch(containerName, batch, semaphore, deleteFailure,
+               outstandingFutures);
+      }
+   }
 
+   private void deleteBatch(final String containerName,
+         final List<String> names, final Semaphore semaphore,
+         final AtomicBoolean deleteFailure,
+         final Set<ListenableFuture<Void>> outstandingFutures)
+         throws TimeoutException {
+      acquire(semaphore);
+      ListenableFuture<Void> batchDelFuture = executorService.submit(
+            new Callable<Void>() {
                @Override
-               public void onFailure(final Throwable t) {
-                  // Make a note the fact that some blob/directory could not be
-                  // deleted successfully. This is used for retrying later.
-                  deleteFailure.set(true);
-                  outstandingFutures.remove(blobDelFuture);
-                  semaphore.release();
+               public Void call() {
+                  blobStore.removeBlobs(containerName, names);
+                  return null;
                }
-            }, MoreExecutors.directExecutor());
-         } else {
-            // It is possible above to acquire a semaphore but not submit any
-            // task to the executorService. For e.g. if the listing contains
-            // an object of type 'FOLDER' and the ListContianerOptions are *not*
-            // recursive. In this case, there is no blobDelFuture and therefore
-            // no FutureCallback to release the semaphore. This semaphore is
-            // released here.
-            semaphore.release();
+            });
+      track(batchDelFuture, semaphore, deleteFailure, outstandingFutures);
+   }
+
+   private void acquire(final Semaphore semaphore) throws TimeoutException {
+      // Attempt to acquire a semaphore within the time limit. At least
+      // one outstanding future should complete within this period for the
+      // semaphore to be acquired.
+      try {
+         if (!semaphore.tryAcquire(maxTime, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("Timeout waiting for semaphore");
          }
+      } catch (InterruptedException ie) {
+         logger.debug("Interrupted while deleting blobs");
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   private void track(final ListenableFuture<Void> blobDelFuture,
+         final Semaphore semaphore, final AtomicBoolean deleteFailure,
+         final Set<ListenableFuture<Void>> outstandingFutures) {
+      // If a future to delete a blob/directory actually got created above,
+      // keep a reference of that in the outstandingFutures list. This is
+      // useful in case of a timeout exception. All outstanding futures can
+      // then be cancelled.
+      if (blobDelFuture != null) {
+         outstandingFutures.add(blobDelFuture);
+
+         // Add a callback to release the semaphore. This is required for
+         // other threads waiting to acquire a semaphore above to make
+         // progress.
+         Futures.addCallback(blobDelFuture, new FutureCallback<Object>() {
+            @Override
+            public void onSuccess(final Object o) {
+               outstandingFutures.remove(blobDelFuture);
+               semaphore.release();
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+               // Make a note the fact that some blob/directory could not be
+               // deleted successfully. This is used for retrying later.
+               deleteFailure.set(true);
+               outstandingFutures.remove(blobDelFuture);
+               semaphore.release();
+            }
+         }, MoreExecutors.directExecutor());
+      } else {
+         // It is possible above to acquire a semaphore but not submit any
+         // task to the executorService. For e.g. if the listing contains
+         // an object of type 'FOLDER' and the ListContianerOptions are *not*
+         // recursive. In this case, there is no blobDelFuture and therefore
+         // no FutureCallback to release the semaphore. This semaphore is
+         // released here.
+         semaphore.release();
       }
    }
 
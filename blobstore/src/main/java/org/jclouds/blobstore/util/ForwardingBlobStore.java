@@ -267,6 +267,11 @@ public abstract class ForwardingBlobStore extends ForwardingObject
       return delegate().getMaximumNumberOfParts();
    }
 
+   @Override
+   public int getMaximumNumberOfBlobsPerRemove() {
+      return delegate().getMaximumNumberOfBlobsPerRemove();
+   }
+
    @Override
    public void downloadBlob(String container, String name, File destination) {
       delegate().downloadBlob(container, name, destination);
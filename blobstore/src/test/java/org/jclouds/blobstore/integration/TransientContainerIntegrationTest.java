@@ -17,11 +17,15 @@
 package org.jclouds.blobstore.integration;
 
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.afterMarker;
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.maxResults;
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.prefix;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
+import java.util.List;
+
 import jakarta.ws.rs.core.MediaType;
 
 import org.jclouds.blobstore.BlobStore;
@@ -30,11 +34,14 @@ import org.jclouds.blobstore.domain.BlobMetadata;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.integration.internal.BaseContainerIntegrationTest;
+import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.domain.Location;
 import org.testng.annotations.Test;
 import org.testng.SkipException;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 
 @Test(groups = { "integration", "live" })
 public class TransientContainerIntegrationTest extends BaseContainerIntegrationTest {
@@ -82,6 +89,45 @@ public class TransientContainerIntegrationTest extends BaseContainerIntegrationT
       assertFalse(created);
    }
 
+   @Test(groups = { "integration", "live" })
+   public void testListPagesFoldCommonPrefixes() throws InterruptedException {
+      BlobStore blobStore = view.getBlobStore();
+      String containerName = getContainerName();
+      try {
+         for (String name : ImmutableList.of("a/1", "a/2", "a/3", "b", "c/1", "c/d/2", "d")) {
+            blobStore.putBlob(containerName, blobStore.blobBuilder(name).payload(TEST_STRING).build());
+         }
+
+         assertEquals(listAllPages(containerName, maxResults(2)),
+               ImmutableList.of(ImmutableList.of("a/", "b"), ImmutableList.of("c/", "d")));
+         assertEquals(listAllPages(containerName, maxResults(3).recursive()),
+               ImmutableList.of(ImmutableList.of("a/1", "a/2", "a/3"), ImmutableList.of("b", "c/1", "c/d/2"),
+                     ImmutableList.of("d")));
+         assertEquals(listAllPages(containerName, prefix("c/").maxResults(1)),
+               ImmutableList.of(ImmutableList.of("c/1"), ImmutableList.of("c/d/")));
+         assertEquals(listAllPages(containerName, afterMarker("a/1").maxResults(2)),
+               ImmutableList.of(ImmutableList.of("b", "c/"), ImmutableList.of("d")));
+      } finally {
+         returnContainer(containerName);
+      }
+   }
+
+   private List<List<String>> listAllPages(String containerName, ListContainerOptions options) {
+      List<List<String>> pages = Lists.newArrayList();
+      while (true) {
+         PageSet<? extends StorageMetadata> page = view.getBlobStore().list(containerName, options);
+         List<String> names = Lists.newArrayList();
+         for (StorageMetadata metadata : page) {
+            names.add(metadata.getName());
+         }
+         pages.add(names);
+         if (page.getNextMarker() == null) {
+            return pages;
+         }
+         options.afterMarker(page.getNextMarker());
+      }
+   }
+
    @Override
    @Test(groups = { "integration", "live" })
    public void testSetContainerAccess() throws Exception {
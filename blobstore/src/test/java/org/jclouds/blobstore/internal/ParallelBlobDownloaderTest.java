@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.internal;
+
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_DOWNLOAD_MAX_PARALLEL_PARTS;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_DOWNLOAD_PART_SIZE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.KeyNotFoundException;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.rest.AuthorizationException;
+import org.jclouds.blobstore.util.ForwardingBlobStore;
+import org.jclouds.utils.TestUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", singleThreaded = true, testName = "ParallelBlobDownloaderTest")
+public class ParallelBlobDownloaderTest {
+   private static final String CONTAINER = "container";
+
+   private BlobStoreContext context;
+   private BlobStore blobStore;
+   private ExecutorService executor;
+   private File tempDir;
+
+   @BeforeClass
+   public void setUp() {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_DOWNLOAD_PART_SIZE, "1000");
+      overrides.setProperty(PROPERTY_DOWNLOAD_MAX_PARALLEL_PARTS, "3");
+      context = ContextBuilder.newBuilder("transient").overrides(overrides).build(BlobStoreContext.class);
+      blobStore = context.getBlobStore();
+      blobStore.createContainerInLocation(null, CONTAINER);
+      executor = Executors.newFixedThreadPool(2);
+      tempDir = Files.createTempDir();
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      executor.shutdownNow();
+      context.close();
+      for (File file : tempDir.listFiles()) {
+         file.delete();
+      }
+      tempDir.delete();
+   }
+
+   private ByteSource putBlob(String name, long size) {
+      ByteSource content = TestUtils.randomByteSource().slice(0, size);
+      blobStore.putBlob(CONTAINER, blobStore.blobBuilder(name).payload(content).contentLength(size).build());
+      return content;
+   }
+
+   public void testDownloadBlobSplitsIntoParts() throws Exception {
+      ByteSource content = putBlob("parts", 10500);
+      File destination = new File(tempDir, "parts");
+      blobStore.downloadBlob(CONTAINER, "parts", destination, executor);
+      assertEquals(Files.asByteSource(destination).read(), content.read());
+   }
+
+   public void testDownloadBlobReplacesExistingFile() throws Exception {
+      ByteSource content = putBlob("replace", 2000);
+      File destination = new File(tempDir, "replace");
+      Files.write(new byte[5000], destination);
+      blobStore.downloadBlob(CONTAINER, "replace", destination, executor);
+      assertEquals(Files.asByteSource(destination).read(), content.read());
+   }
+
+   public void testDownloadEmptyBlob() throws Exception {
+      putBlob("empty", 0);
+      File destination = new File(tempDir, "empty");
+      blobStore.downloadBlob(CONTAINER, "empty", destination, executor);
+      assertEquals(destination.length(), 0);
+   }
+
+   public void testStreamBlobReturnsPartsInOrder() throws Exception {
+      ByteSource content = putBlob("stream", 7777);
+      InputStream is = blobStore.streamBlob(CONTAINER, "stream", executor);
+      try {
+         assertEquals(ByteStreams.toByteArray(is), content.read());
+      } finally {
+         is.close();
+      }
+   }
+
+   public void testStreamBlobCanBeClosedEarly() throws Exception {
+      ByteSource content = putBlob("early", 9000);
+      InputStream is = blobStore.streamBlob(CONTAINER, "early", executor);
+      byte[] head = new byte[1500];
+      ByteStreams.readFully(is, head);
+      is.close();
+      assertEquals(head, content.slice(0, 1500).read());
+      assertEquals(is.read(), -1);
+   }
+
+   @Test(expectedExceptions = KeyNotFoundException.class)
+   public void testDownloadMissingBlob() {
+      blobStore.downloadBlob(CONTAINER, "missing", new File(tempDir, "missing"), executor);
+   }
+
+   public void testPartIsNotWrittenPastItsRange() throws Exception {
+      putBlob("norange", 3000);
+      BlobStore ignoresRange = new ForwardingBlobStore(blobStore) {
+         @Override
+         public Blob getBlob(String container, String name, GetOptions options) {
+            return delegate().getBlob(container, name);
+         }
+      };
+      File destination = new File(tempDir, "norange");
+      try {
+         new ParallelBlobDownloader(ignoresRange, 1000, 3, 2).download(CONTAINER, "norange", destination, executor);
+         fail("expected the download to fail");
+      } catch (RuntimeException expected) {
+      }
+      assertFalse(destination.exists());
+   }
+
+   public void testTransientRuntimeExceptionIsRetried() throws Exception {
+      ByteSource content = putBlob("flaky", 2500);
+      final AtomicInteger failures = new AtomicInteger();
+      BlobStore flaky = new ForwardingBlobStore(blobStore) {
+         @Override
+         public Blob getBlob(String container, String name, GetOptions options) {
+            if (failures.getAndIncrement() == 0) {
+               throw new RuntimeException("connection reset");
+            }
+            return delegate().getBlob(container, name, options);
+         }
+      };
+      File destination = new File(tempDir, "flaky");
+      new ParallelBlobDownloader(flaky, 1000, 1, 2).download(CONTAINER, "flaky", destination, executor);
+      assertEquals(Files.asByteSource(destination).read(), content.read());
+   }
+
+   public void testWrappedAuthorizationExceptionIsNotRetried() throws Exception {
+      putBlob("denied", 2500);
+      final AtomicInteger attempts = new AtomicInteger();
+      BlobStore denying = new ForwardingBlobStore(blobStore) {
+         @Override
+         public Blob getBlob(String container, String name, GetOptions options) {
+            attempts.incrementAndGet();
+            throw new RuntimeException(new AuthorizationException("denied"));
+         }
+      };
+      try {
+         new ParallelBlobDownloader(denying, 1000, 1, 2).download(CONTAINER, "denied", new File(tempDir, "denied"),
+               executor);
+         fail("expected the download to fail");
+      } catch (RuntimeException expected) {
+      }
+      assertEquals(attempts.get(), 1);
+   }
+
+   public void testOverwrittenBlobFailsDownload() throws Exception {
+      putBlob("overwritten", 3000);
+      BlobStore overwriting = new ForwardingBlobStore(blobStore) {
+         @Override
+         public BlobMetadata blobMetadata(String container, String name) {
+            BlobMetadata metadata = delegate().blobMetadata(container, name);
+            putBlob(name, 3000);
+            return metadata;
+         }
+      };
+      InputStream is = new ParallelBlobDownloader(overwriting, 1000, 3, 2).stream(CONTAINER, "overwritten", executor);
+      try {
+         ByteStreams.toByteArray(is);
+         fail("expected the stream to fail");
+      } catch (IOException expected) {
+      } finally {
+         is.close();
+      }
+   }
+}
@@ -30,9 +30,11 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.easymock.EasyMock;
 import org.easymock.IMocksControl;
@@ -44,6 +46,7 @@ import org.jclouds.util.Closeables2;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.internal.BlobRuntimeException;
+import org.jclouds.blobstore.util.ForwardingBlobStore;
 import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -52,6 +55,7 @@ import org.testng.annotations.Test;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Injector;
 
 @Test(testName = "DeleteAllKeysInListTest", singleThreaded = true)
@@ -98,6 +102,50 @@ public class DeleteAllKeysInListTest {
       assertEquals(blobstore.countBlobs(containerName), 1111);
    }
 
+   public void testBlobsAreRemovedInBatches() {
+      final AtomicInteger removeBlobCalls = new AtomicInteger();
+      final AtomicInteger removeBlobsCalls = new AtomicInteger();
+      final AtomicInteger largestBatch = new AtomicInteger();
+      BlobStore batchingBlobStore = new ForwardingBlobStore(blobstore) {
+         @Override
+         public void removeBlob(String container, String name) {
+            removeBlobCalls.incrementAndGet();
+            super.removeBlob(container, name);
+         }
+
+         @Override
+         public void removeBlobs(String container, Iterable<String> names) {
+            removeBlobsCalls.incrementAndGet();
+            int size = 0;
+            for (String name : names) {
+               delegate().removeBlob(container, name);
+               size++;
+            }
+            synchronized (largestBatch) {
+               largestBatch.set(Math.max(largestBatch.get(), size));
+            }
+         }
+
+         @Override
+         public int getMaximumNumberOfBlobsPerRemove() {
+            return 100;
+         }
+      };
+      ListeningExecutorService executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(4));
+      try {
+         new DeleteAllKeysInList(executorService, batchingBlobStore, retryHandler, maxParallelDeletes)
+               .execute(containerName);
+      } finally {
+         executorService.shutdown();
+      }
+      assertEquals(blobstore.countBlobs(containerName), 0);
+      assertEquals(removeBlobCalls.get(), 0);
+      assertEquals(largestBatch.get(), 100);
+      // 1111 blobs at the top level and 2222 in the directory, listed in pages of at most 1000
+      assertTrue(removeBlobsCalls.get() >= 34 && removeBlobsCalls.get() <= 40, "removeBlobs calls: "
+            + removeBlobsCalls.get());
+   }
+
    public void testContainerNotFound() {
       IMocksControl mockControl = createControl();
       BlobStore blobStore = mockControl.createMock(BlobStore.class);
@@ -17,10 +17,13 @@
 package org.jclouds.compute.config;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static org.jclouds.compute.config.ComputeServiceProperties.IMAGE_ID;
+import static org.jclouds.compute.config.ComputeServiceProperties.IMAGE_SNAPSHOT_FILE;
 import static org.jclouds.compute.config.ComputeServiceProperties.TEMPLATE;
 import static org.jclouds.compute.domain.OsFamily.UBUNTU;
 
+import java.io.File;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -55,6 +58,7 @@ import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIn
 import org.jclouds.compute.strategy.GetImageStrategy;
 import org.jclouds.compute.strategy.InitializeRunScriptOnNodeOrPlaceInBadMap;
 import org.jclouds.compute.suppliers.ImageCacheSupplier;
+import org.jclouds.compute.suppliers.ImageSnapshotStore;
 import org.jclouds.config.ValueOfConfigurationKeyOrNull;
 import org.jclouds.domain.LoginCredentials;
 import org.jclouds.json.Json;
@@ -71,6 +75,7 @@ import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.AbstractModule;
 import com.google.inject.Binding;
 import com.google.inject.Inject;
@@ -247,7 +252,16 @@ public abstract class BaseComputeServiceContextModule extends AbstractModule {
          final Supplier<Set<? extends Image>> imageSupplier, com.google.inject.Provider<GetImageStrategy> imageLoader, Injector injector) {
       Supplier<Set<? extends Image>> parsingImageSupplier = shouldEagerlyParseImages(injector) ? imageSupplier
             : supplyNonParsingImages(imageSupplier, injector);
-      return new ImageCacheSupplier(parsingImageSupplier, seconds, authException, imageLoader);
+      String snapshotFile = injector.getInstance(ValueOfConfigurationKeyOrNull.class).apply(IMAGE_SNAPSHOT_FILE);
+      if (snapshotFile == null) {
+         return new ImageCacheSupplier(parsingImageSupplier, seconds, authException, imageLoader);
+      }
+      ImageSnapshotStore snapshotStore = new ImageSnapshotStore(new File(snapshotFile));
+      injector.injectMembers(snapshotStore);
+      ListeningExecutorService userExecutor = injector.getInstance(Key.get(ListeningExecutorService.class,
+            Names.named(PROPERTY_USER_THREADS)));
+      return new ImageCacheSupplier(parsingImageSupplier, seconds, authException, imageLoader,
+            Optional.of(snapshotStore), userExecutor);
    }
 
    protected boolean shouldEagerlyParseImages(Injector injector) {
@@ -44,6 +44,13 @@ public final class ComputeServiceProperties {
     */
    public static final String POLL_MAX_PERIOD = "jclouds.compute.poll-status.max-period";
 
+   /**
+    * Whether nodes being created or destroyed in bulk wait for their status through one shared poller, which
+    * refreshes all of them with a single list call per location, rather than polling each node on its own thread.
+    * Defaults to true.
+    */
+   public static final String POLL_BATCHED = "jclouds.compute.poll-status.batched";
+
    /**
     * time in milliseconds to wait for an image to finish creating.
     * 
@@ -118,6 +125,13 @@ public final class ComputeServiceProperties {
     */
    public static final String SOCKET_FINDER_ALLOWED_INTERFACES = "jclouds.compute.socket-finder-allowed-interfaces";
 
+   /**
+    * path of a file where the image list is saved. When set, a new context uses the images saved
+    * there by a previous one and fetches the current list in the background. Use a different file
+    * for each provider and identity.
+    */
+   public static final String IMAGE_SNAPSHOT_FILE = "jclouds.compute.image-snapshot-file";
+
    private ComputeServiceProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
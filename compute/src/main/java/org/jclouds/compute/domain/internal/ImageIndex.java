@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.domain.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.domain.Location;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Predicate;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+/**
+ * An immutable snapshot of the image cache, with the positions of the images grouped by the attributes most
+ * templates filter on: location, operating system family, 64-bit, and operating system name, version and
+ * architecture. {@link TemplateBuilderImpl} narrows its candidates with these before applying its predicates, and
+ * memoizes the templates it resolves against the snapshot, so they are dropped as soon as the images change.
+ */
+@Beta
+public final class ImageIndex {
+
+   public static ImageIndex of(Set<? extends Image> images) {
+      return new ImageIndex(images);
+   }
+
+   private final ImmutableSet<Image> images;
+   private final ImmutableList<Image> byPosition;
+   private final BitSet nullLocation = new BitSet();
+   private final Map<Location, BitSet> byLocation = Maps.newHashMap();
+   private final Map<OsFamily, BitSet> byOsFamily = Maps.newEnumMap(OsFamily.class);
+   private final BitSet is64Bit = new BitSet();
+   private final Map<String, BitSet> byOsName = Maps.newHashMap();
+   private final Map<String, BitSet> byOsVersion = Maps.newHashMap();
+   private final Map<String, BitSet> byOsArch = Maps.newHashMap();
+   private final Cache<String, ResolvedTemplate> resolvedTemplates = CacheBuilder.newBuilder().maximumSize(256)
+         .build();
+
+   private ImageIndex(Set<? extends Image> images) {
+      this.images = ImmutableSet.copyOf(checkNotNull(images, "images"));
+      this.byPosition = this.images.asList();
+      for (int i = 0; i < byPosition.size(); i++) {
+         Image image = byPosition.get(i);
+         if (image.getLocation() == null)
+            nullLocation.set(i);
+         else
+            add(byLocation, image.getLocation(), i);
+         OperatingSystem os = image.getOperatingSystem();
+         if (os == null)
+            continue;
+         add(byOsFamily, os.getFamily(), i);
+         if (os.is64Bit())
+            is64Bit.set(i);
+         add(byOsName, os.getName(), i);
+         add(byOsVersion, os.getVersion(), i);
+         add(byOsArch, os.getArch(), i);
+      }
+   }
+
+   private static <K> void add(Map<K, BitSet> index, K key, int position) {
+      if (key == null)
+         return;
+      BitSet positions = index.get(key);
+      if (positions == null)
+         index.put(key, positions = new BitSet());
+      positions.set(position);
+   }
+
+   /**
+    * The images this index was built from, in the order the positions refer to.
+    */
+   public Set<Image> images() {
+      return images;
+   }
+
+   // the sets returned below may be shared, so callers only combine them into a copy of their own
+
+   BitSet all() {
+      BitSet all = new BitSet();
+      all.set(0, byPosition.size());
+      return all;
+   }
+
+   /**
+    * Images without a location, or in {@code location}, its parent or its grandparent.
+    */
+   BitSet inLocation(Location location) {
+      BitSet result = (BitSet) nullLocation.clone();
+      or(result, byLocation.get(location));
+      Location parent = location.getParent();
+      if (parent != null) {
+         or(result, byLocation.get(parent));
+         if (parent.getParent() != null)
+            or(result, byLocation.get(parent.getParent()));
+      }
+      return result;
+   }
+
+   private static void or(BitSet result, BitSet positions) {
+      if (positions != null)
+         result.or(positions);
+   }
+
+   BitSet withOsFamily(OsFamily family) {
+      BitSet positions = byOsFamily.get(family);
+      return positions == null ? new BitSet() : positions;
+   }
+
+   BitSet with64Bit(boolean value) {
+      if (value)
+         return is64Bit;
+      BitSet result = all();
+      result.andNot(is64Bit);
+      return result;
+   }
+
+   BitSet withOsName(Predicate<String> matches) {
+      return matching(byOsName, matches);
+   }
+
+   BitSet withOsVersion(Predicate<String> matches) {
+      return matching(byOsVersion, matches);
+   }
+
+   BitSet withOsArch(Predicate<String> matches) {
+      return matching(byOsArch, matches);
+   }
+
+   /**
+    * Tests each distinct value once, rather than once per image.
+    */
+   private static BitSet matching(Map<String, BitSet> index, Predicate<String> matches) {
+      BitSet result = new BitSet();
+      for (Map.Entry<String, BitSet> entry : index.entrySet()) {
+         if (matches.apply(entry.getKey()))
+            result.or(entry.getValue());
+      }
+      return result;
+   }
+
+   /**
+    * The images at the given positions, in index order.
+    */
+   List<Image> get(final BitSet positions) {
+      final int[] indexes = new int[positions.cardinality()];
+      for (int i = positions.nextSetBit(0), j = 0; i >= 0; i = positions.nextSetBit(i + 1))
+         indexes[j++] = i;
+      return new AbstractList<Image>() {
+         @Override
+         public Image get(int index) {
+            return byPosition.get(indexes[index]);
+         }
+
+         @Override
+         public int size() {
+            return indexes.length;
+         }
+      };
+   }
+
+   ResolvedTemplate getResolvedTemplate(String key, Set<? extends Hardware> hardwares) {
+      ResolvedTemplate resolved = resolvedTemplates.getIfPresent(key);
+      return resolved != null && resolved.hardwares == hardwares ? resolved : null;
+   }
+
+   void putResolvedTemplate(String key, ResolvedTemplate resolved) {
+      resolvedTemplates.put(key, resolved);
+   }
+
+   /**
+    * The outcome of a template search, valid for as long as the hardware profiles it was made against.
+    */
+   static final class ResolvedTemplate {
+      final Image image;
+      final Hardware hardware;
+      final Location location;
+      final Set<? extends Hardware> hardwares;
+
+      ResolvedTemplate(Image image, Hardware hardware, Location location, Set<? extends Hardware> hardwares) {
+         this.image = image;
+         this.hardware = hardware;
+         this.location = location;
+         this.hardwares = hardwares;
+      }
+   }
+}
@@ -24,12 +24,17 @@ import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Ordering;
 import com.google.common.primitives.Doubles;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.jclouds.collect.Memoized;
 import org.jclouds.compute.domain.ComputeMetadata;
 import org.jclouds.compute.domain.Hardware;
@@ -39,6 +44,7 @@ import org.jclouds.compute.domain.OsFamily;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.domain.TemplateBuilder;
 import org.jclouds.compute.domain.TemplateBuilderSpec;
+import org.jclouds.compute.domain.internal.ImageIndex.ResolvedTemplate;
 import org.jclouds.compute.options.TemplateOptions;
 import org.jclouds.compute.predicates.ImagePredicates;
 import org.jclouds.compute.reference.ComputeServiceConstants;
@@ -50,6 +56,7 @@ import jakarta.annotation.Resource;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.inject.Provider;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -62,7 +69,6 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.find;
-import static com.google.common.collect.Iterables.size;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Iterables.tryFind;
 import static com.google.common.collect.Lists.newArrayList;
@@ -142,6 +148,38 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       this.defaultTemplateProvider = checkNotNull(defaultTemplateProvider, "defaultTemplateProvider");
    }
 
+   /**
+    * The patterns templates match against, compiled once rather than by {@link String#matches} for every image.
+    */
+   private static final LoadingCache<String, Pattern> PATTERNS = CacheBuilder.newBuilder().maximumSize(1000)
+         .build(new CacheLoader<String, Pattern>() {
+            @Override
+            public Pattern load(String regex) {
+               return Pattern.compile(regex);
+            }
+         });
+
+   static boolean containsOrMatches(String value, String regex) {
+      if (value.contains(regex))
+         return true;
+      try {
+         return PATTERNS.getUnchecked(regex).matcher(value).matches();
+      } catch (UncheckedExecutionException e) {
+         // such as PatternSyntaxException
+         Throwables.throwIfUnchecked(e.getCause());
+         throw e;
+      }
+   }
+
+   private static Predicate<String> containsOrMatches(final String regex) {
+      return new Predicate<String>() {
+         @Override
+         public boolean apply(String input) {
+            return containsOrMatches(input, regex);
+         }
+      };
+   }
+
    static Predicate<Hardware> supportsImagesPredicate(final Iterable<? extends Image> images) {
       return new Predicate<Hardware>() {
          @Override
@@ -198,7 +236,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getName() == null)
                returnVal = false;
             else
-               returnVal = input.getName().contains(osName) || input.getName().matches(osName);
+               returnVal = containsOrMatches(input.getName(), osName);
          }
          return returnVal;
       }
@@ -217,8 +255,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getDescription() == null)
                returnVal = false;
             else
-               returnVal = input.getDescription().contains(osDescription)
-                     || input.getDescription().matches(osDescription);
+               returnVal = containsOrMatches(input.getDescription(), osDescription);
          }
          return returnVal;
       }
@@ -237,7 +274,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getVersion() == null)
                returnVal = false;
             else
-               returnVal = input.getVersion().contains(osVersion) || input.getVersion().matches(osVersion);
+               returnVal = containsOrMatches(input.getVersion(), osVersion);
          }
          return returnVal;
       }
@@ -275,7 +312,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getArch() == null)
                returnVal = false;
             else
-               returnVal = input.getArch().contains(osArch) || input.getArch().matches(osArch);
+               returnVal = containsOrMatches(input.getArch(), osArch);
          }
          return returnVal;
       }
@@ -294,7 +331,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getVersion() == null)
                returnVal = false;
             else
-               returnVal = input.getVersion().contains(imageVersion) || input.getVersion().matches(imageVersion);
+               returnVal = containsOrMatches(input.getVersion(), imageVersion);
          }
          return returnVal;
       }
@@ -313,8 +350,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getName() == null)
                returnVal = false;
             else
-               returnVal = input.getName().equals(imageName) || input.getName().contains(imageName)
-                        || input.getName().matches(imageName);
+               returnVal = input.getName().equals(imageName) || containsOrMatches(input.getName(), imageName);
          }
          return returnVal;
       }
@@ -334,8 +370,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
                returnVal = false;
             else
                returnVal = input.getDescription().equals(imageDescription)
-                     || input.getDescription().contains(imageDescription)
-                     || input.getDescription().matches(imageDescription);
+                     || containsOrMatches(input.getDescription(), imageDescription);
          }
          return returnVal;
       }
@@ -373,8 +408,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getHypervisor() == null)
                returnVal = false;
             else
-               returnVal = input.getHypervisor().contains(hypervisor)
-                     || input.getHypervisor().matches(hypervisor);
+               returnVal = containsOrMatches(input.getHypervisor(), hypervisor);
          }
          return returnVal;
       }
@@ -667,6 +701,14 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       Set<? extends Hardware> hardwaresToSearch = hardwares.get();
       checkState(!hardwaresToSearch.isEmpty(), "no hardware profiles present!");
 
+      ImageIndex index = indexOf(images);
+      String resolvedTemplateKey = index != null ? resolvedTemplateKey() : null;
+      if (resolvedTemplateKey != null) {
+         ResolvedTemplate resolved = index.getResolvedTemplate(resolvedTemplateKey, hardwaresToSearch);
+         if (resolved != null)
+            return fromResolvedTemplate(resolved);
+      }
+
       Image image = null;
       if (imageId != null) {
          image = loadImageWithId(images);
@@ -698,13 +740,51 @@ public class TemplateBuilderImpl implements TemplateBuilder {
 
       logger.debug("<<   matched image(%s) hardware(%s) location(%s)", image.getId(), hardware.getId(),
             location.getId());
+      if (resolvedTemplateKey != null)
+         index.putResolvedTemplate(resolvedTemplateKey, new ResolvedTemplate(image, hardware, location,
+               hardwaresToSearch));
       return new TemplateImpl(image, hardware, location, options);
    }
 
+   /**
+    * @return the index of {@code images} if they are the current contents of the image cache, or null
+    */
+   private ImageIndex indexOf(Set<? extends Image> images) {
+      ImageIndex index = this.images.index();
+      return index.images() == images ? index : null;
+   }
+
+   /**
+    * Identifies the search about to be made, or returns null if it depends on more than the fields of this builder,
+    * as it does with a custom image predicate or chooser.
+    */
+   private String resolvedTemplateKey() {
+      if (imagePredicate != null || imageChooser != null || (forceCacheReload != null && forceCacheReload))
+         return null;
+      return getClass().getName() + string();
+   }
+
+   /**
+    * Leaves this builder as a full search would have, then returns the template found by an identical one.
+    */
+   private Template fromResolvedTemplate(ResolvedTemplate resolved) {
+      if (imageId != null)
+         fromImage(resolved.image);
+      if (hardwareId != null)
+         fromHardware(resolved.hardware);
+      location = resolved.location;
+      logger.debug("<<   matched image(%s) hardware(%s) location(%s) from an identical search",
+            resolved.image.getId(), resolved.hardware.getId(), location.getId());
+      return new TemplateImpl(resolved.image, resolved.hardware, location, options);
+   }
+
    private Iterable<? extends Image> findSupportedImages(Set<? extends Image> images) {
       Predicate<Image> imagePredicate = buildImagePredicate();
-      Iterable<? extends Image> supportedImages = filter(images, imagePredicate);
-      if (size(supportedImages) == 0) {
+      ImageIndex index = indexOf(images);
+      Iterable<? extends Image> candidates = index != null ? index.get(narrow(index)) : images;
+      // evaluated once, as hardware and image resolution go over the supported images many times
+      List<? extends Image> supportedImages = ImmutableList.copyOf(filter(candidates, imagePredicate));
+      if (supportedImages.isEmpty()) {
          throw throwNoSuchElementExceptionAfterLoggingImageIds(
                format("no image matched predicate: %s", imagePredicate), images);
       }
@@ -853,6 +933,24 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       return forceCacheReload != null && forceCacheReload ? images.rebuildCache() : images.get();
    }
 
+   /**
+    * Positions of the images that may match the image predicate, which is still applied to each of them.
+    */
+   private BitSet narrow(ImageIndex index) {
+      BitSet candidates = location != null ? index.inLocation(location) : index.all();
+      if (osFamily != null)
+         candidates.and(index.withOsFamily(osFamily));
+      if (os64Bit != null)
+         candidates.and(index.with64Bit(os64Bit));
+      if (osName != null)
+         candidates.and(index.withOsName(containsOrMatches(osName)));
+      if (osVersion != null)
+         candidates.and(index.withOsVersion(containsOrMatches(osVersion)));
+      if (osArch != null)
+         candidates.and(index.withOsArch(containsOrMatches(osArch)));
+      return candidates;
+   }
+
    private Predicate<Image> buildImagePredicate() {
       List<Predicate<Image>> predicates = newArrayList();
       if (location != null)
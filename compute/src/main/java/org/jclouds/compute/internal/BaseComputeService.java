@@ -23,6 +23,7 @@ import static com.google.common.base.Throwables.propagate;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Maps.newLinkedHashMap;
 import static com.google.common.collect.Sets.newLinkedHashSet;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_RUNNING;
 import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_SUSPENDED;
 import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_TERMINATED;
@@ -91,6 +92,7 @@ import org.jclouds.scriptbuilder.functions.InitAdminAccess;
 import org.jclouds.util.Maps2;
 
 import com.google.common.base.Function;
+import com.google.common.base.Functions;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
@@ -99,7 +101,9 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Atomics;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 
@@ -137,6 +141,9 @@ public class BaseComputeService implements ComputeService {
    private final Optional<ImageExtension> imageExtension;
    private final Optional<SecurityGroupExtension> securityGroupExtension;
 
+   @com.google.inject.Inject(optional = true)
+   private NodeStatusPoller nodeStatusPoller;
+
    @Inject
    protected BaseComputeService(ComputeServiceContext context, Map<String, Credentials> credentialStore,
             @Memoized Supplier<Set<? extends Image>> images,
@@ -260,6 +267,8 @@ public class BaseComputeService implements ComputeService {
                // TODO make an async interface instead of re-wrapping
                @Override
                public ListenableFuture<NodeMetadata> apply(final NodeMetadata from) {
+                  if (nodeStatusPoller != null && nodeStatusPoller.isEnabled())
+                     return destroyNodeThenAwaitTerminated(from);
                   return userExecutor.submit(new Callable<NodeMetadata>() {
                      public NodeMetadata call() throws Exception {
                         doDestroyNode(from.getId());
@@ -297,6 +306,42 @@ public class BaseComputeService implements ComputeService {
       return nodeMetadata;
    }
 
+   /**
+    * Like {@link #doDestroyNode}, except the wait for termination is shared with every other node being destroyed,
+    * through {@link NodeStatusPoller}, rather than holding a user thread per node.
+    */
+   private ListenableFuture<NodeMetadata> destroyNodeThenAwaitTerminated(final NodeMetadata from) {
+      final String id = from.getId();
+      ListenableFuture<NodeMetadata> destroyed = userExecutor.submit(new Callable<NodeMetadata>() {
+         public NodeMetadata call() throws Exception {
+            logger.debug(">> destroying node(%s)", id);
+            return destroyNodeStrategy.destroyNode(id);
+         }
+         public String toString() {
+            return "destroyNode(" + id + ")";
+         }
+      });
+      return Futures.transformAsync(destroyed, new AsyncFunction<NodeMetadata, NodeMetadata>() {
+         @Override
+         public ListenableFuture<NodeMetadata> apply(NodeMetadata nodeMetadata) {
+            if (nodeMetadata == null)
+               return Futures.immediateFuture(from);
+            ListenableFuture<Boolean> terminated = Futures.catching(Futures.transform(
+                  nodeStatusPoller.awaitTerminated(nodeMetadata), Functions.constant(true), directExecutor()),
+                  Exception.class, Functions.constant(false), directExecutor());
+            return Futures.transform(terminated, new Function<Boolean, NodeMetadata>() {
+               @Override
+               public NodeMetadata apply(Boolean successful) {
+                  if (successful)
+                     credentialStore.remove("node#" + id);
+                  logger.debug("<< destroyed node(%s) success(%s)", id, successful);
+                  return from;
+               }
+            }, directExecutor());
+         }
+      }, directExecutor());
+   }
+
    protected void cleanUpIncidentalResourcesOfDeadNodes(Set<? extends NodeMetadata> deadNodes) {
       // no-op; to be overridden
    }
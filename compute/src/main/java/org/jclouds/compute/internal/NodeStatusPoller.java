@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.compute.util.ComputeServiceUtils.formatStatus;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.Resource;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.jclouds.compute.config.ComputeServiceProperties;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.jclouds.compute.strategy.GetNodeMetadataStrategy;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Waits for many nodes to reach a status at once. Rather than each waiting thread polling
+ * {@link GetNodeMetadataStrategy#getNode} for its own node, outstanding waits are grouped by location and refreshed
+ * with a single {@link ListNodesStrategy#listNodesByIds} call per location on every tick of one shared thread.
+ * <p>
+ * The tick interval starts at {@link PollPeriod#pollInitialPeriod} and grows with the logarithm of the number of
+ * pending nodes, up to {@link PollPeriod#pollMaxPeriod}, as larger batches are more expensive to list.
+ */
+@Beta
+@Singleton
+public class NodeStatusPoller {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(ComputeServiceProperties.POLL_BATCHED)
+   private boolean enabled = true;
+
+   private final ListNodesStrategy listNodesStrategy;
+   private final GetNodeMetadataStrategy getNodeStrategy;
+   private final PollPeriod period;
+   private final Timeouts timeouts;
+   private final ConcurrentLinkedQueue<Waiter> pending = new ConcurrentLinkedQueue<Waiter>();
+   private final AtomicBoolean scheduled = new AtomicBoolean();
+   private final AtomicLong listCalls = new AtomicLong();
+   private final ScheduledExecutorService scheduler;
+
+   @Inject
+   NodeStatusPoller(ListNodesStrategy listNodesStrategy, GetNodeMetadataStrategy getNodeStrategy, PollPeriod period,
+         Timeouts timeouts, Closer closer) {
+      this.listNodesStrategy = checkNotNull(listNodesStrategy, "listNodesStrategy");
+      this.getNodeStrategy = checkNotNull(getNodeStrategy, "getNodeStrategy");
+      this.period = checkNotNull(period, "period");
+      this.timeouts = checkNotNull(timeouts, "timeouts");
+      this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("jclouds-node-poller-%d").setDaemon(true).build());
+      closer.addToClose(new Closeable() {
+         @Override
+         public void close() {
+            scheduler.shutdownNow();
+            for (Waiter waiter : pending) {
+               waiter.future.cancel(false);
+            }
+            pending.clear();
+         }
+      });
+   }
+
+   /**
+    * @return false if {@link ComputeServiceProperties#POLL_BATCHED} was set to false, in which case callers should
+    *         wait for each node on their own
+    */
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   /**
+    * Completes with the node once it is {@link Status#RUNNING running}. Fails with an
+    * {@link IllegalStateException} if the node goes into {@link Status#ERROR error} or is
+    * {@link Status#TERMINATED terminated}, and with a {@link TimeoutException} after
+    * {@link Timeouts#nodeRunning}.
+    */
+   public ListenableFuture<NodeMetadata> awaitRunning(NodeMetadata node) {
+      return await(node, Status.RUNNING, ImmutableSet.of(Status.ERROR, Status.TERMINATED), false,
+            timeouts.nodeRunning);
+   }
+
+   /**
+    * Completes once the node is {@link Status#TERMINATED terminated} or no longer listed, with the last node seen,
+    * or fails with a {@link TimeoutException} after {@link Timeouts#nodeTerminated}.
+    */
+   public ListenableFuture<NodeMetadata> awaitTerminated(NodeMetadata node) {
+      return await(node, Status.TERMINATED, ImmutableSet.<Status> of(), true, timeouts.nodeTerminated);
+   }
+
+   private ListenableFuture<NodeMetadata> await(NodeMetadata node, Status intended, Set<Status> invalids,
+         boolean missingIsIntended, long timeoutMillis) {
+      checkNotNull(node, "node");
+      if (node.getStatus() == intended)
+         return Futures.immediateFuture(node);
+      Waiter waiter = new Waiter(node, intended, invalids, missingIsIntended,
+            System.currentTimeMillis() + timeoutMillis);
+      pending.add(waiter);
+      scheduleIfIdle();
+      return waiter.future;
+   }
+
+   @VisibleForTesting
+   long getListCalls() {
+      return listCalls.get();
+   }
+
+   @VisibleForTesting
+   long nextInterval(int pendingCount) {
+      long interval = period.pollInitialPeriod;
+      for (int count = pendingCount; count > 1; count >>= 1)
+         interval += period.pollInitialPeriod;
+      return Math.min(interval, Math.max(period.pollInitialPeriod, period.pollMaxPeriod));
+   }
+
+   private void scheduleIfIdle() {
+      if (scheduled.compareAndSet(false, true))
+         schedule();
+   }
+
+   private void schedule() {
+      scheduler.schedule(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               tick();
+            } catch (RuntimeException e) {
+               logger.warn(e, "error polling status of %d nodes", pending.size());
+            } finally {
+               scheduled.set(false);
+               // waiters added while this tick ran would otherwise be stranded
+               if (!pending.isEmpty())
+                  scheduleIfIdle();
+            }
+         }
+      }, nextInterval(pending.size()), TimeUnit.MILLISECONDS);
+   }
+
+   private void tick() {
+      ListMultimap<String, Waiter> byLocation = ArrayListMultimap.create();
+      for (Iterator<Waiter> it = pending.iterator(); it.hasNext();) {
+         Waiter waiter = it.next();
+         if (waiter.future.isDone())
+            it.remove();
+         else
+            byLocation.put(waiter.locationId(), waiter);
+      }
+      for (String locationId : byLocation.keySet()) {
+         List<Waiter> waiters = byLocation.get(locationId);
+         Map<String, NodeMetadata> nodes = refresh(locationId, waiters);
+         if (nodes == null)
+            continue;
+         for (Waiter waiter : waiters) {
+            if (waiter.update(nodes.get(waiter.node.getId())))
+               pending.remove(waiter);
+         }
+      }
+      long now = System.currentTimeMillis();
+      for (Iterator<Waiter> it = pending.iterator(); it.hasNext();) {
+         Waiter waiter = it.next();
+         if (now >= waiter.deadline) {
+            waiter.future.setException(new TimeoutException(String.format(
+                  "node(%s) didn't achieve the status %s; aborting with final status: %s", waiter.node.getId(),
+                  waiter.intended, formatStatus(waiter.node))));
+            it.remove();
+         }
+      }
+   }
+
+   /**
+    * @return current nodes keyed on id, or null if they could not be listed, in which case they are retried on the
+    *         next tick
+    */
+   private Map<String, NodeMetadata> refresh(String locationId, List<Waiter> waiters) {
+      Set<String> ids = Sets.newLinkedHashSet();
+      for (Waiter waiter : waiters)
+         ids.add(waiter.node.getId());
+      Map<String, NodeMetadata> nodes = Maps.newHashMap();
+      try {
+         listCalls.incrementAndGet();
+         for (NodeMetadata node : listNodesStrategy.listNodesByIds(ids))
+            nodes.put(node.getId(), node);
+      } catch (UnsupportedOperationException e) {
+         for (String id : ids) {
+            NodeMetadata node = getNodeStrategy.getNode(id);
+            if (node != null)
+               nodes.put(id, node);
+         }
+      } catch (RuntimeException e) {
+         logger.warn(e, "error listing %d nodes in location(%s)", ids.size(), locationId);
+         return null;
+      }
+      logger.trace("<< polled status of %d nodes in location(%s)", ids.size(), locationId);
+      return nodes;
+   }
+
+   private static final class Waiter {
+      private final Status intended;
+      private final Set<Status> invalids;
+      private final boolean missingIsIntended;
+      private final long deadline;
+      private final SettableFuture<NodeMetadata> future = SettableFuture.create();
+      private volatile NodeMetadata node;
+
+      Waiter(NodeMetadata node, Status intended, Set<Status> invalids, boolean missingIsIntended, long deadline) {
+         this.node = node;
+         this.intended = intended;
+         this.invalids = invalids;
+         this.missingIsIntended = missingIsIntended;
+         this.deadline = deadline;
+      }
+
+      String locationId() {
+         return node.getLocation() == null ? "" : node.getLocation().getId();
+      }
+
+      /**
+       * @return true if the wait is over
+       */
+      boolean update(NodeMetadata current) {
+         if (current == null) {
+            // nodes are often not yet listed right after they are created
+            if (!missingIsIntended)
+               return false;
+            future.set(node);
+            return true;
+         }
+         node = current;
+         if (current.getStatus() == intended) {
+            future.set(current);
+            return true;
+         }
+         if (invalids.contains(current.getStatus())) {
+            future.setException(new IllegalStateException(String.format(
+                  "node(%s) didn't achieve the status %s; aborting with final status: %s", current.getId(),
+                  intended, formatStatus(current))));
+            return true;
+         }
+         return false;
+      }
+   }
+}
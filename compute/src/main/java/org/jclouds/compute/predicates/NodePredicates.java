@@ -158,18 +158,7 @@ public class NodePredicates {
     */
    public static <T extends ComputeMetadata> Predicate<T> withIds(String... ids) {
       checkNotNull(ids, "ids must be defined");
-      final Set<String> search = ImmutableSet.copyOf(ids);
-      return new Predicate<T>() {
-         @Override
-         public boolean apply(T nodeMetadata) {
-            return search.contains(nodeMetadata.getId());
-         }
-
-         @Override
-         public String toString() {
-            return "withIds(" + search + ")";
-         }
-      };
+      return new WithIds<T>(ImmutableSet.copyOf(ids));
    }
 
    /**
@@ -188,19 +177,21 @@ public class NodePredicates {
     */
    public static Predicate<NodeMetadata> inGroup(final String group) {
       checkNotNull(emptyToNull(group), "group must be defined");
-      return new Predicate<NodeMetadata>() {
-         @Override
-         public boolean apply(NodeMetadata nodeMetadata) {
-            return group.equals(nodeMetadata.getGroup());
-         }
-
-         @Override
-         public String toString() {
-            return "inGroup(" + group + ")";
-         }
-      };
+      return new InGroup(group);
    }
    
+   /**
+    * Return nodes which have the specified tag.
+    * 
+    * @param tag
+    *           tag to match the items
+    * @return predicate
+    */
+   public static Predicate<NodeMetadata> withTag(final String tag) {
+      checkNotNull(emptyToNull(tag), "tag must be defined");
+      return new WithTag(tag);
+   }
+
    /**
     * Return nodes who have a value for {@link NodeMetadata#getGroup}
     * 
@@ -244,46 +235,176 @@ public class NodePredicates {
    /**
     * Match nodes with State == RUNNING
     */
-   public static final Predicate<NodeMetadata> RUNNING = new Predicate<NodeMetadata>() {
+   public static final Predicate<NodeMetadata> RUNNING = new WithStatus(Status.RUNNING);
+
+   /**
+    * Match nodes with State == NODE_TERMINATED
+    */
+   public static final Predicate<NodeMetadata> TERMINATED = new WithStatus(Status.TERMINATED);
+
+   /**
+    * Match nodes with State == SUSPENDED
+    */
+   public static final Predicate<NodeMetadata> SUSPENDED = new WithStatus(Status.SUSPENDED);
+
+   /**
+    * Matches nodes with one of the given ids. Exposed so that providers can
+    * pass the ids to their list calls instead of filtering every node.
+    */
+   public static final class WithIds<T extends ComputeMetadata> implements Predicate<T> {
+      private final Set<String> ids;
+
+      private WithIds(Set<String> ids) {
+         this.ids = ids;
+      }
+
+      public Set<String> getIds() {
+         return ids;
+      }
+
+      @Override
+      public boolean apply(T nodeMetadata) {
+         return ids.contains(nodeMetadata.getId());
+      }
+
+      @Override
+      public int hashCode() {
+         return ids.hashCode();
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj)
+            return true;
+         if (!(obj instanceof WithIds))
+            return false;
+         return ids.equals(((WithIds<?>) obj).ids);
+      }
+
+      @Override
+      public String toString() {
+         return "withIds(" + ids + ")";
+      }
+   }
+
+   /**
+    * Matches nodes in a group. Exposed so that providers can translate the
+    * group into a server-side filter.
+    */
+   public static final class InGroup implements Predicate<NodeMetadata> {
+      private final String group;
+
+      private InGroup(String group) {
+         this.group = group;
+      }
+
+      public String getGroup() {
+         return group;
+      }
+
       @Override
       public boolean apply(NodeMetadata nodeMetadata) {
-         return nodeMetadata.getStatus() == Status.RUNNING;
+         return group.equals(nodeMetadata.getGroup());
+      }
+
+      @Override
+      public int hashCode() {
+         return group.hashCode();
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj)
+            return true;
+         if (!(obj instanceof InGroup))
+            return false;
+         return group.equals(((InGroup) obj).group);
       }
 
       @Override
       public String toString() {
-         return Status.RUNNING.toString();
+         return "inGroup(" + group + ")";
       }
-   };
+   }
 
    /**
-    * Match nodes with State == NODE_TERMINATED
+    * Matches nodes which have a tag. Exposed so that providers can translate
+    * the tag into a server-side filter.
     */
-   public static final Predicate<NodeMetadata> TERMINATED = new Predicate<NodeMetadata>() {
+   public static final class WithTag implements Predicate<NodeMetadata> {
+      private final String tag;
+
+      private WithTag(String tag) {
+         this.tag = tag;
+      }
+
+      public String getTag() {
+         return tag;
+      }
+
       @Override
       public boolean apply(NodeMetadata nodeMetadata) {
-         return nodeMetadata.getStatus() == Status.TERMINATED;
+         return nodeMetadata.getTags().contains(tag);
+      }
+
+      @Override
+      public int hashCode() {
+         return tag.hashCode();
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj)
+            return true;
+         if (!(obj instanceof WithTag))
+            return false;
+         return tag.equals(((WithTag) obj).tag);
       }
 
       @Override
       public String toString() {
-         return Status.TERMINATED.toString();
+         return "withTag(" + tag + ")";
       }
-   };
+   }
 
    /**
-    * Match nodes with State == SUSPENDED
+    * Matches nodes in a status. Exposed so that providers can translate the
+    * status into a server-side filter.
     */
-   public static final Predicate<NodeMetadata> SUSPENDED = new Predicate<NodeMetadata>() {
+   public static final class WithStatus implements Predicate<NodeMetadata> {
+      private final Status status;
+
+      private WithStatus(Status status) {
+         this.status = status;
+      }
+
+      public Status getStatus() {
+         return status;
+      }
+
       @Override
       public boolean apply(NodeMetadata nodeMetadata) {
-         return nodeMetadata.getStatus() == Status.SUSPENDED;
+         return nodeMetadata.getStatus() == status;
+      }
+
+      @Override
+      public int hashCode() {
+         return status.hashCode();
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj)
+            return true;
+         if (!(obj instanceof WithStatus))
+            return false;
+         return status == ((WithStatus) obj).status;
       }
 
       @Override
       public String toString() {
-         return Status.SUSPENDED.toString();
+         return status.toString();
       }
-   };
+   }
 
 }
@@ -18,9 +18,11 @@ package org.jclouds.compute.strategy.impl;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.getRootCause;
 import static com.google.common.collect.Iterables.any;
 import static com.google.common.collect.Maps.newLinkedHashMap;
 import static com.google.common.collect.Sets.newLinkedHashSet;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static org.jclouds.compute.util.ComputeServiceUtils.formatStatus;
 
 import java.util.Map;
@@ -40,6 +42,7 @@ import org.jclouds.compute.domain.ComputeMetadata;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.internal.NodeStatusPoller;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
 import org.jclouds.compute.strategy.CreateNodesInGroupThenAddToSet;
@@ -47,10 +50,12 @@ import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIn
 import org.jclouds.compute.strategy.ListNodesStrategy;
 import org.jclouds.logging.Logger;
 
+import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -98,6 +103,9 @@ public class CreateNodesWithGroupEncodedIntoNameThenAddToSet implements CreateNo
    protected final ListeningExecutorService userExecutor;
    protected final CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap.Factory customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory;
 
+   @com.google.inject.Inject(optional = true)
+   protected NodeStatusPoller nodeStatusPoller;
+
    @Inject
    protected CreateNodesWithGroupEncodedIntoNameThenAddToSet(
             CreateNodeWithGroupEncodedIntoName addNodeWithGroupStrategy,
@@ -120,14 +128,50 @@ public class CreateNodesWithGroupEncodedIntoNameThenAddToSet implements CreateNo
    public Map<?, ListenableFuture<Void>> execute(String group, int count, Template template, Set<NodeMetadata> goodNodes,
             Map<NodeMetadata, Exception> badNodes, Multimap<NodeMetadata, CustomizationResponse> customizationResponses) {
       Map<String, ListenableFuture<Void>> responses = newLinkedHashMap();
+      boolean awaitRunning = template.getOptions().shouldBlockUntilRunning() && nodeStatusPoller != null
+            && nodeStatusPoller.isEnabled();
       for (String name : getNextNames(group, template, count)) {
-         responses.put(name, Futures.transform(createNodeInGroupWithNameAndTemplate(group, name, template),
-                  customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory.create(template.getOptions(), goodNodes,
-                           badNodes, customizationResponses), userExecutor));
+         ListenableFuture<AtomicReference<NodeMetadata>> node = createNodeInGroupWithNameAndTemplate(group, name,
+                  template);
+         Function<AtomicReference<NodeMetadata>, Void> customize = customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory
+                  .create(template.getOptions(), goodNodes, badNodes, customizationResponses);
+         if (awaitRunning)
+            responses.put(name, awaitRunningThenCustomize(node, customize, badNodes));
+         else
+            responses.put(name, Futures.transform(node, customize, userExecutor));
       }
       return responses;
    }
 
+   /**
+    * Waits for the node to be running through the shared {@link NodeStatusPoller}, so that customization starts
+    * with a running node and does not poll on its own. Nodes that never get there are put into {@code badNodes}.
+    */
+   private ListenableFuture<Void> awaitRunningThenCustomize(ListenableFuture<AtomicReference<NodeMetadata>> created,
+            final Function<AtomicReference<NodeMetadata>, Void> customize, final Map<NodeMetadata, Exception> badNodes) {
+      return Futures.transformAsync(created, new AsyncFunction<AtomicReference<NodeMetadata>, Void>() {
+         @Override
+         public ListenableFuture<Void> apply(final AtomicReference<NodeMetadata> node) {
+            ListenableFuture<Void> customized = Futures.transform(nodeStatusPoller.awaitRunning(node.get()),
+                     new Function<NodeMetadata, Void>() {
+                        @Override
+                        public Void apply(NodeMetadata running) {
+                           node.set(running);
+                           return customize.apply(node);
+                        }
+                     }, userExecutor);
+            return Futures.catching(customized, Exception.class, new Function<Exception, Void>() {
+               @Override
+               public Void apply(Exception e) {
+                  logger.error(e, "<< problem customizing node(%s): ", node.get().getId(), getRootCause(e).getMessage());
+                  badNodes.put(node.get(), e);
+                  return null;
+               }
+            }, directExecutor());
+         }
+      }, directExecutor());
+   }
+
    /**
     * This calls logic necessary to create a node and convert it from its provider-specific object
     * to the jclouds {@link NodeMetadata} object. This call directly precedes customization, such as
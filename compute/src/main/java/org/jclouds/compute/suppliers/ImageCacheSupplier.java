@@ -19,13 +19,17 @@ package org.jclouds.compute.suppliers;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import jakarta.annotation.Resource;
 import jakarta.inject.Named;
 
 import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.internal.ImageIndex;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.GetImageStrategy;
 import org.jclouds.logging.Logger;
@@ -40,8 +44,11 @@ import com.google.common.base.Supplier;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Provider;
 
 /**
@@ -54,6 +61,10 @@ import com.google.inject.Provider;
  * {@link org.jclouds.compute.extensions.ImageExtension}, or discovered by other
  * means (see https://issues.apache.org/jira/browse/JCLOUDS-570) this supplier
  * will allow the image to be appended to the cached list.
+ * <p>
+ * When an {@link ImageSnapshotStore} is given, the first load returns the
+ * images saved by a previous context and fetches the current ones in the
+ * background. Every list fetched from the provider is saved to the store.
  */
 @Beta
 public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, ValueLoadedCallback<Set<? extends Image>> {
@@ -74,6 +85,25 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
     * and allows to add and remove images at runtime.
     */
    private final LoadingCache<String, Image> imageCache;
+
+   /**
+    * Bumped after every change to the {@link #imageCache}, so that {@link #index} is only rebuilt when needed.
+    */
+   private final AtomicLong modifications = new AtomicLong();
+
+   private volatile Snapshot snapshot;
+
+   private final Optional<ImageSnapshotStore> snapshotStore;
+
+   private final Executor executor;
+
+   private final AtomicBoolean warmStarted = new AtomicBoolean();
+
+   /**
+    * Set when the images were read from the {@link #snapshotStore}, until the
+    * background fetch from the provider has been started.
+    */
+   private final AtomicBoolean refreshFromProvider = new AtomicBoolean();
    
    @Resource
    @Named(ComputeServiceConstants.COMPUTE_LOGGER)
@@ -81,11 +111,30 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
 
    public ImageCacheSupplier(Supplier<Set<? extends Image>> imageSupplier, long sessionIntervalSeconds,
          AtomicReference<AuthorizationException> authException, final Provider<GetImageStrategy> imageLoader) {
+      this(imageSupplier, sessionIntervalSeconds, authException, imageLoader, Optional.<ImageSnapshotStore> absent(),
+            MoreExecutors.directExecutor());
+   }
+
+   public ImageCacheSupplier(Supplier<Set<? extends Image>> imageSupplier, long sessionIntervalSeconds,
+         AtomicReference<AuthorizationException> authException, final Provider<GetImageStrategy> imageLoader,
+         Optional<ImageSnapshotStore> snapshotStore, Executor executor) {
       liveImageSupplier = imageSupplier;
+      this.snapshotStore = checkNotNull(snapshotStore, "snapshotStore");
+      this.executor = checkNotNull(executor, "executor");
       memoizedImageSupplier = MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException,
-            imageSupplier, sessionIntervalSeconds, TimeUnit.SECONDS, this);
+            new Supplier<Set<? extends Image>>() {
+               @Override
+               public Set<? extends Image> get() {
+                  return loadImages();
+               }
+            }, sessionIntervalSeconds, TimeUnit.SECONDS, this);
       imageCache = CacheBuilder.newBuilder().expireAfterWrite(sessionIntervalSeconds, TimeUnit.SECONDS)
-            .build(new CacheLoader<String, Image>() {
+            .removalListener(new RemovalListener<String, Image>() {
+               @Override
+               public void onRemoval(RemovalNotification<String, Image> notification) {
+                  modifications.incrementAndGet();
+               }
+            }).build(new CacheLoader<String, Image>() {
                @Override
                public Image load(String key) throws Exception {
                   return imageLoader.get().getImage(key);
@@ -95,6 +144,14 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
    
    @Override
    public Set<? extends Image> get() {
+      return index().images();
+   }
+
+   /**
+    * The current images, indexed for template matching. The index is rebuilt only after the cache has changed, so
+    * consecutive calls return the same instance.
+    */
+   public ImageIndex index() {
       // Call the memoized supplier. The "imageCache" is subscribed to the
       // reloads of the supplier once it expires. For this reason we ignore the
       // value returned by the supplier: every time it is reloaded, the cache
@@ -104,7 +161,29 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
       // individual image additions and deletions (introduced, for example, by
       // the usage of the ImageExtension).
       memoizedImageSupplier.get();
-      return ImmutableSet.copyOf(imageCache.asMap().values());
+      if (refreshFromProvider.compareAndSet(true, false)) {
+         // started only now, so that the snapshot images passed to
+         // valueLoaded can't replace the fetched ones
+         executor.execute(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  reset(fetchImages());
+               } catch (RuntimeException e) {
+                  logger.warn(e, "could not refresh the images read from %s", snapshotStore.get().getFile());
+               }
+            }
+         });
+      }
+      // evicts expired images
+      imageCache.cleanUp();
+      Snapshot current = snapshot;
+      long version = modifications.get();
+      if (current == null || current.version != version) {
+         current = new Snapshot(version, ImageIndex.of(ImmutableSet.copyOf(imageCache.asMap().values())));
+         snapshot = current;
+      }
+      return current.index;
    }
 
    /**
@@ -137,6 +216,7 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
             return input.getId();
          }
       }));
+      modifications.incrementAndGet();
    }
    
    /**
@@ -144,11 +224,36 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
     * rebuilds the cache with them.
     */
    public Set<? extends Image> rebuildCache() {
-      Set<? extends Image> images = liveImageSupplier.get();
+      Set<? extends Image> images = fetchImages();
       reset(images);
       return images;
    }
 
+   private Set<? extends Image> loadImages() {
+      if (snapshotStore.isPresent() && warmStarted.compareAndSet(false, true)) {
+         Optional<Set<? extends Image>> images = snapshotStore.get().read();
+         if (images.isPresent()) {
+            logger.debug("read %d images from %s", images.get().size(), snapshotStore.get().getFile());
+            refreshFromProvider.set(true);
+            return images.get();
+         }
+      }
+      return fetchImages();
+   }
+
+   private Set<? extends Image> fetchImages() {
+      final Set<? extends Image> images = liveImageSupplier.get();
+      if (snapshotStore.isPresent()) {
+         executor.execute(new Runnable() {
+            @Override
+            public void run() {
+               snapshotStore.get().write(images);
+            }
+         });
+      }
+      return images;
+   }
+
    /**
     * Loads an image by id.
     * <p>
@@ -157,7 +262,11 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
     */
    public Optional<? extends Image> get(String id) {
       try {
-         return Optional.fromNullable(imageCache.getUnchecked(id));
+         boolean cached = imageCache.getIfPresent(id) != null;
+         Image image = imageCache.getUnchecked(id);
+         if (!cached)
+            modifications.incrementAndGet();
+         return Optional.fromNullable(image);
       } catch (Exception ex) {
          logger.error(ex, "Unexpected error loading image %s", id);
          return Optional.absent();
@@ -180,6 +289,7 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
    public void registerImage(Image image) {
       checkNotNull(image, "image");
       imageCache.put(image.getId(), image);
+      modifications.incrementAndGet();
    }
 
    /**
@@ -192,6 +302,17 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
     */
    public void removeImage(String imageId) {
       imageCache.invalidate(checkNotNull(imageId, "imageId"));
+      modifications.incrementAndGet();
+   }
+
+   private static final class Snapshot {
+      private final long version;
+      private final ImageIndex index;
+
+      private Snapshot(long version, ImageIndex index) {
+         this.version = version;
+         this.index = index;
+      }
    }
 
 }
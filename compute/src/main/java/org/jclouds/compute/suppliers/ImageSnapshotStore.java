@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.suppliers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.annotation.Resource;
+import jakarta.inject.Named;
+
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+
+/**
+ * Keeps a copy of the image list in a gzipped JSON file, so that a new context
+ * can use it while the images are fetched from the provider.
+ * <p>
+ * Only the attributes used to match templates are kept. Of the default
+ * credentials only the login user is written; passwords and private keys never
+ * reach the file. As an image restored without them could not be logged into,
+ * a file holding any image that had them is not read back, and the images are
+ * fetched from the provider instead. Location metadata is not kept either.
+ */
+@Beta
+public class ImageSnapshotStore {
+
+   /**
+    * Bumped when the file format changes; files in another format are ignored.
+    */
+   static final int FORMAT = 1;
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final File file;
+   private final Gson gson = new Gson();
+
+   public ImageSnapshotStore(File file) {
+      this.file = checkNotNull(file, "file");
+   }
+
+   public File getFile() {
+      return file;
+   }
+
+   /**
+    * Reads the images in the file, or absent if it is missing, unreadable or in another format.
+    */
+   public Optional<Set<? extends Image>> read() {
+      if (!file.isFile()) {
+         return Optional.absent();
+      }
+      try (Reader reader = new InputStreamReader(new GZIPInputStream(Files.newInputStream(file.toPath())), UTF_8)) {
+         SnapshotFile snapshot = gson.fromJson(reader, SnapshotFile.class);
+         if (snapshot == null || snapshot.format != FORMAT || snapshot.images == null) {
+            logger.debug("ignoring image snapshot %s in an unknown format", file);
+            return Optional.absent();
+         }
+         ImmutableSet.Builder<Image> images = ImmutableSet.builder();
+         Map<LocationEntry, Location> locations = Maps.newHashMap();
+         for (ImageEntry entry : snapshot.images) {
+            if (entry.secretsDropped) {
+               logger.debug("ignoring image snapshot %s, as image %s had secrets that were not written", file,
+                     entry.id);
+               return Optional.absent();
+            }
+            images.add(entry.toImage(locations));
+         }
+         return Optional.<Set<? extends Image>> of(images.build());
+      } catch (IOException | RuntimeException e) {
+         logger.warn(e, "could not read image snapshot %s", file);
+         return Optional.absent();
+      }
+   }
+
+   /**
+    * Replaces the file with the given images. The file is written next to its
+    * final location and moved into place, so readers never see it half-written.
+    */
+   public void write(Set<? extends Image> images) {
+      SnapshotFile snapshot = new SnapshotFile();
+      snapshot.format = FORMAT;
+      snapshot.images = Lists.newArrayListWithCapacity(images.size());
+      for (Image image : images) {
+         snapshot.images.add(ImageEntry.from(image));
+      }
+      File dir = file.getAbsoluteFile().getParentFile();
+      File tmp = null;
+      try {
+         Files.createDirectories(dir.toPath());
+         tmp = File.createTempFile(file.getName(), ".tmp", dir);
+         try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(tmp.toPath())), UTF_8)) {
+            gson.toJson(snapshot, writer);
+         }
+         try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                  StandardCopyOption.REPLACE_EXISTING);
+         } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+         }
+         logger.debug("wrote %d images to snapshot %s", images.size(), file);
+      } catch (IOException e) {
+         logger.warn(e, "could not write image snapshot %s", file);
+      } finally {
+         if (tmp != null) {
+            tmp.delete();
+         }
+      }
+   }
+
+   private static final class SnapshotFile {
+      private int format;
+      private List<ImageEntry> images;
+   }
+
+   private static final class ImageEntry {
+      private String id;
+      private String providerId;
+      private String name;
+      private String description;
+      private String version;
+      private String status;
+      private String backendStatus;
+      private String uri;
+      private Map<String, String> userMetadata;
+      private Set<String> tags;
+      private LocationEntry location;
+      private OperatingSystemEntry operatingSystem;
+      private String loginUser;
+      private boolean authenticateSudo;
+      private boolean secretsDropped;
+
+      private static ImageEntry from(Image image) {
+         ImageEntry entry = new ImageEntry();
+         entry.id = image.getId();
+         entry.providerId = image.getProviderId();
+         entry.name = image.getName();
+         entry.description = image.getDescription();
+         entry.version = image.getVersion();
+         entry.status = image.getStatus().name();
+         entry.backendStatus = image.getBackendStatus();
+         entry.uri = image.getUri() != null ? image.getUri().toString() : null;
+         entry.userMetadata = image.getUserMetadata();
+         entry.tags = image.getTags();
+         entry.location = LocationEntry.from(image.getLocation());
+         entry.operatingSystem = OperatingSystemEntry.from(image.getOperatingSystem());
+         LoginCredentials credentials = image.getDefaultCredentials();
+         if (credentials != null) {
+            entry.loginUser = credentials.getUser();
+            entry.authenticateSudo = credentials.shouldAuthenticateSudo();
+            entry.secretsDropped = isPresent(credentials.getOptionalPassword())
+                  || isPresent(credentials.getOptionalPrivateKey());
+         }
+         return entry;
+      }
+
+      private Image toImage(Map<LocationEntry, Location> locations) {
+         ImageBuilder builder = new ImageBuilder().id(id).providerId(providerId).name(name).description(description)
+               .version(version).status(Image.Status.valueOf(status)).backendStatus(backendStatus)
+               .userMetadata(userMetadata != null ? userMetadata : ImmutableMap.<String, String> of())
+               .tags(tags != null ? tags : ImmutableSet.<String> of())
+               .location(location != null ? location.toLocation(locations) : null)
+               .operatingSystem(operatingSystem != null ? operatingSystem.toOperatingSystem()
+                     : OperatingSystem.builder().description("").build());
+         if (uri != null) {
+            builder.uri(URI.create(uri));
+         }
+         if (loginUser != null) {
+            builder.defaultCredentials(LoginCredentials.builder().user(loginUser).authenticateSudo(authenticateSudo)
+                  .build());
+         }
+         return builder.build();
+      }
+
+      private static boolean isPresent(Optional<String> secret) {
+         return secret != null && secret.isPresent();
+      }
+   }
+
+   private static final class LocationEntry {
+      private String scope;
+      private String id;
+      private String description;
+      private Set<String> iso3166Codes;
+      private LocationEntry parent;
+
+      private static LocationEntry from(Location location) {
+         if (location == null) {
+            return null;
+         }
+         LocationEntry entry = new LocationEntry();
+         entry.scope = location.getScope().name();
+         entry.id = location.getId();
+         entry.description = location.getDescription();
+         entry.iso3166Codes = location.getIso3166Codes();
+         entry.parent = from(location.getParent());
+         return entry;
+      }
+
+      /**
+       * Images in the same location share one instance, as they do when built
+       * by the provider.
+       */
+      private Location toLocation(Map<LocationEntry, Location> locations) {
+         Location location = locations.get(this);
+         if (location == null) {
+            location = new LocationBuilder().scope(LocationScope.valueOf(scope)).id(id).description(description)
+                  .iso3166Codes(iso3166Codes != null ? iso3166Codes : ImmutableSet.<String> of())
+                  .parent(parent != null ? parent.toLocation(locations) : null).build();
+            locations.put(this, location);
+         }
+         return location;
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hashCode(scope, id, description, iso3166Codes, parent);
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj)
+            return true;
+         if (!(obj instanceof LocationEntry))
+            return false;
+         LocationEntry that = (LocationEntry) obj;
+         return Objects.equal(scope, that.scope)
+               && Objects.equal(id, that.id)
+               && Objects.equal(description, that.description)
+               && Objects.equal(iso3166Codes, that.iso3166Codes)
+               && Objects.equal(parent, that.parent);
+      }
+   }
+
+   private static final class OperatingSystemEntry {
+      private String family;
+      private String name;
+      private String version;
+      private String arch;
+      private String description;
+      private boolean is64Bit;
+
+      private static OperatingSystemEntry from(OperatingSystem os) {
+         if (os == null) {
+            return null;
+         }
+         OperatingSystemEntry entry = new OperatingSystemEntry();
+         entry.family = os.getFamily() != null ? os.getFamily().name() : null;
+         entry.name = os.getName();
+         entry.version = os.getVersion();
+         entry.arch = os.getArch();
+         entry.description = os.getDescription();
+         entry.is64Bit = os.is64Bit();
+         return entry;
+      }
+
+      private OperatingSystem toOperatingSystem() {
+         return OperatingSystem.builder().family(family != null ? OsFamily.valueOf(family) : null).name(name)
+               .version(version).arch(arch).description(description).is64Bit(is64Bit).build();
+      }
+   }
+}
@@ -29,6 +29,8 @@ import static org.testng.Assert.fail;
 import java.util.Arrays;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.PatternSyntaxException;
 
 import jakarta.inject.Provider;
 
@@ -1179,4 +1181,81 @@ public class TemplateBuilderImplTest {
       assertEquals(template.getOptions().getLoginPrivateKey(), null);
       assertEquals(template.getOptions().shouldAuthenticateSudo(), Boolean.TRUE);
    }
+
+   @Test
+   public void testIndexedSearchMatchesLocationFamilyAndArch() {
+      Image otherRegion = ImageBuilder.fromImage(image64bit).id("otherRegionId").location(region2).build();
+      Image ubuntu = ImageBuilder.fromImage(image64bit).id("ubuntuId")
+            .operatingSystem(image64bit.getOperatingSystem().toBuilder().family(OsFamily.UBUNTU).build()).build();
+      Image ubuntu32 = ImageBuilder.fromImage(ubuntu).id("ubuntu32Id")
+            .operatingSystem(ubuntu.getOperatingSystem().toBuilder().arch("X86_32").build()).build();
+      Supplier<Set<? extends Image>> images = Suppliers.<Set<? extends Image>> ofInstance(ImmutableSet.<Image> of(
+            image, otherRegion, ubuntu, ubuntu32, imageArchNull));
+      TemplateBuilderImpl template = newTemplateBuilder(new ImageCacheSupplier(images, 60,
+            Atomics.<AuthorizationException> newReference(), Providers.of(createMock(GetImageStrategy.class))),
+            new HardwareBuilder().id("hardwareId").build());
+
+      assertEquals(template.osFamily(OsFamily.UBUNTU).osArchMatches("X86_64").build().getImage(), ubuntu);
+   }
+
+   @Test
+   public void testIdenticalSearchIsMemoized() {
+      final AtomicInteger supportsImageCalls = new AtomicInteger();
+      Hardware hardware = new HardwareBuilder().id("hardwareId").supportsImage(new Predicate<Image>() {
+         @Override
+         public boolean apply(Image input) {
+            supportsImageCalls.incrementAndGet();
+            return true;
+         }
+      }).build();
+      Supplier<Set<? extends Image>> images = Suppliers.<Set<? extends Image>> ofInstance(ImmutableSet.<Image> of(
+            image, image64bit));
+      ImageCacheSupplier imageCache = new ImageCacheSupplier(images, 60,
+            Atomics.<AuthorizationException> newReference(), Providers.of(createMock(GetImageStrategy.class)));
+      Supplier<Set<? extends Hardware>> hardwares = Suppliers.<Set<? extends Hardware>> ofInstance(ImmutableSet
+            .<Hardware> of(hardware));
+
+      Template first = newTemplateBuilder(imageCache, hardwares).osArchMatches("X86_64").build();
+      assertTrue(supportsImageCalls.get() > 0);
+      supportsImageCalls.set(0);
+
+      Template second = newTemplateBuilder(imageCache, hardwares).osArchMatches("X86_64").build();
+      assertEquals(second.getImage(), first.getImage());
+      assertEquals(second.getHardware(), first.getHardware());
+      assertEquals(supportsImageCalls.get(), 0);
+
+      // a changed image cache is searched again
+      imageCache.registerImage(ImageBuilder.fromImage(image64bit).id("newImageId").build());
+      newTemplateBuilder(imageCache, hardwares).osArchMatches("X86_64").build();
+      assertTrue(supportsImageCalls.get() > 0);
+   }
+
+   @Test(expectedExceptions = PatternSyntaxException.class)
+   public void testInvalidPatternIsReported() {
+      Supplier<Set<? extends Image>> images = Suppliers.<Set<? extends Image>> ofInstance(ImmutableSet.<Image> of(
+            image));
+      newTemplateBuilder(new ImageCacheSupplier(images, 60, Atomics.<AuthorizationException> newReference(),
+            Providers.of(createMock(GetImageStrategy.class))), new HardwareBuilder().id("hardwareId").build())
+            .osNameMatches("[").build();
+   }
+
+   private TemplateBuilderImpl newTemplateBuilder(ImageCacheSupplier images, Hardware hardware) {
+      return newTemplateBuilder(images, Suppliers.<Set<? extends Hardware>> ofInstance(ImmutableSet.<Hardware> of(hardware)));
+   }
+
+   private TemplateBuilderImpl newTemplateBuilder(ImageCacheSupplier images, Supplier<Set<? extends Hardware>> hardwares) {
+      Provider<TemplateOptions> optionsProvider = new Provider<TemplateOptions>() {
+         @Override
+         public TemplateOptions get() {
+            return new TemplateOptions();
+         }
+      };
+      return new TemplateBuilderImpl(Suppliers.<Set<? extends Location>> ofInstance(ImmutableSet.<Location> of(region)),
+            images, hardwares, Suppliers.ofInstance(region), optionsProvider, new Provider<TemplateBuilder>() {
+               @Override
+               public TemplateBuilder get() {
+                  throw new AssertionError("the default template is not used");
+               }
+            });
+   }
 }
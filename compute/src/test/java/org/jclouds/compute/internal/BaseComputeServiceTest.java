@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.internal;
+
+import static org.jclouds.compute.predicates.NodePredicates.inGroup;
+import static org.testng.Assert.assertEquals;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.ContextBuilder;
+import org.jclouds.compute.ComputeService;
+import org.jclouds.compute.ComputeServiceContext;
+import org.jclouds.compute.config.JCloudsNativeComputeServiceAdapterContextModule;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.compute.domain.SecurityGroup;
+import org.jclouds.compute.extensions.SecurityGroupExtension;
+import org.jclouds.compute.stub.StubApiMetadata;
+import org.jclouds.compute.stub.config.StubComputeServiceAdapter;
+import org.jclouds.compute.stub.config.StubComputeServiceDependenciesModule;
+import org.jclouds.concurrent.SingleThreaded;
+import org.jclouds.location.suppliers.all.JustProvider;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+@Test(groups = "unit", singleThreaded = true, testName = "BaseComputeServiceTest")
+public class BaseComputeServiceTest {
+
+   static final AtomicInteger destroyNodeCalls = new AtomicInteger();
+
+   /** Stub adapter that records destroy calls. */
+   @Singleton
+   public static class CountingStubComputeServiceAdapter extends StubComputeServiceAdapter {
+      @Inject
+      public CountingStubComputeServiceAdapter(ConcurrentMap<String, NodeMetadata> nodes,
+               @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService executor,
+               Supplier<org.jclouds.domain.Location> location, @Named("NODE_ID") Provider<Integer> idProvider,
+               @Named("PUBLIC_IP_PREFIX") String publicIpPrefix, @Named("PRIVATE_IP_PREFIX") String privateIpPrefix,
+               @Named("PASSWORD_PREFIX") String passwordPrefix, JustProvider locationSupplier,
+               Map<OsFamily, Map<String, String>> osToVersionMap, Multimap<String, SecurityGroup> groupsForNodes,
+               Optional<SecurityGroupExtension> securityGroupExtension) {
+         super(nodes, executor, location, idProvider, publicIpPrefix, privateIpPrefix, passwordPrefix,
+               locationSupplier, osToVersionMap, groupsForNodes, securityGroupExtension);
+      }
+
+      @Override
+      public void destroyNode(String id) {
+         destroyNodeCalls.incrementAndGet();
+         super.destroyNode(id);
+      }
+   }
+
+   @SingleThreaded
+   public static class CountingStubComputeServiceContextModule extends JCloudsNativeComputeServiceAdapterContextModule {
+      public CountingStubComputeServiceContextModule() {
+         super(CountingStubComputeServiceAdapter.class);
+      }
+
+      @Override
+      protected void configure() {
+         install(new StubComputeServiceDependenciesModule());
+         super.configure();
+      }
+   }
+
+   private ComputeServiceContext context;
+
+   @BeforeMethod
+   public void setUp() {
+      destroyNodeCalls.set(0);
+      context = ContextBuilder.newBuilder(new StubApiMetadata().toBuilder()
+            .defaultModule(CountingStubComputeServiceContextModule.class).build())
+            .build(ComputeServiceContext.class);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      if (context != null)
+         context.close();
+   }
+
+   public void testRebootNodesMatchingWithBatchedPollerDoesNotDestroyNodes() throws Exception {
+      ComputeService compute = context.getComputeService();
+      compute.createNodesInGroup("reboot", 2);
+
+      Set<? extends NodeMetadata> rebooted = compute.rebootNodesMatching(inGroup("reboot"));
+
+      assertEquals(rebooted.size(), 2);
+      assertEquals(destroyNodeCalls.get(), 0);
+      for (NodeMetadata node : compute.listNodesDetailsMatching(inGroup("reboot")))
+         assertEquals(node.getStatus(), NodeMetadata.Status.RUNNING);
+   }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.compute.domain.ComputeMetadata;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.jclouds.compute.strategy.GetNodeMetadataStrategy;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.jclouds.lifecycle.Closer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", singleThreaded = true, testName = "NodeStatusPollerTest")
+public class NodeStatusPollerTest {
+
+   /** Serves the status in {@link #nodes}, recording every list call. */
+   private static class FakeListNodesStrategy implements ListNodesStrategy, GetNodeMetadataStrategy {
+      private final Map<String, NodeMetadata> nodes = new ConcurrentHashMap<String, NodeMetadata>();
+      private final List<List<String>> calls = Lists.newCopyOnWriteArrayList();
+
+      @Override
+      public Iterable<? extends ComputeMetadata> listNodes() {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Iterable<? extends NodeMetadata> listDetailsOnNodesMatching(Predicate<? super NodeMetadata> filter) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Iterable<? extends NodeMetadata> listNodesByIds(Iterable<String> ids) {
+         calls.add(ImmutableList.copyOf(ids));
+         List<NodeMetadata> result = Lists.newArrayList();
+         for (String id : ids) {
+            if (nodes.containsKey(id))
+               result.add(nodes.get(id));
+         }
+         return result;
+      }
+
+      @Override
+      public NodeMetadata getNode(String id) {
+         throw new AssertionError("should list nodes instead");
+      }
+   }
+
+   private FakeListNodesStrategy strategy;
+   private Timeouts timeouts;
+   private Closer closer;
+   private NodeStatusPoller poller;
+
+   @BeforeMethod
+   public void setUp() {
+      strategy = new FakeListNodesStrategy();
+      PollPeriod period = new PollPeriod();
+      period.pollInitialPeriod = 10;
+      period.pollMaxPeriod = 50;
+      timeouts = new Timeouts();
+      closer = new Closer();
+      poller = new NodeStatusPoller(strategy, strategy, period, timeouts, closer);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() throws Exception {
+      closer.close();
+   }
+
+   private NodeMetadata node(String id, Status status) {
+      return new NodeMetadataBuilder().id(id).status(status).build();
+   }
+
+   public void testWaitsAreCoalescedIntoOneListPerTick() throws Exception {
+      List<ListenableFuture<NodeMetadata>> futures = Lists.newArrayList();
+      for (int i = 0; i < 100; i++) {
+         String id = "node-" + i;
+         strategy.nodes.put(id, node(id, Status.PENDING));
+         futures.add(poller.awaitRunning(node(id, Status.PENDING)));
+      }
+      // let a few ticks go by before the nodes come up
+      while (strategy.calls.size() < 2)
+         Thread.sleep(5);
+      for (int i = 0; i < 100; i++) {
+         String id = "node-" + i;
+         strategy.nodes.put(id, node(id, Status.RUNNING));
+      }
+      for (ListenableFuture<NodeMetadata> future : futures)
+         assertEquals(future.get(5, TimeUnit.SECONDS).getStatus(), Status.RUNNING);
+      assertEquals(poller.getListCalls(), strategy.calls.size());
+      assertTrue(strategy.calls.size() < 10, "expected a handful of list calls, not " + strategy.calls.size());
+      assertEquals(strategy.calls.get(0).size(), 100);
+   }
+
+   public void testNodeAlreadyRunningDoesNotPoll() throws Exception {
+      NodeMetadata running = node("running", Status.RUNNING);
+      assertEquals(poller.awaitRunning(running).get(), running);
+      assertEquals(poller.getListCalls(), 0);
+   }
+
+   public void testErrorStatusFailsWait() throws Exception {
+      strategy.nodes.put("broken", node("broken", Status.ERROR));
+      try {
+         poller.awaitRunning(node("broken", Status.PENDING)).get(5, TimeUnit.SECONDS);
+         fail("expected the wait to fail");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+      }
+   }
+
+   public void testMissingNodeIsTerminated() throws Exception {
+      NodeMetadata deleting = node("deleting", Status.PENDING);
+      assertEquals(poller.awaitTerminated(deleting).get(5, TimeUnit.SECONDS), deleting);
+   }
+
+   public void testMissingNodeKeepsWaitingForRunning() throws Exception {
+      ListenableFuture<NodeMetadata> future = poller.awaitRunning(node("new", Status.PENDING));
+      while (strategy.calls.size() < 2)
+         Thread.sleep(5);
+      strategy.nodes.put("new", node("new", Status.RUNNING));
+      assertEquals(future.get(5, TimeUnit.SECONDS).getStatus(), Status.RUNNING);
+   }
+
+   public void testWaitTimesOut() throws Exception {
+      timeouts.nodeRunning = 100;
+      strategy.nodes.put("stuck", node("stuck", Status.PENDING));
+      try {
+         poller.awaitRunning(node("stuck", Status.PENDING)).get(5, TimeUnit.SECONDS);
+         fail("expected the wait to time out");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof TimeoutException, e.getCause().toString());
+      }
+   }
+
+   public void testIntervalGrowsWithPendingNodes() {
+      assertEquals(poller.nextInterval(0), 10);
+      assertEquals(poller.nextInterval(1), 10);
+      assertEquals(poller.nextInterval(2), 20);
+      assertEquals(poller.nextInterval(8), 40);
+      assertEquals(poller.nextInterval(300), 50);
+   }
+
+   public void testCloseCancelsPendingWaits() throws Exception {
+      ListenableFuture<NodeMetadata> future = poller.awaitRunning(node("never", Status.PENDING));
+      closer.close();
+      assertTrue(future.isCancelled());
+   }
+}
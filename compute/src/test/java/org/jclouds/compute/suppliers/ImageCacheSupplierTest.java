@@ -20,14 +20,24 @@ import static com.google.common.collect.Iterables.any;
 import static org.jclouds.compute.predicates.ImagePredicates.idEquals;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.domain.ImageBuilder;
 import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.internal.ImageIndex;
 import org.jclouds.compute.strategy.GetImageStrategy;
 import org.jclouds.domain.Location;
 import org.jclouds.domain.LocationBuilder;
@@ -36,8 +46,10 @@ import org.jclouds.rest.AuthorizationException;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.Atomics;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.util.Providers;
@@ -115,6 +127,26 @@ public class ImageCacheSupplierTest {
       assertEquals(imageCache.get().size(), 0);
    }
 
+   @Test
+   public void testIndexIsReusedUntilImagesChange() {
+      ImageCacheSupplier imageCache = new ImageCacheSupplier(Suppliers.<Set<? extends Image>> ofInstance(images), 60,
+            Atomics.<AuthorizationException> newReference(), Providers.of(getImageStrategy));
+      ImageIndex index = imageCache.index();
+      assertSame(imageCache.index(), index);
+      assertSame(imageCache.get(), index.images());
+
+      imageCache.get(image.getId());
+      assertSame(imageCache.index(), index);
+
+      imageCache.registerImage(ImageBuilder.fromImage(image).id("newimage").build());
+      ImageIndex withNewImage = imageCache.index();
+      assertNotSame(withNewImage, index);
+      assertEquals(withNewImage.images().size(), 2);
+
+      imageCache.removeImage("newimage");
+      assertEquals(imageCache.index().images().size(), 1);
+   }
+
    @Test
    public void testLoadImage() {
       ImageCacheSupplier imageCache = new ImageCacheSupplier(Suppliers.<Set<? extends Image>> ofInstance(images), 60,
@@ -147,4 +179,48 @@ public class ImageCacheSupplierTest {
       assertEquals(imageCache.get().size(), 1);
       assertFalse(any(imageCache.get(), idEquals("foo")));
    }
+
+   @Test
+   public void testSnapshotIsUsedUntilImagesAreFetched() throws IOException {
+      File dir = Files.createTempDirectory("snapshots").toFile();
+      try {
+         ImageSnapshotStore store = new ImageSnapshotStore(new File(dir, "images.json.gz"));
+         store.write(images);
+         final Image liveImage = ImageBuilder.fromImage(image).id("liveImage").build();
+         final AtomicInteger fetches = new AtomicInteger();
+         Supplier<Set<? extends Image>> liveImages = new Supplier<Set<? extends Image>>() {
+            @Override
+            public Set<? extends Image> get() {
+               fetches.incrementAndGet();
+               return ImmutableSet.of(liveImage);
+            }
+         };
+         final Queue<Runnable> background = new ArrayDeque<Runnable>();
+         Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+               background.add(command);
+            }
+         };
+
+         ImageCacheSupplier imageCache = new ImageCacheSupplier(liveImages, 60,
+               Atomics.<AuthorizationException> newReference(), Providers.of(getImageStrategy), Optional.of(store),
+               executor);
+
+         assertEquals(Iterables.getOnlyElement(imageCache.get()).getId(), image.getId());
+         assertEquals(fetches.get(), 0);
+
+         while (!background.isEmpty()) {
+            background.poll().run();
+         }
+         assertEquals(fetches.get(), 1);
+         assertEquals(Iterables.getOnlyElement(imageCache.get()).getId(), "liveImage");
+         assertEquals(Iterables.getOnlyElement(store.read().get()).getId(), "liveImage");
+      } finally {
+         for (File file : dir.listFiles()) {
+            file.delete();
+         }
+         dir.delete();
+      }
+   }
 }
@@ -230,6 +230,29 @@ public final class Constants {
     * default value is false
     */
    public static final String PROPERTY_LOGGER_WIRE_LOG_SENSITIVE_INFO = "jclouds.wire.log.sensitive";
+   /**
+    * Boolean property.
+    * <p/>
+    * true to log payloads while they stream through instead of copying them aside first. Only the first and last
+    * {@link #PROPERTY_LOGGER_WIRE_STREAMING_BYTES} bytes of each payload are logged.
+    * default value is false
+    */
+   public static final String PROPERTY_LOGGER_WIRE_STREAMING = "jclouds.wire.streaming";
+   /**
+    * Integer property.
+    * <p/>
+    * number of bytes logged from the start and from the end of each payload when
+    * {@link #PROPERTY_LOGGER_WIRE_STREAMING} is set.
+    * default value is 4096
+    */
+   public static final String PROPERTY_LOGGER_WIRE_STREAMING_BYTES = "jclouds.wire.streaming.bytes";
+   /**
+    * Double property.
+    * <p/>
+    * fraction of http commands, between 0 and 1, whose request and response payloads are written to the wire log.
+    * default value is 1
+    */
+   public static final String PROPERTY_LOGGER_WIRE_SAMPLE_RATE = "jclouds.wire.sample-rate";
    /**
     * Name of the logger that records all http headers from the client and the server.
     */
@@ -361,7 +384,8 @@ public final class Constants {
    public static final String PROPERTY_CONNECTION_CLOSE_HEADER = "jclouds.connection-close-header";
 
    /**
-    * The maximum number of blob deletes happening in parallel at any point in time.
+    * The maximum number of blob deletes happening in parallel at any point in time. Where the provider deletes
+    * blobs in bulk, each bulk delete counts once.
     */
    public static final String PROPERTY_MAX_PARALLEL_DELETES = "jclouds.max-parallel-deletes";
 
@@ -375,6 +399,16 @@ public final class Constants {
     * Default value: 2 minutes.
     */
    public static final String PROPERTY_MAX_RATE_LIMIT_WAIT = "jclouds.max-ratelimit-wait";
+
+   /**
+    * Integer property. default (0, disabled)
+    * <p/>
+    * Size of the token bucket each endpoint draws from when a request is retried. A retry costs 5 tokens and every
+    * successful response returns one, so once an endpoint fails persistently further retries are refused and errors
+    * are returned straight away. The budget is opt-in: with the default of 0 every retry the retry handlers allow is
+    * sent, as before. 500 is a reasonable starting point.
+    */
+   public static final String PROPERTY_RETRY_BUDGET = "jclouds.retry-budget";
    
    /**
     * Boolean property.
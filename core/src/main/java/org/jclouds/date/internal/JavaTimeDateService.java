@@ -0,0 +1,434 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.date.internal;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import jakarta.inject.Singleton;
+
+import org.jclouds.date.DateService;
+
+/**
+ * Formats and parses the fixed layouts of {@link DateService} by hand on top of {@code java.time}, without any
+ * shared mutable formatter, so concurrent callers never contend on a lock.
+ * <p>
+ * Formatting the current time is cached for the second it was produced in, which is the resolution of every layout
+ * but {@link #iso8601DateFormat()}. All layouts are rendered in GMT.
+ */
+@Singleton
+public class JavaTimeDateService implements DateService {
+
+   private static final String[] DAYS = { "Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun" };
+   private static final String[] MONTHS = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct",
+         "Nov", "Dec" };
+
+   private enum Layout {
+      /** EEE MMM dd HH:mm:ss Z yyyy */
+      C {
+         @Override
+         void append(StringBuilder out, LocalDateTime dateTime) {
+            out.append(DAYS[dateTime.getDayOfWeek().ordinal()]).append(' ');
+            out.append(MONTHS[dateTime.getMonthValue() - 1]).append(' ');
+            appendPadded(out, dateTime.getDayOfMonth(), 2).append(' ');
+            appendTime(out, dateTime).append(" +0000 ");
+            appendYear(out, dateTime.getYear());
+         }
+      },
+      /** EEE, dd MMM yyyy HH:mm:ss 'GMT' */
+      RFC822 {
+         @Override
+         void append(StringBuilder out, LocalDateTime dateTime) {
+            appendRfc1123Date(out, dateTime).append(" GMT");
+         }
+      },
+      /** EEE, dd MMM yyyy HH:mm:ss Z */
+      RFC1123 {
+         @Override
+         void append(StringBuilder out, LocalDateTime dateTime) {
+            appendRfc1123Date(out, dateTime).append(" +0000");
+         }
+      },
+      /** yyyy-MM-dd'T'HH:mm:ss.SSS'Z' */
+      ISO8601 {
+         @Override
+         void append(StringBuilder out, LocalDateTime dateTime) {
+            appendIso8601Date(out, dateTime).append('.');
+            appendPadded(out, dateTime.getNano() / 1000000, 3).append('Z');
+         }
+      },
+      /** yyyy-MM-dd'T'HH:mm:ss'Z' */
+      ISO8601_SECONDS {
+         @Override
+         void append(StringBuilder out, LocalDateTime dateTime) {
+            appendIso8601Date(out, dateTime).append('Z');
+         }
+      };
+
+      abstract void append(StringBuilder out, LocalDateTime dateTime);
+   }
+
+   private static final class FormattedSecond {
+      private final long epochSecond;
+      private final String value;
+
+      private FormattedSecond(long epochSecond, String value) {
+         this.epochSecond = epochSecond;
+         this.value = value;
+      }
+   }
+
+   private final AtomicReferenceArray<FormattedSecond> now = new AtomicReferenceArray<FormattedSecond>(
+         Layout.values().length);
+
+   @Override
+   public final String cDateFormat(Date date) {
+      return format(Layout.C, date.getTime());
+   }
+
+   @Override
+   public final String cDateFormat() {
+      return formatNow(Layout.C);
+   }
+
+   @Override
+   public final Date cDateParse(String toParse) {
+      Cursor cursor = new Cursor(toParse);
+      cursor.dayOfWeek();
+      cursor.spaces();
+      int month = cursor.month();
+      cursor.spaces();
+      int day = cursor.number(1, 2);
+      cursor.spaces();
+      int hour = cursor.number(2, 2);
+      cursor.expect(':');
+      int minute = cursor.number(2, 2);
+      cursor.expect(':');
+      int second = cursor.number(2, 2);
+      cursor.spaces();
+      int offset = cursor.zone();
+      cursor.spaces();
+      int year = cursor.number(4, 4);
+      cursor.end();
+      return toDate(cursor, year, month, day, hour, minute, second, 0, offset);
+   }
+
+   @Override
+   public final String rfc822DateFormat(Date date) {
+      return format(Layout.RFC822, date.getTime());
+   }
+
+   @Override
+   public final String rfc822DateFormat() {
+      return formatNow(Layout.RFC822);
+   }
+
+   @Override
+   public final Date rfc822DateParse(String toParse) {
+      return rfc1123DateParse(toParse);
+   }
+
+   @Override
+   public final String iso8601SecondsDateFormat(Date date) {
+      return format(Layout.ISO8601_SECONDS, date.getTime());
+   }
+
+   @Override
+   public final String iso8601SecondsDateFormat() {
+      return formatNow(Layout.ISO8601_SECONDS);
+   }
+
+   @Override
+   public final String iso8601DateFormat(Date date) {
+      return format(Layout.ISO8601, date.getTime());
+   }
+
+   @Override
+   public final String iso8601DateFormat() {
+      return format(Layout.ISO8601, System.currentTimeMillis());
+   }
+
+   @Override
+   public final Date iso8601DateParse(String toParse) {
+      return iso8601Parse(toParse, Boolean.TRUE);
+   }
+
+   @Override
+   public final Date iso8601SecondsDateParse(String toParse) {
+      return iso8601Parse(toParse, Boolean.FALSE);
+   }
+
+   @Override
+   public final Date iso8601DateOrSecondsDateParse(String toParse) {
+      return iso8601Parse(toParse, null);
+   }
+
+   @Override
+   public final String rfc1123DateFormat(Date date) {
+      return format(Layout.RFC1123, date.getTime());
+   }
+
+   @Override
+   public final String rfc1123DateFormat() {
+      return formatNow(Layout.RFC1123);
+   }
+
+   @Override
+   public final Date rfc1123DateParse(String toParse) {
+      Cursor cursor = new Cursor(toParse);
+      if (cursor.dayOfWeek())
+         cursor.optional(',');
+      cursor.spaces();
+      int day = cursor.number(1, 2);
+      cursor.spaces();
+      int month = cursor.month();
+      cursor.spaces();
+      int year = cursor.number(4, 4);
+      cursor.spaces();
+      int hour = cursor.number(2, 2);
+      cursor.expect(':');
+      int minute = cursor.number(2, 2);
+      cursor.expect(':');
+      int second = cursor.number(2, 2);
+      cursor.spaces();
+      int offset = cursor.zone();
+      cursor.end();
+      return toDate(cursor, year, month, day, hour, minute, second, 0, offset);
+   }
+
+   /**
+    * @param millis
+    *           {@code TRUE} if fractional seconds are required, {@code FALSE} if they are not allowed and
+    *           {@code null} if they are optional
+    */
+   private static Date iso8601Parse(String toParse, Boolean millis) {
+      if (toParse.length() < 10)
+         throw new IllegalArgumentException("incorrect date format " + toParse);
+      Cursor cursor = new Cursor(toParse);
+      int year = cursor.number(4, 4);
+      cursor.expect('-');
+      int month = cursor.number(2, 2);
+      cursor.expect('-');
+      int day = cursor.number(2, 2);
+      if (!cursor.optional('T'))
+         cursor.expect(' ');
+      int hour = cursor.number(2, 2);
+      cursor.expect(':');
+      int minute = cursor.number(2, 2);
+      cursor.expect(':');
+      int second = cursor.number(2, 2);
+      boolean fraction = millis == null ? cursor.optional('.') : millis && cursor.expect('.');
+      int milli = fraction ? cursor.fraction() : 0;
+      int offset = cursor.atEnd() ? 0 : cursor.zone();
+      cursor.end();
+      return toDate(cursor, year, month, day, hour, minute, second, milli, offset);
+   }
+
+   private static Date toDate(Cursor cursor, int year, int month, int day, int hour, int minute, int second,
+         int milli, int offset) {
+      try {
+         long epochSecond = LocalDateTime.of(year, month, day, hour, minute, second).toEpochSecond(
+               ZoneOffset.ofTotalSeconds(offset));
+         return new Date(epochSecond * 1000 + milli);
+      } catch (DateTimeException e) {
+         throw new IllegalArgumentException("incorrect date " + cursor.text, e);
+      }
+   }
+
+   private String formatNow(Layout layout) {
+      long epochSecond = System.currentTimeMillis() / 1000;
+      FormattedSecond cached = now.get(layout.ordinal());
+      if (cached == null || cached.epochSecond != epochSecond) {
+         cached = new FormattedSecond(epochSecond, format(layout, epochSecond * 1000));
+         now.set(layout.ordinal(), cached);
+      }
+      return cached.value;
+   }
+
+   private static String format(Layout layout, long epochMilli) {
+      long epochSecond = Math.floorDiv(epochMilli, 1000L);
+      int nanos = (int) Math.floorMod(epochMilli, 1000L) * 1000000;
+      StringBuilder out = new StringBuilder(32);
+      layout.append(out, LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC));
+      return out.toString();
+   }
+
+   private static StringBuilder appendRfc1123Date(StringBuilder out, LocalDateTime dateTime) {
+      out.append(DAYS[dateTime.getDayOfWeek().ordinal()]).append(", ");
+      appendPadded(out, dateTime.getDayOfMonth(), 2).append(' ');
+      out.append(MONTHS[dateTime.getMonthValue() - 1]).append(' ');
+      appendYear(out, dateTime.getYear()).append(' ');
+      return appendTime(out, dateTime);
+   }
+
+   private static StringBuilder appendIso8601Date(StringBuilder out, LocalDateTime dateTime) {
+      appendYear(out, dateTime.getYear()).append('-');
+      appendPadded(out, dateTime.getMonthValue(), 2).append('-');
+      appendPadded(out, dateTime.getDayOfMonth(), 2).append('T');
+      return appendTime(out, dateTime);
+   }
+
+   private static StringBuilder appendTime(StringBuilder out, LocalDateTime dateTime) {
+      appendPadded(out, dateTime.getHour(), 2).append(':');
+      appendPadded(out, dateTime.getMinute(), 2).append(':');
+      return appendPadded(out, dateTime.getSecond(), 2);
+   }
+
+   private static StringBuilder appendYear(StringBuilder out, int year) {
+      return year >= 0 ? appendPadded(out, year, 4) : out.append(year);
+   }
+
+   private static StringBuilder appendPadded(StringBuilder out, int value, int width) {
+      for (int limit = 10, i = 1; i < width; i++, limit *= 10) {
+         if (value < limit)
+            out.append('0');
+      }
+      return out.append(value);
+   }
+
+   /**
+    * Walks the input of a single parse, failing with {@link IllegalArgumentException} at the first unexpected
+    * character.
+    */
+   private static final class Cursor {
+      private final String text;
+      private int position;
+
+      private Cursor(String text) {
+         this.text = text;
+      }
+
+      boolean atEnd() {
+         return position == text.length();
+      }
+
+      void end() {
+         spaces();
+         if (!atEnd())
+            throw error();
+      }
+
+      boolean expect(char c) {
+         if (!optional(c))
+            throw error();
+         return true;
+      }
+
+      boolean optional(char c) {
+         if (position < text.length() && text.charAt(position) == c) {
+            position++;
+            return true;
+         }
+         return false;
+      }
+
+      void spaces() {
+         while (position < text.length() && text.charAt(position) == ' ')
+            position++;
+      }
+
+      int number(int minDigits, int maxDigits) {
+         int value = 0;
+         int digits = 0;
+         while (digits < maxDigits && position < text.length() && isDigit(text.charAt(position))) {
+            value = value * 10 + text.charAt(position++) - '0';
+            digits++;
+         }
+         if (digits < minDigits)
+            throw error();
+         return value;
+      }
+
+      /** Returns the milliseconds of a fraction of any precision, ignoring digits beyond the third. */
+      int fraction() {
+         int start = position;
+         int value = number(1, 3);
+         for (int digits = position - start; digits < 3; digits++)
+            value *= 10;
+         while (position < text.length() && isDigit(text.charAt(position)))
+            position++;
+         return value;
+      }
+
+      /** Skips an optional day name, which is not checked against the date. */
+      boolean dayOfWeek() {
+         String word = word();
+         if (word.isEmpty())
+            return false;
+         if (indexOfPrefix(DAYS, word) < 0)
+            throw error();
+         return true;
+      }
+
+      /** Returns the month, 1-based, of an English month name or its three letter abbreviation. */
+      int month() {
+         int index = indexOfPrefix(MONTHS, word());
+         if (index < 0)
+            throw error();
+         return index + 1;
+      }
+
+      /**
+       * Returns the offset in seconds of {@code Z}, {@code UT}, {@code UTC} or {@code GMT}, each optionally followed by
+       * an offset, or of an offset alone: {@code +hh}, {@code +hhmm} or {@code +hh:mm}.
+       */
+      int zone() {
+         String word = word();
+         if (!word.isEmpty() && !"Z".equals(word) && !"UT".equals(word) && !"UTC".equals(word)
+               && !"GMT".equals(word))
+            throw error();
+         if (position == text.length() || (text.charAt(position) != '+' && text.charAt(position) != '-')) {
+            if (word.isEmpty())
+               throw error();
+            return 0;
+         }
+         int sign = text.charAt(position++) == '-' ? -1 : 1;
+         int hours = number(2, 2);
+         optional(':');
+         int minutes = position < text.length() && isDigit(text.charAt(position)) ? number(2, 2) : 0;
+         return sign * (hours * 3600 + minutes * 60);
+      }
+
+      private String word() {
+         int start = position;
+         while (position < text.length() && Character.isLetter(text.charAt(position)))
+            position++;
+         return text.substring(start, position);
+      }
+
+      private static int indexOfPrefix(String[] abbreviations, String word) {
+         if (word.length() >= 3) {
+            for (int i = 0; i < abbreviations.length; i++) {
+               if (word.regionMatches(true, 0, abbreviations[i], 0, 3))
+                  return i;
+            }
+         }
+         return -1;
+      }
+
+      private static boolean isDigit(char c) {
+         return c >= '0' && c <= '9';
+      }
+
+      private IllegalArgumentException error() {
+         return new IllegalArgumentException("Error parsing data at " + position + " of " + text);
+      }
+   }
+}
@@ -32,6 +32,9 @@ public class HttpCommand {
    private volatile int failureCount;
    private volatile int redirectCount;
    private volatile Exception exception;
+   private volatile long retryDelay;
+   private volatile long lastRetryDelay;
+   private volatile Boolean wireSampled;
 
    public HttpCommand(HttpRequest request) {
       this.request = checkNotNull(request, "request");
@@ -89,6 +92,52 @@ public class HttpCommand {
       return redirectCount;
    }
 
+   /**
+    * Asks the executor to wait {@code millis} before sending the command again. Retry handlers use this instead of
+    * sleeping, so that asynchronous callers do not hold a thread while waiting.
+    * 
+    * @see #takeRetryDelay
+    */
+   public void setRetryDelay(long millis) {
+      this.retryDelay = millis;
+      this.lastRetryDelay = millis;
+   }
+
+   /**
+    * Returns the delay requested for the next attempt and clears it.
+    * 
+    * @see #setRetryDelay
+    */
+   public long takeRetryDelay() {
+      long millis = retryDelay;
+      retryDelay = 0;
+      return millis;
+   }
+
+   /**
+    * The delay most recently requested with {@link #setRetryDelay}, or 0 if the command has not been delayed.
+    */
+   public long getLastRetryDelay() {
+      return lastRetryDelay;
+   }
+
+   /**
+    * Whether the payloads of this command are written to the wire log, or null until the executor decides it. The
+    * decision is made once per command, so that a request, its response and its retries are sampled together.
+    *
+    * @see org.jclouds.Constants#PROPERTY_LOGGER_WIRE_SAMPLE_RATE
+    */
+   public Boolean getWireSampled() {
+      return wireSampled;
+   }
+
+   /**
+    * @see #getWireSampled
+    */
+   public void setWireSampled(boolean wireSampled) {
+      this.wireSampled = wireSampled;
+   }
+
    /**
     * Commands need to be replayed, if redirected or on a retryable error. Typically, this implies
     * the payload carried is not a streaming type.
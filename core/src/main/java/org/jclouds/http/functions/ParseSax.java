@@ -29,6 +29,9 @@ import java.nio.charset.StandardCharsets;
 
 import jakarta.annotation.Resource;
 
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.javax.annotation.Nullable;
@@ -55,6 +58,7 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
    private Logger logger = Logger.NULL;
 
    private final XMLReader parser;
+   private final SaxParserPool parsers;
    private final HandlerWithResult<T> handler;
    private HttpRequest request;
 
@@ -64,6 +68,16 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
 
    public ParseSax(XMLReader parser, HandlerWithResult<T> handler) {
       this.parser = checkNotNull(parser, "parser");
+      this.parsers = null;
+      this.handler = checkNotNull(handler, "handler");
+   }
+
+   /**
+    * Borrows a parser from {@code parsers} for each document instead of owning one.
+    */
+   public ParseSax(SaxParserPool parsers, HandlerWithResult<T> handler) {
+      this.parser = null;
+      this.parsers = checkNotNull(parsers, "parsers");
       this.handler = checkNotNull(handler, "handler");
    }
 
@@ -136,12 +150,28 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
    protected T doParse(InputSource from) throws IOException, SAXException {
       checkNotNull(from, "xml inputsource");
       from.setEncoding(StandardCharsets.UTF_8.name());
-      parser.setContentHandler(getHandler());
-      // This method should accept documents with a BOM (Byte-order mark)
-      parser.parse(from);
+      if (parsers == null) {
+         parse(parser, from);
+      } else {
+         SAXParser pooled;
+         try {
+            pooled = parsers.acquire();
+         } catch (ParserConfigurationException e) {
+            throw new SAXException(e);
+         }
+         parse(pooled.getXMLReader(), from);
+         // only parsers that completed are reused
+         parsers.release(pooled);
+      }
       return getHandler().getResult();
    }
 
+   private void parse(XMLReader reader, InputSource from) throws IOException, SAXException {
+      reader.setContentHandler(getHandler());
+      // This method should accept documents with a BOM (Byte-order mark)
+      reader.parse(from);
+   }
+
    public T addDetailsAndPropagate(HttpResponse response, Exception e) {
       return addDetailsAndPropagate(response, e, null);
    }
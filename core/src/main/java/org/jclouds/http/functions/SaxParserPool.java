@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.SAXException;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Keeps idle {@link SAXParser}s around so that parsing a response does not have to construct a new parser.
+ * <p>
+ * Parsers are never shared: {@link #acquire()} hands out an idle parser or creates one when none is left, and
+ * {@link #release(SAXParser)} resets it and keeps it for the next caller, up to a bounded number of idle parsers.
+ */
+@Beta
+public final class SaxParserPool {
+   private final SAXParserFactory factory;
+   private final BlockingQueue<SAXParser> idle;
+
+   public SaxParserPool(SAXParserFactory factory, int maxIdle) {
+      this.factory = checkNotNull(factory, "factory");
+      checkArgument(maxIdle > 0, "maxIdle must be positive");
+      this.idle = new ArrayBlockingQueue<SAXParser>(maxIdle);
+   }
+
+   public SAXParser acquire() throws ParserConfigurationException, SAXException {
+      SAXParser parser = idle.poll();
+      return parser != null ? parser : factory.newSAXParser();
+   }
+
+   /**
+    * Returns a parser that finished parsing a document. Parsers that failed should be dropped rather than released,
+    * as they may be left in an inconsistent state.
+    */
+   public void release(SAXParser parser) {
+      try {
+         parser.reset();
+      } catch (UnsupportedOperationException e) {
+         // this implementation cannot be reused
+         return;
+      }
+      idle.offer(parser);
+   }
+}
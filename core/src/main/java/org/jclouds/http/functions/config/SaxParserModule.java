@@ -18,14 +18,12 @@ package org.jclouds.http.functions.config;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
-import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
 import org.jclouds.http.functions.ParseSax;
 import org.jclouds.http.functions.ParseSax.HandlerWithResult;
-import org.xml.sax.XMLReader;
+import org.jclouds.http.functions.SaxParserPool;
 
-import com.google.common.base.Throwables;
 import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
 import com.google.inject.Provides;
@@ -40,29 +38,26 @@ public class SaxParserModule extends AbstractModule {
       bind(ParseSax.Factory.class).to(Factory.class).in(Scopes.SINGLETON);
    }
 
+   /**
+    * Idle parsers kept for reuse; more are created when that many responses are parsed at once.
+    */
+   static final int MAX_IDLE_PARSERS = 32;
+
    static class Factory implements ParseSax.Factory {
-      private final SAXParserFactory factory;
+      private final SaxParserPool parsers;
       private final Injector i;
 
       @Inject
-      Factory(SAXParserFactory factory, Injector i) {
-         this.factory = factory;
+      Factory(SaxParserPool parsers, Injector i) {
+         this.parsers = parsers;
          this.i = i;
       }
 
       public <T> ParseSax<T> create(HandlerWithResult<T> handler) {
-         SAXParser saxParser;
-         try {
-            saxParser = factory.newSAXParser();
-            XMLReader parser = saxParser.getXMLReader();
-            // TODO: switch to @AssistedInject
-            ParseSax<T> returnVal = new ParseSax<T>(parser, handler);
-            i.injectMembers(returnVal);
-            return returnVal;
-         } catch (Exception e) {
-            throw Throwables.propagate(e);
-         }
-
+         // TODO: switch to @AssistedInject
+         ParseSax<T> returnVal = new ParseSax<T>(parsers, handler);
+         i.injectMembers(returnVal);
+         return returnVal;
       }
    }
 
@@ -75,4 +70,10 @@ public class SaxParserModule extends AbstractModule {
       return factory;
    }
 
+   @Provides
+   @Singleton
+   final SaxParserPool provideSaxParserPool(SAXParserFactory factory) {
+      return new SaxParserPool(factory, MAX_IDLE_PARSERS);
+   }
+
 }
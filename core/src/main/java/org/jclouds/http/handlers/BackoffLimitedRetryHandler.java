@@ -17,15 +17,18 @@
 package org.jclouds.http.handlers;
 
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 
 import java.io.IOException;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 import jakarta.annotation.Resource;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 
 import org.jclouds.Constants;
+import org.jclouds.date.DateService;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpRetryHandler;
@@ -33,13 +36,23 @@ import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Throwables;
+import com.google.common.net.HttpHeaders;
+import com.google.common.primitives.Longs;
 import com.google.inject.Inject;
 
 /**
- * Allow replayable request to be retried a limited number of times, and impose an exponential
- * back-off delay before returning.
+ * Allow replayable request to be retried a limited number of times, and ask the executor to wait
+ * before sending them again.
  * <p>
- * The back-off delay grows rapidly according to the formula
+ * Commands are delayed with decorrelated jitter: each delay is picked at random between the start
+ * delay and three times the previous delay, capped by {@link #maxRetryDelay()}. A longer wait asked
+ * for by a {@code Retry-After} header is honored up to {@link Constants#PROPERTY_MAX_RATE_LIMIT_WAIT},
+ * and retries are drawn from the endpoint's {@link RetryBudget}.
+ * <p>
+ * {@link #imposeBackoffExponentialDelay} sleeps on the calling thread, while
+ * {@link #calculateBackoffExponentialDelay} only returns the delay for use with {@link HttpCommand#setRetryDelay}. The
+ * delay grows rapidly
+ * according to the formula
  * <code>50 * (<i>{@link TransformingHttpCommand#getFailureCount()}</i> ^ 2)</code>. For example:
  * <table>
  * <tr>
@@ -86,18 +99,35 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
    @Named(Constants.PROPERTY_RETRY_DELAY_START)
    private long delayStart = 50L;
 
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_MAX_RATE_LIMIT_WAIT)
+   private long maxRateLimitWait = 2 * 60 * 1000;
+
+   @Inject(optional = true)
+   private RetryBudget retryBudget;
+
+   @Inject(optional = true)
+   private DateService dateService;
+
    @Resource
    protected Logger logger = Logger.NULL;
 
    public boolean shouldRetryRequest(HttpCommand command, IOException error) {
-      return ifReplayableBackoffAndReturnTrue(command);
+      return ifReplayableBackoffAndReturnTrue(command, 0);
    }
 
    public boolean shouldRetryRequest(HttpCommand command, HttpResponse response) {
-      return ifReplayableBackoffAndReturnTrue(command);
+      if (retryBudget != null && isThrottle(response)) {
+         retryBudget.recordThrottle();
+      }
+      return ifReplayableBackoffAndReturnTrue(command, millisUntilRetryAfter(response));
    }
 
-   private boolean ifReplayableBackoffAndReturnTrue(HttpCommand command) {
+   /**
+    * Decides whether to retry and, if so, hands the delay to the executor with {@link HttpCommand#setRetryDelay}
+    * rather than sleeping here.
+    */
+   private boolean ifReplayableBackoffAndReturnTrue(HttpCommand command, long retryAfter) {
       command.incrementFailureCount();
 
       if (!command.isReplayable()) {
@@ -107,12 +137,71 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
          logger.error("Cannot retry after server error, command has exceeded retry limit %1$d: %2$s", retryCountLimit,
                   command);
          return false;
+      } else if (retryAfter > maxRateLimitWait) {
+         logger.error("Cannot retry after server error, server asked to wait %1$dms which exceeds %2$dms: %3$s",
+                  retryAfter, maxRateLimitWait, command);
+         return false;
+      } else if (retryBudget != null && !retryBudget.tryAcquire(command)) {
+         return false;
       } else {
-         imposeBackoffExponentialDelay(command.getFailureCount(), "server error: " + command.toString());
+         long delayMs = max(decorrelatedJitterDelay(command), retryAfter);
+         logger.debug("Retry %d/%d: delaying for %d ms: server error: %s", command.getFailureCount(), retryCountLimit,
+                  delayMs, command);
+         command.setRetryDelay(delayMs);
          return true;
       }
    }
 
+   /**
+    * Picks the next delay at random between the start delay and three times the previous one, so that commands
+    * failing together spread out instead of retrying in lockstep.
+    */
+   private long decorrelatedJitterDelay(HttpCommand command) {
+      if (delayStart == 0) {
+         // Essentially disables the backoff
+         return 0;
+      }
+      long maxDelay = maxRetryDelay();
+      long upper = min(maxDelay, max(command.getLastRetryDelay(), delayStart) * 3);
+      if (upper <= delayStart) {
+         return min(delayStart, maxDelay);
+      }
+      return ThreadLocalRandom.current().nextLong(delayStart, upper + 1);
+   }
+
+   /**
+    * The longest delay to impose between retries of a command, unless the server asks for more.
+    */
+   protected long maxRetryDelay() {
+      return delayStart * 10L;
+   }
+
+   private static boolean isThrottle(HttpResponse response) {
+      return response.getStatusCode() == 429 || response.getStatusCode() == 503;
+   }
+
+   /**
+    * Returns the wait requested by the {@code Retry-After} header, either in seconds or as a date, or 0.
+    */
+   private long millisUntilRetryAfter(HttpResponse response) {
+      String retryAfter = response.getFirstHeaderOrNull(HttpHeaders.RETRY_AFTER);
+      if (retryAfter == null) {
+         return 0;
+      }
+      Long seconds = Longs.tryParse(retryAfter.trim());
+      if (seconds != null) {
+         return max(seconds, 0) * 1000L;
+      }
+      if (dateService != null) {
+         try {
+            return max(dateService.rfc822DateParse(retryAfter).getTime() - System.currentTimeMillis(), 0);
+         } catch (IllegalArgumentException e) {
+            logger.debug("Ignoring unparseable Retry-After header: %s", retryAfter);
+         }
+      }
+      return 0;
+   }
+
    public void imposeBackoffExponentialDelay(int failureCount, String commandDescription) {
       imposeBackoffExponentialDelay(delayStart, 2, failureCount, retryCountLimit, commandDescription);
    }
@@ -123,10 +212,36 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
 
    public void imposeBackoffExponentialDelay(long period, long maxPeriod, int pow, int failureCount, int max,
             String commandDescription) {
+      long delayMs = calculateBackoffExponentialDelay(period, maxPeriod, pow, failureCount, max, commandDescription);
+      if (delayMs == 0) {
+         return;
+      }
+      try {
+         Thread.sleep(delayMs);
+      } catch (InterruptedException e) {
+         Throwables.propagate(e);
+      }
+   }
+
+   public long calculateBackoffExponentialDelay(int failureCount, String commandDescription) {
+      return calculateBackoffExponentialDelay(delayStart, 2, failureCount, retryCountLimit, commandDescription);
+   }
+
+   public long calculateBackoffExponentialDelay(long period, int pow, int failureCount, int max,
+            String commandDescription) {
+      return calculateBackoffExponentialDelay(period, period * 10L, pow, failureCount, max, commandDescription);
+   }
+
+   /**
+    * Returns the delay {@link #imposeBackoffExponentialDelay} would sleep for, so that retry handlers can pass it to
+    * {@link HttpCommand#setRetryDelay} instead of sleeping themselves.
+    */
+   public long calculateBackoffExponentialDelay(long period, long maxPeriod, int pow, int failureCount, int max,
+            String commandDescription) {
       if (period == 0) {
          // Essentially disables the exponential backoff
          logger.debug("Retry %d/%d: delaying for %d ms: %s", failureCount, max, 0, commandDescription);
-         return;
+         return 0;
       }
       long delayMs = (long) (period * Math.pow(failureCount, pow));
       // Add random delay to avoid thundering herd problem when multiple
@@ -135,10 +250,6 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
       delayMs += new Random().nextInt((int) (max(delayMs / 10, 1) ));
       delayMs = delayMs > maxPeriod ? maxPeriod : delayMs;
       logger.debug("Retry %d/%d: delaying for %d ms: %s", failureCount, max, delayMs, commandDescription);
-      try {
-         Thread.sleep(delayMs);
-      } catch (InterruptedException e) {
-         Throwables.propagate(e);
-      }
+      return delayMs;
    }
 }
@@ -16,6 +16,7 @@
  */
 package org.jclouds.http.handlers;
 
+import static java.lang.Math.max;
 import static org.jclouds.Constants.PROPERTY_MAX_RATE_LIMIT_WAIT;
 import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
 
@@ -33,7 +34,8 @@ import com.google.inject.Inject;
 
 /**
  * Retry handler that takes into account the provider rate limit and delays the
- * requests until they are known to succeed.
+ * requests until they are known to succeed. The delay is handed to the executor with
+ * {@link HttpCommand#setRetryDelay} instead of sleeping on the calling thread.
  */
 @Beta
 public abstract class RateLimitRetryHandler implements HttpRetryHandler {
@@ -49,6 +51,9 @@ public abstract class RateLimitRetryHandler implements HttpRetryHandler {
    @Named(PROPERTY_MAX_RATE_LIMIT_WAIT)
    private int maxRateLimitWait = 2 * 60 * 1000;
 
+   @Inject(optional = true)
+   private RetryBudget retryBudget;
+
    /**
     * Returns the response status that will be considered a rate limit error.
     * <p>
@@ -83,6 +88,9 @@ public abstract class RateLimitRetryHandler implements HttpRetryHandler {
                retryCountLimit, command);
          return false;
       } else {
+         if (retryBudget != null) {
+            retryBudget.recordThrottle();
+         }
          return delayRequestUntilAllowed(command, response);
       }
    }
@@ -101,21 +109,14 @@ public abstract class RateLimitRetryHandler implements HttpRetryHandler {
                   maxRateLimitWait, waitPeriod);
             return false;
          }
-
-         try {
-            logger.debug("Waiting %sms before retrying, as defined by the rate limit", waitPeriod);
-            // Do not use Uninterrumpibles or similar, to let the jclouds
-            // tiemout configuration interrupt this thread
-            Thread.sleep(waitPeriod);
-         } catch (InterruptedException ex) {
-            // If the request is being executed and has a timeout configured,
-            // the thread may be interrupted when the timeout is reached.
-            logger.error("Request execution was interrupted, aborting");
-            Thread.currentThread().interrupt();
-            return false;
-         }
       }
 
+      if (retryBudget != null && !retryBudget.tryAcquire(command)) {
+         return false;
+      }
+      logger.debug("Waiting %sms before retrying, as defined by the rate limit", waitPeriod);
+      // The executor waits before sending the command again, so asynchronous callers do not hold a thread
+      command.setRetryDelay(max(waitPeriod, 0L));
       return true;
    }
 
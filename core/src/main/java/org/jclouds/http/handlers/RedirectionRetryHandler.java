@@ -81,7 +81,8 @@ public class RedirectionRetryHandler implements HttpRetryHandler {
          redirect = uriBuilder(current.getEndpoint()).path(redirect.getPath()).query(redirect.getQuery()).build();
       }
       if (redirect.equals(current.getEndpoint())) {
-         backoffHandler.imposeBackoffExponentialDelay(command.getRedirectCount(), "redirect: " + command.toString());
+         command.setRetryDelay(backoffHandler.calculateBackoffExponentialDelay(command.getRedirectCount(),
+                  "redirect: " + command.toString()));
       } else if (current.getFirstHeaderOrNull(HOST) != null && redirect.getHost() != null) {
          String host = redirect.getPort() > 0 ? redirect.getHost() + ":" + redirect.getPort() : redirect.getHost();
          command.setCurrentRequest(current.toBuilder().replaceHeader(HOST, host).endpoint(redirect).build());
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.handlers;
+
+import static org.jclouds.Constants.PROPERTY_RETRY_BUDGET;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.Resource;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.Beta;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.inject.Inject;
+
+/**
+ * Limits how many retries are sent to each endpoint, so that an endpoint which keeps failing is not hit by every
+ * caller retrying in turn.
+ * <p>
+ * Each endpoint has a bucket of {@link org.jclouds.Constants#PROPERTY_RETRY_BUDGET} tokens. A retry takes
+ * {@link #RETRY_COST} tokens and a successful response puts {@link #SUCCESS_REFUND} back. When the bucket is empty
+ * retries are refused until enough requests succeed again. While the budget is exhausted it works as a circuit
+ * breaker: the error is returned straight away instead of waiting for the retry.
+ * <p>
+ * The budget is off unless {@link org.jclouds.Constants#PROPERTY_RETRY_BUDGET} is set. At most
+ * {@link #MAX_ENDPOINTS} endpoints are tracked, and an endpoint that has not retried for {@link #IDLE_MINUTES}
+ * minutes starts again with a full bucket, so presigned or per-object endpoints do not accumulate.
+ */
+@Beta
+@Singleton
+public class RetryBudget {
+   public static final int RETRY_COST = 5;
+   public static final int SUCCESS_REFUND = 1;
+   public static final int MAX_ENDPOINTS = 1000;
+   public static final int IDLE_MINUTES = 10;
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_RETRY_BUDGET)
+   private int capacity = 0;
+
+   private final LoadingCache<String, AtomicInteger> tokens = CacheBuilder.newBuilder()
+         .maximumSize(MAX_ENDPOINTS)
+         .expireAfterAccess(IDLE_MINUTES, TimeUnit.MINUTES)
+         .build(
+         new CacheLoader<String, AtomicInteger>() {
+            @Override
+            public AtomicInteger load(String endpoint) {
+               return new AtomicInteger(capacity);
+            }
+         });
+
+   private final AtomicLong retries = new AtomicLong();
+   private final AtomicLong throttles = new AtomicLong();
+   private final AtomicLong denials = new AtomicLong();
+
+   /**
+    * Takes the tokens for one more attempt of {@code command}.
+    *
+    * @return false if the endpoint has run out of budget and the command should not be retried
+    */
+   public boolean tryAcquire(HttpCommand command) {
+      if (capacity <= 0) {
+         retries.incrementAndGet();
+         return true;
+      }
+      String endpoint = endpoint(command);
+      AtomicInteger available = tokens.getUnchecked(endpoint);
+      for (;;) {
+         int current = available.get();
+         if (current < RETRY_COST) {
+            denials.incrementAndGet();
+            logger.warn("Retry budget for %s is exhausted, not retrying %s", endpoint, command);
+            return false;
+         }
+         if (available.compareAndSet(current, current - RETRY_COST)) {
+            retries.incrementAndGet();
+            return true;
+         }
+      }
+   }
+
+   /**
+    * Records a successful response for {@code command}.
+    */
+   public void release(HttpCommand command) {
+      if (capacity <= 0) {
+         return;
+      }
+      // endpoints that never retried have a full bucket and no entry yet
+      AtomicInteger available = tokens.getIfPresent(endpoint(command));
+      if (available == null) {
+         return;
+      }
+      for (;;) {
+         int current = available.get();
+         if (current >= capacity || available.compareAndSet(current, current + SUCCESS_REFUND)) {
+            return;
+         }
+      }
+   }
+
+   /**
+    * Records that the server asked a request to slow down.
+    */
+   public void recordThrottle() {
+      throttles.incrementAndGet();
+   }
+
+   /**
+    * The tokens left for {@code endpoint}.
+    */
+   public int getAvailableTokens(URI endpoint) {
+      AtomicInteger available = tokens.getIfPresent(key(endpoint));
+      return available == null ? capacity : available.get();
+   }
+
+   /**
+    * The number of retries allowed so far.
+    */
+   public long getRetryCount() {
+      return retries.get();
+   }
+
+   /**
+    * The number of responses that asked the client to slow down.
+    */
+   public long getThrottleCount() {
+      return throttles.get();
+   }
+
+   /**
+    * The number of retries refused because the endpoint ran out of budget.
+    */
+   public long getDeniedCount() {
+      return denials.get();
+   }
+
+   private static String endpoint(HttpCommand command) {
+      return key(command.getCurrentRequest().getEndpoint());
+   }
+
+   private static String key(URI endpoint) {
+      return endpoint.getScheme() + "://" + endpoint.getRawAuthority();
+   }
+}
@@ -18,6 +18,10 @@ package org.jclouds.http.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Throwables.propagate;
+import static com.google.common.util.concurrent.Futures.addCallback;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
 import static org.jclouds.http.HttpUtils.checkRequestHasContentLengthOrChunkedEncoding;
 import static org.jclouds.http.HttpUtils.releasePayload;
@@ -27,13 +31,18 @@ import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
 import java.io.IOException;
 import java.net.ProtocolException;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import jakarta.annotation.Resource;
 import jakarta.inject.Named;
 
 import org.jclouds.Constants;
+import org.jclouds.http.AsyncHttpCommandExecutorService;
 import org.jclouds.http.HttpCommand;
-import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpRequestFilter;
 import org.jclouds.http.HttpResponse;
@@ -42,13 +51,19 @@ import org.jclouds.http.HttpUtils;
 import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.http.handlers.DelegatingErrorHandler;
 import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.handlers.RetryBudget;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.logging.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 
-public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandExecutorService {
+public abstract class BaseHttpCommandExecutorService<Q> implements AsyncHttpCommandExecutorService {
    protected final HttpUtils utils;
    protected final ContentMetadataCodec contentMetadataCodec;
 
@@ -66,6 +81,17 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
 
    private final Set<String> idempotentMethods;
 
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_SCHEDULER_THREADS)
+   private ScheduledExecutorService scheduler;
+
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_USER_THREADS)
+   private ExecutorService userExecutor;
+
+   @Inject(optional = true)
+   private RetryBudget retryBudget;
+
    protected BaseHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
          DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
          DelegatingErrorHandler errorHandler, HttpWire wire,
@@ -83,52 +109,234 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
    public HttpResponse invoke(HttpCommand command) {
       HttpResponse response = null;
       for (;;) {
-         HttpRequest request = command.getCurrentRequest();
          Q nativeRequest = null;
          try {
-            for (HttpRequestFilter filter : request.getFilters()) {
-               request = filter.filter(request);
-            }
-            checkRequestHasContentLengthOrChunkedEncoding(request,
-                  "After filtering, the request has neither chunked encoding nor content length: " + request);
-            logger.debug("Sending request %s: %s", request.hashCode(), request.getRequestLine());
-            wirePayloadIfEnabled(wire, request);
-            utils.logRequest(headerLog, request, ">>");
-            nativeRequest = convert(request);
+            awaitRetryDelay(command);
+            nativeRequest = prepare(command);
             response = invoke(nativeRequest);
-
-            logger.debug("Receiving response %s: %s", request.hashCode(), response.getStatusLine());
-            utils.logResponse(headerLog, response, "<<");
-            if (response.getPayload() != null && wire.enabled())
-               wire.input(response);
+            logResponse(command, response);
             nativeRequest = null; // response took ownership of streams
-            int statusCode = response.getStatusCode();
-            if (statusCode >= 300) {
-               if (shouldContinue(command, response))
-                  continue;
-               else
-                  break;
-            } else {
+            if (!shouldContinueAfterReceiving(command, response))
                break;
-            }
          } catch (Exception e) {
-            IOException ioe = getFirstThrowableOfType(e, IOException.class);
-            if (ioe != null && shouldContinue(command, ioe)) {
-               continue;
-            }
-            command.setException(new HttpResponseException(e.getMessage() + " connecting to "
-                  + command.getCurrentRequest().getRequestLine(), command, null, e));
-            break;
-
+            if (e instanceof InterruptedException)
+               Thread.currentThread().interrupt();
+            if (!shouldContinueAfterFailure(command, e))
+               break;
          } finally {
             cleanup(nativeRequest);
          }
       }
       if (command.getException() != null)
          throw propagate(command.getException());
+      recordSuccess(command);
       return response;
    }
 
+   /**
+    * Sleeps for the delay a retry handler asked for with {@link HttpCommand#setRetryDelay}, if any.
+    */
+   private void awaitRetryDelay(HttpCommand command) throws InterruptedException {
+      long delay = command.takeRetryDelay();
+      if (delay > 0) {
+         logger.debug("Waiting %sms before retrying %s", delay, command);
+         Thread.sleep(delay);
+      }
+   }
+
+   private void recordSuccess(HttpCommand command) {
+      if (retryBudget != null)
+         retryBudget.release(command);
+   }
+
+   /**
+    * Runs the same exchange as {@link #invoke(HttpCommand)}, but registers the next step as a callback on
+    * {@link #invokeAsync(Object)} instead of looping on the calling thread.
+    */
+   @Override
+   public ListenableFuture<HttpResponse> invokeAsync(HttpCommand command) {
+      SettableFuture<HttpResponse> result = SettableFuture.create();
+      invokeAsync(command, result);
+      return result;
+   }
+
+   private void invokeAsync(final HttpCommand command, final SettableFuture<HttpResponse> result) {
+      if (result.isDone())
+         return;
+      final Q nativeRequest;
+      ListenableFuture<HttpResponse> response;
+      try {
+         nativeRequest = prepare(command);
+      } catch (Exception e) {
+         if (shouldContinueAfterFailure(command, e))
+            retryAsync(command, result);
+         else
+            result.setException(command.getException());
+         return;
+      }
+      try {
+         response = invokeAsync(nativeRequest);
+      } catch (Exception e) {
+         response = immediateFailedFuture(e);
+      }
+      // cancelling the caller's future, e.g. on timeout, must abort the request the driver has in flight
+      final ListenableFuture<HttpResponse> inFlight = response;
+      result.addListener(new Runnable() {
+         @Override
+         public void run() {
+            if (result.isCancelled())
+               inFlight.cancel(true);
+         }
+      }, directExecutor());
+      addCallback(response, new FutureCallback<HttpResponse>() {
+         @Override
+         public void onSuccess(HttpResponse response) {
+            try {
+               logResponse(command, response);
+               if (shouldContinueAfterReceiving(command, response)) {
+                  retryAsync(command, result);
+               } else if (command.getException() != null) {
+                  result.setException(command.getException());
+               } else {
+                  recordSuccess(command);
+                  if (!result.set(response))
+                     // nobody will read a response that arrives after the caller gave up
+                     releasePayload(response);
+               }
+            } catch (RuntimeException e) {
+               releasePayload(response);
+               result.setException(e);
+            }
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            cleanup(nativeRequest);
+            if (t instanceof Exception && shouldContinueAfterFailure(command, (Exception) t))
+               retryAsync(command, result);
+            else
+               result.setException(command.getException() != null ? command.getException() : t);
+         }
+      }, directExecutor());
+   }
+
+   /**
+    * Sends the command again once the delay a retry handler asked for has passed, without holding a thread in the
+    * meantime.
+    */
+   private void retryAsync(final HttpCommand command, final SettableFuture<HttpResponse> result) {
+      if (result.isCancelled()) {
+         logger.debug("Not retrying %s, the caller cancelled it", command);
+         return;
+      }
+      long delay = command.takeRetryDelay();
+      if (delay <= 0) {
+         invokeAsync(command, result);
+         return;
+      }
+      logger.debug("Scheduling retry of %s in %sms", command, delay);
+      try {
+         scheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+               // filters, signing and blocking drivers must not run on the timer thread
+               resubmit(command, result);
+            }
+         }, delay, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+         result.setException(e);
+      }
+   }
+
+   private void resubmit(final HttpCommand command, final SettableFuture<HttpResponse> result) {
+      if (userExecutor == null) {
+         invokeAsync(command, result);
+         return;
+      }
+      try {
+         userExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+               invokeAsync(command, result);
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         result.setException(e);
+      }
+   }
+
+   private ScheduledExecutorService scheduler() {
+      return scheduler != null ? scheduler : RetryTimer.INSTANCE;
+   }
+
+   /**
+    * Schedules asynchronous retries in contexts built without a {@link ScheduledExecutorService}.
+    */
+   private static final class RetryTimer {
+      static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("jclouds retry timer %d").setDaemon(true).build());
+   }
+
+   /**
+    * Filters the current request of the {@code command}, logs it and converts it to the native representation.
+    */
+   private Q prepare(HttpCommand command) throws IOException, InterruptedException {
+      HttpRequest request = command.getCurrentRequest();
+      for (HttpRequestFilter filter : request.getFilters()) {
+         request = filter.filter(request);
+      }
+      checkRequestHasContentLengthOrChunkedEncoding(request,
+            "After filtering, the request has neither chunked encoding nor content length: " + request);
+      logger.debug("Sending request %s: %s", command.getCurrentRequest().hashCode(), request.getRequestLine());
+      if (isWireSampled(command))
+         wirePayloadIfEnabled(wire, request);
+      utils.logRequest(headerLog, request, ">>");
+      return convert(request);
+   }
+
+   private void logResponse(HttpCommand command, HttpResponse response) {
+      logger.debug("Receiving response %s: %s", command.getCurrentRequest().hashCode(), response.getStatusLine());
+      utils.logResponse(headerLog, response, "<<");
+      if (response.getPayload() != null && isWireSampled(command))
+         wire.input(response);
+   }
+
+   /**
+    * Samples the command for the wire log the first time its payloads could be logged, and reuses that decision for
+    * the rest of the exchange.
+    */
+   private boolean isWireSampled(HttpCommand command) {
+      if (!wire.enabled())
+         return false;
+      Boolean sampled = command.getWireSampled();
+      if (sampled == null) {
+         sampled = wire.sample();
+         command.setWireSampled(sampled);
+      }
+      return sampled;
+   }
+
+   /**
+    * Decides whether the command should be sent again after receiving {@code response}.
+    */
+   private boolean shouldContinueAfterReceiving(HttpCommand command, HttpResponse response) {
+      return response.getStatusCode() >= 300 && shouldContinue(command, response);
+   }
+
+   /**
+    * Decides whether the command should be sent again after {@code e}, recording the exception on the command if
+    * not.
+    */
+   private boolean shouldContinueAfterFailure(HttpCommand command, Exception e) {
+      IOException ioe = getFirstThrowableOfType(e, IOException.class);
+      if (ioe != null && shouldContinue(command, ioe)) {
+         return true;
+      }
+      command.setException(new HttpResponseException(e.getMessage() + " connecting to "
+            + command.getCurrentRequest().getRequestLine(), command, null, e));
+      return false;
+   }
+
    @VisibleForTesting
    boolean shouldContinue(HttpCommand command, HttpResponse response) {
       boolean shouldContinue = false;
@@ -171,6 +379,14 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
 
    protected abstract HttpResponse invoke(Q nativeRequest) throws IOException, InterruptedException;
 
+   /**
+    * Sends the native request without blocking the caller. Drivers that cannot do so inherit this default, which
+    * completes the exchange on the calling thread.
+    */
+   protected ListenableFuture<HttpResponse> invokeAsync(Q nativeRequest) throws IOException, InterruptedException {
+      return immediateFuture(invoke(nativeRequest));
+   }
+
    protected abstract void cleanup(Q nativeRequest);
 
 }
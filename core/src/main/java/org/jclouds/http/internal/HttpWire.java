@@ -36,6 +36,21 @@ public class HttpWire extends Wire {
    @Named(Constants.PROPERTY_LOGGER_WIRE_LOG_SENSITIVE_INFO)
    boolean logSensitiveInformation = false;
 
+   @VisibleForTesting
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_LOGGER_WIRE_STREAMING)
+   boolean streaming = false;
+
+   @VisibleForTesting
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_LOGGER_WIRE_STREAMING_BYTES)
+   int streamingBytes = 4096;
+
+   @VisibleForTesting
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_LOGGER_WIRE_SAMPLE_RATE)
+   double sampleRate = 1.0;
+
    public Logger getWireLog() {
       return wireLog;
    }
@@ -44,4 +59,19 @@ public class HttpWire extends Wire {
    protected boolean isLogSensitiveInformation() {
       return logSensitiveInformation;
    }
+
+   @Override
+   protected boolean isStreaming() {
+      return streaming;
+   }
+
+   @Override
+   protected int getStreamingBytes() {
+      return streamingBytes;
+   }
+
+   @Override
+   protected double getSampleRate() {
+      return sampleRate;
+   }
 }
@@ -16,8 +16,10 @@
  */
 package org.jclouds.logging.internal;
 
+import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.FileBackedOutputStream;
+import com.google.common.io.Files;
 import org.jclouds.Constants;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
@@ -32,7 +34,9 @@ import java.io.FileNotFoundException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.ThreadLocalRandom;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.io.Payloads.newPayload;
 import static org.jclouds.util.Closeables2.closeQuietly;
@@ -51,6 +55,23 @@ public abstract class Wire {
       return false;
    }
 
+   /**
+    * When true, streams are logged as they are consumed and only their first and last {@link #getStreamingBytes()}
+    * bytes are written to the wire log, so payloads are never buffered in memory or on disk.
+    */
+   protected boolean isStreaming() {
+      return false;
+   }
+
+   protected int getStreamingBytes() {
+      return 4096;
+   }
+
+   /** Fraction of exchanges that are logged; {@link #sample()} declines the others. */
+   protected double getSampleRate() {
+      return 1.0;
+   }
+
    private void wire(String header, InputStream instream) {
       StringBuilder buffer = new StringBuilder();
       int ch;
@@ -83,11 +104,51 @@ public abstract class Wire {
       }
    }
 
+   private void wire(String header, ByteSource source) throws IOException {
+      InputStream is = source.openStream();
+      try {
+         wire(header, is);
+      } finally {
+         is.close();
+      }
+   }
+
+   private void wireSkipped(String header, long skipped) {
+      getWireLog().debug(header + "[" + skipped + " bytes not logged]");
+   }
+
+   private void wireHeadAndTail(String header, ByteSource source, long size) {
+      int limit = getStreamingBytes();
+      try {
+         if (size <= 2L * limit) {
+            wire(header, source);
+         } else {
+            wire(header, source.slice(0, limit));
+            wireSkipped(header, size - 2L * limit);
+            wire(header, source.slice(size - limit, limit));
+         }
+      } catch (IOException e) {
+         logger.error(e, "Error tapping line");
+      }
+   }
+
    public boolean enabled() {
       return getWireLog().isDebugEnabled();
    }
 
+   /**
+    * Decides whether one exchange is logged, returning true for {@link #getSampleRate()} of the calls. Callers that
+    * log several payloads of an exchange, such as a request and its response, decide once and reuse the result.
+    */
+   public boolean sample() {
+      double sampleRate = getSampleRate();
+      return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+   }
+
    public InputStream copy(final String header, InputStream instream) {
+      if (isStreaming()) {
+         return new TeeInputStream(header, instream, getStreamingBytes());
+      }
       int limit = 256 * 1024;
       final FileBackedOutputStream out = new FileBackedOutputStream(limit);
       try {
@@ -189,6 +250,10 @@ public abstract class Wire {
 
    private void output(final File out) {
       checkNotNull(out, "output");
+      if (isStreaming()) {
+         wireHeadAndTail(">> ", Files.asByteSource(out), out.length());
+         return;
+      }
       InputStream in = null;
       try {
          in = new FileInputStream(out);
@@ -201,11 +266,132 @@ public abstract class Wire {
    }
 
    private void output(byte[] b) {
-      wire(">> ", new ByteArrayInputStream(checkNotNull(b, "output")));
+      checkNotNull(b, "output");
+      if (isStreaming()) {
+         wireHeadAndTail(">> ", ByteSource.wrap(b), b.length);
+         return;
+      }
+      wire(">> ", new ByteArrayInputStream(b));
    }
 
    private void output(final String s) {
       output(checkNotNull(s, "output").getBytes());
    }
 
+   /**
+    * Passes a stream through unchanged while logging its first {@code limit} bytes as soon as they are read and its
+    * last {@code limit} bytes when it is exhausted or closed. Memory use is bounded by twice the limit.
+    */
+   private final class TeeInputStream extends FilterInputStream {
+      private final String header;
+      private final byte[] head;
+      private final byte[] tail;
+      private final byte[] single = new byte[1];
+      private int headLength;
+      private int tailEnd;
+      private int tailLength;
+      private long count;
+      private boolean finished;
+
+      TeeInputStream(String header, InputStream in, int limit) {
+         super(checkNotNull(in, "input"));
+         checkArgument(limit > 0, "limit must be positive");
+         this.header = header;
+         this.head = new byte[limit];
+         this.tail = new byte[limit];
+      }
+
+      @Override
+      public int read() throws IOException {
+         int b = super.read();
+         if (b == -1) {
+            finish();
+         } else {
+            single[0] = (byte) b;
+            tee(single, 0, 1);
+         }
+         return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         int n = super.read(b, off, len);
+         if (n == -1) {
+            finish();
+         } else {
+            tee(b, off, n);
+         }
+         return n;
+      }
+
+      @Override
+      public long skip(long n) throws IOException {
+         long skipped = super.skip(n);
+         count += skipped;
+         return skipped;
+      }
+
+      @Override
+      public boolean markSupported() {
+         return false;
+      }
+
+      @Override
+      public void close() throws IOException {
+         try {
+            finish();
+         } finally {
+            super.close();
+         }
+      }
+
+      private void tee(byte[] b, int off, int len) {
+         count += len;
+         if (headLength < head.length) {
+            int n = Math.min(len, head.length - headLength);
+            System.arraycopy(b, off, head, headLength, n);
+            headLength += n;
+            off += n;
+            len -= n;
+            if (headLength == head.length) {
+               wire(header, new ByteArrayInputStream(head));
+            }
+         }
+         if (len > tail.length) {
+            off += len - tail.length;
+            len = tail.length;
+         }
+         while (len > 0) {
+            int n = Math.min(len, tail.length - tailEnd);
+            System.arraycopy(b, off, tail, tailEnd, n);
+            tailEnd = (tailEnd + n) % tail.length;
+            tailLength = Math.min(tail.length, tailLength + n);
+            off += n;
+            len -= n;
+         }
+      }
+
+      private void finish() {
+         if (finished) {
+            return;
+         }
+         finished = true;
+         if (headLength < head.length) {
+            wire(header, new ByteArrayInputStream(head, 0, headLength));
+         }
+         long skipped = count - headLength - tailLength;
+         if (skipped > 0) {
+            wireSkipped(header, skipped);
+         }
+         if (tailLength > 0) {
+            byte[] ordered = new byte[tailLength];
+            int start = (tailEnd - tailLength + tail.length) % tail.length;
+            int first = Math.min(tailLength, tail.length - start);
+            System.arraycopy(tail, start, ordered, 0, first);
+            System.arraycopy(tail, 0, ordered, first, tailLength - first);
+            wire(header, new ByteArrayInputStream(ordered));
+         }
+      }
+   }
+
 }
@@ -19,13 +19,22 @@ package org.jclouds.rest.internal;
 import static com.google.common.base.Objects.equal;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Throwables.propagate;
+import static com.google.common.util.concurrent.Futures.addCallback;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.withTimeout;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
 
 import jakarta.annotation.Resource;
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 
+import org.jclouds.Constants;
+import org.jclouds.http.AsyncHttpCommandExecutorService;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
@@ -35,11 +44,15 @@ import org.jclouds.reflect.Invocation;
 import org.jclouds.rest.InvocationContext;
 import org.jclouds.rest.config.InvocationConfig;
 
+import com.google.common.annotations.Beta;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.TimeLimiter;
 
 public class InvokeHttpMethod implements Function<Invocation, Object> {
@@ -53,6 +66,11 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
    private final Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest;
    private final InvocationConfig config;
 
+   @com.google.inject.Inject(optional = true)
+   @Named(Constants.PROPERTY_SCHEDULER_THREADS)
+   @VisibleForTesting
+   ScheduledExecutorService scheduler;
+
    @Inject
    @VisibleForTesting
    InvokeHttpMethod(Function<Invocation, HttpRequest> annotationProcessor,
@@ -98,6 +116,67 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
       }
    }
 
+   /**
+    * Asynchronous variant of {@link #invoke(Invocation)}. When the bound {@link HttpCommandExecutorService} is an
+    * {@link AsyncHttpCommandExecutorService}, no thread is held while the request is in flight; the response is
+    * parsed and the fallback applied on the thread that completes the exchange.
+    * <p>
+    * A timeout configured for the invocation fails the future with a {@link java.util.concurrent.TimeoutException}
+    * and cancels the request. Timing out needs the scheduler; without one the invocation blocks the calling thread
+    * through {@link #invokeWithTimeout} instead.
+    */
+   @Beta
+   public ListenableFuture<Object> invokeAsync(Invocation invocation) {
+      Optional<Long> timeoutNanos = config.getTimeoutNanos(invocation);
+      if (timeoutNanos.isPresent() && scheduler == null) {
+         try {
+            return immediateFuture(invokeWithTimeout(invocation, timeoutNanos.get()));
+         } catch (Throwable t) {
+            return immediateFailedFuture(t);
+         }
+      }
+      String commandName = config.getCommandName(invocation);
+      HttpCommand command = toCommand(commandName, invocation);
+      final Function<HttpResponse, ?> transformer = getTransformer(commandName, command);
+      final org.jclouds.Fallback<?> fallback = getFallback(commandName, invocation, command);
+
+      logger.debug(">> invoking %s asynchronously", commandName);
+      ListenableFuture<HttpResponse> response;
+      if (http instanceof AsyncHttpCommandExecutorService) {
+         response = AsyncHttpCommandExecutorService.class.cast(http).invokeAsync(command);
+      } else {
+         try {
+            response = immediateFuture(http.invoke(command));
+         } catch (Throwable t) {
+            response = immediateFailedFuture(t);
+         }
+      }
+      if (timeoutNanos.isPresent()) {
+         response = withTimeout(response, timeoutNanos.get(), NANOSECONDS, scheduler);
+      }
+      final SettableFuture<Object> result = SettableFuture.create();
+      addCallback(response, new FutureCallback<HttpResponse>() {
+         @Override
+         public void onSuccess(HttpResponse response) {
+            try {
+               result.set(transformer.apply(response));
+            } catch (Throwable t) {
+               onFailure(t);
+            }
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            try {
+               result.set(fallback.createOrPropagate(t));
+            } catch (Throwable e) {
+               result.setException(e);
+            }
+         }
+      }, directExecutor());
+      return result;
+   }
+
    /**
     * calls {@link #invoke(Invocation)}, timing out after the specified time
     * limit. If the target method call finished before the limit is reached, the
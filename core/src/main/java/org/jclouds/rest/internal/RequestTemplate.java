@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static org.jclouds.http.HttpUtils.tryFindHttpMethod;
+import static org.jclouds.reflect.Reflection2.getInvokableParameters;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.ws.rs.Encoded;
+import jakarta.ws.rs.FormParam;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.options.HttpRequestOptions;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.annotations.BinderParam;
+import org.jclouds.rest.annotations.Endpoint;
+import org.jclouds.rest.annotations.EndpointParam;
+import org.jclouds.rest.annotations.FormParams;
+import org.jclouds.rest.annotations.Headers;
+import org.jclouds.rest.annotations.MapBinder;
+import org.jclouds.rest.annotations.OverrideRequestFilters;
+import org.jclouds.rest.annotations.PartParam;
+import org.jclouds.rest.annotations.PayloadParam;
+import org.jclouds.rest.annotations.PayloadParams;
+import org.jclouds.rest.annotations.QueryParams;
+import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.SkipEncoding;
+import org.jclouds.rest.annotations.VirtualHost;
+import org.jclouds.rest.annotations.WrapWith;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Chars;
+import com.google.common.reflect.Invokable;
+import com.google.common.reflect.Parameter;
+
+/**
+ * The annotation metadata {@link RestAnnotationProcessor} needs to build a request for a given {@link Invokable},
+ * resolved once and reused for every invocation of that method.
+ * <p>
+ * Nothing in here depends on the injector or on the invocation arguments: filters and binders are kept as classes
+ * and instantiated per request, so scoping of those bindings is unchanged.
+ */
+final class RequestTemplate {
+
+   private static final LoadingCache<Invokable<?, ?>, RequestTemplate> templates = CacheBuilder.newBuilder().build(
+         new CacheLoader<Invokable<?, ?>, RequestTemplate>() {
+            @Override
+            public RequestTemplate load(Invokable<?, ?> invokable) {
+               return new RequestTemplate(invokable);
+            }
+         });
+
+   static RequestTemplate of(Invokable<?, ?> invokable) {
+      return templates.getUnchecked(invokable);
+   }
+
+   final Optional<String> httpMethod;
+   final int parameterCount;
+
+   @Nullable final String ownerPath;
+   @Nullable final String methodPath;
+   @Nullable final List<Character> ownerSkipEncoding;
+   @Nullable final List<Character> methodSkipEncoding;
+   final boolean encodeFullPath;
+   final boolean virtualHost;
+
+   @Nullable final Endpoint endpoint;
+   @Nullable final Parameter endpointParam;
+   final int endpointParamCount;
+
+   final List<Class<? extends HttpRequestFilter>> ownerFilters;
+   final List<Class<? extends HttpRequestFilter>> methodFilters;
+   final boolean overrideRequestFilters;
+
+   @Nullable final FormParams ownerFormParams;
+   @Nullable final FormParams methodFormParams;
+   @Nullable final QueryParams ownerQueryParams;
+   @Nullable final QueryParams methodQueryParams;
+   @Nullable final Headers ownerHeaders;
+   @Nullable final Headers methodHeaders;
+   @Nullable final Produces ownerProduces;
+   @Nullable final Produces methodProduces;
+   @Nullable final PayloadParams payloadParams;
+   @Nullable final MapBinder mapBinder;
+   final boolean payloadAnnotated;
+   @Nullable final WrapWith wrapWith;
+
+   final List<Parameter> pathParams;
+   final List<Parameter> formParams;
+   final List<Parameter> queryParams;
+   final List<Parameter> headerParams;
+   final List<Parameter> partParams;
+   final List<Parameter> payloadParamValues;
+   final Set<Parameter> binderOrWrapWithParams;
+   final Set<Integer> indexesOfOptions;
+
+   private RequestTemplate(Invokable<?, ?> invokable) {
+      Class<?> owner = invokable.getOwnerType().getRawType();
+      List<Parameter> parameters = getInvokableParameters(invokable);
+
+      this.httpMethod = tryFindHttpMethod(invokable);
+      this.parameterCount = parameters.size();
+
+      this.ownerPath = owner.isAnnotationPresent(Path.class) ? owner.getAnnotation(Path.class).value() : null;
+      this.methodPath = invokable.isAnnotationPresent(Path.class) ? invokable.getAnnotation(Path.class).value() : null;
+      this.ownerSkipEncoding = owner.isAnnotationPresent(SkipEncoding.class) ? ImmutableList.copyOf(Chars
+            .asList(owner.getAnnotation(SkipEncoding.class).value())) : null;
+      this.methodSkipEncoding = invokable.isAnnotationPresent(SkipEncoding.class) ? ImmutableList.copyOf(Chars
+            .asList(invokable.getAnnotation(SkipEncoding.class).value())) : null;
+      this.encodeFullPath = withAnnotation(parameters, Encoded.class).isEmpty();
+      this.virtualHost = owner.isAnnotationPresent(VirtualHost.class) || invokable.isAnnotationPresent(VirtualHost.class);
+
+      if (invokable.isAnnotationPresent(Endpoint.class))
+         this.endpoint = invokable.getAnnotation(Endpoint.class);
+      else
+         this.endpoint = owner.getAnnotation(Endpoint.class);
+      List<Parameter> endpointParams = withAnnotation(parameters, EndpointParam.class);
+      this.endpointParamCount = endpointParams.size();
+      this.endpointParam = endpointParams.isEmpty() ? null : endpointParams.get(0);
+
+      this.ownerFilters = owner.isAnnotationPresent(RequestFilters.class) ? ImmutableList.copyOf(owner.getAnnotation(
+            RequestFilters.class).value()) : ImmutableList.<Class<? extends HttpRequestFilter>> of();
+      this.methodFilters = invokable.isAnnotationPresent(RequestFilters.class) ? ImmutableList.copyOf(invokable
+            .getAnnotation(RequestFilters.class).value()) : ImmutableList.<Class<? extends HttpRequestFilter>> of();
+      this.overrideRequestFilters = invokable.isAnnotationPresent(RequestFilters.class)
+            && invokable.isAnnotationPresent(OverrideRequestFilters.class);
+
+      this.ownerFormParams = owner.getAnnotation(FormParams.class);
+      this.methodFormParams = invokable.getAnnotation(FormParams.class);
+      this.ownerQueryParams = owner.getAnnotation(QueryParams.class);
+      this.methodQueryParams = invokable.getAnnotation(QueryParams.class);
+      this.ownerHeaders = owner.getAnnotation(Headers.class);
+      this.methodHeaders = invokable.getAnnotation(Headers.class);
+      this.ownerProduces = owner.getAnnotation(Produces.class);
+      this.methodProduces = invokable.getAnnotation(Produces.class);
+      this.payloadParams = invokable.getAnnotation(PayloadParams.class);
+      this.mapBinder = invokable.getAnnotation(MapBinder.class);
+      this.payloadAnnotated = invokable.isAnnotationPresent(org.jclouds.rest.annotations.Payload.class);
+      this.wrapWith = invokable.getAnnotation(WrapWith.class);
+
+      this.pathParams = withAnnotation(parameters, PathParam.class);
+      this.formParams = withAnnotation(parameters, FormParam.class);
+      this.queryParams = withAnnotation(parameters, QueryParam.class);
+      this.headerParams = withAnnotation(parameters, HeaderParam.class);
+      this.partParams = withAnnotation(parameters, PartParam.class);
+      this.payloadParamValues = withAnnotation(parameters, PayloadParam.class);
+      this.binderOrWrapWithParams = ImmutableSet.<Parameter> builder()
+            .addAll(withAnnotation(parameters, BinderParam.class))
+            .addAll(withAnnotation(parameters, WrapWith.class)).build();
+
+      ImmutableSet.Builder<Integer> options = ImmutableSet.builder();
+      for (Parameter param : parameters) {
+         Class<?> type = param.getType().getRawType();
+         if (HttpRequestOptions.class.isAssignableFrom(type) || HttpRequestOptions[].class.isAssignableFrom(type))
+            options.add(param.hashCode());
+      }
+      this.indexesOfOptions = options.build();
+   }
+
+   private static List<Parameter> withAnnotation(List<Parameter> parameters,
+         Class<? extends Annotation> annotationType) {
+      ImmutableList.Builder<Parameter> result = ImmutableList.builder();
+      for (Parameter param : parameters) {
+         if (param.isAnnotationPresent(annotationType))
+            result.add(param);
+      }
+      return result.build();
+   }
+}
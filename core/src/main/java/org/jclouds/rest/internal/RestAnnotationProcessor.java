@@ -21,7 +21,6 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Predicates.instanceOf;
-import static com.google.common.collect.Collections2.filter;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.get;
 import static com.google.common.collect.Iterables.transform;
@@ -35,18 +34,15 @@ import static com.google.common.net.HttpHeaders.HOST;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
 import static org.jclouds.http.HttpUtils.filterOutContentHeaders;
-import static org.jclouds.http.HttpUtils.tryFindHttpMethod;
 import static org.jclouds.http.Uris.uriBuilder;
 import static org.jclouds.io.Payloads.newPayload;
 import static org.jclouds.reflect.Reflection2.getInvokableParameters;
 import static org.jclouds.util.Strings2.replaceTokens;
 import static org.jclouds.util.Strings2.urlEncode;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -59,9 +55,7 @@ import jakarta.inject.Named;
 import jakarta.ws.rs.Encoded;
 import jakarta.ws.rs.FormParam;
 import jakarta.ws.rs.HeaderParam;
-import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
-import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 
 import org.jclouds.Constants;
@@ -94,16 +88,11 @@ import org.jclouds.rest.annotations.Endpoint;
 import org.jclouds.rest.annotations.EndpointParam;
 import org.jclouds.rest.annotations.FormParams;
 import org.jclouds.rest.annotations.Headers;
-import org.jclouds.rest.annotations.MapBinder;
-import org.jclouds.rest.annotations.OverrideRequestFilters;
 import org.jclouds.rest.annotations.ParamParser;
 import org.jclouds.rest.annotations.PartParam;
 import org.jclouds.rest.annotations.PayloadParam;
 import org.jclouds.rest.annotations.PayloadParams;
 import org.jclouds.rest.annotations.QueryParams;
-import org.jclouds.rest.annotations.RequestFilters;
-import org.jclouds.rest.annotations.SkipEncoding;
-import org.jclouds.rest.annotations.VirtualHost;
 import org.jclouds.rest.annotations.WrapWith;
 import org.jclouds.rest.binders.BindMapToStringPayload;
 import org.jclouds.rest.binders.BindToJsonPayloadWrappedWith;
@@ -112,21 +101,15 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableSet.Builder;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
-import com.google.common.primitives.Chars;
 import com.google.common.reflect.Invokable;
 import com.google.common.reflect.Parameter;
 import com.google.inject.Inject;
@@ -191,6 +174,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
    public GeneratedHttpRequest apply(Invocation invocation) {
       checkNotNull(invocation, "invocation");
       inputParamValidator.validateMethodParametersOrThrow(invocation, getInvokableParameters(invocation.getInvokable()));
+      RequestTemplate template = RequestTemplate.of(invocation.getInvokable());
 
       Optional<URI> endpoint = Optional.absent();
       HttpRequest r = findOrNull(invocation.getArgs(), HttpRequest.class);
@@ -224,11 +208,11 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
          requestMethod = r.getMethod();
          requestBuilder.fromHttpRequest(r);
       } else {
-         requestMethod = tryFindHttpMethod(invocation.getInvokable()).get();
+         requestMethod = template.httpMethod.get();
          requestBuilder.method(requestMethod);
       }
 
-      requestBuilder.filters(getFiltersIfAnnotated(invocation));
+      requestBuilder.filters(getFiltersIfAnnotated(invocation, template));
       if (stripExpectHeader) {
          requestBuilder.filter(new StripExpectHeader());
       }
@@ -244,34 +228,35 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       // URI template in rfc6570 form
       UriBuilder uriBuilder = uriBuilder(endpoint.get().toString());
 
-      overridePathEncoding(uriBuilder, invocation);
+      overridePathEncoding(uriBuilder, template);
 
-      boolean encodeFullPath = !isEncodedUsed(invocation);
+      boolean encodeFullPath = template.encodeFullPath;
+      RequestTemplate callerTemplate = caller != null ? RequestTemplate.of(caller.getInvokable()) : null;
       if (caller != null)
-         tokenValues.putAll(addPathAndGetTokens(caller, uriBuilder, encodeFullPath));
-      tokenValues.putAll(addPathAndGetTokens(invocation, uriBuilder, encodeFullPath));
+         tokenValues.putAll(addPathAndGetTokens(caller, callerTemplate, uriBuilder, encodeFullPath));
+      tokenValues.putAll(addPathAndGetTokens(invocation, template, uriBuilder, encodeFullPath));
       Multimap<String, Object> formParams;
       if (caller != null) {
-         formParams = addFormParams(tokenValues, caller);
-         formParams.putAll(addFormParams(tokenValues, invocation));
+         formParams = addFormParams(tokenValues, caller, callerTemplate);
+         formParams.putAll(addFormParams(tokenValues, invocation, template));
       } else {
-         formParams = addFormParams(tokenValues, invocation);
+         formParams = addFormParams(tokenValues, invocation, template);
       }
 
-      Multimap<String, Object> queryParams = addQueryParams(tokenValues, invocation);
+      Multimap<String, Object> queryParams = addQueryParams(tokenValues, invocation, template);
 
       Multimap<String, String> headers;
       if (caller != null) {
-         headers = buildHeaders(tokenValues, caller);
-         headers.putAll(buildHeaders(tokenValues, invocation));
+         headers = buildHeaders(tokenValues, caller, callerTemplate);
+         headers.putAll(buildHeaders(tokenValues, invocation, template));
       } else {
-         headers = buildHeaders(tokenValues, invocation);
+         headers = buildHeaders(tokenValues, invocation, template);
       }
 
       if (r != null)
          headers.putAll(r.getHeaders());
 
-      if (shouldAddHostHeader(invocation)) {
+      if (template.virtualHost) {
          StringBuilder hostHeader = new StringBuilder(endpoint.get().getHost());
          if (endpoint.get().getPort() != -1)
             hostHeader.append(":").append(endpoint.get().getPort());
@@ -279,7 +264,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
 
       Payload payload = null;
-      for (HttpRequestOptions options : findOptionsIn(invocation)) {
+      for (HttpRequestOptions options : findOptionsIn(invocation, template)) {
          injector.injectMembers(options);  // TODO test case
          for (Entry<String, String> header : options.buildRequestHeaders().entries()) {
             headers.put(header.getKey(), replaceTokens(header.getValue(), tokenValues));
@@ -316,7 +301,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
                Payload.class);
       }
 
-      List<? extends Part> parts = getParts(invocation, ImmutableMultimap.<String, Object> builder()
+      List<? extends Part> parts = getParts(invocation, template, ImmutableMultimap.<String, Object> builder()
             .putAll(tokenValues).putAll(formParams).build());
 
       if (!parts.isEmpty()) {
@@ -336,22 +321,21 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
       GeneratedHttpRequest request = requestBuilder.build();
 
-      org.jclouds.rest.MapBinder mapBinder = getMapPayloadBinderOrNull(invocation);
+      org.jclouds.rest.MapBinder mapBinder = getMapPayloadBinderOrNull(invocation, template);
       if (mapBinder != null) {
          Map<String, Object> mapParams;
          if (caller != null) {
-            mapParams = buildPayloadParams(caller);
-            mapParams.putAll(buildPayloadParams(invocation));
+            mapParams = buildPayloadParams(caller, callerTemplate);
+            mapParams.putAll(buildPayloadParams(invocation, template));
          } else {
-            mapParams = buildPayloadParams(invocation);
+            mapParams = buildPayloadParams(invocation, template);
          }
-         if (invocation.getInvokable().isAnnotationPresent(PayloadParams.class)) {
-            PayloadParams params = invocation.getInvokable().getAnnotation(PayloadParams.class);
-            addMapPayload(mapParams, params, headers, tokenValues);
+         if (template.payloadParams != null) {
+            addMapPayload(mapParams, template.payloadParams, headers, tokenValues);
          }
          request = mapBinder.bindToRequest(request, mapParams);
       } else {
-         request = decorateRequest(request);
+         request = decorateRequest(request, template);
       }
 
       if (request.getPayload() != null) {
@@ -376,13 +360,12 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return ImmutableMap.copyOf(out);
    }
 
-   private void overridePathEncoding(UriBuilder uriBuilder, Invocation invocation) {
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(SkipEncoding.class)) {
-         uriBuilder.skipPathEncoding(Chars.asList(invocation.getInvokable().getOwnerType().getRawType()
-               .getAnnotation(SkipEncoding.class).value()));
+   private static void overridePathEncoding(UriBuilder uriBuilder, RequestTemplate template) {
+      if (template.ownerSkipEncoding != null) {
+         uriBuilder.skipPathEncoding(template.ownerSkipEncoding);
       }
-      if (invocation.getInvokable().isAnnotationPresent(SkipEncoding.class)) {
-         uriBuilder.skipPathEncoding(Chars.asList(invocation.getInvokable().getAnnotation(SkipEncoding.class).value()));
+      if (template.methodSkipEncoding != null) {
+         uriBuilder.skipPathEncoding(template.methodSkipEncoding);
       }
    }
 
@@ -411,46 +394,44 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return endpoint;
    }
 
-   private Multimap<String, Object> addPathAndGetTokens(Invocation invocation, UriBuilder uriBuilder,
-                                                        boolean encodeFullPath) {
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(Path.class))
-         uriBuilder.appendPath(invocation.getInvokable().getOwnerType().getRawType().getAnnotation(Path.class).value());
-      if (invocation.getInvokable().isAnnotationPresent(Path.class))
-         uriBuilder.appendPath(invocation.getInvokable().getAnnotation(Path.class).value());
-      return getPathParamKeyValues(invocation, encodeFullPath);
+   private Multimap<String, Object> addPathAndGetTokens(Invocation invocation, RequestTemplate template,
+                                                        UriBuilder uriBuilder, boolean encodeFullPath) {
+      if (template.ownerPath != null)
+         uriBuilder.appendPath(template.ownerPath);
+      if (template.methodPath != null)
+         uriBuilder.appendPath(template.methodPath);
+      return getPathParamKeyValues(invocation, template, encodeFullPath);
    }
 
-   private Multimap<String, Object> addFormParams(Multimap<String, ?> tokenValues, Invocation invocation) {
+   private Multimap<String, Object> addFormParams(Multimap<String, ?> tokenValues, Invocation invocation,
+         RequestTemplate template) {
       Multimap<String, Object> formMap = LinkedListMultimap.create();
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(FormParams.class)) {
-         FormParams form = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(FormParams.class);
-         addForm(formMap, form, tokenValues);
+      if (template.ownerFormParams != null) {
+         addForm(formMap, template.ownerFormParams, tokenValues);
       }
 
-      if (invocation.getInvokable().isAnnotationPresent(FormParams.class)) {
-         FormParams form = invocation.getInvokable().getAnnotation(FormParams.class);
-         addForm(formMap, form, tokenValues);
+      if (template.methodFormParams != null) {
+         addForm(formMap, template.methodFormParams, tokenValues);
       }
 
-      for (Entry<String, Object> form : getFormParamKeyValues(invocation).entries()) {
+      for (Entry<String, Object> form : getFormParamKeyValues(invocation, template).entries()) {
          formMap.put(form.getKey(), replaceTokens(form.getValue().toString(), tokenValues));
       }
       return formMap;
    }
 
-   private Multimap<String, Object> addQueryParams(Multimap<String, ?> tokenValues, Invocation invocation) {
+   private Multimap<String, Object> addQueryParams(Multimap<String, ?> tokenValues, Invocation invocation,
+         RequestTemplate template) {
       Multimap<String, Object> queryMap = LinkedListMultimap.create();
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(QueryParams.class)) {
-         QueryParams query = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(QueryParams.class);
-         addQuery(queryMap, query, tokenValues);
+      if (template.ownerQueryParams != null) {
+         addQuery(queryMap, template.ownerQueryParams, tokenValues);
       }
 
-      if (invocation.getInvokable().isAnnotationPresent(QueryParams.class)) {
-         QueryParams query = invocation.getInvokable().getAnnotation(QueryParams.class);
-         addQuery(queryMap, query, tokenValues);
+      if (template.methodQueryParams != null) {
+         addQuery(queryMap, template.methodQueryParams, tokenValues);
       }
 
-      for (Entry<String, Object> query : getQueryParamKeyValues(invocation, tokenValues).entries()) {
+      for (Entry<String, Object> query : getQueryParamKeyValues(invocation, template, tokenValues).entries()) {
          queryMap.put(query.getKey(), query.getValue());
       }
       return queryMap;
@@ -490,38 +471,32 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
    }
 
-   private List<HttpRequestFilter> getFiltersIfAnnotated(Invocation invocation) {
+   private List<HttpRequestFilter> getFiltersIfAnnotated(Invocation invocation, RequestTemplate template) {
       List<HttpRequestFilter> filters = newArrayList();
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(RequestFilters.class)) {
-         for (Class<? extends HttpRequestFilter> clazz : invocation.getInvokable().getOwnerType().getRawType()
-               .getAnnotation(RequestFilters.class).value()) {
+      if (!template.overrideRequestFilters) {
+         for (Class<? extends HttpRequestFilter> clazz : template.ownerFilters) {
             HttpRequestFilter instance = injector.getInstance(clazz);
             filters.add(instance);
             logger.trace("adding filter %s from annotation on %s", instance, invocation.getInvokable().getOwnerType()
                   .getRawType().getName());
          }
       }
-      if (invocation.getInvokable().isAnnotationPresent(RequestFilters.class)) {
-         if (invocation.getInvokable().isAnnotationPresent(OverrideRequestFilters.class))
-            filters.clear();
-         for (Class<? extends HttpRequestFilter> clazz : invocation.getInvokable().getAnnotation(RequestFilters.class)
-               .value()) {
-            HttpRequestFilter instance = injector.getInstance(clazz);
-            filters.add(instance);
-            logger.trace("adding filter %s from annotation on %s", instance, invocation.getInvokable().getName());
-         }
+      for (Class<? extends HttpRequestFilter> clazz : template.methodFilters) {
+         HttpRequestFilter instance = injector.getInstance(clazz);
+         filters.add(instance);
+         logger.trace("adding filter %s from annotation on %s", instance, invocation.getInvokable().getName());
       }
       return filters;
    }
 
    @VisibleForTesting
    static URI getEndpointInParametersOrNull(Invocation invocation, Injector injector) {
-      Collection<Parameter> endpointParams = parametersWithAnnotation(invocation.getInvokable(), EndpointParam.class);
-      if (endpointParams.isEmpty())
+      RequestTemplate template = RequestTemplate.of(invocation.getInvokable());
+      if (template.endpointParam == null)
          return null;
-      checkState(endpointParams.size() == 1, "invocation.getInvoked() %s has too many EndpointParam annotations",
+      checkState(template.endpointParamCount == 1, "invocation.getInvoked() %s has too many EndpointParam annotations",
             invocation.getInvokable());
-      Parameter endpointParam = get(endpointParams, 0);
+      Parameter endpointParam = template.endpointParam;
       Function<Object, URI> parser = injector.getInstance(endpointParam.getAnnotation(EndpointParam.class).parser());
       int position = endpointParam.hashCode();  // guava issue 1243
       try {
@@ -535,27 +510,14 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
    }
 
-   private static Collection<Parameter> parametersWithAnnotation(Invokable<?, ?> invokable,
-         final Class<? extends Annotation> annotationType) {
-      return filter(getInvokableParameters(invokable), new Predicate<Parameter>() {
-         public boolean apply(Parameter in) {
-            return in.isAnnotationPresent(annotationType);
-         }
-      });
-   }
-
    private static final TypeLiteral<Supplier<URI>> uriSupplierLiteral = new TypeLiteral<Supplier<URI>>() {
    };
 
    protected Optional<URI> getEndpointFor(Invocation invocation) {
       URI endpoint = getEndpointInParametersOrNull(invocation, injector);
       if (endpoint == null) {
-         Endpoint annotation;
-         if (invocation.getInvokable().isAnnotationPresent(Endpoint.class)) {
-            annotation = invocation.getInvokable().getAnnotation(Endpoint.class);
-         } else if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(Endpoint.class)) {
-            annotation = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(Endpoint.class);
-         } else {
+         Endpoint annotation = RequestTemplate.of(invocation.getInvokable()).endpoint;
+         if (annotation == null) {
             logger.trace("no annotations on class or invocation.getInvoked(): %s", invocation.getInvokable());
             return Optional.absent();
          }
@@ -578,7 +540,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return baseURI.resolve(original);
    }
 
-   private org.jclouds.rest.MapBinder getMapPayloadBinderOrNull(Invocation invocation) {
+   private org.jclouds.rest.MapBinder getMapPayloadBinderOrNull(Invocation invocation, RequestTemplate template) {
       if (invocation.getArgs() != null) {
          for (Object arg : invocation.getArgs()) {
             if (arg instanceof Object[]) {
@@ -604,29 +566,21 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
             }
          }
       }
-      if (invocation.getInvokable().isAnnotationPresent(MapBinder.class)) {
-         return injector.getInstance(invocation.getInvokable().getAnnotation(MapBinder.class).value());
-      } else if (invocation.getInvokable().isAnnotationPresent(org.jclouds.rest.annotations.Payload.class)) {
+      if (template.mapBinder != null) {
+         return injector.getInstance(template.mapBinder.value());
+      } else if (template.payloadAnnotated) {
          return injector.getInstance(BindMapToStringPayload.class);
-      } else if (invocation.getInvokable().isAnnotationPresent(WrapWith.class)) {
-         return injector.getInstance(BindToJsonPayloadWrappedWith.Factory.class).create(
-               invocation.getInvokable().getAnnotation(WrapWith.class).value());
+      } else if (template.wrapWith != null) {
+         return injector.getInstance(BindToJsonPayloadWrappedWith.Factory.class).create(template.wrapWith.value());
       }
       return null;
    }
 
-   private boolean shouldAddHostHeader(Invocation invocation) {
-      return invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(VirtualHost.class) || invocation
-            .getInvokable().isAnnotationPresent(VirtualHost.class);
-   }
-
-   private GeneratedHttpRequest decorateRequest(GeneratedHttpRequest request) throws NegativeArraySizeException {
+   private GeneratedHttpRequest decorateRequest(GeneratedHttpRequest request, RequestTemplate template)
+         throws NegativeArraySizeException {
       Invocation invocation = request.getInvocation();
       List<Object> args = request.getInvocation().getArgs();
-      Set<Parameter> binderOrWrapWith = ImmutableSet.copyOf(concat(
-            parametersWithAnnotation(invocation.getInvokable(), BinderParam.class),
-            parametersWithAnnotation(invocation.getInvokable(), WrapWith.class)));
-      OUTER: for (Parameter entry : binderOrWrapWith) {
+      OUTER: for (Parameter entry : template.binderOrWrapWithParams) {
          int position = entry.hashCode();
          boolean shouldBreak = false;
          Binder binder;
@@ -642,7 +596,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
             if (!argType.isArray() && parameterType.isArray()) {// TODO: &&
                                                                 // invocation.getInvokable().isVarArgs())
                                                                 // {
-               int arrayLength = args.size() - getInvokableParameters(invocation.getInvokable()).size() + 1;
+               int arrayLength = args.size() - template.parameterCount + 1;
                if (arrayLength == 0)
                   break OUTER;
                arg = (Object[]) Array.newInstance(arg.getClass(), arrayLength);
@@ -664,7 +618,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
             if (shouldBreak)
                break OUTER;
          } else {
-            if (position + 1 == getInvokableParameters(invocation.getInvokable()).size() && entry.getType().isArray())// TODO:
+            if (position + 1 == template.parameterCount && entry.getType().isArray())// TODO:
                                                                                                               // &&
                                                                                                               // invocation.getInvokable().isVarArgs())
                continue OUTER;
@@ -678,24 +632,9 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return request;
    }
 
-   private static final LoadingCache<Invokable<?, ?>, Set<Integer>> invokableToIndexesOfOptions = CacheBuilder
-         .newBuilder().build(new CacheLoader<Invokable<?, ?>, Set<Integer>>() {
-            @Override
-            public Set<Integer> load(Invokable<?, ?> invokable) {
-               Builder<Integer> toReturn = ImmutableSet.builder();
-               for (Parameter param : getInvokableParameters(invokable)) {
-                  Class<?> type = param.getType().getRawType();
-                  if (HttpRequestOptions.class.isAssignableFrom(type)
-                        || HttpRequestOptions[].class.isAssignableFrom(type))
-                     toReturn.add(param.hashCode());
-               }
-               return toReturn.build();
-            }
-         });
-
-   private Set<HttpRequestOptions> findOptionsIn(Invocation invocation) {
+   private static Set<HttpRequestOptions> findOptionsIn(Invocation invocation, RequestTemplate template) {
       ImmutableSet.Builder<HttpRequestOptions> result = ImmutableSet.builder();
-      for (int index : invokableToIndexesOfOptions.getUnchecked(invocation.getInvokable())) {
+      for (int index : template.indexesOfOptions) {
          if (invocation.getArgs().size() >= index + 1) {// accommodate
                                                         // varinvocation.getArgs()
             if (invocation.getArgs().get(index) instanceof Object[]) {
@@ -716,16 +655,17 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return result.build();
    }
 
-   private Multimap<String, String> buildHeaders(Multimap<String, ?> tokenValues, Invocation invocation) {
+   private Multimap<String, String> buildHeaders(Multimap<String, ?> tokenValues, Invocation invocation,
+         RequestTemplate template) {
       Multimap<String, String> headers = LinkedHashMultimap.create();
-      addHeaderIfAnnotationPresentOnMethod(headers, invocation, tokenValues);
-      for (Parameter headerParam : parametersWithAnnotation(invocation.getInvokable(), HeaderParam.class)) {
-         Annotation key = headerParam.getAnnotation(HeaderParam.class);
+      addHeaderIfAnnotationPresentOnMethod(headers, template, tokenValues);
+      for (Parameter headerParam : template.headerParams) {
+         HeaderParam key = headerParam.getAnnotation(HeaderParam.class);
          String value = invocation.getArgs().get(headerParam.hashCode()).toString();
          value = replaceTokens(value, tokenValues);
-         headers.put(((HeaderParam) key).value(), value);
+         headers.put(key.value(), value);
       }
-      addProducesIfPresentOnTypeOrMethod(headers, invocation);
+      addProducesIfPresentOnTypeOrMethod(headers, template);
       addConsumesIfPresentOnTypeOrMethod(headers, invocation);
       return headers;
    }
@@ -736,26 +676,23 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
          headers.replaceValues(ACCEPT, accept);
    }
 
-   private void addProducesIfPresentOnTypeOrMethod(Multimap<String, String> headers, Invocation invocation) {
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(Produces.class)) {
-         Produces header = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(Produces.class);
-         headers.replaceValues(CONTENT_TYPE, asList(header.value()));
+   private static void addProducesIfPresentOnTypeOrMethod(Multimap<String, String> headers,
+         RequestTemplate template) {
+      if (template.ownerProduces != null) {
+         headers.replaceValues(CONTENT_TYPE, asList(template.ownerProduces.value()));
       }
-      if (invocation.getInvokable().isAnnotationPresent(Produces.class)) {
-         Produces header = invocation.getInvokable().getAnnotation(Produces.class);
-         headers.replaceValues(CONTENT_TYPE, asList(header.value()));
+      if (template.methodProduces != null) {
+         headers.replaceValues(CONTENT_TYPE, asList(template.methodProduces.value()));
       }
    }
 
-   private void addHeaderIfAnnotationPresentOnMethod(Multimap<String, String> headers, Invocation invocation,
-         Multimap<String, ?> tokenValues) {
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(Headers.class)) {
-         Headers header = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(Headers.class);
-         addHeader(headers, header, tokenValues);
+   private static void addHeaderIfAnnotationPresentOnMethod(Multimap<String, String> headers,
+         RequestTemplate template, Multimap<String, ?> tokenValues) {
+      if (template.ownerHeaders != null) {
+         addHeader(headers, template.ownerHeaders, tokenValues);
       }
-      if (invocation.getInvokable().isAnnotationPresent(Headers.class)) {
-         Headers header = invocation.getInvokable().getAnnotation(Headers.class);
-         addHeader(headers, header, tokenValues);
+      if (template.methodHeaders != null) {
+         addHeader(headers, template.methodHeaders, tokenValues);
       }
    }
 
@@ -770,9 +707,10 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
    }
 
-   private static List<Part> getParts(Invocation invocation, Multimap<String, ?> tokenValues) {
+   private static List<Part> getParts(Invocation invocation, RequestTemplate template,
+         Multimap<String, ?> tokenValues) {
       ImmutableList.Builder<Part> parts = ImmutableList.<Part> builder();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), PartParam.class)) {
+      for (Parameter param : template.partParams) {
          PartParam partParam = param.getAnnotation(PartParam.class);
          PartOptions options = new PartOptions();
          if (!PartParam.NO_CONTENT_TYPE.equals(partParam.contentType()))
@@ -799,13 +737,10 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return request;
    }
 
-   private boolean isEncodedUsed(Invocation invocation) {
-      return !parametersWithAnnotation(invocation.getInvokable(), Encoded.class).isEmpty();
-   }
-
-   private Multimap<String, Object> getPathParamKeyValues(Invocation invocation, boolean encodeFullPath) {
+   private Multimap<String, Object> getPathParamKeyValues(Invocation invocation, RequestTemplate template,
+         boolean encodeFullPath) {
       Multimap<String, Object> pathParamValues = LinkedHashMultimap.create();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), PathParam.class)) {
+      for (Parameter param : template.pathParams) {
          PathParam pathParam = param.getAnnotation(PathParam.class);
          String paramKey = pathParam.value();
          Optional<?> paramValue = getParamValue(invocation, param.getAnnotation(ParamParser.class), param.hashCode(),
@@ -839,9 +774,9 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return true;
    }
 
-   private Multimap<String, Object> getFormParamKeyValues(Invocation invocation) {
+   private Multimap<String, Object> getFormParamKeyValues(Invocation invocation, RequestTemplate template) {
       Multimap<String, Object> formParamValues = LinkedHashMultimap.create();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), FormParam.class)) {
+      for (Parameter param : template.formParams) {
          FormParam formParam = param.getAnnotation(FormParam.class);
          String paramKey = formParam.value();
          Optional<?> paramValue = getParamValue(invocation, param.getAnnotation(ParamParser.class), param.hashCode(),
@@ -852,9 +787,10 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return formParamValues;
    }
 
-   private Multimap<String, Object> getQueryParamKeyValues(Invocation invocation, Multimap<String, ?> tokenValues) {
+   private Multimap<String, Object> getQueryParamKeyValues(Invocation invocation, RequestTemplate template,
+         Multimap<String, ?> tokenValues) {
       Multimap<String, Object> queryParamValues = LinkedHashMultimap.create();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), QueryParam.class)) {
+      for (Parameter param : template.queryParams) {
          QueryParam queryParam = param.getAnnotation(QueryParam.class);
          String paramKey = urlEncode(queryParam.value(), '/', ',');
          Optional<?> paramValue = getParamValue(invocation, param.getAnnotation(ParamParser.class), param.hashCode(),
@@ -877,9 +813,9 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return queryParamValues;
    }
 
-   private Map<String, Object> buildPayloadParams(Invocation invocation) {
+   private Map<String, Object> buildPayloadParams(Invocation invocation, RequestTemplate template) {
       Map<String, Object> payloadParamValues = Maps.newLinkedHashMap();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), PayloadParam.class)) {
+      for (Parameter param : template.payloadParamValues) {
          PayloadParam payloadParam = param.getAnnotation(PayloadParam.class);
          String paramKey = payloadParam.value();
          Optional<?> paramValue = getParamValue(invocation, param.getAnnotation(ParamParser.class), param.hashCode(),
@@ -22,6 +22,7 @@ import static org.testng.Assert.fail;
 import java.util.Date;
 
 import org.jclouds.date.DateCodec;
+import org.jclouds.date.DateService;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
@@ -37,7 +38,7 @@ public class DateServiceDateCodecFactoryTest {
 
    @BeforeTest
    public void setUp() {
-      simpleDateCodecFactory = new DateServiceDateCodecFactory(new SimpleDateFormatDateService());
+      simpleDateCodecFactory = new DateServiceDateCodecFactory(createDateService());
       rfc822Codec = simpleDateCodecFactory.rfc822();
       rfc1123Codec = simpleDateCodecFactory.rfc1123();
       iso8601Codec = simpleDateCodecFactory.iso8601();
@@ -45,6 +46,10 @@ public class DateServiceDateCodecFactoryTest {
       asctimeCodec = simpleDateCodecFactory.asctime();
    }
    
+   protected DateService createDateService() {
+      return new SimpleDateFormatDateService();
+   }
+
    @Test
    public void testCodecForRfc822() {
       Date date = new Date(1000);
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.date.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+
+import org.jclouds.date.DateService;
+import org.jclouds.date.DateServiceTest;
+import org.jclouds.date.config.JavaTimeDateServiceModule;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * Runs the {@link DateServiceTest} suite against {@link JavaTimeDateService} and compares it to
+ * {@link SimpleDateFormatDateService} when many threads sign and parse at once.
+ */
+// NOTE:without testName, this will not call @Before* and fail w/NPE during surefire
+@Test(groups = "performance", singleThreaded = true, timeOut = 2 * 60 * 1000, testName = "JavaTimeDateServiceTest")
+public class JavaTimeDateServiceTest extends DateServiceTest {
+   @Override
+   @BeforeTest
+   protected void createDateService() {
+      Injector i = Guice.createInjector(new JavaTimeDateServiceModule());
+      dateService = i.getInstance(DateService.class);
+      assert dateService instanceof JavaTimeDateService;
+   }
+
+   @Test
+   public void testRfc1123DateFormat() {
+      assertEquals(dateService.rfc1123DateFormat(testData[0].date), "Thu, 12 Mar 2009 02:00:07 +0000");
+   }
+
+   @Test
+   public void testRfc1123DateParse() {
+      assertEquals(dateService.rfc1123DateParse("Thu, 12 Mar 2009 06:00:07 +0400"), testData[0].date);
+      assertEquals(dateService.rfc1123DateParse(testData[0].rfc822DateString), testData[0].date);
+   }
+
+   @Test
+   public void testCorrectHandlingOfMillis() {
+      assertEquals(dateService.iso8601DateParse("2011-11-07T11:19:13.38225Z").getTime(), 1320664753382L);
+      assertEquals(dateService.iso8601DateParse("2009-02-03T05:26:32.612278").getTime(), 1233638792612L);
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testIso8601SecondsDateParseRejectsMillis() {
+      dateService.iso8601SecondsDateParse(testData[0].iso8601DateString);
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testIso8601DateParseRejectsInvalidDate() {
+      dateService.iso8601DateParse("2009-02-30T05:26:32.612Z");
+   }
+
+   @Test
+   public void testFormatNowIsCurrent() {
+      long before = System.currentTimeMillis() / 1000 * 1000;
+      long formatted = dateService.rfc1123DateParse(dateService.rfc1123DateFormat()).getTime();
+      long after = System.currentTimeMillis();
+      assertTrue(formatted >= before && formatted <= after, formatted + " not in [" + before + ", " + after + "]");
+      assertEquals(dateService.rfc822DateFormat(), dateService.rfc822DateFormat(new Date(formatted)),
+            "formatted in a different second");
+   }
+
+   @Test
+   void testSignAndParseUnderContention() throws Throwable {
+      executeMultiThreadedPerformanceTest("SimpleDateFormatDateService sign and parse",
+            signAndParse(new SimpleDateFormatDateService()));
+      executeMultiThreadedPerformanceTest("JavaTimeDateService sign and parse", signAndParse(dateService));
+   }
+
+   private List<Runnable> signAndParse(final DateService service) {
+      List<Runnable> tasks = Lists.newArrayListWithCapacity(testData.length);
+      for (final TestData myData : testData) {
+         tasks.add(new Runnable() {
+            public void run() {
+               for (int i = 0; i < LOOP_COUNT; i++) {
+                  service.rfc1123DateFormat();
+                  service.iso8601SecondsDateFormat(myData.date);
+                  service.rfc822DateParse(myData.rfc822DateString);
+               }
+            }
+         });
+      }
+      return tasks;
+   }
+}
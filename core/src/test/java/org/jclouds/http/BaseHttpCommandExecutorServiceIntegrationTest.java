@@ -32,6 +32,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLDecoder;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.mockwebserver.Dispatcher;
@@ -43,6 +44,7 @@ import okio.Buffer;
 
 import org.jclouds.io.ByteStreams2;
 import org.jclouds.io.Payload;
+import org.jclouds.lifecycle.Closer;
 import org.jclouds.util.Strings2;
 import org.jclouds.utils.TestUtils;
 import org.testng.annotations.BeforeClass;
@@ -54,6 +56,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
+import com.google.inject.Injector;
 
 
 /**
@@ -135,6 +138,46 @@ public abstract class BaseHttpCommandExecutorServiceIntegrationTest extends Base
       }
    }
 
+   @Test
+   public void testInvokeAsyncIsRetriedOnFailure() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setResponseCode(500), new MockResponse().setBody(XML));
+      Injector injector = injector(IntegrationTestClient.class, server.url("/").toString());
+      try {
+         HttpCommandExecutorService http = injector.getInstance(HttpCommandExecutorService.class);
+         assertTrue(http instanceof AsyncHttpCommandExecutorService, http + " should support async invocation");
+         HttpCommand command = new HttpCommand(HttpRequest.builder().method("GET")
+               .endpoint(server.url("/").toString()).build());
+         HttpResponse response = AsyncHttpCommandExecutorService.class.cast(http).invokeAsync(command)
+               .get(10, TimeUnit.SECONDS);
+         assertEquals(Strings2.toStringAndClose(response.getPayload().openStream()), XML);
+         assertEquals(server.getRequestCount(), 2);
+      } finally {
+         injector.getInstance(Closer.class).close();
+         server.shutdown();
+      }
+   }
+
+   @Test
+   public void testInvokeAsyncReportsFailureThroughFuture() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setResponseCode(404));
+      Injector injector = injector(IntegrationTestClient.class, server.url("/").toString());
+      try {
+         HttpCommand command = new HttpCommand(HttpRequest.builder().method("GET")
+               .endpoint(server.url("/").toString()).build());
+         try {
+            AsyncHttpCommandExecutorService.class.cast(injector.getInstance(HttpCommandExecutorService.class))
+                  .invokeAsync(command).get(10, TimeUnit.SECONDS);
+            fail("expected failure");
+         } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof HttpResponseException, e.getCause().toString());
+            assertEquals(((HttpResponseException) e.getCause()).getResponse().getStatusCode(), 404);
+         }
+      } finally {
+         injector.getInstance(Closer.class).close();
+         server.shutdown();
+      }
+   }
+
    @Test
    public void testGetStringViaRequest() throws Exception {
       MockWebServer server = mockWebServer(new MockResponse().setBody(XML));
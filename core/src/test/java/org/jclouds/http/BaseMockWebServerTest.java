@@ -38,6 +38,7 @@ import org.jclouds.providers.AnonymousProviderMetadata;
 import org.testng.annotations.BeforeClass;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.inject.Injector;
 import com.google.inject.Module;
 
 
@@ -107,6 +108,18 @@ public abstract class BaseMockWebServerTest {
             .modules(ImmutableSet.copyOf(connectionModules)).overrides(properties).buildApi(apiClass);
    }
 
+   /**
+    * Creates the injector of a test api for the given class and URL.
+    */
+   protected Injector injector(Class<? extends Closeable> apiClass, String url) {
+      Properties properties = new Properties();
+      properties.setProperty(PROPERTY_TRUST_ALL_CERTS, "true");
+      properties.setProperty(PROPERTY_RELAX_HOSTNAME, "true");
+      addOverrideProperties(properties);
+      return ContextBuilder.newBuilder(AnonymousProviderMetadata.forApiOnEndpoint(apiClass, url))
+            .modules(ImmutableSet.of(createConnectionModule())).overrides(properties).buildInjector();
+   }
+
    protected SSLSocketFactory sslSocketFactory() {
       return serverCertificates.sslSocketFactory();
    }
@@ -21,6 +21,12 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
 
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
@@ -46,6 +52,29 @@ public class ParseSaxTest extends BaseHandlerTest {
       return factory.create(injector.getInstance(TestHandler.class));
    }
    
+   @Test
+   public void testParserIsReusedAfterParse() throws Exception {
+      SaxParserPool pool = new SaxParserPool(injector.getInstance(SAXParserFactory.class), 1);
+      new ParseSax<String>(pool, new TestHandler()).parse("<a/>");
+      SAXParser parser = pool.acquire();
+      pool.release(parser);
+      new ParseSax<String>(pool, new TestHandler()).parse("<b/>");
+      assertSame(pool.acquire(), parser);
+   }
+
+   @Test
+   public void testParserIsDroppedAfterFailedParse() throws Exception {
+      SaxParserPool pool = new SaxParserPool(injector.getInstance(SAXParserFactory.class), 1);
+      SAXParser parser = pool.acquire();
+      pool.release(parser);
+      try {
+         new ParseSax<String>(pool, new TestHandler()).parse("<a>");
+         fail();
+      } catch (RuntimeException e) {
+      }
+      assertNotSame(pool.acquire(), parser);
+   }
+
    @Test
    public void testAddDetailsAndPropagateOkWhenRequestWithNoDataAndRuntimeExceptionThrowsOriginalException() {
 
@@ -16,6 +16,7 @@
  */
 package org.jclouds.http.handlers;
 
+import static com.google.common.net.HttpHeaders.RETRY_AFTER;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.jclouds.reflect.Reflection2.method;
 import static org.testng.Assert.assertEquals;
@@ -111,6 +112,40 @@ public class BackoffLimitedRetryHandlerTest {
       assertThat(elapsedTime).isBetween(period, period + acceptableDelay);
    }
 
+   @Test
+   void testRetryDelayIsDecorrelatedJitter() throws SecurityException, NoSuchMethodException {
+      HttpCommand command = createCommand();
+      HttpResponse response = HttpResponse.builder().statusCode(500).build();
+
+      long previous = 50;
+      for (int i = 0; i < 5; i++) {
+         long startTime = System.nanoTime();
+         assertEquals(handler.shouldRetryRequest(command, response), true);
+         // the handler leaves the wait to the executor
+         assertThat((System.nanoTime() - startTime) / 1000000).isLessThan(50);
+         long delay = command.takeRetryDelay();
+         assertThat(delay).isBetween(50L, Math.min(500, previous * 3));
+         previous = delay;
+      }
+   }
+
+   @Test
+   void testRetryAfterIsHonored() throws SecurityException, NoSuchMethodException {
+      HttpCommand command = createCommand();
+      HttpResponse response = HttpResponse.builder().statusCode(503).addHeader(RETRY_AFTER, "2").build();
+
+      assertEquals(handler.shouldRetryRequest(command, response), true);
+      assertEquals(command.takeRetryDelay(), 2000);
+   }
+
+   @Test
+   void testDoesNotRetryWhenRetryAfterIsTooLong() throws SecurityException, NoSuchMethodException {
+      HttpCommand command = createCommand();
+      HttpResponse response = HttpResponse.builder().statusCode(503).addHeader(RETRY_AFTER, "3600").build();
+
+      assertEquals(handler.shouldRetryRequest(command, response), false);
+   }
+
    @Test
    void testInputStreamIsNotClosed() throws SecurityException, NoSuchMethodException, IOException {
       HttpCommand command = createCommand();
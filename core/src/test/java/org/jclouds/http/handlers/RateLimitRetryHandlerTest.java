@@ -17,6 +17,7 @@
 package org.jclouds.http.handlers;
 
 import static com.google.common.net.HttpHeaders.RETRY_AFTER;
+import static org.jclouds.Constants.PROPERTY_RETRY_BUDGET;
 import static org.jclouds.http.HttpUtils.releasePayload;
 import static org.jclouds.io.Payloads.newInputStreamPayload;
 import static org.testng.Assert.assertEquals;
@@ -24,7 +25,6 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
-import java.util.concurrent.TimeUnit;
 
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpRequest;
@@ -33,7 +33,10 @@ import org.jclouds.io.Payload;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Optional;
-import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.name.Names;
 
 @Test(groups = "unit", testName = "RateLimitRetryHandlerTest")
 public class RateLimitRetryHandlerTest {
@@ -42,14 +45,16 @@ public class RateLimitRetryHandlerTest {
    // stuck
    private static final long TEST_SAFE_TIMEOUT = 60000;
 
-   private final RateLimitRetryHandler rateLimitRetryHandler = new RateLimitRetryHandler() {
+   private final RateLimitRetryHandler rateLimitRetryHandler = new RetryAfterRateLimitRetryHandler();
+
+   static class RetryAfterRateLimitRetryHandler extends RateLimitRetryHandler {
       @Override
       protected Optional<Long> millisToNextAvailableRequest(HttpCommand command, HttpResponse response) {
          String secondsToNextAvailableRequest = response.getFirstHeaderOrNull(RETRY_AFTER);
          return secondsToNextAvailableRequest != null ? Optional.of(Long.valueOf(secondsToNextAvailableRequest) * 1000)
                : Optional.<Long> absent();
       }
-   };
+   }
 
    @Test(timeOut = TEST_SAFE_TIMEOUT)
    public void testDoNotRetryIfNoRateLimit() {
@@ -98,30 +103,35 @@ public class RateLimitRetryHandlerTest {
       long start = System.currentTimeMillis();
 
       assertTrue(rateLimitRetryHandler.shouldRetryRequest(command, response));
-      // Should have blocked the amount of time configured in the header. Use a
-      // smaller value to compensate the time it takes to reach the code that
-      // computes the amount of time to wait.
-      assertTrue(System.currentTimeMillis() - start > 2500);
+      // The wait configured in the header is left to the executor instead of blocking here
+      assertTrue(System.currentTimeMillis() - start < 2500);
+      assertEquals(command.takeRetryDelay(), 5000);
+      assertEquals(command.takeRetryDelay(), 0);
    }
 
    @Test(timeOut = TEST_SAFE_TIMEOUT)
-   public void testDoNotRetryIfRequestIsAborted() throws Exception {
-      final HttpCommand command = new HttpCommand(HttpRequest.builder().method("GET").endpoint("http://localhost")
-            .build());
-      final HttpResponse response = HttpResponse.builder().statusCode(429).addHeader(RETRY_AFTER, "10").build();
-
-      final Thread requestThread = Thread.currentThread();
-      Thread killer = new Thread() {
+   public void testDoNotRetryWhenBudgetIsExhausted() {
+      Injector injector = Guice.createInjector(new AbstractModule() {
          @Override
-         public void run() {
-            Uninterruptibles.sleepUninterruptibly(2, TimeUnit.SECONDS);
-            requestThread.interrupt();
+         protected void configure() {
+            bindConstant().annotatedWith(Names.named(PROPERTY_RETRY_BUDGET)).to(RetryBudget.RETRY_COST);
          }
-      };
+      });
+      RateLimitRetryHandler handler = injector.getInstance(RetryAfterRateLimitRetryHandler.class);
+      HttpResponse response = HttpResponse.builder().statusCode(429).addHeader(RETRY_AFTER, "0").build();
 
-      // Start the killer thread that will abort the rate limit wait
-      killer.start();
-      assertFalse(rateLimitRetryHandler.shouldRetryRequest(command, response));
+      assertTrue(handler.shouldRetryRequest(
+            new HttpCommand(HttpRequest.builder().method("GET").endpoint("http://localhost").build()), response));
+      assertFalse(handler.shouldRetryRequest(
+            new HttpCommand(HttpRequest.builder().method("GET").endpoint("http://localhost").build()), response));
+      // other endpoints have their own budget
+      assertTrue(handler.shouldRetryRequest(
+            new HttpCommand(HttpRequest.builder().method("GET").endpoint("http://otherhost").build()), response));
+
+      RetryBudget budget = injector.getInstance(RetryBudget.class);
+      assertEquals(budget.getRetryCount(), 2);
+      assertEquals(budget.getThrottleCount(), 3);
+      assertEquals(budget.getDeniedCount(), 1);
    }
 
    @Test(timeOut = TEST_SAFE_TIMEOUT)
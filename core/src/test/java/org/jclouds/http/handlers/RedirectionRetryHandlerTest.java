@@ -18,6 +18,7 @@ package org.jclouds.http.handlers;
 
 import static com.google.common.net.HttpHeaders.HOST;
 import static com.google.common.net.HttpHeaders.LOCATION;
+import static org.easymock.EasyMock.anyLong;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
@@ -166,6 +167,32 @@ public class RedirectionRetryHandlerTest {
                           .addHeader(HOST, "services1.enterprisecloud.terremark.com").build());
    }
 
+   @Test
+   public void test302ToSameEndpointDelaysWithoutSleeping() {
+      HttpRequest request = HttpRequest.builder()
+                                       .method("GET")
+                                       .endpoint("http://services.enterprisecloud.terremark.com/api/v0.8b-ext2.5/org/1906645").build();
+      HttpResponse response = HttpResponse.builder()
+                                          .statusCode(302)
+                                          .message("HTTP/1.1 302 Found")
+                                          .addHeader(LOCATION, request.getEndpoint().toString()).build();
+
+      HttpCommand command = createMock(HttpCommand.class);
+
+      expect(command.isReplayable()).andReturn(true);
+      expect(command.incrementRedirectCount()).andReturn(1);
+      expect(command.getCurrentRequest()).andReturn(request);
+      expect(command.getRedirectCount()).andReturn(1);
+      command.setRetryDelay(anyLong());
+
+      replay(command);
+
+      RedirectionRetryHandler retry = injector.getInstance(RedirectionRetryHandler.class);
+
+      assert retry.shouldRetryRequest(command, response);
+      verify(command);
+   }
+
    protected void verifyRedirectRoutes(HttpRequest request, HttpResponse response, HttpRequest expected) {
       HttpCommand command = createMock(HttpCommand.class);
 
@@ -21,6 +21,7 @@ import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.getCurrentArguments;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
 import static org.jclouds.http.HttpUtils.closeClientButKeepContentStream;
 import static org.jclouds.http.HttpUtils.releasePayload;
@@ -32,6 +33,7 @@ import static org.testng.Assert.fail;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.ExecutionException;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
@@ -43,6 +45,7 @@ import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpRequestFilter;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.http.HttpUtils;
 import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.http.handlers.DelegatingErrorHandler;
@@ -51,6 +54,7 @@ import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.rest.internal.BaseHttpApiMetadata;
 import org.testng.annotations.Test;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
@@ -236,6 +240,137 @@ public class BaseHttpCommandExecutorServiceTest {
       verify(ioRetryHandler);
    }
 
+   public void testRetryDelayIsAwaitedBeforeNextAttempt() throws IOException {
+      IOException error = new IOException("test exception");
+      HttpCommand command = failingCommand(error);
+
+      IOExceptionRetryHandler ioRetryHandler = EasyMock.createMock(IOExceptionRetryHandler.class);
+      expect(ioRetryHandler.shouldRetryRequest(command, error)).andAnswer(retryAfter(command, 200));
+      expect(ioRetryHandler.shouldRetryRequest(command, error)).andReturn(false);
+      replay(ioRetryHandler);
+
+      BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(ioRetryHandler);
+      long start = System.nanoTime();
+      try {
+         service.invoke(command);
+         fail("Expected to fail due to throwing filter");
+      } catch (HttpResponseException expected) {
+      }
+      assertTrue(NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+
+      verify(ioRetryHandler);
+   }
+
+   public void testDoNotRetryIfInterruptedWhileAwaitingRetryDelay() throws IOException {
+      IOException error = new IOException("test exception");
+      HttpCommand command = failingCommand(error);
+
+      IOExceptionRetryHandler ioRetryHandler = EasyMock.createMock(IOExceptionRetryHandler.class);
+      expect(ioRetryHandler.shouldRetryRequest(command, error)).andAnswer(retryAfter(command, 10000));
+      replay(ioRetryHandler);
+
+      BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(ioRetryHandler);
+      final Thread caller = Thread.currentThread();
+      Thread interrupter = new Thread() {
+         @Override
+         public void run() {
+            try {
+               Thread.sleep(200);
+            } catch (InterruptedException e) {
+               return;
+            }
+            caller.interrupt();
+         }
+      };
+      long start = System.nanoTime();
+      interrupter.start();
+      try {
+         service.invoke(command);
+         fail("Expected to fail due to the interrupt");
+      } catch (HttpResponseException expected) {
+         assertTrue(expected.getCause() instanceof InterruptedException, String.valueOf(expected.getCause()));
+         assertTrue(Thread.currentThread().isInterrupted());
+      } finally {
+         interrupter.interrupt();
+         Thread.interrupted();
+      }
+      assertTrue(NANOSECONDS.toMillis(System.nanoTime() - start) < 10000);
+
+      verify(ioRetryHandler);
+   }
+
+   public void testAsyncRetryDelayDoesNotBlockCaller() throws Exception {
+      IOException error = new IOException("test exception");
+      HttpCommand command = failingCommand(error);
+
+      IOExceptionRetryHandler ioRetryHandler = EasyMock.createMock(IOExceptionRetryHandler.class);
+      expect(ioRetryHandler.shouldRetryRequest(command, error)).andAnswer(retryAfter(command, 500));
+      expect(ioRetryHandler.shouldRetryRequest(command, error)).andReturn(false);
+      replay(ioRetryHandler);
+
+      BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(ioRetryHandler);
+      long start = System.nanoTime();
+      ListenableFuture<HttpResponse> response = service.invokeAsync(command);
+      assertTrue(NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+      assertFalse(response.isDone());
+      try {
+         response.get();
+         fail("Expected to fail due to throwing filter");
+      } catch (ExecutionException expected) {
+         assertTrue(expected.getCause() instanceof HttpResponseException);
+      }
+      assertTrue(NANOSECONDS.toMillis(System.nanoTime() - start) >= 500);
+
+      verify(ioRetryHandler);
+   }
+
+   public void testRequestAndResponseAreSampledTogether() throws IOException {
+      HttpWire wire = new HttpWire();
+      BaseHttpCommandExecutorService<?> service = respondingHttpCommandExecutorService(wire);
+      WireTest.BufferLogger wireLog = new WireTest.BufferLogger();
+      wire.wireLog = wireLog;
+      wire.sampleRate = 0.5;
+
+      int sampled = 0;
+      for (int i = 0; i < 40; i++) {
+         wireLog.buff.setLength(0);
+         HttpCommand command = new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method("PUT")
+               .payload("request").build());
+         HttpResponse response = service.invoke(command);
+         releasePayload(response);
+         String logged = wireLog.buff.toString();
+         boolean requestLogged = logged.contains(">> \"request\"");
+         assertEquals(logged.contains("<< \"response\""), requestLogged, logged);
+         assertEquals(command.getWireSampled(), Boolean.valueOf(requestLogged));
+         if (requestLogged) {
+            sampled++;
+         }
+      }
+      // both outcomes occur, failing only with probability 2^-39
+      assertTrue(sampled > 0 && sampled < 40, sampled + " of 40 sampled");
+   }
+
+   private static HttpCommand failingCommand(final IOException error) {
+      HttpRequestFilter throwingFilter = new HttpRequestFilter() {
+         @Override
+         public HttpRequest filter(HttpRequest request) throws HttpException {
+            throw new HttpException(error);
+         }
+      };
+      return new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method("GET").filter(throwingFilter)
+            .build());
+   }
+
+   private static IAnswer<Boolean> retryAfter(final HttpCommand command, final long millis) {
+      return new IAnswer<Boolean>() {
+         @Override
+         public Boolean answer() {
+            command.setRetryDelay(millis);
+            return true;
+         }
+      };
+   }
+
    private HttpCommand mockHttpCommand() {
       return new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method("mock").build());
    }
@@ -268,6 +403,19 @@ public class BaseHttpCommandExecutorServiceTest {
       return injector.getInstance(BaseHttpCommandExecutorService.class);
    }
 
+   private BaseHttpCommandExecutorService<?> respondingHttpCommandExecutorService(final HttpWire wire) {
+      Injector injector = Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            Names.bindProperties(binder(), BaseHttpApiMetadata.defaultProperties());
+            bind(HttpWire.class).toInstance(wire);
+            bind(BaseHttpCommandExecutorService.class).to(RespondingHttpCommandExecutorService.class);
+         }
+      });
+
+      return injector.getInstance(BaseHttpCommandExecutorService.class);
+   }
+
    private static class MockInputStream extends InputStream {
       boolean isOpen = true;
       int count;
@@ -331,4 +479,21 @@ public class BaseHttpCommandExecutorServiceTest {
 
    }
 
+   private static class RespondingHttpCommandExecutorService extends MockHttpCommandExecutorService {
+
+      @Inject
+      RespondingHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
+            DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
+            DelegatingErrorHandler errorHandler, HttpWire wire,
+            @Named(PROPERTY_IDEMPOTENT_METHODS) String idempotentMethods) {
+         super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire, idempotentMethods);
+      }
+
+      @Override
+      protected HttpResponse invoke(Object nativeRequest) throws IOException, InterruptedException {
+         return HttpResponse.builder().statusCode(200).payload("response").build();
+      }
+
+   }
+
 }
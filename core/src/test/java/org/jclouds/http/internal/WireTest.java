@@ -178,4 +178,43 @@ public class WireTest {
       wire.output(request);
       assertEquals(wireLog.buff.toString(), ">> \"foo\"", "Expected payload to be printed in logs");
    }
+
+   public void testStreamingInputLogsHeadAndTail() throws Exception {
+      HttpWire wire = setUp();
+      wire.streaming = true;
+      wire.streamingBytes = 4;
+      InputStream in = wire.input(new ByteArrayInputStream("0123456789abcdef".getBytes()));
+      String compare = Strings2.toStringAndClose(in);
+      assertEquals(compare, "0123456789abcdef");
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(),
+            "<< \"0123\"<< [8 bytes not logged]<< \"cdef\"");
+   }
+
+   public void testStreamingInputShortPayload() throws Exception {
+      HttpWire wire = setUp();
+      wire.streaming = true;
+      InputStream in = wire.input(new ByteArrayInputStream("foo".getBytes()));
+      String compare = Strings2.toStringAndClose(in);
+      assertEquals(compare, "foo");
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), "<< \"foo\"");
+   }
+
+   public void testStreamingOutputBytes() throws Exception {
+      HttpWire wire = setUp();
+      wire.streaming = true;
+      wire.streamingBytes = 2;
+      wire.output("0123456".getBytes());
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(),
+            ">> \"01\">> [3 bytes not logged]>> \"56\"");
+   }
+
+   public void testSampleRate() throws Exception {
+      HttpWire wire = setUp();
+      wire.sampleRate = 0.0;
+      assertEquals(wire.enabled(), true);
+      assertEquals(wire.sample(), false);
+      wire.sampleRate = 1.0;
+      assertEquals(wire.enabled(), true);
+      assertEquals(wire.sample(), true);
+   }
 }
@@ -16,17 +16,24 @@
  */
 package org.jclouds.rest.internal;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isA;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.jclouds.reflect.Reflection2.method;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import jakarta.inject.Named;
 
+import org.jclouds.http.AsyncHttpCommandExecutorService;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
@@ -44,6 +51,7 @@ import com.google.common.base.Functions;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.TimeLimiter;
 
 @Test(groups = "unit", singleThreaded = true)
@@ -130,4 +138,55 @@ public class InvokeHttpMethodTest {
       replay(http, timeLimiter, fallback, config);
       assertEquals(invokeHttpMethod.apply(get), fallbackResponse);
    }
+
+   public void testInvokeAsyncUsesAsyncExecutorWhenAvailable() throws Exception {
+      AsyncHttpCommandExecutorService asyncHttp = createMock(AsyncHttpCommandExecutorService.class);
+      expect(config.getTimeoutNanos(get)).andReturn(Optional.<Long> absent());
+      expect(asyncHttp.invokeAsync(new HttpCommand(getRequest))).andReturn(immediateFuture(response));
+      replay(asyncHttp, http, timeLimiter, fallback, config);
+      InvokeHttpMethod invokeAsync = new InvokeHttpMethod(toRequest, asyncHttp, transformerForRequest, timeLimiter,
+            config);
+      assertEquals(invokeAsync.invokeAsync(get).get(), response);
+      verify(asyncHttp);
+   }
+
+   public void testInvokeAsyncRunsFallbackCreateOrPropagate() throws Exception {
+      IllegalStateException exception = new IllegalStateException();
+      expect(config.getTimeoutNanos(get)).andReturn(Optional.<Long> absent());
+      expect(http.invoke(new HttpCommand(getRequest))).andThrow(exception);
+      expect(fallback.createOrPropagate(exception)).andReturn(fallbackResponse);
+      replay(http, timeLimiter, fallback, config);
+      assertEquals(invokeHttpMethod.invokeAsync(get).get(), fallbackResponse);
+   }
+
+   public void testInvokeAsyncTimesOutOnTheScheduler() throws Exception {
+      AsyncHttpCommandExecutorService asyncHttp = createMock(AsyncHttpCommandExecutorService.class);
+      SettableFuture<HttpResponse> neverCompletes = SettableFuture.create();
+      expect(config.getTimeoutNanos(get)).andReturn(Optional.of(TimeUnit.MILLISECONDS.toNanos(10)));
+      expect(asyncHttp.invokeAsync(new HttpCommand(getRequest))).andReturn(neverCompletes);
+      expect(fallback.createOrPropagate(isA(TimeoutException.class))).andReturn(fallbackResponse);
+      replay(asyncHttp, http, timeLimiter, fallback, config);
+      InvokeHttpMethod invokeAsync = new InvokeHttpMethod(toRequest, asyncHttp, transformerForRequest, timeLimiter,
+            config);
+      ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+      try {
+         invokeAsync.scheduler = scheduler;
+         assertEquals(invokeAsync.invokeAsync(get).get(1, TimeUnit.SECONDS), fallbackResponse);
+         // the request is cancelled by the scheduler thread right after the timeout fires
+         scheduler.shutdown();
+         scheduler.awaitTermination(1, TimeUnit.SECONDS);
+         assertTrue(neverCompletes.isCancelled());
+      } finally {
+         scheduler.shutdownNow();
+      }
+      verify(asyncHttp);
+   }
+
+   public void testInvokeAsyncWithoutSchedulerRunsTimeLimiter() throws Exception {
+      expect(config.getTimeoutNanos(get)).andReturn(Optional.of(250000000L));
+      InvokeAndTransform invoke = invokeHttpMethod.new InvokeAndTransform("ns:get", getCommand);
+      expect(timeLimiter.callWithTimeout(invoke, 250000000, TimeUnit.NANOSECONDS)).andReturn(response);
+      replay(http, timeLimiter, fallback, config);
+      assertEquals(invokeHttpMethod.invokeAsync(get).get(), response);
+   }
 }
@@ -19,9 +19,11 @@ package org.jclouds.http.okhttp;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.net.HttpHeaders.ACCEPT;
 import static com.google.common.net.HttpHeaders.USER_AGENT;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
 import static org.jclouds.Constants.PROPERTY_USER_AGENT;
 import static org.jclouds.http.HttpUtils.filterOutContentHeaders;
+import static org.jclouds.http.HttpUtils.releasePayload;
 import static org.jclouds.io.Payloads.newInputStreamPayload;
 
 import java.io.IOException;
@@ -33,6 +35,8 @@ import jakarta.inject.Named;
 import javax.net.ssl.SSLSocketFactory;
 
 import okhttp3.Authenticator;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.Credentials;
 import okhttp3.internal.http.HttpMethod;
 import okhttp3.Headers;
@@ -64,6 +68,8 @@ import org.jclouds.proxy.internal.GuiceProxyConfig;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableMultimap.Builder;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.inject.Inject;
 
 
@@ -179,6 +185,48 @@ public final class OkHttpCommandExecutorService extends BaseHttpCommandExecutorS
 
    @Override
    protected HttpResponse invoke(Request nativeRequest) throws IOException, InterruptedException {
+      return toHttpResponse(newCall(nativeRequest).execute());
+   }
+
+   /**
+    * Enqueues the call on the client's dispatcher, so no caller thread is held while the request is in flight.
+    * Cancelling the returned future cancels the call.
+    */
+   @Override
+   protected ListenableFuture<HttpResponse> invokeAsync(Request nativeRequest) {
+      final SettableFuture<HttpResponse> result = SettableFuture.create();
+      final Call call = newCall(nativeRequest);
+      result.addListener(new Runnable() {
+         @Override
+         public void run() {
+            if (result.isCancelled())
+               call.cancel();
+         }
+      }, directExecutor());
+      call.enqueue(new Callback() {
+         @Override
+         public void onResponse(Call call, Response response) {
+            HttpResponse httpResponse;
+            try {
+               httpResponse = toHttpResponse(response);
+            } catch (RuntimeException e) {
+               response.close();
+               result.setException(e);
+               return;
+            }
+            if (!result.set(httpResponse))
+               releasePayload(httpResponse);
+         }
+
+         @Override
+         public void onFailure(Call call, IOException e) {
+            result.setException(e);
+         }
+      });
+      return result;
+   }
+
+   private Call newCall(Request nativeRequest) {
 	   
 	  OkHttpClient.Builder okHttpClientBuilder = globalClient.newBuilder()
 				.proxy(proxyForURI.apply(nativeRequest.url().uri()));
@@ -203,9 +251,10 @@ public final class OkHttpCommandExecutorService extends BaseHttpCommandExecutorS
 			okHttpClientBuilder.socketFactory(new DelegatingSocketFactory(SSLSocketFactory.getDefault()));
 		}
 	  OkHttpClient requestScopedClient = okHttpClientBuilder.build();
-	  
-      Response response = requestScopedClient.newCall(nativeRequest).execute();
+      return requestScopedClient.newCall(nativeRequest);
+   }
 
+   private HttpResponse toHttpResponse(Response response) {
       HttpResponse.Builder<?> builder = HttpResponse.builder();
       builder.statusCode(response.code());
       builder.message(response.message());
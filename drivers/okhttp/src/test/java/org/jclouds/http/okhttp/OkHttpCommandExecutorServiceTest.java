@@ -22,11 +22,18 @@ import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static org.jclouds.util.Closeables2.closeQuietly;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
@@ -39,17 +46,28 @@ import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 
+import org.jclouds.http.AsyncHttpCommandExecutorService;
 import org.jclouds.http.BaseHttpCommandExecutorServiceIntegrationTest;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.IntegrationTestClient;
 import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
 import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
+import org.jclouds.lifecycle.Closer;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.PATCH;
 import org.jclouds.rest.binders.BindToStringPayload;
+import org.jclouds.util.Strings2;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
 import com.google.inject.Module;
 
 
@@ -232,6 +250,47 @@ public class OkHttpCommandExecutorServiceTest extends BaseHttpCommandExecutorSer
       }
    }
 
+   @Test
+   public void testCancellingInvokeAsyncCancelsTheCall() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody("slow").setHeadersDelay(5, TimeUnit.SECONDS),
+            new MockResponse().setBody("fast"));
+      Injector injector = injector(IntegrationTestClient.class, server.url("/").toString());
+      ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+      try {
+         AsyncHttpCommandExecutorService http = AsyncHttpCommandExecutorService.class.cast(injector
+               .getInstance(HttpCommandExecutorService.class));
+         OkHttpClient client = injector.getInstance(OkHttpClient.class);
+         ListenableFuture<HttpResponse> slow = Futures.withTimeout(http.invokeAsync(command(server)), 200,
+               TimeUnit.MILLISECONDS, timer);
+         try {
+            slow.get(10, TimeUnit.SECONDS);
+            fail("expected timeout");
+         } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException, e.getCause().toString());
+         }
+         // the timed out call leaves the dispatcher instead of waiting for the slow response
+         long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+         while (client.dispatcher().runningCallsCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+         }
+         assertEquals(client.dispatcher().runningCallsCount(), 0);
+
+         HttpResponse response = http.invokeAsync(command(server)).get(10, TimeUnit.SECONDS);
+         assertEquals(Strings2.toStringAndClose(response.getPayload().openStream()), "fast");
+         // the consumed response hands its connection back to the pool
+         assertEquals(client.connectionPool().idleConnectionCount(), client.connectionPool().connectionCount());
+         assertEquals(server.getRequestCount(), 2);
+      } finally {
+         timer.shutdownNow();
+         injector.getInstance(Closer.class).close();
+         server.shutdown();
+      }
+   }
+
+   private static HttpCommand command(MockWebServer server) {
+      return new HttpCommand(HttpRequest.builder().method("GET").endpoint(server.url("/").toString()).build());
+   }
+
    protected static MockWebServer mockWebServer(MockResponse... responses) throws IOException {
       MockWebServer server = new MockWebServer();
       server.start(null, 0);
@@ -23,6 +23,8 @@ import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.toArray;
 import static com.google.common.collect.Iterables.transform;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import jakarta.inject.Named;
@@ -34,7 +36,10 @@ import org.jclouds.aws.ec2.domain.AWSRunningInstance;
 import org.jclouds.aws.ec2.domain.SpotInstanceRequest;
 import org.jclouds.aws.ec2.functions.SpotInstanceRequestToAWSRunningInstance;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.functions.GroupNamingConvention;
 import org.jclouds.ec2.compute.strategy.EC2ListNodesStrategy;
+import org.jclouds.ec2.domain.InstanceState;
 import org.jclouds.ec2.domain.RunningInstance;
 import org.jclouds.location.Region;
 
@@ -54,25 +59,31 @@ public class AWSEC2ListNodesStrategy extends EC2ListNodesStrategy {
    protected AWSEC2ListNodesStrategy(AWSEC2Api client, @Region Supplier<Set<String>> regions,
             Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata,
             @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            Map<InstanceState, Status> instanceToNodeStatus, GroupNamingConvention.Factory namingConvention,
             SpotInstanceRequestToAWSRunningInstance spotConverter) {
-      super(client, regions, runningInstanceToNodeMetadata, userExecutor);
+      super(client, regions, runningInstanceToNodeMetadata, userExecutor, instanceToNodeStatus, namingConvention);
       this.client = checkNotNull(client, "client");
       this.spotConverter = checkNotNull(spotConverter, "spotConverter");
    }
 
+   /**
+    * Spot instance requests are not filtered server-side; the predicate is
+    * applied to them after conversion.
+    */
    @Override
-   protected Iterable<? extends RunningInstance> pollRunningInstances() {
-      Iterable<? extends AWSRunningInstance> spots = filter(transform(concat(transform(regions.get(),
-                                                                                       allSpotInstancesInRegion())),
+   protected Iterable<? extends RunningInstance> pollRunningInstancesMatching(
+            List<Multimap<String, String>> filters) {
+      Iterable<? extends AWSRunningInstance> spots = filter(transform(concat(inEachRegion(regions.get(),
+                                                                                          allSpotInstancesInRegion())),
                                                                       spotConverter), notNull());
 
-      return concat(super.pollRunningInstances(), spots);
+      return concat(super.pollRunningInstancesMatching(filters), spots);
    }
 
    @Override
    protected Iterable<? extends RunningInstance> pollRunningInstancesByRegionsAndIds(final Multimap<String, String> idsByRegions) {
-      Iterable<? extends AWSRunningInstance> spots = filter(transform(concat(transform(idsByRegions.keySet(),
-                                                                                       spotInstancesByIdInRegion(idsByRegions))),
+      Iterable<? extends AWSRunningInstance> spots = filter(transform(concat(inEachRegion(idsByRegions.keySet(),
+                                                                                          spotInstancesByIdInRegion(idsByRegions))),
 
                                                                       spotConverter), notNull());
       Iterable<? extends RunningInstance> superInsts = super.pollRunningInstancesByRegionsAndIds(idsByRegions);
@@ -74,8 +74,8 @@ public class AzureStorageClientErrorRetryHandler implements HttpRetryHandler {
                AzureStorageError error = utils.parseAzureStorageErrorFromContent(command, response,
                         new ByteArrayInputStream(content));
                if ("ContainerBeingDeleted".equals(error.getCode())) {
-                  backoffHandler.imposeBackoffExponentialDelay(100L, 3, retryCountLimit, command
-                           .getFailureCount(), command.toString());
+                  command.setRetryDelay(backoffHandler.calculateBackoffExponentialDelay(100L, 3, retryCountLimit,
+                           command.getFailureCount(), command.toString()));
                   return true;
                }
             } catch (HttpException e) {
@@ -19,7 +19,6 @@ package org.jclouds.azureblob.blobstore;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.azure.storage.options.ListOptions.Builder.includeMetadata;
 
-import java.io.InputStream;
 import java.net.URI;
 import java.util.Date;
 import java.util.EnumSet;
@@ -513,9 +512,4 @@ public class AzureBlobStore extends BaseBlobStore {
    public int getMaximumNumberOfParts() {
       return 50 * 1000;
    }
-
-   @Override
-   public InputStream streamBlob(String container, String name) {
-      throw new UnsupportedOperationException("Azure does not support streaming a blob");
-   }
 }
@@ -19,6 +19,7 @@ package org.jclouds.azurecompute.arm;
 import static org.jclouds.Constants.PROPERTY_MAX_RATE_LIMIT_WAIT;
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
 import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.API_VERSION_PREFIX;
+import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.CATALOG_CONCURRENCY;
 import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.DEFAULT_SUBNET_ADDRESS_PREFIX;
 import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.DEFAULT_VNET_ADDRESS_SPACE_PREFIX;
 import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.IMAGE_PUBLISHERS;
@@ -107,6 +108,7 @@ public class AzureComputeProviderMetadata extends BaseProviderMetadata {
       properties.put(RESOURCENAME_PREFIX, "jclouds");
       properties.put(RESOURCENAME_DELIMITER, "-");
       properties.put(IMAGE_PUBLISHERS, "Canonical,RedHat");
+      properties.put(CATALOG_CONCURRENCY, 8);
       // Default credentials for all images, Azure doesn't accept root, admin; generate the password on the fly
       properties.put(IMAGE_LOGIN_USER, "jclouds");
       // Azure allows for passwordless sudo only when using a public key to login to the machine
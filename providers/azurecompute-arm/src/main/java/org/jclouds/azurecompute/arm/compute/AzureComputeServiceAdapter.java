@@ -49,7 +49,9 @@ import org.jclouds.azurecompute.arm.compute.domain.ResourceGroupAndName;
 import org.jclouds.azurecompute.arm.compute.functions.CustomImageToVMImage;
 import org.jclouds.azurecompute.arm.compute.options.AzureTemplateOptions;
 import org.jclouds.azurecompute.arm.compute.options.IpOptions;
+import org.jclouds.azurecompute.arm.compute.strategy.CatalogCrawler;
 import org.jclouds.azurecompute.arm.compute.strategy.CleanupResources;
+import org.jclouds.azurecompute.arm.compute.strategy.NetworkResourceResolver;
 import org.jclouds.azurecompute.arm.domain.AvailabilitySet;
 import org.jclouds.azurecompute.arm.domain.CreationData;
 import org.jclouds.azurecompute.arm.domain.DataDisk;
@@ -67,17 +69,14 @@ import org.jclouds.azurecompute.arm.domain.NetworkProfile.NetworkInterface;
 import org.jclouds.azurecompute.arm.domain.NetworkProfile.NetworkInterface.NetworkInterfaceProperties;
 import org.jclouds.azurecompute.arm.domain.OSDisk;
 import org.jclouds.azurecompute.arm.domain.OSProfile;
-import org.jclouds.azurecompute.arm.domain.Offer;
 import org.jclouds.azurecompute.arm.domain.Plan;
 import org.jclouds.azurecompute.arm.domain.Provisionable;
 import org.jclouds.azurecompute.arm.domain.ResourceGroup;
 import org.jclouds.azurecompute.arm.domain.ResourceProviderMetaData;
-import org.jclouds.azurecompute.arm.domain.SKU;
 import org.jclouds.azurecompute.arm.domain.StorageAccountType;
 import org.jclouds.azurecompute.arm.domain.StorageProfile;
 import org.jclouds.azurecompute.arm.domain.VMHardware;
 import org.jclouds.azurecompute.arm.domain.VMImage;
-import org.jclouds.azurecompute.arm.domain.VMSize;
 import org.jclouds.azurecompute.arm.domain.Version;
 import org.jclouds.azurecompute.arm.domain.VirtualMachine;
 import org.jclouds.azurecompute.arm.domain.VirtualMachineProperties;
@@ -127,13 +126,16 @@ public class AzureComputeServiceAdapter implements ComputeServiceAdapter<Virtual
    private final PublicIpAvailablePredicateFactory publicIpAvailable;
    private final CustomImageToVMImage customImagetoVmImage;
    private final GroupNamingConvention namingConvention;
+   private final CatalogCrawler catalogCrawler;
+   private final NetworkResourceResolver networkResources;
    private Predicate<Supplier<Provisionable>> resourceAvailable;
 
    @Inject
    AzureComputeServiceAdapter(final AzureComputeApi api, @Named(IMAGE_PUBLISHERS) String imagePublishers,
          CleanupResources cleanupResources, @Region Supplier<Set<String>> regionIds,
          PublicIpAvailablePredicateFactory publicIpAvailable, CustomImageToVMImage customImagetoVmImage,
-         GroupNamingConvention.Factory namingConvention, Predicate<Supplier<Provisionable>> resourceAvailable) {
+         GroupNamingConvention.Factory namingConvention, Predicate<Supplier<Provisionable>> resourceAvailable,
+         CatalogCrawler catalogCrawler, NetworkResourceResolver networkResources) {
       this.api = api;
       this.imagePublishers = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(imagePublishers);
       this.cleanupResources = cleanupResources;
@@ -142,6 +144,8 @@ public class AzureComputeServiceAdapter implements ComputeServiceAdapter<Virtual
       this.customImagetoVmImage = customImagetoVmImage;
       this.namingConvention = namingConvention.create();
       this.resourceAvailable = resourceAvailable;
+      this.catalogCrawler = catalogCrawler;
+      this.networkResources = networkResources;
    }
 
    @Override
@@ -185,49 +189,9 @@ public class AzureComputeServiceAdapter implements ComputeServiceAdapter<Virtual
 
    @Override
    public Iterable<VMHardware> listHardwareProfiles() {
-      final List<VMHardware> hwProfiles = Lists.newArrayList();
-      for (Location location : listLocations()) {
-         Iterable<VMSize> vmSizes = api.getVMSizeApi(location.name()).list();
-         for (VMSize vmSize : vmSizes) {
-            VMHardware hwProfile = VMHardware
-                    .create(vmSize.name(), vmSize.numberOfCores(), vmSize.osDiskSizeInMB(),
-                            vmSize.resourceDiskSizeInMB(), vmSize.memoryInMB(), vmSize.maxDataDiskCount(), location.name());
-            hwProfiles.add(hwProfile);
-         }
-      }
-      return hwProfiles;
+      return catalogCrawler.listHardwareProfiles(listLocationNames());
    }
 
-   private List<VMImage> getImagesFromPublisher(String publisherName, String location) {
-      List<VMImage> osImagesRef = Lists.newArrayList();
-      OSImageApi osImageApi = api.getOSImageApi(location);
-      Iterable<Offer> offerList = osImageApi.listOffers(publisherName);
-
-      for (Offer offer : offerList) {
-         Iterable<SKU> skuList = osImageApi.listSKUs(publisherName, offer.name());
-
-         for (SKU sku : skuList) {
-            Iterable<Version> versionList = osImageApi.listVersions(publisherName, offer.name(), sku.name());
-            for (Version version : versionList) {
-               Version versionDetails = osImageApi.getVersion(publisherName, offer.name(), sku.name(), version.name());
-               VMImage vmImage = VMImage.azureImage().publisher(publisherName).offer(offer.name()).sku(sku.name())
-                       .version(versionDetails.name()).location(location).versionProperties(versionDetails.properties())
-                       .build();
-               osImagesRef.add(vmImage);
-            }
-         }
-      }
-      return osImagesRef;
-   }
-
-   private List<VMImage> listImagesByLocation(String location) {
-      final List<VMImage> osImages = Lists.newArrayList();
-      for (String publisher : imagePublishers) {
-         osImages.addAll(getImagesFromPublisher(publisher, location));
-      }
-      return osImages;
-   }
-   
    private List<VMImage> listCustomImagesByResourceGroup(String resourceGroup) {
       List<org.jclouds.azurecompute.arm.domain.Image> customImgs = api.getVirtualMachineImageApi(resourceGroup).list();
       return ImmutableList.copyOf(transform(
@@ -242,18 +206,8 @@ public class AzureComputeServiceAdapter implements ComputeServiceAdapter<Virtual
    @Override
    public Iterable<VMImage> listImages() {
       final ImmutableList.Builder<VMImage> osImages = ImmutableList.builder();
-      
-      final List<String> availableLocationNames = newArrayList(transform(listLocations(),
-            new Function<Location, String>() {
-               @Override
-               public String apply(Location location) {
-                  return location.name();
-               }
-            }));
 
-      for (String locationName : availableLocationNames) {
-         osImages.addAll(listImagesByLocation(locationName));
-      }
+      osImages.addAll(catalogCrawler.listImages(listLocationNames(), imagePublishers));
 
       // We need to look for custom images in all resource groups
       for (ResourceGroup resourceGroup : api.getResourceGroupApi().list()) {
@@ -263,6 +217,15 @@ public class AzureComputeServiceAdapter implements ComputeServiceAdapter<Virtual
       return osImages.build();
    }
 
+   private List<String> listLocationNames() {
+      return newArrayList(transform(listLocations(), new Function<Location, String>() {
+         @Override
+         public String apply(Location location) {
+            return location.name();
+         }
+      }));
+   }
+
    @Override
    public VMImage getImage(final String id) {
       VMImage image = VMImage.decodeFieldsFromUniqueId(id);
@@ -358,7 +321,10 @@ public class AzureComputeServiceAdapter implements ComputeServiceAdapter<Virtual
             nodes.addAll(api.getVirtualMachineApi(null).listByLocation(location));
          }
       }
-      return nodes.build();
+      List<VirtualMachine> virtualMachines = nodes.build();
+      // converting them to nodes looks up their network resources in bulk
+      networkResources.register(virtualMachines);
+      return virtualMachines;
    }
 
    @Override
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.arm.compute.strategy;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.CATALOG_CONCURRENCY;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import jakarta.annotation.Resource;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.azurecompute.arm.AzureComputeApi;
+import org.jclouds.azurecompute.arm.domain.Offer;
+import org.jclouds.azurecompute.arm.domain.SKU;
+import org.jclouds.azurecompute.arm.domain.VMHardware;
+import org.jclouds.azurecompute.arm.domain.VMImage;
+import org.jclouds.azurecompute.arm.domain.VMSize;
+import org.jclouds.azurecompute.arm.domain.Version;
+import org.jclouds.azurecompute.arm.features.OSImageApi;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Walks the marketplace image catalog and the VM sizes of each location.
+ * <p>
+ * Each location, or location and publisher for images, is a unit of work, and
+ * at most {@link org.jclouds.azurecompute.arm.config.AzureComputeProperties#CATALOG_CONCURRENCY}
+ * of them run at once so the crawl stays within the ARM request limits.
+ * <p>
+ * The details of each image version never change, so they are kept between
+ * crawls. A refresh still lists the offers, SKUs and versions, but only gets the
+ * details of versions it has not seen before.
+ */
+@Singleton
+public class CatalogCrawler {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final AzureComputeApi api;
+   private final ListeningExecutorService userExecutor;
+   private final int concurrency;
+   private final ConcurrentMap<String, VMImage> versions = Maps.newConcurrentMap();
+
+   @Inject
+   CatalogCrawler(AzureComputeApi api, @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(CATALOG_CONCURRENCY) int concurrency) {
+      this.api = api;
+      this.userExecutor = userExecutor;
+      this.concurrency = Math.max(1, concurrency);
+   }
+
+   public List<VMImage> listImages(Iterable<String> locations, Iterable<String> publishers) {
+      final Set<String> seen = Sets.newConcurrentHashSet();
+      ImmutableList.Builder<Callable<List<VMImage>>> work = ImmutableList.builder();
+      for (final String location : locations) {
+         for (final String publisher : publishers) {
+            work.add(new Callable<List<VMImage>>() {
+               @Override
+               public List<VMImage> call() {
+                  return listImages(location, publisher, seen);
+               }
+            });
+         }
+      }
+      List<VMImage> images = crawl(work.build());
+      // forget versions that are no longer published
+      versions.keySet().retainAll(seen);
+      return images;
+   }
+
+   public List<VMHardware> listHardwareProfiles(Iterable<String> locations) {
+      ImmutableList.Builder<Callable<List<VMHardware>>> work = ImmutableList.builder();
+      for (final String location : locations) {
+         work.add(new Callable<List<VMHardware>>() {
+            @Override
+            public List<VMHardware> call() {
+               ImmutableList.Builder<VMHardware> hwProfiles = ImmutableList.builder();
+               for (VMSize vmSize : api.getVMSizeApi(location).list()) {
+                  hwProfiles.add(VMHardware.create(vmSize.name(), vmSize.numberOfCores(), vmSize.osDiskSizeInMB(),
+                        vmSize.resourceDiskSizeInMB(), vmSize.memoryInMB(), vmSize.maxDataDiskCount(), location));
+               }
+               return hwProfiles.build();
+            }
+         });
+      }
+      return crawl(work.build());
+   }
+
+   private List<VMImage> listImages(String location, String publisher, Set<String> seen) {
+      ImmutableList.Builder<VMImage> images = ImmutableList.builder();
+      OSImageApi osImageApi = api.getOSImageApi(location);
+      int fetched = 0;
+      for (Offer offer : osImageApi.listOffers(publisher)) {
+         for (SKU sku : osImageApi.listSKUs(publisher, offer.name())) {
+            for (Version version : osImageApi.listVersions(publisher, offer.name(), sku.name())) {
+               String key = Joiner.on('/').join(location, publisher, offer.name(), sku.name(), version.name());
+               seen.add(key);
+               VMImage image = versions.get(key);
+               if (image == null) {
+                  Version versionDetails = osImageApi.getVersion(publisher, offer.name(), sku.name(), version.name());
+                  image = VMImage.azureImage().publisher(publisher).offer(offer.name()).sku(sku.name())
+                        .version(versionDetails.name()).location(location)
+                        .versionProperties(versionDetails.properties()).build();
+                  versions.put(key, image);
+                  fetched++;
+               }
+               images.add(image);
+            }
+         }
+      }
+      logger.debug("<< crawled images of %s in %s, fetching %d new versions", publisher, location, fetched);
+      return images.build();
+   }
+
+   /**
+    * Runs the work on a fixed number of workers and concatenates the results in
+    * the order of the work, rethrowing the first failure.
+    */
+   private <T> List<T> crawl(final List<Callable<List<T>>> work) {
+      final AtomicReferenceArray<List<T>> results = new AtomicReferenceArray<List<T>>(work.size());
+      final AtomicInteger next = new AtomicInteger();
+      ImmutableList.Builder<ListenableFuture<?>> workers = ImmutableList.builder();
+      for (int i = 0; i < Math.min(concurrency, work.size()); i++) {
+         workers.add(userExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               for (int item = next.getAndIncrement(); item < work.size(); item = next.getAndIncrement()) {
+                  results.set(item, work.get(item).call());
+               }
+               return null;
+            }
+         }));
+      }
+      try {
+         getUnchecked(allAsList(workers.build()));
+      } catch (UncheckedExecutionException e) {
+         throwIfUnchecked(e.getCause());
+         throw e;
+      }
+      ImmutableList.Builder<T> all = ImmutableList.builder();
+      for (int i = 0; i < results.length(); i++) {
+         all.addAll(results.get(i));
+      }
+      return all.build();
+   }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.arm.compute.strategy;
+
+import static org.jclouds.azurecompute.arm.domain.IdReference.extractName;
+import static org.jclouds.azurecompute.arm.domain.IdReference.extractResourceGroup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import jakarta.annotation.Resource;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.jclouds.azurecompute.arm.AzureComputeApi;
+import org.jclouds.azurecompute.arm.domain.IdReference;
+import org.jclouds.azurecompute.arm.domain.NetworkInterfaceCard;
+import org.jclouds.azurecompute.arm.domain.VirtualMachine;
+import org.jclouds.azurecompute.arm.domain.publicipaddress.PublicIPAddress;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Function;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Resolves the network interfaces and public IPs of virtual machines.
+ * <p>
+ * The virtual machines of a listing can be {@link #register registered}
+ * together. Their conversions then share a snapshot where the NICs and public
+ * IPs of each resource group are listed once, instead of being fetched one by
+ * one. Resources missing from the snapshot, and those of virtual machines that
+ * were not registered, are fetched individually. The snapshot is dropped once
+ * the listed virtual machines are no longer referenced.
+ */
+@Singleton
+public class NetworkResourceResolver {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final AzureComputeApi api;
+   private final Cache<VirtualMachine, Snapshot> listings = CacheBuilder.newBuilder().weakKeys().build();
+
+   @Inject
+   NetworkResourceResolver(AzureComputeApi api) {
+      this.api = api;
+   }
+
+   public void register(Iterable<VirtualMachine> virtualMachines) {
+      Snapshot snapshot = new Snapshot();
+      for (VirtualMachine virtualMachine : virtualMachines) {
+         listings.put(virtualMachine, snapshot);
+      }
+   }
+
+   public NetworkInterfaceCard getNetworkInterfaceCard(VirtualMachine virtualMachine, String nicId) {
+      Snapshot snapshot = listings.getIfPresent(virtualMachine);
+      String resourceGroup = extractResourceGroup(nicId);
+      if (snapshot != null && resourceGroup != null) {
+         NetworkInterfaceCard nic = listed(snapshot.nics, resourceGroup).get(key(nicId));
+         if (nic != null) {
+            return nic;
+         }
+      }
+      return api.getNetworkInterfaceCardApi(extractResourceGroup(nicId)).get(extractName(nicId));
+   }
+
+   public PublicIPAddress getPublicIPAddress(VirtualMachine virtualMachine, IdReference publicIpId) {
+      Snapshot snapshot = listings.getIfPresent(virtualMachine);
+      if (snapshot != null && publicIpId.resourceGroup() != null) {
+         PublicIPAddress publicIp = listed(snapshot.publicIps, publicIpId.resourceGroup()).get(key(publicIpId.id()));
+         if (publicIp != null) {
+            return publicIp;
+         }
+      }
+      return api.getPublicIPAddressApi(publicIpId.resourceGroup()).get(publicIpId.name());
+   }
+
+   /**
+    * Returns the resources of the snapshot listed for the resource group. If
+    * the listing fails the resources are fetched one by one instead, and the
+    * failure is remembered so the other virtual machines of the listing do not
+    * list the resource group again.
+    */
+   private <T> Map<String, T> listed(LoadingCache<String, Map<String, T>> snapshot, String resourceGroup) {
+      try {
+         return snapshot.getUnchecked(key(resourceGroup));
+      } catch (UncheckedExecutionException e) {
+         logger.warn(e.getCause(), "<< could not list the resources of %s, looking them up one by one",
+               resourceGroup);
+         Map<String, T> none = ImmutableMap.of();
+         snapshot.put(key(resourceGroup), none);
+         return none;
+      }
+   }
+
+   /**
+    * Resource ids are case insensitive, and ARM does not always return them in
+    * the case they were created with.
+    */
+   private static String key(String id) {
+      return id.toLowerCase(Locale.ROOT);
+   }
+
+   private static <T> Map<String, T> index(List<T> resources, Function<T, String> id) {
+      if (resources == null) {
+         return ImmutableMap.of();
+      }
+      Map<String, T> byId = Maps.newHashMapWithExpectedSize(resources.size());
+      for (T resource : resources) {
+         byId.put(key(id.apply(resource)), resource);
+      }
+      return byId;
+   }
+
+   private final class Snapshot {
+      private final LoadingCache<String, Map<String, NetworkInterfaceCard>> nics = CacheBuilder.newBuilder().build(
+            new CacheLoader<String, Map<String, NetworkInterfaceCard>>() {
+               @Override
+               public Map<String, NetworkInterfaceCard> load(String resourceGroup) {
+                  logger.trace(">> listing network interfaces in %s", resourceGroup);
+                  return index(api.getNetworkInterfaceCardApi(resourceGroup).list(),
+                        new Function<NetworkInterfaceCard, String>() {
+                           @Override
+                           public String apply(NetworkInterfaceCard input) {
+                              return input.id();
+                           }
+                        });
+               }
+            });
+
+      private final LoadingCache<String, Map<String, PublicIPAddress>> publicIps = CacheBuilder.newBuilder().build(
+            new CacheLoader<String, Map<String, PublicIPAddress>>() {
+               @Override
+               public Map<String, PublicIPAddress> load(String resourceGroup) {
+                  logger.trace(">> listing public ip addresses in %s", resourceGroup);
+                  return index(api.getPublicIPAddressApi(resourceGroup).list(),
+                        new Function<PublicIPAddress, String>() {
+                           @Override
+                           public String apply(PublicIPAddress input) {
+                              return input.id();
+                           }
+                        });
+               }
+            });
+   }
+}
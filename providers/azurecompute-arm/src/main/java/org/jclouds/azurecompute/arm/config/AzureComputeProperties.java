@@ -26,6 +26,12 @@ public class AzureComputeProperties {
    
    public static final String IMAGE_PUBLISHERS = "jclouds.azurecompute.arm.publishers";
 
+   /**
+    * Maximum number of locations, or location and publisher pairs, whose images
+    * and VM sizes are listed at the same time.
+    */
+   public static final String CATALOG_CONCURRENCY = "jclouds.azurecompute.arm.catalog.concurrency";
+
    public static final String TIMEOUT_RESOURCE_DELETED = "jclouds.azurecompute.arm.timeout.resourcedeleted";
 
    public static final String DEFAULT_VNET_ADDRESS_SPACE_PREFIX = "jclouds.azurecompute.arm.vnet.addressprefix";
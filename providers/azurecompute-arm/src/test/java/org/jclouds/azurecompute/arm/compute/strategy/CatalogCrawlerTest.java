@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.arm.compute.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+
+import org.jclouds.azurecompute.arm.AzureComputeApi;
+import org.jclouds.azurecompute.arm.domain.Offer;
+import org.jclouds.azurecompute.arm.domain.SKU;
+import org.jclouds.azurecompute.arm.domain.VMImage;
+import org.jclouds.azurecompute.arm.domain.Version;
+import org.jclouds.azurecompute.arm.features.OSImageApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "CatalogCrawlerTest")
+public class CatalogCrawlerTest {
+
+   public void testOnlyNewVersionsAreFetchedOnRefresh() {
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+      OSImageApi osImageApi = createMock(OSImageApi.class);
+
+      expect(api.getOSImageApi("westus")).andReturn(osImageApi).times(2);
+      expect(osImageApi.listOffers("Canonical")).andReturn(ImmutableList.of(Offer.create("westus", "UbuntuServer",
+            "offer"))).times(2);
+      expect(osImageApi.listSKUs("Canonical", "UbuntuServer")).andReturn(ImmutableList.of(SKU.create("westus",
+            "22.04-LTS", "sku", null))).times(2);
+      expect(osImageApi.listVersions("Canonical", "UbuntuServer", "22.04-LTS")).andReturn(
+            ImmutableList.of(version("1.0"))).andReturn(ImmutableList.of(version("1.0"), version("2.0")));
+      // each version is fetched once
+      expect(osImageApi.getVersion("Canonical", "UbuntuServer", "22.04-LTS", "1.0")).andReturn(version("1.0"));
+      expect(osImageApi.getVersion("Canonical", "UbuntuServer", "22.04-LTS", "2.0")).andReturn(version("2.0"));
+      replay(api, osImageApi);
+
+      CatalogCrawler crawler = new CatalogCrawler(api, MoreExecutors.newDirectExecutorService(), 4);
+      List<String> locations = ImmutableList.of("westus");
+      List<String> publishers = ImmutableList.of("Canonical");
+
+      assertEquals(versions(crawler.listImages(locations, publishers)), ImmutableList.of("1.0"));
+      assertEquals(versions(crawler.listImages(locations, publishers)), ImmutableList.of("1.0", "2.0"));
+
+      verify(api, osImageApi);
+   }
+
+   public void testImagesAreReturnedInLocationAndPublisherOrder() {
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+      OSImageApi westus = createMock(OSImageApi.class);
+      OSImageApi eastus = createMock(OSImageApi.class);
+
+      expect(api.getOSImageApi("westus")).andReturn(westus);
+      expect(api.getOSImageApi("eastus")).andReturn(eastus);
+      expect(westus.listOffers("Canonical")).andReturn(ImmutableList.of(Offer.create("westus", "UbuntuServer",
+            "offer")));
+      expect(eastus.listOffers("Canonical")).andReturn(ImmutableList.of(Offer.create("eastus", "UbuntuServer",
+            "offer")));
+      expect(westus.listSKUs("Canonical", "UbuntuServer")).andReturn(ImmutableList.<SKU> of());
+      expect(eastus.listSKUs("Canonical", "UbuntuServer")).andReturn(ImmutableList.of(SKU.create("eastus",
+            "22.04-LTS", "sku", null)));
+      expect(eastus.listVersions("Canonical", "UbuntuServer", "22.04-LTS")).andReturn(
+            ImmutableList.of(version("1.0")));
+      expect(eastus.getVersion("Canonical", "UbuntuServer", "22.04-LTS", "1.0")).andReturn(version("1.0"));
+      replay(api, westus, eastus);
+
+      CatalogCrawler crawler = new CatalogCrawler(api, MoreExecutors.newDirectExecutorService(), 1);
+      List<VMImage> images = crawler.listImages(ImmutableList.of("westus", "eastus"), ImmutableList.of("Canonical"));
+
+      assertEquals(images.size(), 1);
+      assertEquals(images.get(0).location(), "eastus");
+      verify(api, westus, eastus);
+   }
+
+   private static Version version(String name) {
+      return Version.create("westus", name, "id", null);
+   }
+
+   private static List<String> versions(List<VMImage> images) {
+      ImmutableList.Builder<String> versions = ImmutableList.builder();
+      for (VMImage image : images) {
+         versions.add(image.version());
+      }
+      return versions.build();
+   }
+}
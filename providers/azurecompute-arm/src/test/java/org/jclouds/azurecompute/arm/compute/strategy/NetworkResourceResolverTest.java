@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.arm.compute.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertSame;
+
+import org.jclouds.azurecompute.arm.AzureComputeApi;
+import org.jclouds.azurecompute.arm.domain.NetworkInterfaceCard;
+import org.jclouds.azurecompute.arm.domain.VirtualMachine;
+import org.jclouds.azurecompute.arm.features.NetworkInterfaceCardApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+@Test(groups = "unit", testName = "NetworkResourceResolverTest")
+public class NetworkResourceResolverTest {
+
+   private static final String NIC_ID = "/subscriptions/s/resourceGroups/rg/providers/Microsoft.Network/networkInterfaces/";
+
+   public void testListedVirtualMachinesShareOneListingPerResourceGroup() {
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+      NetworkInterfaceCardApi nicApi = createMock(NetworkInterfaceCardApi.class);
+      NetworkInterfaceCard nic1 = nic("nic1");
+      NetworkInterfaceCard nic2 = nic("nic2");
+
+      expect(api.getNetworkInterfaceCardApi("rg")).andReturn(nicApi);
+      expect(nicApi.list()).andReturn(ImmutableList.of(nic1, nic2));
+      replay(api, nicApi);
+
+      VirtualMachine vm1 = createMock(VirtualMachine.class);
+      VirtualMachine vm2 = createMock(VirtualMachine.class);
+      NetworkResourceResolver resolver = new NetworkResourceResolver(api);
+      resolver.register(ImmutableList.of(vm1, vm2));
+
+      assertSame(resolver.getNetworkInterfaceCard(vm1, NIC_ID + "nic1"), nic1);
+      // ids are compared ignoring case
+      assertSame(resolver.getNetworkInterfaceCard(vm2, NIC_ID.toUpperCase() + "NIC2"), nic2);
+
+      verify(api, nicApi);
+   }
+
+   public void testMissesAndUnlistedVirtualMachinesAreLookedUp() {
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+      NetworkInterfaceCardApi nicApi = createMock(NetworkInterfaceCardApi.class);
+      NetworkInterfaceCard nic1 = nic("nic1");
+      NetworkInterfaceCard nic2 = nic("nic2");
+
+      expect(api.getNetworkInterfaceCardApi("rg")).andReturn(nicApi).times(3);
+      expect(nicApi.list()).andReturn(ImmutableList.of(nic1));
+      expect(nicApi.get("nic2")).andReturn(nic2);
+      expect(nicApi.get("nic1")).andReturn(nic1);
+      replay(api, nicApi);
+
+      VirtualMachine listed = createMock(VirtualMachine.class);
+      NetworkResourceResolver resolver = new NetworkResourceResolver(api);
+      resolver.register(ImmutableList.of(listed));
+
+      assertSame(resolver.getNetworkInterfaceCard(listed, NIC_ID + "nic2"), nic2);
+      assertSame(resolver.getNetworkInterfaceCard(createMock(VirtualMachine.class), NIC_ID + "nic1"), nic1);
+
+      verify(api, nicApi);
+   }
+
+   public void testFailedListingFallsBackToLookups() {
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+      NetworkInterfaceCardApi nicApi = createMock(NetworkInterfaceCardApi.class);
+      NetworkInterfaceCard nic1 = nic("nic1");
+      NetworkInterfaceCard nic2 = nic("nic2");
+
+      expect(api.getNetworkInterfaceCardApi("rg")).andReturn(nicApi).times(3);
+      expect(nicApi.list()).andThrow(new IllegalStateException("listing failed"));
+      expect(nicApi.get("nic1")).andReturn(nic1);
+      expect(nicApi.get("nic2")).andReturn(nic2);
+      replay(api, nicApi);
+
+      VirtualMachine vm1 = createMock(VirtualMachine.class);
+      VirtualMachine vm2 = createMock(VirtualMachine.class);
+      NetworkResourceResolver resolver = new NetworkResourceResolver(api);
+      resolver.register(ImmutableList.of(vm1, vm2));
+
+      assertSame(resolver.getNetworkInterfaceCard(vm1, NIC_ID + "nic1"), nic1);
+      // the failed listing is not attempted again
+      assertSame(resolver.getNetworkInterfaceCard(vm2, NIC_ID + "nic2"), nic2);
+
+      verify(api, nicApi);
+   }
+
+   private static NetworkInterfaceCard nic(String name) {
+      return NetworkInterfaceCard.create(name, NIC_ID + name, null, "westus", null, null);
+   }
+}
@@ -77,6 +77,7 @@ import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadSlicer;
 import org.jclouds.io.payloads.BaseMutableContentMetadata;
 
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
@@ -93,15 +94,20 @@ public final class B2BlobStore extends BaseBlobStore {
    private final BlobToHttpGetOptions blob2ObjectGetOptions;
    private final LoadingCache<String, Bucket> bucketNameToBucket;
    private final Supplier<Authorization> auth;
+   private final UploadUrlPool<UploadUrlResponse> uploadUrls;
+   private final UploadUrlPool<GetUploadPartResponse> uploadPartUrls;
 
    @Inject
    B2BlobStore(BlobStoreContext context, BlobUtils blobUtils, Supplier<Location> defaultLocation,
             @Memoized Supplier<Set<? extends Location>> locations, PayloadSlicer slicer, final B2Api api,
-            BlobToHttpGetOptions blob2ObjectGetOptions, @Memoized Supplier<Authorization> auth) {
+            BlobToHttpGetOptions blob2ObjectGetOptions, @Memoized Supplier<Authorization> auth,
+            UploadUrlPool<UploadUrlResponse> uploadUrls, UploadUrlPool<GetUploadPartResponse> uploadPartUrls) {
       super(context, blobUtils, defaultLocation, locations, slicer);
       this.api = api;
       this.blob2ObjectGetOptions = blob2ObjectGetOptions;
       this.auth = auth;
+      this.uploadUrls = uploadUrls;
+      this.uploadPartUrls = uploadPartUrls;
       this.bucketNameToBucket = CacheBuilder.newBuilder()
             .expireAfterWrite(5, TimeUnit.MINUTES)
             .build(new CacheLoader<String, Bucket>() {
@@ -234,14 +240,21 @@ public final class B2BlobStore extends BaseBlobStore {
       if (options.isMultipart() && contentLength >= auth.get().recommendedPartSize()) {
          return putMultipartBlob(container, blob, options);
       } else {
-         String name = blob.getMetadata().getName();
+         final String name = blob.getMetadata().getName();
 
          // B2 versions all files so we store the original fileId to delete it after the upload succeeds
          String oldFileId = getFileId(container, name);
 
          Bucket bucket = getBucket(container);
-         UploadUrlResponse uploadUrl = api.getObjectApi().getUploadUrl(bucket.bucketId());
-         UploadFileResponse uploadFile = api.getObjectApi().uploadFile(uploadUrl, name, null, blob.getMetadata().getUserMetadata(), blob.getPayload());
+         final Map<String, String> userMetadata = blob.getMetadata().getUserMetadata();
+         final Payload payload = blob.getPayload();
+         UploadFileResponse uploadFile = uploadUrls.upload(bucket.bucketId(), payload,
+               new Function<UploadUrlResponse, UploadFileResponse>() {
+                  @Override
+                  public UploadFileResponse apply(UploadUrlResponse uploadUrl) {
+                     return api.getObjectApi().uploadFile(uploadUrl, name, null, userMetadata, payload);
+                  }
+               });
 
          if (oldFileId != null) {
             api.getObjectApi().deleteFileVersion(name, oldFileId);
@@ -346,6 +359,7 @@ public final class B2BlobStore extends BaseBlobStore {
 
    @Override
    public void abortMultipartUpload(MultipartUpload mpu) {
+      uploadPartUrls.invalidate(mpu.id());
       api.getMultipartApi().cancelLargeFile(mpu.id());
    }
 
@@ -355,14 +369,20 @@ public final class B2BlobStore extends BaseBlobStore {
       for (MultipartPart part : parts) {
          sha1.add(part.partETag());
       }
+      uploadPartUrls.invalidate(mpu.id());
       B2Object b2Object = api.getMultipartApi().finishLargeFile(mpu.id(), sha1.build());
       return b2Object.contentSha1();  // this is always "none"
    }
 
    @Override
-   public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
-      GetUploadPartResponse getUploadPart = api.getMultipartApi().getUploadPartUrl(mpu.id());
-      UploadPartResponse uploadPart = api.getMultipartApi().uploadPart(getUploadPart, partNumber, null, payload);
+   public MultipartPart uploadMultipartPart(MultipartUpload mpu, final int partNumber, final Payload payload) {
+      UploadPartResponse uploadPart = uploadPartUrls.upload(mpu.id(), payload,
+            new Function<GetUploadPartResponse, UploadPartResponse>() {
+               @Override
+               public UploadPartResponse apply(GetUploadPartResponse getUploadPart) {
+                  return api.getMultipartApi().uploadPart(getUploadPart, partNumber, null, payload);
+               }
+            });
 
       Date lastModified = null;  // B2 does not return Last-Modified
       String contentSha1 = uploadPart.contentSha1();
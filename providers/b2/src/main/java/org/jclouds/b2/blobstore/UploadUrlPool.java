@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.b2.blobstore;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import java.net.URI;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.Payload;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Pool of B2 upload URLs keyed by bucket id or large file id. B2 allows only one upload at a time per URL, so each
+ * caller leases a URL, returns it after a successful upload and evicts it when B2 signals that the URL is no longer
+ * usable; evicted URLs are replaced asynchronously so the next upload does not pay for another round-trip. An upload
+ * URL and its token are valid for 24 hours, so URLs are dropped once they are older than {@link #MAX_AGE_HOURS}.
+ * <p>
+ * The pool is shared with {@link org.jclouds.b2.filters.B2RetryHandler}, which {@linkplain #replace replaces} the URL
+ * of an upload that B2 asks to retry elsewhere. Releasing the URL the upload started with then releases or evicts its
+ * replacement instead.
+ */
+public final class UploadUrlPool<T> {
+   static final long MAX_AGE_HOURS = 23;
+
+   private static final class Lease<T> {
+      final String key;
+      final T url;
+
+      Lease(String key, T url) {
+         this.key = key;
+         this.url = url;
+      }
+   }
+
+   private final Function<String, T> loader;
+   private final Function<T, URI> toEndpoint;
+   private final Executor executor;
+   private final ConcurrentMap<String, Queue<T>> idle = new ConcurrentHashMap<String, Queue<T>>();
+   /** URLs fetched less than the maximum age ago; anything missing here must not be handed out again. */
+   private final Cache<T, Boolean> fresh;
+   /** URLs currently in use by an upload, by endpoint. */
+   private final Cache<URI, Lease<T>> leased;
+   /** URLs the retry handler switched an upload to, keyed by the URL they replaced. */
+   private final Cache<T, T> replacements;
+
+   public UploadUrlPool(Function<String, T> loader, Function<T, URI> toEndpoint, Executor executor) {
+      this(loader, toEndpoint, executor, Ticker.systemTicker());
+   }
+
+   @VisibleForTesting
+   UploadUrlPool(Function<String, T> loader, Function<T, URI> toEndpoint, Executor executor, Ticker ticker) {
+      this.loader = checkNotNull(loader, "loader");
+      this.toEndpoint = checkNotNull(toEndpoint, "toEndpoint");
+      this.executor = checkNotNull(executor, "executor");
+      this.fresh = CacheBuilder.newBuilder()
+            .ticker(checkNotNull(ticker, "ticker"))
+            .expireAfterWrite(MAX_AGE_HOURS, TimeUnit.HOURS)
+            .build();
+      // entries are removed when the upload finishes; expiry only bounds leases that are never returned
+      this.leased = CacheBuilder.newBuilder()
+            .ticker(ticker)
+            .expireAfterWrite(MAX_AGE_HOURS, TimeUnit.HOURS)
+            .build();
+      this.replacements = CacheBuilder.newBuilder()
+            .ticker(ticker)
+            .expireAfterWrite(MAX_AGE_HOURS, TimeUnit.HOURS)
+            .build();
+   }
+
+   /** Returns an idle URL for the key or fetches a new one if all are in use or have expired. */
+   T lease(String key) {
+      Queue<T> queue = queue(key);
+      for (T url = queue.poll(); url != null; url = queue.poll()) {
+         if (isFresh(url)) {
+            return track(key, url);
+         }
+      }
+      return track(key, fetch(key));
+   }
+
+   /** Returns a URL after a successful upload so that other callers can reuse it. */
+   void release(String key, T url) {
+      url = untrack(url);
+      if (isFresh(url)) {
+         queue(key).offer(url);
+      }
+   }
+
+   /**
+    * Retires the leased URL with the given endpoint and leases another URL for the same key in its place. Returns
+    * {@code null} if no URL with that endpoint is leased from this pool.
+    */
+   public T replace(URI endpoint) {
+      Lease<T> lease = leased.asMap().remove(endpoint);
+      if (lease == null) {
+         return null;
+      }
+      fresh.invalidate(lease.url);
+      T replacement = lease(lease.key);
+      replacements.put(lease.url, replacement);
+      return replacement;
+   }
+
+   /**
+    * Runs an upload with a leased URL and returns the URL to the pool depending on how the upload finished. An upload
+    * rejected with 401 is sent once more with a newly fetched URL if its payload can be replayed.
+    */
+   <R> R upload(String key, Payload payload, Function<T, R> upload) {
+      try {
+         return uploadAndRelease(key, lease(key), upload);
+      } catch (RuntimeException re) {
+         if (!payload.isRepeatable() || !isUnauthorized(re)) {
+            throw re;
+         }
+      }
+      return uploadAndRelease(key, track(key, fetch(key)), upload);
+   }
+
+   /** Forgets all URLs for the key, e.g., after a large file is finished or cancelled. */
+   void invalidate(String key) {
+      Queue<T> queue = idle.remove(key);
+      if (queue != null) {
+         fresh.invalidateAll(queue);
+      }
+   }
+
+   /**
+    * Returns a URL to the pool or evicts it depending on how the upload finished. B2 requires clients to get a new
+    * URL after a 401 (expired token), 408 or 503 (busy storage pod) and after connection failures.
+    */
+   void releaseAfterFailure(String key, T url, Throwable failure) {
+      if (shouldEvict(failure)) {
+         evict(key, untrack(url));
+      } else {
+         release(key, url);
+      }
+   }
+
+   static boolean shouldEvict(Throwable failure) {
+      HttpResponseException hre = getFirstThrowableOfType(failure, HttpResponseException.class);
+      if (hre == null || hre.getResponse() == null) {
+         return true;
+      }
+      switch (hre.getResponse().getStatusCode()) {
+      case 401:
+      case 408:
+      case 503:
+         return true;
+      default:
+         return false;
+      }
+   }
+
+   static boolean isUnauthorized(Throwable failure) {
+      HttpResponseException hre = getFirstThrowableOfType(failure, HttpResponseException.class);
+      return hre != null && hre.getResponse() != null && hre.getResponse().getStatusCode() == 401;
+   }
+
+   /** Drops a URL that failed and fetches a replacement in the background. */
+   private void evict(final String key, T url) {
+      fresh.invalidate(url);
+      try {
+         executor.execute(new Runnable() {
+            @Override
+            public void run() {
+               T url = fetch(key);
+               Queue<T> queue = idle.get(key);
+               if (queue != null) {
+                  queue.offer(url);
+               }
+            }
+         });
+      } catch (RejectedExecutionException ree) {
+         // the next lease will fetch a URL synchronously
+      }
+   }
+
+   private <R> R uploadAndRelease(String key, T url, Function<T, R> upload) {
+      R result;
+      try {
+         result = upload.apply(url);
+      } catch (RuntimeException re) {
+         releaseAfterFailure(key, url, re);
+         throw re;
+      }
+      release(key, url);
+      return result;
+   }
+
+   private T fetch(String key) {
+      T url = loader.apply(key);
+      fresh.put(url, Boolean.TRUE);
+      return url;
+   }
+
+   private T track(String key, T url) {
+      leased.put(toEndpoint.apply(url), new Lease<T>(key, url));
+      return url;
+   }
+
+   /** Ends the lease of a URL and returns the URL the upload finished with, which differs if it was replaced. */
+   private T untrack(T url) {
+      T replacement = replacements.asMap().remove(url);
+      while (replacement != null) {
+         url = replacement;
+         replacement = replacements.asMap().remove(url);
+      }
+      leased.invalidate(toEndpoint.apply(url));
+      return url;
+   }
+
+   private boolean isFresh(T url) {
+      return fresh.getIfPresent(url) != null;
+   }
+
+   private Queue<T> queue(String key) {
+      Queue<T> queue = idle.get(key);
+      if (queue == null) {
+         Queue<T> created = new ConcurrentLinkedQueue<T>();
+         queue = idle.putIfAbsent(key, created);
+         if (queue == null) {
+            queue = created;
+         }
+      }
+      return queue;
+   }
+}
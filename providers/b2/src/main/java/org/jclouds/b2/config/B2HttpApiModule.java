@@ -16,6 +16,7 @@
  */
 package org.jclouds.b2.config;
 
+import java.net.URI;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -25,7 +26,10 @@ import jakarta.inject.Singleton;
 import org.jclouds.Constants;
 import org.jclouds.collect.Memoized;
 import org.jclouds.b2.B2Api;
+import org.jclouds.b2.blobstore.UploadUrlPool;
 import org.jclouds.b2.domain.Authorization;
+import org.jclouds.b2.domain.GetUploadPartResponse;
+import org.jclouds.b2.domain.UploadUrlResponse;
 import org.jclouds.b2.filters.B2RetryHandler;
 import org.jclouds.b2.filters.RequestAuthorization;
 import org.jclouds.b2.handlers.ParseB2ErrorFromJsonContent;
@@ -39,7 +43,9 @@ import org.jclouds.rest.ConfiguresHttpApi;
 import org.jclouds.rest.config.HttpApiModule;
 import org.jclouds.rest.suppliers.MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier;
 
+import com.google.common.base.Function;
 import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 
@@ -85,4 +91,38 @@ public final class B2HttpApiModule extends HttpApiModule<B2Api> {
       return MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(
             authException, uncached, seconds, TimeUnit.SECONDS);
    }
+
+   @Provides
+   @Singleton
+   static UploadUrlPool<UploadUrlResponse> provideUploadUrlPool(final B2Api api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      return new UploadUrlPool<UploadUrlResponse>(new Function<String, UploadUrlResponse>() {
+               @Override
+               public UploadUrlResponse apply(String bucketId) {
+                  return api.getObjectApi().getUploadUrl(bucketId);
+               }
+            }, new Function<UploadUrlResponse, URI>() {
+               @Override
+               public URI apply(UploadUrlResponse uploadUrl) {
+                  return uploadUrl.uploadUrl();
+               }
+            }, userExecutor);
+   }
+
+   @Provides
+   @Singleton
+   static UploadUrlPool<GetUploadPartResponse> provideUploadPartUrlPool(final B2Api api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      return new UploadUrlPool<GetUploadPartResponse>(new Function<String, GetUploadPartResponse>() {
+               @Override
+               public GetUploadPartResponse apply(String fileId) {
+                  return api.getMultipartApi().getUploadPartUrl(fileId);
+               }
+            }, new Function<GetUploadPartResponse, URI>() {
+               @Override
+               public URI apply(GetUploadPartResponse uploadUrl) {
+                  return uploadUrl.uploadUrl();
+               }
+            }, userExecutor);
+   }
 }
@@ -19,10 +19,13 @@ package org.jclouds.b2.filters;
 import static org.jclouds.http.HttpUtils.closeClientButKeepContentStream;
 import static org.jclouds.http.HttpUtils.releasePayload;
 
+import java.net.URI;
+
 import jakarta.annotation.Resource;
 import jakarta.inject.Inject;
 
 import org.jclouds.b2.B2Api;
+import org.jclouds.b2.blobstore.UploadUrlPool;
 import org.jclouds.b2.domain.GetUploadPartResponse;
 import org.jclouds.b2.domain.UploadUrlResponse;
 import org.jclouds.http.HttpCommand;
@@ -39,29 +42,43 @@ import com.google.inject.Singleton;
 @Singleton
 public final class B2RetryHandler extends BackoffLimitedRetryHandler implements HttpRequestFilter {
    private final B2Api api;
+   private final UploadUrlPool<UploadUrlResponse> uploadUrls;
+   private final UploadUrlPool<GetUploadPartResponse> uploadPartUrls;
 
    @Resource
    private Logger logger = Logger.NULL;
 
    @Inject
-   B2RetryHandler(B2Api api) {
+   B2RetryHandler(B2Api api, UploadUrlPool<UploadUrlResponse> uploadUrls,
+         UploadUrlPool<GetUploadPartResponse> uploadPartUrls) {
       this.api = api;
+      this.uploadUrls = uploadUrls;
+      this.uploadPartUrls = uploadPartUrls;
    }
 
+   /**
+    * Moves an upload to another upload URL. URLs leased from the pools are swapped for another pooled URL, so the
+    * failed URL is not handed out again and the caller returns the replacement when it releases its lease.
+    */
    @Override
    public HttpRequest filter(HttpRequest request) throws HttpException {
       HttpRequest.Builder<?> builder = request.toBuilder();
 
       // B2 requires retrying on a different storage node for uploads
-      String path = request.getEndpoint().getPath();
+      URI endpoint = request.getEndpoint();
+      String path = endpoint.getPath();
       if (path.startsWith("/b2api/v2/b2_upload_file")) {
-         String bucketId = path.split("/")[4];
-         UploadUrlResponse uploadUrl = api.getObjectApi().getUploadUrl(bucketId);
+         UploadUrlResponse uploadUrl = uploadUrls.replace(endpoint);
+         if (uploadUrl == null) {
+            uploadUrl = api.getObjectApi().getUploadUrl(path.split("/")[4]);
+         }
          builder.endpoint(uploadUrl.uploadUrl())
                .replaceHeader(HttpHeaders.AUTHORIZATION, uploadUrl.authorizationToken());
       } else if (path.startsWith("/b2api/v2/b2_upload_part")) {
-         String fileId = path.split("/")[4];
-         GetUploadPartResponse uploadUrl = api.getMultipartApi().getUploadPartUrl(fileId);
+         GetUploadPartResponse uploadUrl = uploadPartUrls.replace(endpoint);
+         if (uploadUrl == null) {
+            uploadUrl = api.getMultipartApi().getUploadPartUrl(path.split("/")[4]);
+         }
          builder.endpoint(uploadUrl.uploadUrl())
                .replaceHeader(HttpHeaders.AUTHORIZATION, uploadUrl.authorizationToken());
       }
@@ -78,6 +95,9 @@ public final class B2RetryHandler extends BackoffLimitedRetryHandler implements
          case 500:
          case 503:
             retry = super.shouldRetryRequest(command, response);
+            if (retry) {
+               command.setCurrentRequest(filter(command.getCurrentRequest()));
+            }
             break;
          default:
             break;
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.b2.blobstore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "UploadUrlPoolTest")
+public final class UploadUrlPoolTest {
+   private static final Function<String, URI> ENDPOINT = new Function<String, URI>() {
+      @Override
+      public URI apply(String url) {
+         return endpoint(url);
+      }
+   };
+
+   private static URI endpoint(String url) {
+      return URI.create("https://pod-000-1000-00.backblaze.com/b2api/v2/b2_upload_file/" + url);
+   }
+
+   private static final class CountingLoader implements Function<String, String> {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public String apply(String key) {
+         return key + "-" + count.incrementAndGet();
+      }
+   }
+
+   private static final class ManualTicker extends Ticker {
+      private long nanos;
+
+      @Override
+      public long read() {
+         return nanos;
+      }
+
+      void advance(long duration, TimeUnit unit) {
+         nanos += unit.toNanos(duration);
+      }
+   }
+
+   /** Fails the first upload with the given status and records the URL of every attempt. */
+   private static final class FailingOnce implements Function<String, String> {
+      private final int statusCode;
+      private final List<String> urls = Lists.newArrayList();
+
+      FailingOnce(int statusCode) {
+         this.statusCode = statusCode;
+      }
+
+      @Override
+      public String apply(String url) {
+         urls.add(url);
+         if (urls.size() == 1) {
+            throw failure(statusCode);
+         }
+         return "uploaded with " + url;
+      }
+   }
+
+   private static HttpResponseException failure(int statusCode) {
+      return new HttpResponseException("failed", null,
+            HttpResponse.builder().statusCode(statusCode).build());
+   }
+
+   public void testLeaseReusesReleasedUrl() {
+      CountingLoader loader = new CountingLoader();
+      UploadUrlPool<String> pool = new UploadUrlPool<String>(loader, ENDPOINT, MoreExecutors.directExecutor());
+
+      String url = pool.lease("bucket");
+      pool.release("bucket", url);
+
+      assertThat(pool.lease("bucket")).isEqualTo(url);
+      assertThat(loader.count.get()).isEqualTo(1);
+   }
+
+   public void testConcurrentLeasesGetDistinctUrls() {
+      CountingLoader loader = new CountingLoader();
+      UploadUrlPool<String> pool = new UploadUrlPool<String>(loader, ENDPOINT, MoreExecutors.directExecutor());
+
+      assertThat(pool.lease("bucket")).isNotEqualTo(pool.lease("bucket"));
+      assertThat(loader.count.get()).isEqualTo(2);
+   }
+
+   public void testEvictRefillsPool() {
+      CountingLoader loader = new CountingLoader();
+      UploadUrlPool<String> pool = new UploadUrlPool<String>(loader, ENDPOINT, MoreExecutors.directExecutor());
+
+      String url = pool.lease("bucket");
+      pool.releaseAfterFailure("bucket", url, failure(503));
+
+      assertThat(pool.lease("bucket")).isEqualTo("bucket-2");
+      assertThat(loader.count.get()).isEqualTo(2);
+   }
+
+   public void testClientErrorReleasesUrl() {
+      CountingLoader loader = new CountingLoader();
+      UploadUrlPool<String> pool = new UploadUrlPool<String>(loader, ENDPOINT, MoreExecutors.directExecutor());
+
+      String url = pool.lease("bucket");
+      pool.releaseAfterFailure("bucket", url, new IllegalArgumentException(failure(400)));
+
+      assertThat(pool.lease("bucket")).isEqualTo(url);
+   }
+
+   public void testInvalidateDropsUrls() {
+      CountingLoader loader = new CountingLoader();
+      UploadUrlPool<String> pool = new UploadUrlPool<String>(loader, ENDPOINT, MoreExecutors.directExecutor());
+
+      pool.release("file", pool.lease("file"));
+      pool.invalidate("file");
+
+      assertThat(pool.lease("file")).isEqualTo("file-2");
+   }
+
+   public void testShouldEvict() {
+      assertThat(UploadUrlPool.shouldEvict(failure(401))).isTrue();
+      assertThat(UploadUrlPool.shouldEvict(failure(408))).isTrue();
+      assertThat(UploadUrlPool.shouldEvict(failure(503))).isTrue();
+      assertThat(UploadUrlPool.shouldEvict(new RuntimeException("connection reset"))).isTrue();
+      assertThat(UploadUrlPool.shouldEvict(failure(400))).isFalse();
+   }
+
+   public void testExpiredUrlIsNotLeased() {
+      CountingLoader loader = new CountingLoader();
+      ManualTicker ticker = new ManualTicker();
+      UploadUrlPool<String> pool = new UploadUrlPool<String>(loader, ENDPOINT, MoreExecutors.directExecutor(), ticker);
+
+      pool.release("bucket", pool.lease("bucket"));
+      ticker.advance(UploadUrlPool.MAX_AGE_HOURS, TimeUnit.HOURS);
+
+      assertThat(pool.lease("bucket")).isEqualTo("bucket-2");
+   }
+
+   public void testExpiredUrlIsNotReleased() {
+      CountingLoader loader = new CountingLoader();
+      ManualTicker ticker = new ManualTicker();
+      UploadUrlPool<String> pool = new UploadUrlPool<String>(loader, ENDPOINT, MoreExecutors.directExecutor(), ticker);
+
+      String url = pool.lease("bucket");
+      ticker.advance(UploadUrlPool.MAX_AGE_HOURS, TimeUnit.HOURS);
+      pool.release("bucket", url);
+
+      assertThat(pool.lease("bucket")).isEqualTo("bucket-2");
+   }
+
+   public void testUnauthorizedUploadIsRetriedWithNewUrl() {
+      CountingLoader loader = new CountingLoader();
+      UploadUrlPool<String> pool = new UploadUrlPool<String>(loader, ENDPOINT, MoreExecutors.directExecutor());
+      FailingOnce upload = new FailingOnce(401);
+
+      assertThat(pool.upload("bucket", Payloads.newStringPayload("data"), upload)).isEqualTo("uploaded with bucket-3");
+      // bucket-2 replaced the rejected URL in the background, bucket-3 was fetched for the retry
+      assertThat(upload.urls).containsExactly("bucket-1", "bucket-3");
+      assertThat(loader.count.get()).isEqualTo(3);
+   }
+
+   public void testUnauthorizedUploadIsNotRetriedWithoutRepeatablePayload() {
+      CountingLoader loader = new CountingLoader();
+      UploadUrlPool<String> pool = new UploadUrlPool<String>(loader, ENDPOINT, MoreExecutors.directExecutor());
+      FailingOnce upload = new FailingOnce(401);
+      Payload payload = Payloads.newInputStreamPayload(new ByteArrayInputStream(new byte[1]));
+
+      try {
+         pool.upload("bucket", payload, upload);
+         fail("expected HttpResponseException");
+      } catch (HttpResponseException expected) {
+         assertThat(expected.getResponse().getStatusCode()).isEqualTo(401);
+      }
+      assertThat(upload.urls).containsExactly("bucket-1");
+   }
+
+   public void testOtherFailuresAreNotRetried() {
+      CountingLoader loader = new CountingLoader();
+      UploadUrlPool<String> pool = new UploadUrlPool<String>(loader, ENDPOINT, MoreExecutors.directExecutor());
+      FailingOnce upload = new FailingOnce(400);
+
+      try {
+         pool.upload("bucket", Payloads.newStringPayload("data"), upload);
+         fail("expected HttpResponseException");
+      } catch (HttpResponseException expected) {
+         assertThat(expected.getResponse().getStatusCode()).isEqualTo(400);
+      }
+      assertThat(upload.urls).containsExactly("bucket-1");
+      assertThat(pool.lease("bucket")).isEqualTo("bucket-1");
+   }
+
+   public void testReleaseAfterReplaceReturnsReplacement() {
+      CountingLoader loader = new CountingLoader();
+      UploadUrlPool<String> pool = new UploadUrlPool<String>(loader, ENDPOINT, MoreExecutors.directExecutor());
+
+      String url = pool.lease("bucket");
+      assertThat(pool.replace(endpoint(url))).isEqualTo("bucket-2");
+      pool.release("bucket", url);
+
+      assertThat(pool.lease("bucket")).isEqualTo("bucket-2");
+      assertThat(pool.lease("bucket")).isEqualTo("bucket-3");
+   }
+
+   public void testFailureAfterReplaceEvictsReplacement() {
+      CountingLoader loader = new CountingLoader();
+      UploadUrlPool<String> pool = new UploadUrlPool<String>(loader, ENDPOINT, MoreExecutors.directExecutor());
+
+      String url = pool.lease("bucket");
+      pool.replace(endpoint(url));
+      pool.releaseAfterFailure("bucket", url, failure(503));
+
+      assertThat(pool.lease("bucket")).isEqualTo("bucket-3");
+   }
+
+   public void testReplaceIgnoresUrlsNotLeased() {
+      CountingLoader loader = new CountingLoader();
+      UploadUrlPool<String> pool = new UploadUrlPool<String>(loader, ENDPOINT, MoreExecutors.directExecutor());
+
+      pool.release("bucket", pool.lease("bucket"));
+
+      assertThat(pool.replace(endpoint("bucket-1"))).isNull();
+      assertThat(pool.replace(endpoint("elsewhere"))).isNull();
+      assertThat(loader.count.get()).isEqualTo(1);
+   }
+}
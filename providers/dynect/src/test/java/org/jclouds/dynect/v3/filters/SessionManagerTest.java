@@ -20,6 +20,7 @@ import static com.google.common.io.Resources.getResource;
 import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
 import static jakarta.ws.rs.core.Response.Status.FORBIDDEN;
 import static jakarta.ws.rs.core.Response.Status.UNAUTHORIZED;
+import static org.easymock.EasyMock.anyLong;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
@@ -82,6 +83,9 @@ public class SessionManagerTest {
       expect(command.incrementFailureCount()).andReturn(1);
       expect(command.isReplayable()).andReturn(true);
       expect(command.getFailureCount()).andReturn(1).atLeastOnce();
+      expect(command.getLastRetryDelay()).andReturn(0L);
+      command.setRetryDelay(anyLong());
+      expectLastCall();
 
       replay(creds, sessionCache, sessionApi, command);
 
@@ -107,6 +111,9 @@ public class SessionManagerTest {
       expect(command.incrementFailureCount()).andReturn(1);
       expect(command.isReplayable()).andReturn(true);
       expect(command.getFailureCount()).andReturn(1).atLeastOnce();
+      expect(command.getLastRetryDelay()).andReturn(0L);
+      command.setRetryDelay(anyLong());
+      expectLastCall();
 
       replay(creds, sessionCache, sessionApi, command);
 